@@ -0,0 +1,423 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static java.lang.String.format;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import static com.expediagroup.beekeeper.cleanup.aws.S3Client.DELIMITER;
+import static com.expediagroup.beekeeper.cleanup.aws.S3Client.MAX_KEYS_PER_REQUEST;
+import static com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner.pathHasValidTableName;
+import static com.expediagroup.beekeeper.cleanup.aws.S3SentinelFilesCleaner.SENTINEL_SUFFIX;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
+import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
+import com.expediagroup.beekeeper.core.config.FileSystemType;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
+import com.expediagroup.beekeeper.core.monitoring.TimedTaggable;
+
+/**
+ * Deletes S3 paths with the non-blocking client of the AWS SDK v2, composing the listing, deletion and sentinel cleanup
+ * of a path as a chain of futures.
+ *
+ * @implNote Paths are classified, deleted and have their sentinel files removed the same way as by
+ * {@link S3PathCleaner}, but no thread waits on a request: the next page of a directory is listed while the delete
+ * requests of the previous pages are in flight, up to {@code maxDeletesInFlight} per path.
+ */
+public class S3AsyncPathCleaner implements PathCleaner {
+
+  private static final Logger log = LoggerFactory.getLogger(S3AsyncPathCleaner.class);
+
+  private final S3AsyncClient s3AsyncClient;
+  private final BytesDeletedReporter bytesDeletedReporter;
+  private final S3RequestCountReporter s3RequestCountReporter;
+  private final boolean dryRunEnabled;
+  private final int maxDeletesInFlight;
+
+  public S3AsyncPathCleaner(S3AsyncClient s3AsyncClient, BytesDeletedReporter bytesDeletedReporter,
+      S3RequestCountReporter s3RequestCountReporter, boolean dryRunEnabled, int maxDeletesInFlight) {
+    if (maxDeletesInFlight < 1) {
+      throw new BeekeeperException(format("Delete requests in flight must be positive; was %s.", maxDeletesInFlight));
+    }
+    this.s3AsyncClient = s3AsyncClient;
+    this.bytesDeletedReporter = bytesDeletedReporter;
+    this.s3RequestCountReporter = s3RequestCountReporter;
+    this.dryRunEnabled = dryRunEnabled;
+    this.maxDeletesInFlight = maxDeletesInFlight;
+  }
+
+  /**
+   * Deletes the file or directory at the path, waiting for {@link #cleanupPathAsync(HousekeepingEntity)} to complete.
+   */
+  @Override
+  @TimedTaggable("s3-paths-deleted")
+  public void cleanupPath(HousekeepingEntity housekeepingEntity) {
+    try {
+      cleanupPathAsync(housekeepingEntity).join();
+    } catch (CompletionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new BeekeeperException(format("Could not clean up path \"%s\".", housekeepingEntity.getPath()), cause);
+    }
+  }
+
+  /**
+   * Deletes the file or directory at the path along with any sentinel files left empty by the deletion.
+   *
+   * @return A future completing once every request for the path has completed and the bytes deleted and requests sent
+   * have been reported.
+   */
+  public CompletableFuture<Void> cleanupPathAsync(HousekeepingEntity housekeepingEntity) {
+    S3SchemeURI s3SchemeURI = new S3SchemeURI(housekeepingEntity.getPath());
+    String key = s3SchemeURI.getKey();
+    String path = s3SchemeURI.getPath();
+    boolean isDirectoryKey = key.endsWith("/");
+    if (isDirectoryKey) {
+      key = key.substring(0, key.length() - 1);
+    }
+    if (path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+    PathCleanup cleanup = new PathCleanup(s3SchemeURI.getBucket(), key, path, housekeepingEntity.getTableName());
+    return listPath(cleanup, key)
+        .thenCompose(listing -> {
+          if (!isDirectoryKey && listing.isFile()) {
+            return deleteFile(cleanup, listing.getFileSize());
+          }
+          String sentinelKey = listing.hasEmptySentinel() ? cleanup.key + SENTINEL_SUFFIX : null;
+          CompletableFuture<Boolean> directoryDeletion = listing.isDirectory()
+              ? deleteFilesInDirectory(cleanup, sentinelKey)
+              : completedFuture(false);
+          return directoryDeletion
+              .thenCompose(sentinelDeleted -> deleteSentinelFiles(cleanup, sentinelDeleted ? null : sentinelKey,
+                  listing));
+        })
+        .whenComplete((result, e) -> {
+          long bytesDeleted = cleanup.bytesDeleted.get();
+          if (bytesDeleted > 0) {
+            bytesDeletedReporter.reportTaggable(bytesDeleted, housekeepingEntity, FileSystemType.S3);
+          }
+          s3RequestCountReporter.reportTaggable(cleanup.requests.get(), housekeepingEntity);
+        });
+  }
+
+  /**
+   * Classifies {@code key} with a delimited listing of its prefix, requesting further pages only while the listing
+   * has not got past the sentinel file.
+   */
+  private CompletableFuture<S3PathListing> listPath(PathCleanup cleanup, String key) {
+    return listPath(cleanup, key, null, new S3PathListing.Builder(key));
+  }
+
+  private CompletableFuture<S3PathListing> listPath(PathCleanup cleanup, String key, String continuationToken,
+      S3PathListing.Builder listing) {
+    return listObjects(cleanup, key, DELIMITER, continuationToken).thenCompose(response -> {
+      response.contents().forEach(object -> listing.object(object.key(), object.size()));
+      response.commonPrefixes().stream().map(CommonPrefix::prefix).forEach(listing::commonPrefix);
+      if (response.isTruncated() && !listing.isComplete()) {
+        return listPath(cleanup, key, response.nextContinuationToken(), listing);
+      }
+      return completedFuture(listing.build());
+    });
+  }
+
+  private CompletableFuture<Void> deleteFile(PathCleanup cleanup, long fileSize) {
+    return deleteObject(cleanup, cleanup.key).thenRun(() -> cleanup.bytesDeleted.addAndGet(fileSize));
+  }
+
+  /**
+   * Deletes every object under the directory, one listing page at a time.
+   *
+   * @param sentinelKey Sentinel file of the directory, or null if there is none to delete
+   * @return Whether the sentinel file was deleted along with the objects
+   * @implNote The last page is only deleted once every earlier request has completed, and the sentinel file is added
+   * to its request unless a page has failed, so the sentinel is never deleted while part of the directory is left.
+   * Listing stops after the first failed request; the failures are reported once every request sent has completed so
+   * that the bytes deleted are complete when they are reported.
+   */
+  private CompletableFuture<Boolean> deleteFilesInDirectory(PathCleanup cleanup, String sentinelKey) {
+    String prefix = cleanup.key + DELIMITER;
+    DirectoryDeletion deletion = new DirectoryDeletion(new S3DeletionSummary(cleanup.bucket, prefix), sentinelKey);
+    return deletePages(cleanup, prefix, null, deletion)
+        .thenCompose(ignored -> CompletableFuture.allOf(deletion.requests.toArray(new CompletableFuture<?>[0])))
+        .thenApply(ignored -> {
+          cleanup.throwIfFailed();
+          deletion.summary.throwIfIncomplete();
+          return deletion.sentinelDeleted.get();
+        });
+  }
+
+  private CompletableFuture<Void> deletePages(PathCleanup cleanup, String prefix, String continuationToken,
+      DirectoryDeletion deletion) {
+    return listObjects(cleanup, prefix, null, continuationToken).thenCompose(response -> {
+      if (cleanup.hasFailed()) {
+        return completedFuture(null);
+      }
+      if (!response.isTruncated()) {
+        // the earlier batches must all have reported before the last one decides whether to take the sentinel file
+        return CompletableFuture.allOf(deletion.requests.toArray(new CompletableFuture<?>[0]))
+            .thenCompose(ignored -> cleanup.hasFailed()
+                ? completedFuture(null)
+                : sendDeleteBatch(cleanup, response.contents(), true, deletion));
+      }
+      CompletableFuture<Void> request = sendDeleteBatch(cleanup, response.contents(), false, deletion);
+      deletion.inFlight.addLast(request);
+      CompletableFuture<Void> permit = deletion.inFlight.size() < maxDeletesInFlight
+          ? completedFuture(null)
+          : deletion.inFlight.removeFirst();
+      return permit.thenCompose(ignored -> deletePages(cleanup, prefix, response.nextContinuationToken(), deletion));
+    });
+  }
+
+  /**
+   * @return A future which records any failure of the batch and then completes normally.
+   */
+  private CompletableFuture<Void> sendDeleteBatch(PathCleanup cleanup, List<S3Object> objects, boolean lastPage,
+      DirectoryDeletion deletion) {
+    CompletableFuture<Void> request = deleteBatch(cleanup, objects, lastPage, deletion).handle((ignored, e) -> {
+      if (e != null) {
+        cleanup.failed(unwrap(e));
+      }
+      return null;
+    });
+    deletion.requests.add(request);
+    return request;
+  }
+
+  private CompletableFuture<Void> deleteBatch(PathCleanup cleanup, List<S3Object> objects, boolean lastPage,
+      DirectoryDeletion deletion) {
+    List<String> keys = objects.stream().map(S3Object::key).collect(Collectors.toList());
+    String sentinelKey = deletion.sentinelKey;
+    boolean withSentinel = lastPage && sentinelKey != null && deletion.summary.isComplete();
+    List<String> requestKeys = keys;
+    if (withSentinel) {
+      requestKeys = new ArrayList<>(keys);
+      requestKeys.add(sentinelKey);
+    }
+    if (requestKeys.isEmpty()) {
+      return completedFuture(null);
+    }
+    return deleteObjects(cleanup, requestKeys).thenAccept(deletedKeys -> {
+      if (withSentinel && deletedKeys.contains(sentinelKey)) {
+        deletion.sentinelDeleted.set(true);
+        deletedKeys = deletedKeys.stream().filter(k -> !k.equals(sentinelKey)).collect(Collectors.toList());
+      }
+      cleanup.bytesDeleted.addAndGet(bytesDeleted(objects, deletedKeys));
+      deletion.summary.record(keys, deletedKeys);
+    });
+  }
+
+  private long bytesDeleted(List<S3Object> objects, List<String> deletedKeys) {
+    if (deletedKeys.size() == objects.size()) {
+      return objects.stream().mapToLong(S3Object::size).sum();
+    }
+    Set<String> deleted = new HashSet<>(deletedKeys);
+    return objects.stream().filter(object -> deleted.contains(object.key())).mapToLong(S3Object::size).sum();
+  }
+
+  private CompletableFuture<Void> deleteSentinelFiles(PathCleanup cleanup, String sentinelKey, S3PathListing listing) {
+    CompletableFuture<Void> sentinelDeletion = sentinelKey == null
+        ? completedFuture(null)
+        : deleteObject(cleanup, sentinelKey);
+    return sentinelDeletion
+        .thenCompose(ignored -> {
+          // attempt to delete parents if there is at least one parent which the listing has not shown to be in use
+          if (cleanup.key.contains("/") && !listing.hasSiblings()) {
+            return deleteParentSentinelFiles(cleanup, cleanup.key, cleanup.path);
+          }
+          return completedFuture(null);
+        })
+        .exceptionally(e -> {
+          log.warn("Sentinel file(s) could not be deleted", unwrap(e));
+          return null;
+        });
+  }
+
+  private CompletableFuture<Void> deleteParentSentinelFiles(PathCleanup cleanup, String key, String absolutePath) {
+    String parentPath = absolutePath.substring(0, absolutePath.lastIndexOf("/"));
+    String parentKey = key.substring(0, key.lastIndexOf("/"));
+    if (!pathHasValidTableName(parentPath, cleanup.tableName)) {
+      return completedFuture(null);
+    }
+    return listPath(cleanup, parentKey)
+        .thenCompose(parentListing -> isEmpty(cleanup, parentKey, key, parentListing).thenCompose(empty -> {
+          if (!empty) {
+            return completedFuture(null);
+          }
+          CompletableFuture<Void> sentinelDeletion = parentListing.hasEmptySentinel()
+              ? deleteObject(cleanup, parentKey + SENTINEL_SUFFIX)
+              : completedFuture(null);
+          return sentinelDeletion.thenCompose(ignored -> parentKey.contains("/") && !parentListing.hasSiblings()
+              ? deleteParentSentinelFiles(cleanup, parentKey, parentPath)
+              : completedFuture(null));
+        }));
+  }
+
+  /**
+   * Whether the directory is left empty by the deletion of {@code childKey}. Nothing is deleted in dry runs, so the
+   * directory then counts as empty when all it holds belongs to {@code childKey}.
+   */
+  private CompletableFuture<Boolean> isEmpty(PathCleanup cleanup, String key, String childKey, S3PathListing listing) {
+    if (!dryRunEnabled) {
+      return completedFuture(!listing.isDirectory());
+    }
+    String leafPrefix = childKey + DELIMITER;
+    String leafSentinel = childKey + SENTINEL_SUFFIX;
+    return listObjects(cleanup, key + DELIMITER, null, null)
+        .thenApply(response -> response.contents()
+            .stream()
+            .map(S3Object::key)
+            .allMatch(objectKey -> objectKey.startsWith(leafPrefix) || objectKey.equals(leafSentinel)));
+  }
+
+  private CompletableFuture<ListObjectsV2Response> listObjects(PathCleanup cleanup, String prefix, String delimiter,
+      String continuationToken) {
+    ListObjectsV2Request request = ListObjectsV2Request.builder()
+        .bucket(cleanup.bucket)
+        .prefix(prefix)
+        .delimiter(delimiter)
+        .maxKeys(MAX_KEYS_PER_REQUEST)
+        .continuationToken(continuationToken)
+        .build();
+    cleanup.requests.incrementAndGet();
+    return s3AsyncClient.listObjectsV2(request);
+  }
+
+  private CompletableFuture<Void> deleteObject(PathCleanup cleanup, String key) {
+    if (dryRunEnabled) {
+      log.info("Dry run - deleting: \"{}/{}\"", cleanup.bucket, key);
+      return completedFuture(null);
+    }
+    log.info("Deleting: \"{}/{}\"", cleanup.bucket, key);
+    cleanup.requests.incrementAndGet();
+    return s3AsyncClient.deleteObject(DeleteObjectRequest.builder().bucket(cleanup.bucket).key(key).build())
+        .thenApply(response -> null);
+  }
+
+  private CompletableFuture<List<String>> deleteObjects(PathCleanup cleanup, List<String> keys) {
+    if (dryRunEnabled) {
+      keys.forEach(key -> log.info("Dry run - deleting: \"{}/{}\"", cleanup.bucket, key));
+      return completedFuture(keys);
+    }
+    keys.forEach(key -> log.info("Deleting: \"{}/{}\"", cleanup.bucket, key));
+    List<ObjectIdentifier> objects = keys.stream()
+        .map(key -> ObjectIdentifier.builder().key(key).build())
+        .collect(Collectors.toList());
+    DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+        .bucket(cleanup.bucket)
+        .delete(Delete.builder().objects(objects).build())
+        .build();
+    cleanup.requests.incrementAndGet();
+    return s3AsyncClient.deleteObjects(request)
+        .thenApply(response -> response.deleted()
+            .stream()
+            .map(DeletedObject::key)
+            .collect(Collectors.toList()));
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  /**
+   * State of the cleanup of a single path, shared by the stages of its pipeline.
+   */
+  private static class PathCleanup {
+
+    private final String bucket;
+    private final String key;
+    private final String path;
+    private final String tableName;
+    private final AtomicLong bytesDeleted = new AtomicLong();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private PathCleanup(String bucket, String key, String path, String tableName) {
+      this.bucket = bucket;
+      this.key = key;
+      this.path = path;
+      this.tableName = tableName;
+    }
+
+    private void failed(Throwable e) {
+      RuntimeException exception = e instanceof RuntimeException
+          ? (RuntimeException) e
+          : new BeekeeperException(format("Could not delete objects at path \"%s/%s\".", bucket, key), e);
+      if (!failure.compareAndSet(null, exception)) {
+        failure.get().addSuppressed(exception);
+      }
+    }
+
+    private boolean hasFailed() {
+      return failure.get() != null;
+    }
+
+    private void throwIfFailed() {
+      if (failure.get() != null) {
+        throw failure.get();
+      }
+    }
+  }
+
+  /**
+   * Delete requests sent for the pages of a directory.
+   */
+  private static class DirectoryDeletion {
+
+    private final S3DeletionSummary summary;
+    private final String sentinelKey;
+    private final AtomicBoolean sentinelDeleted = new AtomicBoolean(false);
+    private final List<CompletableFuture<Void>> requests = new ArrayList<>();
+    private final Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+
+    private DirectoryDeletion(S3DeletionSummary summary, String sentinelKey) {
+      this.summary = summary;
+      this.sentinelKey = sentinelKey;
+    }
+  }
+}
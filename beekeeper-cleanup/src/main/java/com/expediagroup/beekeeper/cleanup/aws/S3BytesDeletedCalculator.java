@@ -15,46 +15,51 @@
  */
 package com.expediagroup.beekeeper.cleanup.aws;
 
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 
+/**
+ * Adds up the size of the objects deleted under a path. Safe to use from the threads deleting the batches of a path.
+ *
+ * @implNote Sizes are summed per delete batch as each batch is confirmed, so nothing is kept between batches and
+ * memory use does not depend on the number of objects under the path.
+ */
 public class S3BytesDeletedCalculator {
 
-  private S3Client s3Client;
-  private Map<String, Long> keyToSize = new HashMap<>();
-  private long bytesDeleted = 0;
-
-  public S3BytesDeletedCalculator(S3Client s3Client) {
-    this.s3Client = s3Client;
-  }
-
-  public void storeFileSize(String bucket, String key) {
-    long bytes = s3Client.getObjectMetadata(bucket, key).getContentLength();
-    keyToSize.put(key, bytes);
-  }
+  private final AtomicLong bytesDeleted = new AtomicLong();
 
-  public void storeFileSizes(List<S3ObjectSummary> objectSummaries) {
-    objectSummaries.forEach(objectSummary -> {
-      long bytes = objectSummary.getSize();
-      keyToSize.put(objectSummary.getKey(), bytes);
-    });
+  public void fileDeleted(long bytes) {
+    bytesDeleted.addAndGet(bytes);
   }
 
-  public void calculateBytesDeleted(List<String> keysDeleted) {
-    if (!keyToSize.isEmpty()) {
-      keysDeleted.forEach(key -> {
-        if (keyToSize.containsKey(key)) {
-          bytesDeleted += keyToSize.get(key);
+  /**
+   * Adds the size of the objects of a delete batch, less the size of the objects which could not be deleted.
+   *
+   * @param batch Objects sent in the delete request
+   * @param deletedKeys Keys the delete request reported as deleted
+   */
+  public void batchDeleted(List<S3ObjectSummary> batch, List<String> deletedKeys) {
+    long bytes = 0;
+    for (S3ObjectSummary objectSummary : batch) {
+      bytes += objectSummary.getSize();
+    }
+    if (deletedKeys.size() < batch.size()) {
+      Set<String> deleted = new HashSet<>(deletedKeys);
+      for (S3ObjectSummary objectSummary : batch) {
+        if (!deleted.contains(objectSummary.getKey())) {
+          bytes -= objectSummary.getSize();
         }
-      });
+      }
     }
+    bytesDeleted.addAndGet(bytes);
   }
 
   public long getBytesDeleted() {
-    return bytesDeleted;
+    return bytesDeleted.get();
   }
 
 }
@@ -18,6 +18,9 @@ package com.expediagroup.beekeeper.cleanup.aws;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -30,16 +33,47 @@ import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.collect.Lists;
 
 public class S3Client {
 
   private static final Logger log = LoggerFactory.getLogger(S3Client.class);
+  static final int MAX_KEYS_PER_REQUEST = 1000;
+  static final String DELIMITER = "/";
   private final AmazonS3 amazonS3;
   private final boolean dryRunEnabled;
+  private final AtomicInteger requestCount;
 
   public S3Client(AmazonS3 amazonS3, boolean dryRunEnabled) {
+    this(amazonS3, dryRunEnabled, null);
+  }
+
+  private S3Client(AmazonS3 amazonS3, boolean dryRunEnabled, AtomicInteger requestCount) {
     this.amazonS3 = amazonS3;
     this.dryRunEnabled = dryRunEnabled;
+    this.requestCount = requestCount;
+  }
+
+  /**
+   * @return A client sharing this client's connection which counts the requests sent through it separately, so the
+   * requests needed to clean up a single path can be reported.
+   */
+  S3Client withRequestCounter() {
+    return new S3Client(amazonS3, dryRunEnabled, new AtomicInteger());
+  }
+
+  /**
+   * @return Number of requests sent to S3 through this client, which is only counted by clients created with
+   * {@link #withRequestCounter()}.
+   */
+  int getRequestCount() {
+    return requestCount == null ? 0 : requestCount.get();
+  }
+
+  private void countRequest() {
+    if (requestCount != null) {
+      requestCount.incrementAndGet();
+    }
   }
 
   void deleteObject(String bucket, String key) {
@@ -47,12 +81,85 @@ public class S3Client {
       log.info("Dry run - deleting: \"{}/{}\"", bucket, key);
     } else {
       log.info("Deleting \"{}/{}\"", bucket, key);
+      countRequest();
       amazonS3.deleteObject(bucket, key);
     }
   }
 
+  /**
+   * Classifies {@code key} with a delimited listing of its prefix.
+   *
+   * @param bucket
+   * @param key Key without a trailing slash
+   * @return Whether the key is a file and its size, whether it is a directory and whether it has a sentinel file
+   * @implNote Objects directly under the key roll up into the common prefix {@code key/}, so a path holding any number
+   * of objects is normally classified with one request. Further pages are only requested while the listing has not got
+   * past the sentinel file, which sorts after {@code key} and {@code key/}.
+   */
+  S3PathListing listPath(String bucket, String key) {
+    S3PathListing.Builder listing = new S3PathListing.Builder(key);
+    ListObjectsV2Result listObjectsV2Result;
+    String continuationToken = null;
+    do {
+      ListObjectsV2Request request = new ListObjectsV2Request()
+        .withBucketName(bucket)
+        .withPrefix(key)
+        .withDelimiter(DELIMITER)
+        .withEncodingType("url")
+        .withMaxKeys(MAX_KEYS_PER_REQUEST)
+        .withContinuationToken(continuationToken);
+      countRequest();
+      listObjectsV2Result = amazonS3.listObjectsV2(request);
+      listObjectsV2Result.getObjectSummaries()
+          .forEach(objectSummary -> listing.object(objectSummary.getKey(), objectSummary.getSize()));
+      listObjectsV2Result.getCommonPrefixes().forEach(listing::commonPrefix);
+      continuationToken = listObjectsV2Result.getNextContinuationToken();
+    } while (listObjectsV2Result.isTruncated() && !listing.isComplete());
+    return listing.build();
+  }
+
   List<S3ObjectSummary> listObjects(String bucket, String key) {
     List<S3ObjectSummary> objectSummaries = new ArrayList<>();
+    listObjects(bucket, key, objectSummaries::addAll);
+    return objectSummaries;
+  }
+
+  /**
+   * Lists the objects under {@code key} one page at a time, handing each page to {@code pageConsumer} before the next
+   * one is requested, so only one page is held at a time.
+   *
+   * @param bucket
+   * @param key Prefix to list
+   * @param pageConsumer Receives each page of at most {@value #MAX_KEYS_PER_REQUEST} objects
+   */
+  void listObjects(String bucket, String key, Consumer<List<S3ObjectSummary>> pageConsumer) {
+    listObjectPages(bucket, key, (objectSummaries, lastPage) -> pageConsumer.accept(objectSummaries));
+  }
+
+  /**
+   * Same as {@link #listObjects(String, String, Consumer)} but also tells the consumer whether a page is the last one.
+   *
+   * @param bucket
+   * @param key Prefix to list
+   * @param pageConsumer Receives each page of at most {@value #MAX_KEYS_PER_REQUEST} objects and whether it is the
+   * last page
+   */
+  void listObjectPages(String bucket, String key, BiConsumer<List<S3ObjectSummary>, Boolean> pageConsumer) {
+    listObjectPages(bucket, key, null, pageConsumer);
+  }
+
+  /**
+   * Same as {@link #listObjectPages(String, String, BiConsumer)} but only lists the keys which sort after
+   * {@code startAfter}, so a listing can be resumed from a checkpoint.
+   *
+   * @param bucket
+   * @param key Prefix to list
+   * @param startAfter Key after which to start listing, or null to list from the start
+   * @param pageConsumer Receives each page of at most {@value #MAX_KEYS_PER_REQUEST} objects and whether it is the
+   * last page
+   */
+  void listObjectPages(String bucket, String key, String startAfter,
+      BiConsumer<List<S3ObjectSummary>, Boolean> pageConsumer) {
     ListObjectsV2Result listObjectsV2Result;
     String continuationToken = null;
     do {
@@ -60,22 +167,41 @@ public class S3Client {
         .withBucketName(bucket)
         .withPrefix(key)
         .withEncodingType("url")
+        .withMaxKeys(MAX_KEYS_PER_REQUEST)
+        .withStartAfter(continuationToken == null ? startAfter : null)
         .withContinuationToken(continuationToken);
+      countRequest();
       listObjectsV2Result = amazonS3.listObjectsV2(request);
-      objectSummaries.addAll(listObjectsV2Result.getObjectSummaries());
+      pageConsumer.accept(listObjectsV2Result.getObjectSummaries(), !listObjectsV2Result.isTruncated());
       continuationToken = listObjectsV2Result.getNextContinuationToken();
     } while (listObjectsV2Result.isTruncated());
-    return objectSummaries;
   }
 
+  /**
+   * Deletes the given keys, sending at most {@value #MAX_KEYS_PER_REQUEST} keys per request.
+   *
+   * @param bucket
+   * @param keys Keys to delete
+   * @return Keys which were deleted
+   */
   List<String> deleteObjects(String bucket, List<String> keys) {
     if (keys.isEmpty()) {
       return Collections.emptyList();
     }
+    if (keys.size() <= MAX_KEYS_PER_REQUEST) {
+      return deleteObjectsBatch(bucket, keys);
+    }
+    List<String> deletedKeys = new ArrayList<>(keys.size());
+    Lists.partition(keys, MAX_KEYS_PER_REQUEST).forEach(batch -> deletedKeys.addAll(deleteObjectsBatch(bucket, batch)));
+    return deletedKeys;
+  }
+
+  private List<String> deleteObjectsBatch(String bucket, List<String> keys) {
     if (!dryRunEnabled) {
       keys.forEach(key -> log.info("Deleting: \"{}/{}\"", bucket, key));
       DeleteObjectsRequest deleteObjectsRequest = new DeleteObjectsRequest(bucket)
         .withKeys(keys.toArray(new String[]{}));
+      countRequest();
       DeleteObjectsResult deleteObjectsResult = amazonS3.deleteObjects(deleteObjectsRequest);
       return deleteObjectsResult.getDeletedObjects()
           .stream()
@@ -89,14 +215,98 @@ public class S3Client {
   }
 
   boolean doesObjectExist(String bucket, String key) {
+    countRequest();
     return amazonS3.doesObjectExist(bucket, key);
   }
 
   ObjectMetadata getObjectMetadata(String bucket, String key) {
+    countRequest();
     return amazonS3.getObjectMetadata(bucket, key);
   }
 
+  /**
+   * Lists the first page of the objects and directories directly under the directory {@code key}.
+   *
+   * @param bucket
+   * @param key Key of the directory, without a trailing slash
+   * @return Page of at most {@value #MAX_KEYS_PER_REQUEST} objects and common prefixes
+   */
+  ListObjectsV2Result listDirectory(String bucket, String key) {
+    ListObjectsV2Request request = new ListObjectsV2Request()
+      .withBucketName(bucket)
+      .withPrefix(key + DELIMITER)
+      .withDelimiter(DELIMITER)
+      .withEncodingType("url")
+      .withMaxKeys(MAX_KEYS_PER_REQUEST);
+    countRequest();
+    return amazonS3.listObjectsV2(request);
+  }
+
+  /**
+   * Lists every directory directly under the directory {@code key}.
+   *
+   * @param bucket
+   * @param key Key of the directory, without a trailing slash
+   * @return The prefixes of the child directories, each with a trailing slash, in key order
+   */
+  List<String> listChildPrefixes(String bucket, String key) {
+    List<String> childPrefixes = new ArrayList<>();
+    ListObjectsV2Result listObjectsV2Result;
+    String continuationToken = null;
+    do {
+      ListObjectsV2Request request = new ListObjectsV2Request()
+        .withBucketName(bucket)
+        .withPrefix(key + DELIMITER)
+        .withDelimiter(DELIMITER)
+        .withEncodingType("url")
+        .withMaxKeys(MAX_KEYS_PER_REQUEST)
+        .withContinuationToken(continuationToken);
+      countRequest();
+      listObjectsV2Result = amazonS3.listObjectsV2(request);
+      childPrefixes.addAll(listObjectsV2Result.getCommonPrefixes());
+      continuationToken = listObjectsV2Result.getNextContinuationToken();
+    } while (listObjectsV2Result.isTruncated());
+    return childPrefixes;
+  }
+
+  /**
+   * Lists a single delimited page of at most {@code count} entries under the directory {@code key}.
+   *
+   * @param bucket
+   * @param key Key of the directory, without a trailing slash
+   * @param count
+   * @return Whether the first {@code count} entries of the directory are all child directories
+   */
+  boolean hasChildPrefixes(String bucket, String key, int count) {
+    ListObjectsV2Request request = new ListObjectsV2Request()
+      .withBucketName(bucket)
+      .withPrefix(key + DELIMITER)
+      .withDelimiter(DELIMITER)
+      .withEncodingType("url")
+      .withMaxKeys(count);
+    countRequest();
+    return amazonS3.listObjectsV2(request).getCommonPrefixes().size() >= count;
+  }
+
+  /**
+   * Lists a single page of at most {@code maxKeys} objects under the directory {@code key}.
+   *
+   * @param bucket
+   * @param key Key of the directory, without a trailing slash
+   * @param maxKeys
+   * @return Whether the directory holds more than {@code maxKeys} objects
+   */
+  boolean hasMoreObjectsThan(String bucket, String key, int maxKeys) {
+    ListObjectsV2Request request = new ListObjectsV2Request()
+      .withBucketName(bucket)
+      .withPrefix(key + DELIMITER)
+      .withMaxKeys(maxKeys);
+    countRequest();
+    return amazonS3.listObjectsV2(request).isTruncated();
+  }
+
   boolean isEmpty(String bucket, String key, String leafKey) {
+    countRequest();
     List<S3ObjectSummary> objectsLeftAtPath = amazonS3.listObjectsV2(bucket, key + "/").getObjectSummaries();
     if (!dryRunEnabled) {
       return objectsLeftAtPath.size() == 0;
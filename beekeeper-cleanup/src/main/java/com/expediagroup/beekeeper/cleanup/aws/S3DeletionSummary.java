@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+/**
+ * Counts the objects deleted under a path across the delete requests sent for it, keeping only the keys which could
+ * not be deleted.
+ */
+class S3DeletionSummary {
+
+  private final String bucket;
+  private final String key;
+  private final List<String> failedKeys = new ArrayList<>();
+  private int totalObjects = 0;
+  private int deletedObjects = 0;
+
+  S3DeletionSummary(String bucket, String key) {
+    this.bucket = bucket;
+    this.key = key;
+  }
+
+  synchronized void record(List<String> keys, List<String> deletedKeys) {
+    totalObjects += keys.size();
+    deletedObjects += deletedKeys.size();
+    if (deletedKeys.size() != keys.size()) {
+      Set<String> deleted = new HashSet<>(deletedKeys);
+      keys.stream().filter(k -> !deleted.contains(k)).forEach(failedKeys::add);
+    }
+  }
+
+  synchronized boolean isComplete() {
+    return deletedObjects == totalObjects;
+  }
+
+  synchronized void throwIfIncomplete() {
+    if (!isComplete()) {
+      String failedDeletions = failedKeys.stream()
+          .map(k -> format("'%s'", k))
+          .collect(Collectors.joining(", "));
+      throw new BeekeeperException(
+          format("Not all files could be deleted at path \"%s/%s\"; deleted %s/%s objects. Objects not deleted: %s.",
+              bucket, key, deletedObjects, totalObjects, failedDeletions));
+    }
+  }
+}
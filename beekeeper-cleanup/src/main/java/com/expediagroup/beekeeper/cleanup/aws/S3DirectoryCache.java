@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static com.expediagroup.beekeeper.cleanup.aws.S3SentinelFilesCleaner.SENTINEL_SUFFIX;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+/**
+ * Remembers the contents of the parent directories probed while the paths of a page are cleaned up, so that sibling
+ * paths do not list the same parents again to find out whether they are empty.
+ *
+ * @implNote Each directory is listed once and the entries of its children are removed as they are deleted. A
+ * directory is empty once every entry has been removed from a complete listing; when the first listing page was
+ * truncated the directory is listed again once the entries it returned are gone. Deleted keys are also removed in dry
+ * runs, so a page of dry run deletions is simulated consistently. The cache must be cleared at the end of every page
+ * as it does not see objects written by anything else.
+ */
+class S3DirectoryCache {
+
+  private final Map<String, DirectoryContents> directories = new ConcurrentHashMap<>();
+
+  /**
+   * Records that the directory {@code childKey} and its sentinel file have been deleted and checks whether its parent
+   * {@code key} is now empty.
+   *
+   * @param s3Client Client used to list the parent when it is not cached yet
+   * @param bucket
+   * @param key Parent directory, without a trailing slash
+   * @param childKey Deleted child of {@code key}
+   */
+  boolean isEmptyWithout(S3Client s3Client, String bucket, String key, String childKey) {
+    // the directory is listed and replaced atomically, so concurrent siblings never list it twice or lose a removal
+    DirectoryContents contents = directories.compute(id(bucket, key), (id, cached) -> {
+      DirectoryContents directoryContents = cached;
+      if (directoryContents == null) {
+        directoryContents = new DirectoryContents(s3Client.listDirectory(bucket, key));
+      }
+      directoryContents.remove(childKey);
+      if (!directoryContents.isKnownToBeEmpty() && !directoryContents.hasEntries()) {
+        directoryContents = new DirectoryContents(s3Client.listDirectory(bucket, key));
+        directoryContents.remove(childKey);
+      }
+      return directoryContents;
+    });
+    return contents.isKnownToBeEmpty();
+  }
+
+  /**
+   * Checks whether the directory {@code key} has an empty sentinel file, using the cached contents of its parent when
+   * they show the sentinel file.
+   */
+  boolean hasEmptySentinel(S3Client s3Client, String bucket, String key) {
+    int parentEnd = key.lastIndexOf("/");
+    if (parentEnd > 0) {
+      DirectoryContents parentContents = directories.get(id(bucket, key.substring(0, parentEnd)));
+      if (parentContents != null) {
+        Boolean emptySentinel = parentContents.hasEmptySentinel(key);
+        if (emptySentinel != null) {
+          return emptySentinel;
+        }
+      }
+    }
+    return s3Client.listPath(bucket, key).hasEmptySentinel();
+  }
+
+  /**
+   * Forgets the directory {@code key} and everything under it, and removes it and its sentinel file from the cached
+   * contents of its parent.
+   */
+  void deleted(String bucket, String key) {
+    String id = id(bucket, key);
+    directories.keySet().removeIf(directory -> directory.equals(id) || directory.startsWith(id + "/"));
+    int parentEnd = key.lastIndexOf("/");
+    if (parentEnd > 0) {
+      DirectoryContents parentContents = directories.get(id(bucket, key.substring(0, parentEnd)));
+      if (parentContents != null) {
+        parentContents.remove(key);
+      }
+    }
+  }
+
+  void clear() {
+    directories.clear();
+  }
+
+  private String id(String bucket, String key) {
+    return bucket + "/" + key;
+  }
+
+  private static class DirectoryContents {
+
+    private final Set<String> directories = new HashSet<>();
+    private final Map<String, Long> objects = new HashMap<>();
+    private final boolean complete;
+
+    DirectoryContents(ListObjectsV2Result listObjectsV2Result) {
+      directories.addAll(listObjectsV2Result.getCommonPrefixes());
+      for (S3ObjectSummary objectSummary : listObjectsV2Result.getObjectSummaries()) {
+        objects.put(objectSummary.getKey(), objectSummary.getSize());
+      }
+      complete = !listObjectsV2Result.isTruncated();
+    }
+
+    synchronized void remove(String childKey) {
+      directories.remove(childKey + "/");
+      objects.remove(childKey);
+      objects.remove(childKey + SENTINEL_SUFFIX);
+    }
+
+    synchronized boolean hasEntries() {
+      return !directories.isEmpty() || !objects.isEmpty();
+    }
+
+    synchronized boolean isKnownToBeEmpty() {
+      return complete && !hasEntries();
+    }
+
+    /**
+     * @return Whether the child has an empty sentinel file, or null when the listing did not reach it.
+     */
+    synchronized Boolean hasEmptySentinel(String childKey) {
+      Long size = objects.get(childKey + SENTINEL_SUFFIX);
+      if (size != null) {
+        return size == 0L;
+      }
+      return complete ? Boolean.FALSE : null;
+    }
+  }
+}
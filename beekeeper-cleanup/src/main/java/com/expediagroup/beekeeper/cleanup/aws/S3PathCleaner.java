@@ -17,7 +17,17 @@ package com.expediagroup.beekeeper.cleanup.aws;
 
 import static java.lang.String.format;
 
+import static com.expediagroup.beekeeper.cleanup.aws.S3SentinelFilesCleaner.SENTINEL_SUFFIX;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -25,10 +35,12 @@ import org.slf4j.LoggerFactory;
 
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
-import com.expediagroup.beekeeper.cleanup.path.SentinelFilesCleaner;
+import com.expediagroup.beekeeper.core.concurrent.ExecutorSupport;
 import com.expediagroup.beekeeper.core.config.FileSystemType;
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
 import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
@@ -39,102 +51,245 @@ public class S3PathCleaner implements PathCleaner {
   private static final Logger log = LoggerFactory.getLogger(S3PathCleaner.class);
 
   private S3Client s3Client;
-  private SentinelFilesCleaner sentinelFilesCleaner;
   private BytesDeletedReporter bytesDeletedReporter;
+  private S3RequestCountReporter s3RequestCountReporter;
+  private int deleteParallelism;
+  private ExecutorService deleteExecutor;
+  private final S3DirectoryCache directoryCache = new S3DirectoryCache();
+
+  public S3PathCleaner(S3Client s3Client, BytesDeletedReporter bytesDeletedReporter,
+      S3RequestCountReporter s3RequestCountReporter) {
+    this(s3Client, bytesDeletedReporter, s3RequestCountReporter, 1);
+  }
 
-  public S3PathCleaner(S3Client s3Client, SentinelFilesCleaner sentinelFilesCleaner,
-      BytesDeletedReporter bytesDeletedReporter) {
+  /**
+   * @param deleteParallelism Maximum number of delete requests in flight; a value of 1 deletes the batches of a path
+   * one after the other on the calling thread.
+   */
+  public S3PathCleaner(S3Client s3Client, BytesDeletedReporter bytesDeletedReporter,
+      S3RequestCountReporter s3RequestCountReporter, int deleteParallelism) {
+    if (deleteParallelism < 1) {
+      throw new BeekeeperException(format("Delete parallelism must be positive; was %s.", deleteParallelism));
+    }
     this.s3Client = s3Client;
-    this.sentinelFilesCleaner = sentinelFilesCleaner;
     this.bytesDeletedReporter = bytesDeletedReporter;
+    this.s3RequestCountReporter = s3RequestCountReporter;
+    this.deleteParallelism = deleteParallelism;
+    if (deleteParallelism > 1) {
+      this.deleteExecutor = Executors.newFixedThreadPool(deleteParallelism, new ThreadFactoryBuilder()
+          .setNameFormat("s3-delete-%d")
+          .setDaemon(true)
+          .build());
+    }
   }
 
+  /**
+   * Deletes the file or directory at the path along with any sentinel files left empty by the deletion.
+   *
+   * @implNote A single delimited listing of the key tells whether it is a file, a directory or both, gives the file
+   * size and finds the sentinel file, so no HEAD requests are needed. The number of requests sent is reported for
+   * every path.
+   */
   @Override
   @TimedTaggable("s3-paths-deleted")
   public void cleanupPath(HousekeepingEntity housekeepingEntity) {
     S3SchemeURI s3SchemeURI = new S3SchemeURI(housekeepingEntity.getPath());
     String key = s3SchemeURI.getKey();
     String bucket = s3SchemeURI.getBucket();
-    S3BytesDeletedCalculator bytesDeletedCalculator = new S3BytesDeletedCalculator(s3Client);
-    boolean isFile = s3Client.doesObjectExist(bucket, key);
+    S3Client pathS3Client = s3Client.withRequestCounter();
+    S3BytesDeletedCalculator bytesDeletedCalculator = new S3BytesDeletedCalculator();
     try {
-      if (isFile) {
-        deleteFile(bucket, key, bytesDeletedCalculator);
+      boolean isDirectoryKey = key.endsWith("/");
+      if (isDirectoryKey) {
+        key = key.substring(0, key.length() - 1);
+      }
+      S3PathListing listing = pathS3Client.listPath(bucket, key);
+      if (!isDirectoryKey && listing.isFile()) {
+        deleteFile(pathS3Client, bucket, key, listing.getFileSize(), bytesDeletedCalculator);
       } else {
-        deleteFilesInDirectory(bucket, key, bytesDeletedCalculator);
-        deleteSentinelFiles(s3SchemeURI, key, bucket, housekeepingEntity.getTableName());
+        String sentinelKey = listing.hasEmptySentinel() ? key + SENTINEL_SUFFIX : null;
+        boolean sentinelDeleted = false;
+        if (listing.isDirectory()) {
+          sentinelDeleted = deleteFilesInDirectory(pathS3Client, bucket, key + "/", sentinelKey,
+              bytesDeletedCalculator);
+        }
+        if (sentinelDeleted) {
+          sentinelKey = null;
+        }
+        deleteSentinelFiles(pathS3Client, s3SchemeURI, key, bucket, sentinelKey, listing,
+            housekeepingEntity.getTableName());
       }
     } finally {
       long bytesDeleted = bytesDeletedCalculator.getBytesDeleted();
       if (bytesDeleted > 0) {
         bytesDeletedReporter.reportTaggable(bytesDeleted, housekeepingEntity, FileSystemType.S3);
       }
+      s3RequestCountReporter.reportTaggable(pathS3Client.getRequestCount(), housekeepingEntity);
     }
   }
 
-  private void deleteFile(String bucket, String key, S3BytesDeletedCalculator bytesDeletedCalculator) {
-    bytesDeletedCalculator.storeFileSize(bucket, key);
-    s3Client.deleteObject(bucket, key);
-    bytesDeletedCalculator.calculateBytesDeleted(List.of(key));
+  private void deleteFile(S3Client pathS3Client, String bucket, String key, long fileSize,
+      S3BytesDeletedCalculator bytesDeletedCalculator) {
+    pathS3Client.deleteObject(bucket, key);
+    bytesDeletedCalculator.fileDeleted(fileSize);
+  }
+
+  /**
+   * Deletes every object under {@code key}, one listing page at a time.
+   *
+   * @param sentinelKey Sentinel file of the directory, or null if there is none to delete
+   * @return Whether the sentinel file was deleted along with the objects
+   * @implNote Each page of at most {@value S3Client#MAX_KEYS_PER_REQUEST} objects is deleted as soon as it is listed,
+   * so memory use does not depend on the number of objects under the path. Pages are still deleted after a partial
+   * failure; the failures are reported once the whole path has been processed. The sentinel file is added to the
+   * request deleting the last page once every earlier page has been deleted without a failure, which saves a request
+   * per directory.
+   */
+  private boolean deleteFilesInDirectory(S3Client pathS3Client, String bucket, String key, String sentinelKey,
+      S3BytesDeletedCalculator bytesDeletedCalculator) {
+    S3DeletionSummary deletionSummary = new S3DeletionSummary(bucket, key);
+    AtomicBoolean sentinelDeleted = new AtomicBoolean(false);
+    BiConsumer<List<S3ObjectSummary>, Boolean> deleteBatch = (objectSummaries, lastPage) -> {
+      List<String> keys = objectSummaries.stream()
+          .map(S3ObjectSummary::getKey)
+          .collect(Collectors.toList());
+      List<String> requestKeys = keys;
+      if (lastPage && sentinelKey != null && deletionSummary.isComplete()) {
+        requestKeys = new ArrayList<>(keys);
+        requestKeys.add(sentinelKey);
+      }
+      List<String> deletedKeys = pathS3Client.deleteObjects(bucket, requestKeys);
+      if (requestKeys != keys && deletedKeys.contains(sentinelKey)) {
+        sentinelDeleted.set(true);
+        deletedKeys = deletedKeys.stream().filter(k -> !k.equals(sentinelKey)).collect(Collectors.toList());
+      }
+      bytesDeletedCalculator.batchDeleted(objectSummaries, deletedKeys);
+      deletionSummary.record(keys, deletedKeys);
+    };
+    if (deleteExecutor == null) {
+      pathS3Client.listObjectPages(bucket, key, deleteBatch);
+    } else {
+      deleteBatchesConcurrently(pathS3Client, bucket, key, deleteBatch);
+    }
+    deletionSummary.throwIfIncomplete();
+    return sentinelDeleted.get();
   }
 
-  private void deleteFilesInDirectory(String bucket, String key, S3BytesDeletedCalculator bytesDeletedCalculator) {
-    if (!key.endsWith("/")) {
-      key += "/";
+  /**
+   * Hands each listing page to the delete executor while listing carries on.
+   *
+   * @implNote A path holds at most {@code deleteParallelism} permits, so listing waits whenever that many batches are
+   * in flight and memory stays bounded. The last page takes every permit and is deleted on the calling thread, so the
+   * earlier batches have all finished when it decides whether the sentinel file can be deleted along with it. Once a
+   * batch throws no more batches are submitted; the first exception is rethrown, with any later ones suppressed, after
+   * every submitted batch has finished so that the bytes deleted are complete when they are reported.
+   */
+  private void deleteBatchesConcurrently(S3Client pathS3Client, String bucket, String key,
+      BiConsumer<List<S3ObjectSummary>, Boolean> deleteBatch) {
+    Semaphore permits = new Semaphore(deleteParallelism);
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    try {
+      pathS3Client.listObjectPages(bucket, key, (objectSummaries, lastPage) -> {
+        if (lastPage) {
+          permits.acquireUninterruptibly(deleteParallelism);
+          try {
+            if (failure.get() != null) {
+              throw failure.get();
+            }
+            deleteBatch.accept(objectSummaries, true);
+          } finally {
+            permits.release(deleteParallelism);
+          }
+          return;
+        }
+        permits.acquireUninterruptibly();
+        if (failure.get() != null) {
+          permits.release();
+          throw failure.get();
+        }
+        try {
+          deleteExecutor.execute(() -> {
+            try {
+              deleteBatch.accept(objectSummaries, lastPage);
+            } catch (RuntimeException e) {
+              if (!failure.compareAndSet(null, e)) {
+                failure.get().addSuppressed(e);
+              }
+            } finally {
+              permits.release();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          throw e;
+        }
+      });
+    } finally {
+      permits.acquireUninterruptibly(deleteParallelism);
     }
-    List<S3ObjectSummary> objectSummaries = s3Client.listObjects(bucket, key);
-    bytesDeletedCalculator.storeFileSizes(objectSummaries);
-    List<String> keys = objectSummaries.stream()
-        .map(S3ObjectSummary::getKey)
-        .collect(Collectors.toList());
-    List<String> deletedKeys = s3Client.deleteObjects(bucket, keys);
-    bytesDeletedCalculator.calculateBytesDeleted(deletedKeys);
-    int totalFiles = keys.size();
-    int successfulDeletes = deletedKeys.size();
-    if (successfulDeletes != totalFiles) {
-      keys.removeAll(deletedKeys);
-      String failedDeletions = keys.stream()
-          .map(k -> format("'%s'", k))
-          .collect(Collectors.joining(", "));
-      throw new BeekeeperException(
-          format("Not all files could be deleted at path \"%s/%s\"; deleted %s/%s objects. Objects not deleted: %s.",
-              bucket, key, successfulDeletes, totalFiles, failedDeletions));
+    if (failure.get() != null) {
+      throw failure.get();
     }
   }
 
-  private void deleteSentinelFiles(S3SchemeURI s3SchemeURI, String key, String bucket, String tableName) {
+  private void deleteSentinelFiles(S3Client pathS3Client, S3SchemeURI s3SchemeURI, String key, String bucket,
+      String sentinelKey, S3PathListing listing, String tableName) {
     try {
       String path = s3SchemeURI.getPath();
       if (path.endsWith("/")) {
         path = path.substring(0, path.length() - 1);
       }
-      sentinelFilesCleaner.deleteSentinelFiles(path);
+      if (sentinelKey != null) {
+        pathS3Client.deleteObject(bucket, sentinelKey);
+      }
+      directoryCache.deleted(bucket, key);
 
-      // attempt to delete parents if there is at least one parent
-      if (key.contains("/")) {
-        deleteParentSentinelFiles(bucket, key, path, tableName);
+      // attempt to delete parents if there is at least one parent which the listing has not already shown to be in use
+      if (key.contains("/") && !listing.hasSiblings()) {
+        deleteParentSentinelFiles(pathS3Client, bucket, key, path, tableName);
       }
     } catch (Exception e) {
       log.warn("Sentinel file(s) could not be deleted", e);
     }
   }
 
-  private void deleteParentSentinelFiles(String bucket, String key, String absolutePath, String tableName) {
+  private void deleteParentSentinelFiles(S3Client pathS3Client, String bucket, String key, String absolutePath,
+      String tableName) {
     String parentPath = absolutePath.substring(0, absolutePath.lastIndexOf("/"));
     String parentKey = key.substring(0, key.lastIndexOf("/"));
 
-    if (pathHasValidTableName(parentPath, tableName) && s3Client.isEmpty(bucket, parentKey, key)) {
-      sentinelFilesCleaner.deleteSentinelFiles(parentPath);
+    if (pathHasValidTableName(parentPath, tableName)
+        && directoryCache.isEmptyWithout(pathS3Client, bucket, parentKey, key)) {
+      if (directoryCache.hasEmptySentinel(pathS3Client, bucket, parentKey)) {
+        pathS3Client.deleteObject(bucket, parentKey + SENTINEL_SUFFIX);
+      }
+      directoryCache.deleted(bucket, parentKey);
 
       if (parentKey.contains("/")) {
-        deleteParentSentinelFiles(bucket, parentKey, parentPath, tableName);
+        deleteParentSentinelFiles(pathS3Client, bucket, parentKey, parentPath, tableName);
       }
     }
   }
 
   // stop deleting if the path doesn't contain the table name or we got to the table directory
-  private boolean pathHasValidTableName(String parent, String tableName) {
+  static boolean pathHasValidTableName(String parent, String tableName) {
     String tableDirectory = "/" + tableName + "/";
     return !Strings.isNullOrEmpty(tableName) && parent.contains(tableDirectory) && !parent.endsWith("/" + tableName);
   }
+
+  /**
+   * Forgets the parent directories probed while cleaning up the paths of the page.
+   */
+  @Override
+  public void pageCleaned() {
+    directoryCache.clear();
+  }
+
+  @Override
+  public void shutdown() {
+    if (deleteExecutor == null) {
+      return;
+    }
+    ExecutorSupport.shutdown("S3 delete workers", deleteExecutor);
+  }
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+/**
+ * What a single delimited listing of a key tells about the path: whether the key is a file, a directory or both, and
+ * the size of its sentinel file, if there is one.
+ */
+class S3PathListing {
+
+  private final Long fileSize;
+  private final boolean directory;
+  private final Long sentinelSize;
+  private final boolean siblings;
+
+  S3PathListing(Long fileSize, boolean directory, Long sentinelSize, boolean siblings) {
+    this.fileSize = fileSize;
+    this.directory = directory;
+    this.sentinelSize = sentinelSize;
+    this.siblings = siblings;
+  }
+
+  boolean isFile() {
+    return fileSize != null;
+  }
+
+  long getFileSize() {
+    return fileSize == null ? 0L : fileSize;
+  }
+
+  boolean isDirectory() {
+    return directory;
+  }
+
+  boolean hasEmptySentinel() {
+    return sentinelSize != null && sentinelSize == 0L;
+  }
+
+  /**
+   * @return Whether other objects or directories share the key's parent, which means the parent is not empty.
+   */
+  boolean hasSiblings() {
+    return siblings;
+  }
+
+  /**
+   * Accumulates the pages of a delimited listing with the key as prefix.
+   */
+  static class Builder {
+
+    private final String key;
+    private final String directoryPrefix;
+    private final String sentinelKey;
+    private Long fileSize;
+    private boolean directory;
+    private Long sentinelSize;
+    private boolean siblings;
+    private boolean pastSentinel;
+
+    Builder(String key) {
+      this.key = key;
+      directoryPrefix = key + S3Client.DELIMITER;
+      sentinelKey = key + S3SentinelFilesCleaner.SENTINEL_SUFFIX;
+    }
+
+    Builder object(String objectKey, long size) {
+      if (objectKey.equals(key)) {
+        fileSize = size;
+      } else if (objectKey.equals(sentinelKey)) {
+        sentinelSize = size;
+      } else {
+        siblings = true;
+        pastSentinel |= objectKey.compareTo(sentinelKey) > 0;
+      }
+      return this;
+    }
+
+    Builder commonPrefix(String commonPrefix) {
+      if (commonPrefix.equals(directoryPrefix)) {
+        directory = true;
+      } else {
+        siblings = true;
+        pastSentinel |= commonPrefix.compareTo(sentinelKey) > 0;
+      }
+      return this;
+    }
+
+    /**
+     * @return Whether later pages can not change the listing, as the sentinel file sorts after the key and its
+     * directory and it has been reached.
+     */
+    boolean isComplete() {
+      return sentinelSize != null || pastSentinel;
+    }
+
+    S3PathListing build() {
+      return new S3PathListing(fileSize, directory, sentinelSize, siblings);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static java.lang.String.format;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
+
+/**
+ * Tells large S3 directories apart from small ones with a single listing page of at most {@code largePathMinObjects}
+ * keys, so that they can be cleaned up separately.
+ */
+public class S3PathSizeClassifier {
+
+  private static final Logger log = LoggerFactory.getLogger(S3PathSizeClassifier.class);
+
+  private final S3Client s3Client;
+  private final int largePathMinObjects;
+
+  /**
+   * @param largePathMinObjects Number of objects a directory must hold more of to be large, at most
+   * 1000 so that a single listing page is enough
+   */
+  public S3PathSizeClassifier(S3Client s3Client, int largePathMinObjects) {
+    if (largePathMinObjects < 1 || largePathMinObjects > S3Client.MAX_KEYS_PER_REQUEST) {
+      throw new BeekeeperException(format("Large path minimum number of objects must be between 1 and %s; was %s.",
+          S3Client.MAX_KEYS_PER_REQUEST, largePathMinObjects));
+    }
+    this.s3Client = s3Client;
+    this.largePathMinObjects = largePathMinObjects;
+  }
+
+  /**
+   * @return Whether the path is a directory holding more than {@code largePathMinObjects} objects. Files, paths which
+   * cannot be listed and paths which are not S3 paths are small, so that their cleanup reports any error.
+   */
+  public boolean isLarge(HousekeepingEntity housekeepingEntity) {
+    try {
+      S3SchemeURI s3SchemeURI = new S3SchemeURI(housekeepingEntity.getPath());
+      String key = s3SchemeURI.getKey();
+      if (key.endsWith(S3Client.DELIMITER)) {
+        key = key.substring(0, key.length() - 1);
+      }
+      return s3Client.hasMoreObjectsThan(s3SchemeURI.getBucket(), key, largePathMinObjects);
+    } catch (Exception e) {
+      log.debug("Could not classify path \"{}\"", housekeepingEntity.getPath(), e);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static java.lang.String.format;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.FAILED;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
+import com.expediagroup.beekeeper.core.concurrent.ExecutorSupport;
+import com.expediagroup.beekeeper.core.config.FileSystemType;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
+import com.expediagroup.beekeeper.core.model.HousekeepingPathShard;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathShardRepository;
+
+/**
+ * Deletes directories with many child directories one shard per child directory, recording the progress of each shard
+ * so that an interrupted cleanup resumes where it stopped instead of starting over.
+ *
+ * @implNote A path is split into shards the first time it is cleaned up if its directory has at least
+ * {@code minShards} child directories; otherwise, and for files, the cleanup is left to the wrapped cleaner. The shards
+ * of a path are deleted in parallel and each one records the last key of every listing page it has fully deleted, so
+ * a later attempt lists from that key on and skips the shards already deleted. Once every shard is deleted the
+ * wrapped cleaner cleans up the path itself, which deletes any objects directly under the directory and the sentinel
+ * files, and the shards are removed. Checkpoints are written as objects are deleted, so this cleaner must not be used
+ * for dry runs.
+ */
+public class S3ShardedPathCleaner implements PathCleaner {
+
+  private static final Logger log = LoggerFactory.getLogger(S3ShardedPathCleaner.class);
+
+  private final S3Client s3Client;
+  private final PathCleaner pathCleaner;
+  private final HousekeepingPathShardRepository housekeepingPathShardRepository;
+  private final BytesDeletedReporter bytesDeletedReporter;
+  private final int minShards;
+  private final ExecutorService shardExecutor;
+
+  /**
+   * @param pathCleaner Cleaner for the paths which are not sharded and for what is left of a path once its shards are
+   * deleted
+   * @param minShards Minimum number of child directories for a directory to be split into shards
+   * @param shardThreads Number of shards deleted at the same time
+   */
+  public S3ShardedPathCleaner(S3Client s3Client, PathCleaner pathCleaner,
+      HousekeepingPathShardRepository housekeepingPathShardRepository, BytesDeletedReporter bytesDeletedReporter,
+      int minShards, int shardThreads) {
+    if (minShards < 2) {
+      throw new BeekeeperException(format("Minimum number of path shards must be at least 2; was %s.", minShards));
+    }
+    if (shardThreads < 1) {
+      throw new BeekeeperException(format("Path shard threads must be positive; was %s.", shardThreads));
+    }
+    this.s3Client = s3Client;
+    this.pathCleaner = pathCleaner;
+    this.housekeepingPathShardRepository = housekeepingPathShardRepository;
+    this.bytesDeletedReporter = bytesDeletedReporter;
+    this.minShards = minShards;
+    shardExecutor = Executors.newFixedThreadPool(shardThreads, new ThreadFactoryBuilder()
+        .setNameFormat("s3-path-shard-%d")
+        .setDaemon(true)
+        .build());
+  }
+
+  @Override
+  public void cleanupPath(HousekeepingEntity housekeepingEntity) {
+    List<HousekeepingPathShard> shards = housekeepingEntity.getId() == null ? List.of() : shards(housekeepingEntity);
+    if (!shards.isEmpty()) {
+      deleteShards(housekeepingEntity, shards);
+    }
+    pathCleaner.cleanupPath(housekeepingEntity);
+    if (!shards.isEmpty()) {
+      housekeepingPathShardRepository.deleteShards(housekeepingEntity.getId());
+    }
+  }
+
+  /**
+   * @return The shards of the path, split now if it has not been split before; empty if it is not worth splitting.
+   * @implNote Whether a path is worth splitting is decided from one listing page of {@code minShards} entries, so that
+   * only the paths which are split have all of their child directories listed. A directory whose first entries
+   * include files is not split.
+   */
+  private List<HousekeepingPathShard> shards(HousekeepingEntity housekeepingEntity) {
+    List<HousekeepingPathShard> shards = housekeepingPathShardRepository.findShards(housekeepingEntity.getId());
+    if (!shards.isEmpty()) {
+      return shards;
+    }
+    S3SchemeURI s3SchemeURI = new S3SchemeURI(housekeepingEntity.getPath());
+    String key = s3SchemeURI.getKey();
+    if (key.endsWith("/")) {
+      key = key.substring(0, key.length() - 1);
+    }
+    if (!s3Client.hasChildPrefixes(s3SchemeURI.getBucket(), key, minShards)) {
+      return List.of();
+    }
+    List<String> childPrefixes = s3Client.listChildPrefixes(s3SchemeURI.getBucket(), key);
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+    log.info("Splitting path \"{}\" into {} shards", housekeepingEntity.getPath(), childPrefixes.size());
+    return housekeepingPathShardRepository.saveAll(childPrefixes.stream()
+        .map(childPrefix -> new HousekeepingPathShard(housekeepingEntity.getId(), childPrefix, now))
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * @implNote Every shard which is not deleted yet is submitted, and all of them are waited for even if one fails; the
+   * first failure is rethrown with any later ones suppressed.
+   */
+  private void deleteShards(HousekeepingEntity housekeepingEntity, List<HousekeepingPathShard> shards) {
+    String bucket = new S3SchemeURI(housekeepingEntity.getPath()).getBucket();
+    List<Future<?>> futures = new ArrayList<>();
+    for (HousekeepingPathShard shard : shards) {
+      if (shard.getHousekeepingStatus() != DELETED) {
+        futures.add(shardExecutor.submit(() -> deleteShard(housekeepingEntity, bucket, shard)));
+      }
+    }
+    ExecutorSupport.awaitAll(futures, "shard deletions of " + housekeepingEntity.getPath());
+  }
+
+  private void deleteShard(HousekeepingEntity housekeepingEntity, String bucket, HousekeepingPathShard shard) {
+    S3DeletionSummary deletionSummary = new S3DeletionSummary(bucket, shard.getPrefix());
+    S3BytesDeletedCalculator bytesDeletedCalculator = new S3BytesDeletedCalculator();
+    try {
+      s3Client.listObjectPages(bucket, shard.getPrefix(), shard.getCheckpoint(), (objectSummaries, lastPage) -> {
+        List<String> keys = objectSummaries.stream()
+            .map(S3ObjectSummary::getKey)
+            .collect(Collectors.toList());
+        List<String> deletedKeys = s3Client.deleteObjects(bucket, keys);
+        bytesDeletedCalculator.batchDeleted(objectSummaries, deletedKeys);
+        deletionSummary.record(keys, deletedKeys);
+        if (!keys.isEmpty() && deletionSummary.isComplete()) {
+          String checkpoint = keys.get(keys.size() - 1);
+          shard.setCheckpoint(checkpoint);
+          housekeepingPathShardRepository.updateCheckpoint(shard.getId(), checkpoint);
+        }
+      });
+      deletionSummary.throwIfIncomplete();
+      shard.setHousekeepingStatus(DELETED);
+    } catch (RuntimeException e) {
+      shard.setHousekeepingStatus(FAILED);
+      throw e;
+    } finally {
+      housekeepingPathShardRepository.save(shard);
+      long bytesDeleted = bytesDeletedCalculator.getBytesDeleted();
+      if (bytesDeleted > 0) {
+        bytesDeletedReporter.reportTaggable(bytesDeleted, housekeepingEntity, FileSystemType.S3);
+      }
+    }
+  }
+
+  @Override
+  public void pageCleaned() {
+    pathCleaner.pageCleaned();
+  }
+
+  /**
+   * Shuts down the shard workers and then the cleaner the paths are handed to.
+   */
+  @Override
+  public void shutdown() {
+    try {
+      ExecutorSupport.shutdown("S3 path shard workers", shardExecutor);
+    } finally {
+      pathCleaner.shutdown();
+    }
+  }
+}
@@ -15,7 +15,18 @@
  */
 package com.expediagroup.beekeeper.cleanup.hive;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.UnknownDBException;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,6 +106,34 @@ public class HiveClient implements CleanerClient {
     return partitionDeleted;
   }
 
+  /**
+   * Fetches the partitions by name in one call; partitions which do not exist are left out of the result.
+   *
+   * @param databaseName
+   * @param tableName
+   * @param partitionNames expected format: "event_date=2020-01-01/event_hour=0/event_type=A"
+   */
+  @Override
+  public Set<String> existingPartitions(String databaseName, String tableName, List<String> partitionNames) {
+    try {
+      Map<List<String>, String> namesByValues = new HashMap<>();
+      for (String partitionName : partitionNames) {
+        namesByValues.put(Warehouse.makeValsFromName(partitionName, null), partitionName);
+      }
+      return client.getPartitionsByNames(databaseName, tableName, partitionNames)
+          .stream()
+          .map(partition -> namesByValues.get(partition.getValues()))
+          .filter(Objects::nonNull)
+          .collect(Collectors.toSet());
+    } catch (NoSuchObjectException e) {
+      log.info("Could not fetch partitions: table not found: \"{}.{}\"", databaseName, tableName);
+      return Collections.emptySet();
+    } catch (TException e) {
+      throw new BeekeeperException(
+          "Unexpected exception when fetching partitions of table \"" + databaseName + "." + tableName + "\".", e);
+    }
+  }
+
   @Override
   public boolean tableExists(String databaseName, String tableName) {
     try {
@@ -105,6 +144,32 @@ public class HiveClient implements CleanerClient {
     }
   }
 
+  /**
+   * Fetches the tables by name in one call; table names are matched regardless of case, as Hive stores them in lower
+   * case.
+   *
+   * @param databaseName
+   * @param tableNames
+   */
+  @Override
+  public Set<String> existingTables(String databaseName, List<String> tableNames) {
+    try {
+      Set<String> existingTableNames = client.getTableObjectsByName(databaseName, tableNames)
+          .stream()
+          .map(table -> table.getTableName().toLowerCase(Locale.ROOT))
+          .collect(Collectors.toSet());
+      return tableNames.stream()
+          .filter(tableName -> existingTableNames.contains(tableName.toLowerCase(Locale.ROOT)))
+          .collect(Collectors.toSet());
+    } catch (UnknownDBException e) {
+      log.info("Could not fetch tables: database not found: \"{}\"", databaseName);
+      return Collections.emptySet();
+    } catch (TException e) {
+      throw new BeekeeperException("Unexpected exception when fetching tables of database \"" + databaseName + "\".",
+          e);
+    }
+  }
+
   @Override
   public void close() {
     client.close();
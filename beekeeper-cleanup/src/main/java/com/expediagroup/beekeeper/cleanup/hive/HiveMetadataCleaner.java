@@ -15,6 +15,15 @@
  */
 package com.expediagroup.beekeeper.cleanup.hive;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import com.expediagroup.beekeeper.cleanup.metadata.CleanerClient;
 import com.expediagroup.beekeeper.cleanup.metadata.MetadataCleaner;
 import com.expediagroup.beekeeper.cleanup.monitoring.DeletedMetadataReporter;
@@ -22,18 +31,38 @@ import com.expediagroup.beekeeper.core.config.MetadataType;
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
 import com.expediagroup.beekeeper.core.monitoring.TimedTaggable;
 
+/**
+ * Drops Hive tables and partitions.
+ *
+ * @implNote Whether a table exists is remembered until the end of the cleanup run, so the partitions of a table only
+ * cost one existence check per run. A table is forgotten as soon as it is dropped.
+ */
 public class HiveMetadataCleaner implements MetadataCleaner {
 
+  static final String TABLE_CACHE_HITS_METRIC_NAME = "hive-table-cache-hits";
+  static final String TABLE_CACHE_MISSES_METRIC_NAME = "hive-table-cache-misses";
+
   private DeletedMetadataReporter deletedMetadataReporter;
+  private final Map<String, Boolean> tableExistence = new ConcurrentHashMap<>();
+  private final Counter tableCacheHits;
+  private final Counter tableCacheMisses;
 
-  public HiveMetadataCleaner(DeletedMetadataReporter deletedMetadataReporter) {
+  public HiveMetadataCleaner(DeletedMetadataReporter deletedMetadataReporter, MeterRegistry meterRegistry) {
     this.deletedMetadataReporter = deletedMetadataReporter;
+    tableCacheHits = Counter.builder(TABLE_CACHE_HITS_METRIC_NAME).register(meterRegistry);
+    tableCacheMisses = Counter.builder(TABLE_CACHE_MISSES_METRIC_NAME).register(meterRegistry);
   }
 
   @Override
   @TimedTaggable("hive-table-deleted")
   public void dropTable(HousekeepingMetadata housekeepingMetadata, CleanerClient client) {
-    client.dropTable(housekeepingMetadata.getDatabaseName(), housekeepingMetadata.getTableName());
+    String databaseName = housekeepingMetadata.getDatabaseName();
+    String tableName = housekeepingMetadata.getTableName();
+    try {
+      client.dropTable(databaseName, tableName);
+    } finally {
+      tableExistence.remove(qualifiedTableName(databaseName, tableName));
+    }
     deletedMetadataReporter.reportTaggable(housekeepingMetadata, MetadataType.HIVE_TABLE);
   }
 
@@ -51,7 +80,42 @@ public class HiveMetadataCleaner implements MetadataCleaner {
 
   @Override
   public boolean tableExists(CleanerClient client, String databaseName, String tableName) {
-    return client.tableExists(databaseName, tableName);
+    String qualifiedTableName = qualifiedTableName(databaseName, tableName);
+    Boolean exists = tableExistence.get(qualifiedTableName);
+    if (exists != null) {
+      tableCacheHits.increment();
+      return exists;
+    }
+    tableCacheMisses.increment();
+    exists = client.tableExists(databaseName, tableName);
+    tableExistence.put(qualifiedTableName, exists);
+    return exists;
   }
 
+  /**
+   * Fetches the tables which are not known yet with one lookup.
+   */
+  @Override
+  public void prefetchTables(CleanerClient client, String databaseName, List<String> tableNames) {
+    List<String> unknownTableNames = tableNames.stream()
+        .distinct()
+        .filter(tableName -> !tableExistence.containsKey(qualifiedTableName(databaseName, tableName)))
+        .collect(Collectors.toList());
+    if (unknownTableNames.isEmpty()) {
+      return;
+    }
+    Set<String> existingTableNames = client.existingTables(databaseName, unknownTableNames);
+    unknownTableNames
+        .forEach(tableName -> tableExistence
+            .putIfAbsent(qualifiedTableName(databaseName, tableName), existingTableNames.contains(tableName)));
+  }
+
+  @Override
+  public void cleanupRunCompleted() {
+    tableExistence.clear();
+  }
+
+  private String qualifiedTableName(String databaseName, String tableName) {
+    return databaseName + "." + tableName;
+  }
 }
@@ -0,0 +1,262 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.hive;
+
+import static java.lang.String.format;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+/**
+ * Bounded pool of metastore clients, so that a Thrift connection is opened once and reused across records instead of
+ * being opened and closed for every record.
+ *
+ * @implNote Borrowed clients are proxies whose {@code close()} returns the underlying client to the pool. A client
+ * whose connection failed while it was borrowed is closed instead of being returned. Clients which have been idle for
+ * longer than the validation idle time are checked with a {@code getDatabase("default")} call before they are handed
+ * out and closed if their connection fails; clients returned more recently are handed out straight away. Both count as
+ * evictions. At most {@code maxSize} clients are borrowed at a time.
+ */
+public class MetaStoreClientPool implements Supplier<CloseableMetaStoreClient>, Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(MetaStoreClientPool.class);
+
+  public static final String WAIT_METRIC_NAME = "metastore-client-pool-wait";
+  public static final String ACTIVE_METRIC_NAME = "metastore-client-pool-active";
+  public static final String IDLE_METRIC_NAME = "metastore-client-pool-idle";
+  public static final String EVICTIONS_METRIC_NAME = "metastore-client-pool-evictions";
+
+  static final Duration DEFAULT_VALIDATION_IDLE_TIME = Duration.ofSeconds(30);
+  private static final String LIVENESS_CHECK_DATABASE = "default";
+
+  private final Supplier<CloseableMetaStoreClient> clientSupplier;
+  private final Duration maxWait;
+  private final long validationIdleNanos;
+  private final Semaphore permits;
+  private final BlockingDeque<IdleClient> idleClients = new LinkedBlockingDeque<>();
+  private final AtomicInteger activeClients = new AtomicInteger();
+  private final Timer waitTimer;
+  private final Counter evictions;
+  private volatile boolean closed = false;
+
+  public MetaStoreClientPool(Supplier<CloseableMetaStoreClient> clientSupplier, int maxSize, Duration maxWait,
+      MeterRegistry meterRegistry) {
+    this(clientSupplier, maxSize, maxWait, DEFAULT_VALIDATION_IDLE_TIME, meterRegistry);
+  }
+
+  /**
+   * @param validationIdleTime How long a client must have been idle for its connection to be checked before it is
+   * handed out again.
+   */
+  MetaStoreClientPool(Supplier<CloseableMetaStoreClient> clientSupplier, int maxSize, Duration maxWait,
+      Duration validationIdleTime, MeterRegistry meterRegistry) {
+    if (maxSize < 1) {
+      throw new BeekeeperException(format("Metastore client pool size must be positive; was %s.", maxSize));
+    }
+    this.clientSupplier = clientSupplier;
+    this.maxWait = maxWait;
+    validationIdleNanos = validationIdleTime.toNanos();
+    permits = new Semaphore(maxSize, true);
+    waitTimer = Timer.builder(WAIT_METRIC_NAME).register(meterRegistry);
+    evictions = Counter.builder(EVICTIONS_METRIC_NAME).register(meterRegistry);
+    Gauge.builder(ACTIVE_METRIC_NAME, activeClients, AtomicInteger::get).register(meterRegistry);
+    Gauge.builder(IDLE_METRIC_NAME, idleClients, BlockingDeque::size).register(meterRegistry);
+  }
+
+  /**
+   * Borrows a client, opening a new connection only if no healthy idle client is left.
+   *
+   * @return A client which must be closed to return it to the pool.
+   */
+  @Override
+  public CloseableMetaStoreClient get() {
+    if (closed) {
+      throw new BeekeeperException("Metastore client pool is closed.");
+    }
+    acquirePermit();
+    try {
+      CloseableMetaStoreClient client = healthyIdleClient();
+      if (client == null) {
+        client = clientSupplier.get();
+      }
+      activeClients.incrementAndGet();
+      return (CloseableMetaStoreClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+          new Class<?>[] { CloseableMetaStoreClient.class }, new PooledClient(client));
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquirePermit() {
+    long start = System.nanoTime();
+    try {
+      if (!permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new BeekeeperException(format("Timed out after %s waiting for a metastore client.", maxWait));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BeekeeperException("Interrupted while waiting for a metastore client.", e);
+    } finally {
+      waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private CloseableMetaStoreClient healthyIdleClient() {
+    IdleClient idleClient;
+    while ((idleClient = idleClients.pollFirst()) != null) {
+      if (System.nanoTime() - idleClient.idleSince < validationIdleNanos || isAlive(idleClient.client)) {
+        return idleClient.client;
+      }
+      evict(idleClient.client);
+    }
+    return null;
+  }
+
+  /**
+   * @return False only if the connection of the client failed; any answer from the metastore, even an error, shows
+   * that the connection still works.
+   */
+  private boolean isAlive(CloseableMetaStoreClient client) {
+    try {
+      client.getDatabase(LIVENESS_CHECK_DATABASE);
+      return true;
+    } catch (TException | RuntimeException e) {
+      if (isConnectionFailure(e)) {
+        log.debug("Idle metastore client failed its liveness check", e);
+        return false;
+      }
+      return true;
+    }
+  }
+
+  private void release(CloseableMetaStoreClient client, boolean broken) {
+    activeClients.decrementAndGet();
+    try {
+      if (broken) {
+        evict(client);
+      } else {
+        // most recently used clients are handed out first so that surplus connections stay idle
+        IdleClient idleClient = new IdleClient(client);
+        idleClients.offerFirst(idleClient);
+        if (closed && idleClients.remove(idleClient)) {
+          closeQuietly(client);
+        }
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void evict(CloseableMetaStoreClient client) {
+    evictions.increment();
+    closeQuietly(client);
+  }
+
+  private void closeQuietly(CloseableMetaStoreClient client) {
+    try {
+      client.close();
+    } catch (RuntimeException e) {
+      log.warn("Could not close metastore client", e);
+    }
+  }
+
+  /**
+   * Closes the idle clients; clients still borrowed are closed when they are returned.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    IdleClient idleClient;
+    while ((idleClient = idleClients.pollFirst()) != null) {
+      closeQuietly(idleClient.client);
+    }
+  }
+
+  private static boolean isConnectionFailure(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof TTransportException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class IdleClient {
+
+    private final CloseableMetaStoreClient client;
+    private final long idleSince = System.nanoTime();
+
+    private IdleClient(CloseableMetaStoreClient client) {
+      this.client = client;
+    }
+  }
+
+  private class PooledClient implements InvocationHandler {
+
+    private final CloseableMetaStoreClient client;
+    private boolean broken = false;
+    private boolean returned = false;
+
+    private PooledClient(CloseableMetaStoreClient client) {
+      this.client = client;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+        if (!returned) {
+          returned = true;
+          release(client, broken);
+        }
+        return null;
+      }
+      if (returned) {
+        throw new BeekeeperException("Metastore client has already been returned to the pool.");
+      }
+      try {
+        return method.invoke(client, args);
+      } catch (InvocationTargetException e) {
+        broken |= isConnectionFailure(e.getCause());
+        throw e.getCause();
+      }
+    }
+  }
+}
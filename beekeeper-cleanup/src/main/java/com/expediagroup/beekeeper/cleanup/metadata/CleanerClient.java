@@ -16,6 +16,8 @@
 package com.expediagroup.beekeeper.cleanup.metadata;
 
 import java.io.Closeable;
+import java.util.List;
+import java.util.Set;
 
 public interface CleanerClient extends Closeable {
 
@@ -23,5 +25,24 @@ public interface CleanerClient extends Closeable {
 
   boolean dropPartition(String databaseName, String tableName, String partitionName);
 
+  /**
+   * Checks which of the given partitions exist with a single lookup.
+   *
+   * @param databaseName
+   * @param tableName
+   * @param partitionNames expected format: "event_date=2020-01-01/event_hour=0/event_type=A"
+   * @return The names out of {@code partitionNames} of the partitions which exist.
+   */
+  Set<String> existingPartitions(String databaseName, String tableName, List<String> partitionNames);
+
   boolean tableExists(String databaseName, String tableName);
+
+  /**
+   * Checks which of the given tables of a database exist with a single lookup.
+   *
+   * @param databaseName
+   * @param tableNames
+   * @return The names out of {@code tableNames} of the tables which exist.
+   */
+  Set<String> existingTables(String databaseName, List<String> tableNames);
 }
@@ -15,6 +15,8 @@
  */
 package com.expediagroup.beekeeper.cleanup.metadata;
 
+import java.util.List;
+
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
 
 public interface MetadataCleaner {
@@ -24,4 +26,14 @@ public interface MetadataCleaner {
   boolean dropPartition(HousekeepingMetadata housekeepingMetadata, CleanerClient client);
 
   boolean tableExists(CleanerClient client, String databaseName, String tableName);
+
+  /**
+   * Looks up the given tables of a database ahead of the {@link #tableExists} checks of a page.
+   */
+  default void prefetchTables(CleanerClient client, String databaseName, List<String> tableNames) {}
+
+  /**
+   * Called once a cleanup run has processed all of its pages.
+   */
+  default void cleanupRunCompleted() {}
 }
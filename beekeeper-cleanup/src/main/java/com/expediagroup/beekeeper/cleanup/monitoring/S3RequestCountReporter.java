@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+import com.expediagroup.beekeeper.core.monitoring.MetricTag;
+import com.expediagroup.beekeeper.core.monitoring.Taggable;
+
+/**
+ * Records the number of S3 requests sent to clean up each path.
+ */
+public class S3RequestCountReporter {
+
+  public static final String METRIC_NAME = "s3-requests-per-path";
+
+  private MeterRegistry meterRegistry;
+
+  public S3RequestCountReporter(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  public void reportTaggable(int requestCount, Taggable taggable) {
+    DistributionSummary summary = DistributionSummary
+        .builder(METRIC_NAME)
+        .baseUnit("requests")
+        .tags(tags(taggable.getMetricTag()))
+        .register(meterRegistry);
+    summary.record(requestCount);
+  }
+
+  private Iterable<Tag> tags(MetricTag metricTag) {
+    return Tags.of(metricTag.getKey(), metricTag.getTag());
+  }
+}
@@ -21,4 +21,14 @@ public interface PathCleaner {
 
   void cleanupPath(HousekeepingEntity housekeepingEntity);
 
+  /**
+   * Called once every path of a page has been cleaned up, so that any state kept for the page can be released.
+   */
+  default void pageCleaned() {}
+
+  /**
+   * Releases the workers of the cleaner, if it has any. Called once when the application shuts down.
+   */
+  default void shutdown() {}
+
 }
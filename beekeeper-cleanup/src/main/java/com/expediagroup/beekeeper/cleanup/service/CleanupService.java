@@ -16,6 +16,7 @@
 package com.expediagroup.beekeeper.cleanup.service;
 
 import java.time.Instant;
+import java.util.Optional;
 
 public interface CleanupService {
 
@@ -26,4 +27,15 @@ public interface CleanupService {
    */
   void cleanUp(Instant referenceTime);
 
+  /**
+   * Returns when the next cleanup has work to do, for the scheduler to decide how long to wait after a cleanup.
+   *
+   * @param referenceTime Deletion reference time of the cleanup which has just completed.
+   * @return The earliest time at which a record which was not considered by that cleanup becomes due; in the past if
+   * such a record is due already, or empty if there is none.
+   */
+  default Optional<Instant> nextCleanupTime(Instant referenceTime) {
+    return Optional.empty();
+  }
+
 }
@@ -15,31 +15,85 @@
  */
 package com.expediagroup.beekeeper.cleanup.service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Date;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
+/**
+ * Runs the cleanup service repeatedly, waiting {@code scheduler-delay-ms} after each run completes.
+ *
+ * @implNote In adaptive mode the wait after a successful run depends on the work left: the next run starts straight
+ * away if records became due while the run was in progress, otherwise it starts when the earliest scheduled record
+ * becomes due, and never later than {@code scheduler-max-delay-ms} after the run. A failed run always waits the fixed
+ * delay.
+ */
 @Component
-public class CleanupServiceScheduler {
+public class CleanupServiceScheduler implements SchedulingConfigurer {
 
   private static final Logger log = LoggerFactory.getLogger(CleanupServiceScheduler.class);
 
   private final CleanupService cleanupService;
+  private final Duration delay;
+  private final boolean adaptiveEnabled;
+  private final Duration maxDelay;
+  private volatile Duration nextDelay;
 
   @Autowired
-  public CleanupServiceScheduler(CleanupService cleanupService) {
+  public CleanupServiceScheduler(
+      CleanupService cleanupService,
+      @Value("${properties.scheduler-delay-ms}") long delayMs,
+      @Value("${properties.scheduler-adaptive-enabled}") boolean adaptiveEnabled,
+      @Value("${properties.scheduler-max-delay-ms}") long maxDelayMs) {
     this.cleanupService = cleanupService;
+    this.delay = Duration.ofMillis(delayMs);
+    this.adaptiveEnabled = adaptiveEnabled;
+    this.maxDelay = Duration.ofMillis(maxDelayMs);
+    this.nextDelay = delay;
   }
 
-  @Scheduled(fixedDelayString = "${properties.scheduler-delay-ms}")
-  public void scheduleCleanupWithFixedDelay() {
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    taskRegistrar.addTriggerTask(this::scheduleCleanup, this::nextExecutionTime);
+  }
+
+  public void scheduleCleanup() {
+    nextDelay = delay;
     Instant now = Instant.now();
     log.info("Started cleanup for instant {}", now.toString());
     cleanupService.cleanUp(now);
     log.info("Finished cleanup for instant {}", now.toString());
+    if (adaptiveEnabled) {
+      nextDelay = adaptiveDelay(now);
+      log.info("Next cleanup in {}", nextDelay);
+    }
+  }
+
+  Duration adaptiveDelay(Instant referenceTime) {
+    Instant now = Instant.now();
+    return cleanupService.nextCleanupTime(referenceTime)
+        .map(nextCleanupTime -> nextCleanupTime.isAfter(now) ? Duration.between(now, nextCleanupTime) : Duration.ZERO)
+        .filter(adaptiveDelay -> adaptiveDelay.compareTo(maxDelay) < 0)
+        .orElse(maxDelay);
+  }
+
+  Duration getNextDelay() {
+    return nextDelay;
+  }
+
+  private Date nextExecutionTime(TriggerContext triggerContext) {
+    Date lastCompletionTime = triggerContext.lastCompletionTime();
+    if (lastCompletionTime == null) {
+      return new Date();
+    }
+    return new Date(lastCompletionTime.getTime() + nextDelay.toMillis());
   }
 }
@@ -0,0 +1,327 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import cloud.localstack.Localstack;
+import cloud.localstack.ServiceName;
+import cloud.localstack.awssdkv1.TestUtils;
+import cloud.localstack.docker.LocalstackDockerExtension;
+import cloud.localstack.docker.annotation.LocalstackDockerProperties;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import com.amazonaws.services.s3.AmazonS3;
+
+import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
+import com.expediagroup.beekeeper.core.config.FileSystemType;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(LocalstackDockerExtension.class)
+@LocalstackDockerProperties(services = { ServiceName.S3 })
+class S3AsyncPathCleanerTest {
+
+  private static final String REGION = "us-east-1";
+
+  private final String content = "Some content";
+  private final String bucket = "bucket";
+  private final String keyRoot = "table/id1/partition_1";
+  private final String key1 = "table/id1/partition_1/file1";
+  private final String key2 = "table/id1/partition_1/file2";
+  private final String partition1Sentinel = "table/id1/partition_1_$folder$";
+  private final String parentSentinel = "table/id1_$folder$";
+  private final String tableSentinel = "table_$folder$";
+  private final String absolutePath = "s3://" + bucket + "/" + keyRoot;
+  private final String tableName = "table";
+  private final String databaseName = "database";
+
+  private HousekeepingPath housekeepingPath;
+  private AmazonS3 amazonS3;
+  private S3AsyncClient s3AsyncClient;
+  private @Mock BytesDeletedReporter bytesDeletedReporter;
+  private @Mock S3RequestCountReporter s3RequestCountReporter;
+
+  private S3AsyncPathCleaner s3AsyncPathCleaner;
+
+  @BeforeEach
+  void setUp() {
+    amazonS3 = TestUtils.getClientS3();
+    amazonS3.createBucket(bucket);
+    amazonS3.listObjectsV2(bucket)
+      .getObjectSummaries()
+      .forEach(object -> amazonS3.deleteObject(bucket, object.getKey()));
+    s3AsyncClient = S3AsyncClient.builder()
+      .endpointOverride(URI.create(Localstack.INSTANCE.getEndpointS3()))
+      .region(Region.of(REGION))
+      .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+      .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+      .build();
+    s3AsyncPathCleaner = new S3AsyncPathCleaner(s3AsyncClient, bytesDeletedReporter, s3RequestCountReporter, false, 2);
+    housekeepingPath = new HousekeepingPath.Builder()
+      .path(absolutePath)
+      .tableName(tableName)
+      .databaseName(databaseName)
+      .creationTimestamp(LocalDateTime.now())
+      .cleanupDelay(Duration.ofDays(1))
+      .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    s3AsyncClient.close();
+  }
+
+  @Test
+  void typicalForDirectory() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.doesObjectExist(bucket, key1)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, key2)).isFalse();
+    verify(bytesDeletedReporter).reportTaggable(content.getBytes().length * 2, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void directoryWithTrailingSlash() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+
+    housekeepingPath.setPath(absolutePath + "/");
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.listObjects(bucket).getObjectSummaries()).isEmpty();
+  }
+
+  @Test
+  void typicalForFile() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+
+    housekeepingPath.setPath("s3://" + bucket + "/" + key1);
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.doesObjectExist(bucket, key1)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, key2)).isTrue();
+    verify(bytesDeletedReporter).reportTaggable(content.getBytes().length, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void typicalWithParentSentinelFiles() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+    amazonS3.putObject(bucket, parentSentinel, "");
+    amazonS3.putObject(bucket, tableSentinel, "");
+
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.doesObjectExist(bucket, key1)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, key2)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, partition1Sentinel)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, parentSentinel)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, tableSentinel)).isTrue();
+  }
+
+  @Test
+  void sentinelFileForNonEmptyParentIsKept() {
+    String partition10File = "table/id1/partition_10/data.file";
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+    amazonS3.putObject(bucket, partition10File, content);
+    amazonS3.putObject(bucket, parentSentinel, "");
+
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.doesObjectExist(bucket, key1)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, partition1Sentinel)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, partition10File)).isTrue();
+    assertThat(amazonS3.doesObjectExist(bucket, parentSentinel)).isTrue();
+  }
+
+  @Test
+  void deleteTable() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+    amazonS3.putObject(bucket, parentSentinel, "");
+    amazonS3.putObject(bucket, tableSentinel, "");
+
+    housekeepingPath.setPath("s3://" + bucket + "/table");
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.listObjects(bucket).getObjectSummaries()).isEmpty();
+    verify(bytesDeletedReporter).reportTaggable(content.getBytes().length * 2, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void pathDoesNotExist() {
+    assertThatCode(() -> s3AsyncPathCleaner.cleanupPath(housekeepingPath)).doesNotThrowAnyException();
+  }
+
+  @Test
+  void dryRunDeletesNothing() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+    amazonS3.putObject(bucket, parentSentinel, "");
+
+    s3AsyncPathCleaner = new S3AsyncPathCleaner(s3AsyncClient, bytesDeletedReporter, s3RequestCountReporter, true, 2);
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.doesObjectExist(bucket, key1)).isTrue();
+    assertThat(amazonS3.doesObjectExist(bucket, partition1Sentinel)).isTrue();
+    assertThat(amazonS3.doesObjectExist(bucket, parentSentinel)).isTrue();
+    verify(bytesDeletedReporter).reportTaggable(content.getBytes().length, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void requestsForDirectoryAreReported() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+
+    s3AsyncPathCleaner.cleanupPath(housekeepingPath);
+
+    // classification, directory listing, one DeleteObjects including the sentinel and the parent classification
+    verify(s3RequestCountReporter).reportTaggable(4, housekeepingPath);
+  }
+
+  @Test
+  void partialDirectoryDeletionFails() {
+    S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
+    when(mockS3AsyncClient.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      if (request.delimiter() != null) {
+        return completedFuture(ListObjectsV2Response.builder()
+            .commonPrefixes(CommonPrefix.builder().prefix(keyRoot + "/").build())
+            .isTruncated(false)
+            .build());
+      }
+      return completedFuture(ListObjectsV2Response.builder()
+          .contents(S3Object.builder().key(key1).size(10L).build(), S3Object.builder().key(key2).size(20L).build())
+          .isTruncated(false)
+          .build());
+    });
+    when(mockS3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenReturn(completedFuture(DeleteObjectsResponse.builder()
+            .deleted(DeletedObject.builder().key(key1).build())
+            .build()));
+
+    s3AsyncPathCleaner = new S3AsyncPathCleaner(mockS3AsyncClient, bytesDeletedReporter, s3RequestCountReporter,
+        false, 2);
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> s3AsyncPathCleaner.cleanupPath(housekeepingPath))
+        .withMessage("Not all files could be deleted at path \"" + bucket + "/" + keyRoot
+            + "/\"; deleted 1/2 objects. Objects not deleted: '" + key2 + "'.");
+    verify(bytesDeletedReporter).reportTaggable(10L, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void sentinelIsNotDeletedWithTheLastBatchWhenAnEarlierBatchFails() {
+    S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
+    CompletableFuture<DeleteObjectsResponse> firstBatch = new CompletableFuture<>();
+    when(mockS3AsyncClient.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      if (request.delimiter() != null) {
+        return completedFuture(ListObjectsV2Response.builder()
+            .contents(S3Object.builder().key(partition1Sentinel).size(0L).build())
+            .commonPrefixes(CommonPrefix.builder().prefix(keyRoot + "/").build())
+            .isTruncated(false)
+            .build());
+      }
+      if (request.continuationToken() == null) {
+        return completedFuture(ListObjectsV2Response.builder()
+            .contents(S3Object.builder().key(key1).size(10L).build())
+            .isTruncated(true)
+            .nextContinuationToken("next")
+            .build());
+      }
+      // the first batch is still in flight when the last page is listed and fails later
+      CompletableFuture
+          .runAsync(() -> firstBatch.completeExceptionally(new RuntimeException("first batch failed")),
+              CompletableFuture.delayedExecutor(200L, TimeUnit.MILLISECONDS));
+      return completedFuture(ListObjectsV2Response.builder()
+          .contents(S3Object.builder().key(key2).size(20L).build())
+          .isTruncated(false)
+          .build());
+    });
+    List<List<String>> deleteRequests = new CopyOnWriteArrayList<>();
+    when(mockS3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class))).thenAnswer(invocation -> {
+      DeleteObjectsRequest request = invocation.getArgument(0);
+      deleteRequests.add(request.delete().objects().stream().map(ObjectIdentifier::key).collect(Collectors.toList()));
+      return deleteRequests.size() == 1 ? firstBatch : completedFuture(DeleteObjectsResponse.builder().build());
+    });
+
+    s3AsyncPathCleaner = new S3AsyncPathCleaner(mockS3AsyncClient, bytesDeletedReporter, s3RequestCountReporter,
+        false, 2);
+    assertThatExceptionOfType(RuntimeException.class)
+        .isThrownBy(() -> s3AsyncPathCleaner.cleanupPath(housekeepingPath))
+        .withMessage("first batch failed");
+    assertThat(deleteRequests).containsExactly(List.of(key1));
+    verify(mockS3AsyncClient, never()).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  @Test
+  void invalidMaxDeletesInFlight() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new S3AsyncPathCleaner(s3AsyncClient, bytesDeletedReporter, s3RequestCountReporter, false, 0))
+        .withMessage("Delete requests in flight must be positive; was 0.");
+  }
+}
@@ -16,7 +16,11 @@
 package com.expediagroup.beekeeper.cleanup.aws;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,6 +30,7 @@ import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import cloud.localstack.ServiceName;
@@ -35,6 +40,7 @@ import cloud.localstack.docker.annotation.LocalstackDockerProperties;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
@@ -180,6 +186,92 @@ class S3ClientTest {
     assertThat(result.size()).isEqualTo(s3BatchSize + extraKeys);
   }
 
+  @Test
+  void listObjectsInPages() {
+    int s3BatchSize = 1000;
+    int extraKeys = 100;
+    List<String> keys = new ArrayList<>();
+    for (int i = 1; i <= s3BatchSize + extraKeys; i++) {
+      keys.add(keyRoot + "/file" + i);
+    }
+    keys.parallelStream().forEach(key -> amazonS3.putObject(bucket, key, content));
+
+    List<Integer> pageSizes = new ArrayList<>();
+    s3Client.listObjects(bucket, keyRoot, objectSummaries -> pageSizes.add(objectSummaries.size()));
+
+    assertThat(pageSizes).containsExactly(s3BatchSize, extraKeys);
+  }
+
+  @Test
+  void listObjectPagesFlagsTheLastPage() {
+    int s3BatchSize = 1000;
+    List<String> keys = new ArrayList<>();
+    for (int i = 1; i <= s3BatchSize + 1; i++) {
+      keys.add(keyRoot + "/file" + i);
+    }
+    keys.parallelStream().forEach(key -> amazonS3.putObject(bucket, key, content));
+
+    List<Boolean> lastPages = new ArrayList<>();
+    s3Client.listObjectPages(bucket, keyRoot, (objectSummaries, lastPage) -> lastPages.add(lastPage));
+
+    assertThat(lastPages).containsExactly(false, true);
+  }
+
+  @Test
+  void listDirectory() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, keyRoot + "/sub/file1", content);
+    amazonS3.putObject(bucket, keyRoot + "/sub_$folder$", "");
+
+    ListObjectsV2Result result = s3Client.listDirectory(bucket, keyRoot);
+
+    assertThat(result.getCommonPrefixes()).containsExactly(keyRoot + "/sub/");
+    assertThat(result.getObjectSummaries())
+        .extracting(S3ObjectSummary::getKey)
+        .containsExactlyInAnyOrder(key1, keyRoot + "/sub_$folder$");
+    assertThat(result.isTruncated()).isFalse();
+  }
+
+  @Test
+  void hasChildPrefixes() {
+    amazonS3.putObject(bucket, keyRoot + "/a/file1", content);
+    amazonS3.putObject(bucket, keyRoot + "/b/file1", content);
+    amazonS3.putObject(bucket, keyRoot + "/c/file1", content);
+    S3Client pathS3Client = s3Client.withRequestCounter();
+
+    assertThat(pathS3Client.hasChildPrefixes(bucket, keyRoot, 2)).isTrue();
+    assertThat(pathS3Client.hasChildPrefixes(bucket, keyRoot, 4)).isFalse();
+    assertThat(pathS3Client.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  void hasChildPrefixesStopsAtFiles() {
+    amazonS3.putObject(bucket, keyRoot + "/a_file", content);
+    amazonS3.putObject(bucket, keyRoot + "/b/file1", content);
+    amazonS3.putObject(bucket, keyRoot + "/c/file1", content);
+
+    assertThat(s3Client.hasChildPrefixes(bucket, keyRoot, 2)).isFalse();
+  }
+
+  @Test
+  void deleteObjectsInBatches() {
+    AmazonS3 amazonS3 = Mockito.mock(AmazonS3.class);
+    S3Client s3Client = new S3Client(amazonS3, false);
+    when(amazonS3.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(new DeleteObjectsResult(List.of()));
+    List<String> keys = new ArrayList<>();
+    for (int i = 1; i <= 2500; i++) {
+      keys.add(keyRoot + "/file" + i);
+    }
+
+    s3Client.deleteObjects(bucket, keys);
+
+    ArgumentCaptor<DeleteObjectsRequest> requestCaptor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(amazonS3, times(3)).deleteObjects(requestCaptor.capture());
+    assertThat(requestCaptor.getAllValues())
+        .extracting(request -> request.getKeys().size())
+        .containsExactly(1000, 1000, 500);
+  }
+
   @Test
   void deleteObjectsInDirectory() {
     amazonS3.putObject(bucket, key1, content);
@@ -350,4 +442,87 @@ class S3ClientTest {
     assertThat(s3ClientDryRun.isEmpty(bucket, folder2, folder3)).isTrue();
     assertThat(s3ClientDryRun.isEmpty(bucket, folder1, folder2)).isTrue();
   }
+
+  @Test
+  void listPathForDirectory() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+
+    S3PathListing listing = s3Client.listPath(bucket, keyRoot);
+
+    assertThat(listing.isDirectory()).isTrue();
+    assertThat(listing.isFile()).isFalse();
+    assertThat(listing.hasEmptySentinel()).isFalse();
+    assertThat(listing.hasSiblings()).isFalse();
+  }
+
+  @Test
+  void listPathForFile() {
+    amazonS3.putObject(bucket, key1, content);
+
+    S3PathListing listing = s3Client.listPath(bucket, key1);
+
+    assertThat(listing.isFile()).isTrue();
+    assertThat(listing.getFileSize()).isEqualTo(content.getBytes().length);
+    assertThat(listing.isDirectory()).isFalse();
+  }
+
+  @Test
+  void listPathWithSpaceInKey() {
+    String spacedKeyRoot = keyRoot + "/ /dir";
+    amazonS3.putObject(bucket, spacedKeyRoot + "/file1", content);
+    amazonS3.putObject(bucket, spacedKeyRoot + "_$folder$", "");
+
+    S3PathListing listing = s3Client.listPath(bucket, spacedKeyRoot);
+
+    assertThat(listing.isDirectory()).isTrue();
+    assertThat(listing.hasEmptySentinel()).isTrue();
+  }
+
+  @Test
+  void listPathWithSentinelAndSiblings() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, keyRoot + "_$folder$", "");
+    amazonS3.putObject(bucket, keyRoot + "0/file1", content);
+    amazonS3.putObject(bucket, keyRoot + "0_$folder$", "");
+
+    S3PathListing listing = s3Client.listPath(bucket, keyRoot);
+
+    assertThat(listing.isDirectory()).isTrue();
+    assertThat(listing.hasEmptySentinel()).isTrue();
+    assertThat(listing.hasSiblings()).isTrue();
+  }
+
+  @Test
+  void listPathIgnoresSentinelWithContent() {
+    amazonS3.putObject(bucket, keyRoot + "_$folder$", content);
+
+    S3PathListing listing = s3Client.listPath(bucket, keyRoot);
+
+    assertThat(listing.isDirectory()).isFalse();
+    assertThat(listing.hasEmptySentinel()).isFalse();
+  }
+
+  @Test
+  void requestsAreCountedPerClient() {
+    amazonS3.putObject(bucket, key1, content);
+    S3Client pathS3Client = s3Client.withRequestCounter();
+
+    pathS3Client.listPath(bucket, keyRoot);
+    pathS3Client.deleteObjects(bucket, List.of(key1));
+
+    assertThat(pathS3Client.getRequestCount()).isEqualTo(2);
+    assertThat(s3Client.getRequestCount()).isZero();
+    assertThat(s3Client.withRequestCounter().getRequestCount()).isZero();
+  }
+
+  @Test
+  void dryRunDeletesAreNotCounted() {
+    S3Client pathS3Client = s3ClientDryRun.withRequestCounter();
+
+    pathS3Client.deleteObject(bucket, key1);
+    pathS3Client.deleteObjects(bucket, List.of(key1, key2));
+
+    assertThat(pathS3Client.getRequestCount()).isZero();
+  }
 }
@@ -35,6 +35,7 @@ import cloud.localstack.docker.annotation.LocalstackDockerProperties;
 import com.amazonaws.services.s3.AmazonS3;
 
 import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,6 +57,7 @@ class S3DryRunPathCleanerTest {
   private AmazonS3 amazonS3;
   private S3Client s3Client;
   private @Mock BytesDeletedReporter bytesDeletedReporter;
+  private @Mock S3RequestCountReporter s3RequestCountReporter;
   private boolean dryRunEnabled = true;
 
   private S3PathCleaner s3DryRunPathCleaner;
@@ -68,7 +70,7 @@ class S3DryRunPathCleanerTest {
       .getObjectSummaries()
       .forEach(object -> amazonS3.deleteObject(bucket, object.getKey()));
     s3Client = new S3Client(amazonS3, dryRunEnabled);
-    s3DryRunPathCleaner = new S3PathCleaner(s3Client, new S3SentinelFilesCleaner(s3Client), bytesDeletedReporter);
+    s3DryRunPathCleaner = new S3PathCleaner(s3Client, bytesDeletedReporter, s3RequestCountReporter);
     housekeepingPath = new HousekeepingPath.Builder()
       .path(absolutePath)
       .tableName(tableName)
@@ -21,19 +21,26 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -48,10 +55,10 @@ import com.amazonaws.services.s3.model.DeleteObjectsRequest;
 import com.amazonaws.services.s3.model.DeleteObjectsResult;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
-import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 
 import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
 import com.expediagroup.beekeeper.core.config.FileSystemType;
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
@@ -75,8 +82,8 @@ class S3PathCleanerTest {
   private HousekeepingPath housekeepingPath;
   private AmazonS3 amazonS3;
   private S3Client s3Client;
-  private S3SentinelFilesCleaner s3SentinelFilesCleaner;
   private @Mock BytesDeletedReporter bytesDeletedReporter;
+  private @Mock S3RequestCountReporter s3RequestCountReporter;
   private boolean dryRunEnabled = false;
 
   private S3PathCleaner s3PathCleaner;
@@ -89,8 +96,7 @@ class S3PathCleanerTest {
       .getObjectSummaries()
       .forEach(object -> amazonS3.deleteObject(bucket, object.getKey()));
     s3Client = new S3Client(amazonS3, dryRunEnabled);
-    s3SentinelFilesCleaner = new S3SentinelFilesCleaner(s3Client);
-    s3PathCleaner = new S3PathCleaner(s3Client, s3SentinelFilesCleaner, bytesDeletedReporter);
+    s3PathCleaner = new S3PathCleaner(s3Client, bytesDeletedReporter, s3RequestCountReporter);
     housekeepingPath = new HousekeepingPath.Builder()
       .path(absolutePath)
       .tableName(tableName)
@@ -234,15 +240,107 @@ class S3PathCleanerTest {
   }
 
   @Test
-  void sentinelFilesCleanerThrowsException() {
-    S3SentinelFilesCleaner s3SentinelFilesCleaner = mock(S3SentinelFilesCleaner.class);
-    doThrow(IllegalArgumentException.class).when(s3SentinelFilesCleaner).deleteSentinelFiles(absolutePath);
+  void sentinelFileDeletionFails() {
+    AmazonS3 spyAmazonS3 = spy(amazonS3);
+    doThrow(AmazonServiceException.class).when(spyAmazonS3).deleteObject(bucket, partition1Sentinel);
 
-    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
 
-    s3PathCleaner = new S3PathCleaner(s3Client, s3SentinelFilesCleaner, bytesDeletedReporter);
+    s3PathCleaner = new S3PathCleaner(new S3Client(spyAmazonS3, false), bytesDeletedReporter, s3RequestCountReporter);
     assertThatCode(() -> s3PathCleaner.cleanupPath(housekeepingPath)).doesNotThrowAnyException();
-    assertThat(amazonS3.doesObjectExist(bucket, key1)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, partition1Sentinel)).isTrue();
+  }
+
+  @Test
+  void requestsForFileAreReported() {
+    amazonS3.putObject(bucket, key1, content);
+
+    housekeepingPath.setPath(absolutePath + "/file1");
+    s3PathCleaner.cleanupPath(housekeepingPath);
+
+    // one listing to classify and size the file, one delete
+    verify(s3RequestCountReporter).reportTaggable(2, housekeepingPath);
+  }
+
+  @Test
+  void requestsForDirectoryAreReported() {
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, key2, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+
+    s3PathCleaner.cleanupPath(housekeepingPath);
+
+    // classify, list the contents, delete them with the sentinel, list the parent, then look for the parent sentinel
+    verify(s3RequestCountReporter).reportTaggable(5, housekeepingPath);
+  }
+
+  @Test
+  void siblingPathsOfAPageShareTheParentListing() {
+    HousekeepingPath partition2 = partitionPath("partition_2");
+    HousekeepingPath partition3 = partitionPath("partition_3");
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, "table/id1/partition_2/file1", content);
+    amazonS3.putObject(bucket, "table/id1/partition_3/file1", content);
+
+    s3PathCleaner.cleanupPath(housekeepingPath);
+    s3PathCleaner.cleanupPath(partition2);
+
+    // the second path finds the parent in use without listing it again
+    verify(s3RequestCountReporter).reportTaggable(4, housekeepingPath);
+    verify(s3RequestCountReporter).reportTaggable(3, partition2);
+
+    s3PathCleaner.pageCleaned();
+    s3PathCleaner.cleanupPath(partition3);
+
+    // the parent is listed again on a new page and is now empty, so its sentinel is looked for as well
+    verify(s3RequestCountReporter).reportTaggable(5, partition3);
+    assertThat(amazonS3.listObjectsV2(bucket).getObjectSummaries()).isEmpty();
+  }
+
+  @Test
+  void parentSentinelIsDeletedOnceAllSiblingsOfAPageAreDeleted() {
+    String partitionParentSentinel = "table/id1_$folder$";
+    amazonS3.putObject(bucket, key1, content);
+    amazonS3.putObject(bucket, partition1Sentinel, "");
+    amazonS3.putObject(bucket, "table/id1/partition_2/file1", content);
+    amazonS3.putObject(bucket, "table/id1/partition_2_$folder$", "");
+    amazonS3.putObject(bucket, partitionParentSentinel, "");
+
+    s3PathCleaner.cleanupPath(housekeepingPath);
+    assertThat(amazonS3.doesObjectExist(bucket, partitionParentSentinel)).isTrue();
+    s3PathCleaner.cleanupPath(partitionPath("partition_2"));
+
+    assertThat(amazonS3.listObjectsV2(bucket).getObjectSummaries()).isEmpty();
+  }
+
+  @Test
+  void sentinelIsDeletedWithTheLastBatch() {
+    AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
+    when(mockAmazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      if (request.getDelimiter() == null) {
+        return listingPage(objectSummary(key1, 100L), false);
+      }
+      ListObjectsV2Result listObjectsV2Result = directoryClassification(request.getPrefix());
+      if (request.getPrefix().equals(keyRoot)) {
+        listObjectsV2Result.getObjectSummaries().add(objectSummary(partition1Sentinel, 0L));
+      }
+      return listObjectsV2Result;
+    });
+    when(mockAmazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
+      .thenReturn(new DeleteObjectsResult(List.of(deletedObject(key1), deletedObject(partition1Sentinel))));
+    s3PathCleaner = new S3PathCleaner(new S3Client(mockAmazonS3, false), bytesDeletedReporter,
+      s3RequestCountReporter);
+
+    s3PathCleaner.cleanupPath(housekeepingPath);
+
+    ArgumentCaptor<DeleteObjectsRequest> requestCaptor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(mockAmazonS3).deleteObjects(requestCaptor.capture());
+    assertThat(requestCaptor.getValue().getKeys())
+      .extracting(DeleteObjectsRequest.KeyVersion::getKey)
+      .containsExactly(key1, partition1Sentinel);
+    verify(mockAmazonS3, never()).deleteObject(anyString(), anyString());
+    verify(bytesDeletedReporter).reportTaggable(100L, housekeepingPath, FileSystemType.S3);
   }
 
   @Test
@@ -304,13 +402,12 @@ class S3PathCleanerTest {
 
   @Test
   void noBytesDeletedMetricWhenFileDeletionFails() {
-    S3Client mockS3Client = mock(S3Client.class);
-    s3PathCleaner = new S3PathCleaner(mockS3Client, s3SentinelFilesCleaner, bytesDeletedReporter);
-    when(mockS3Client.doesObjectExist(bucket, key1)).thenReturn(true);
-    ObjectMetadata objectMetadata = new ObjectMetadata();
-    objectMetadata.setContentLength(10);
-    when(mockS3Client.getObjectMetadata(bucket, key1)).thenReturn(objectMetadata);
-    doThrow(AmazonServiceException.class).when(mockS3Client).deleteObject(bucket, key1);
+    AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
+    s3PathCleaner = new S3PathCleaner(new S3Client(mockAmazonS3, false), bytesDeletedReporter,
+      s3RequestCountReporter);
+    when(mockAmazonS3.listObjectsV2(any(ListObjectsV2Request.class)))
+      .thenReturn(listingPage(objectSummary(key1, 10L), false));
+    doThrow(AmazonServiceException.class).when(mockAmazonS3).deleteObject(bucket, key1);
 
     housekeepingPath.setPath(absolutePath + "/file1");
     assertThatExceptionOfType(AmazonServiceException.class)
@@ -320,9 +417,16 @@ class S3PathCleanerTest {
 
   @Test
   void noBytesDeletedMetricWhenDirectoryDeletionFails() {
-    S3Client mockS3Client = mock(S3Client.class);
-    s3PathCleaner = new S3PathCleaner(mockS3Client, s3SentinelFilesCleaner, bytesDeletedReporter);
-    doThrow(AmazonServiceException.class).when(mockS3Client).listObjects(bucket, keyRootAsDirectory);
+    AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
+    s3PathCleaner = new S3PathCleaner(new S3Client(mockAmazonS3, false), bytesDeletedReporter,
+      s3RequestCountReporter);
+    when(mockAmazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      if (request.getDelimiter() == null) {
+        throw new AmazonServiceException("Listing failed");
+      }
+      return directoryClassification(request.getPrefix());
+    });
 
     assertThatExceptionOfType(AmazonServiceException.class)
         .isThrownBy(() -> s3PathCleaner.cleanupPath(housekeepingPath));
@@ -334,7 +438,7 @@ class S3PathCleanerTest {
     AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
     S3Client mockS3Client = new S3Client(mockAmazonS3, false);
     mockOneOutOfTwoObjectsDeleted(mockAmazonS3);
-    s3PathCleaner = new S3PathCleaner(mockS3Client, s3SentinelFilesCleaner, bytesDeletedReporter);
+    s3PathCleaner = new S3PathCleaner(mockS3Client, bytesDeletedReporter, s3RequestCountReporter);
     assertThatExceptionOfType(BeekeeperException.class)
       .isThrownBy(() -> s3PathCleaner.cleanupPath(housekeepingPath))
       .withMessage(format("Not all files could be deleted at path \"%s/%s\"; deleted 1/2 objects. "
@@ -343,6 +447,126 @@ class S3PathCleanerTest {
     verify(bytesDeletedReporter).reportTaggable(100L, housekeepingPath, FileSystemType.S3);
   }
 
+  @Test
+  void directoryIsDeletedOneListingPageAtATime() {
+    AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
+    ListObjectsV2Result firstPage = listingPage(objectSummary(key1, 100L), true);
+    firstPage.setNextContinuationToken("token");
+    mockDirectoryListing(mockAmazonS3, firstPage, listingPage(objectSummary(key2, 50L), false));
+    when(mockAmazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
+      .thenReturn(new DeleteObjectsResult(List.of(deletedObject(key1))))
+      .thenReturn(new DeleteObjectsResult(List.of(deletedObject(key2))));
+    s3PathCleaner = new S3PathCleaner(new S3Client(mockAmazonS3, false), bytesDeletedReporter,
+      s3RequestCountReporter);
+
+    s3PathCleaner.cleanupPath(housekeepingPath);
+
+    verify(mockAmazonS3, times(2))
+      .listObjectsV2(argThat((ListObjectsV2Request request) -> request.getDelimiter() == null));
+    verify(mockAmazonS3, times(2)).deleteObjects(any(DeleteObjectsRequest.class));
+    verify(bytesDeletedReporter).reportTaggable(150L, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void directoryBatchesAreDeletedConcurrently() {
+    AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
+    mockDirectoryListing(mockAmazonS3,
+      listingPage(objectSummary(key1, 100L), true),
+      listingPage(objectSummary(key2, 50L), true),
+      listingPage(objectSummary(keyRoot + "/file3", 25L), false));
+    when(mockAmazonS3.deleteObjects(any(DeleteObjectsRequest.class))).thenAnswer(invocation -> {
+      DeleteObjectsRequest request = invocation.getArgument(0);
+      return new DeleteObjectsResult(List.of(deletedObject(request.getKeys().get(0).getKey())));
+    });
+    S3PathCleaner concurrentPathCleaner = new S3PathCleaner(new S3Client(mockAmazonS3, false), bytesDeletedReporter,
+      s3RequestCountReporter, 2);
+
+    try {
+      concurrentPathCleaner.cleanupPath(housekeepingPath);
+    } finally {
+      concurrentPathCleaner.shutdown();
+    }
+
+    verify(mockAmazonS3, times(3)).deleteObjects(any(DeleteObjectsRequest.class));
+    verify(bytesDeletedReporter).reportTaggable(175L, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void partialFailuresAreAggregatedAcrossConcurrentBatches() {
+    AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
+    mockDirectoryListing(mockAmazonS3,
+      listingPage(objectSummary(key1, 100L), true),
+      listingPage(objectSummary(key2, 50L), false));
+    when(mockAmazonS3.deleteObjects(any(DeleteObjectsRequest.class))).thenAnswer(invocation -> {
+      DeleteObjectsRequest request = invocation.getArgument(0);
+      String key = request.getKeys().get(0).getKey();
+      return new DeleteObjectsResult(key.equals(key1) ? List.of(deletedObject(key)) : List.of());
+    });
+    S3PathCleaner concurrentPathCleaner = new S3PathCleaner(new S3Client(mockAmazonS3, false), bytesDeletedReporter,
+      s3RequestCountReporter, 2);
+
+    try {
+      assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> concurrentPathCleaner.cleanupPath(housekeepingPath))
+        .withMessage(format("Not all files could be deleted at path \"%s/%s\"; deleted 1/2 objects. "
+            + "Objects not deleted: 'table/id1/partition_1/file2'.", bucket, keyRootAsDirectory));
+    } finally {
+      concurrentPathCleaner.shutdown();
+    }
+    verify(bytesDeletedReporter).reportTaggable(100L, housekeepingPath, FileSystemType.S3);
+  }
+
+  @Test
+  void sentinelIsNotDeletedWithTheLastBatchWhenAnEarlierConcurrentBatchFails() {
+    AmazonS3 mockAmazonS3 = mock(AmazonS3.class);
+    Iterator<ListObjectsV2Result> pages = List.of(
+      listingPage(objectSummary(key1, 100L), true),
+      listingPage(objectSummary(key2, 50L), false)).iterator();
+    when(mockAmazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      if (request.getDelimiter() == null) {
+        return pages.next();
+      }
+      ListObjectsV2Result listObjectsV2Result = directoryClassification(request.getPrefix());
+      if (request.getPrefix().equals(keyRoot)) {
+        listObjectsV2Result.getObjectSummaries().add(objectSummary(partition1Sentinel, 0L));
+      }
+      return listObjectsV2Result;
+    });
+    when(mockAmazonS3.deleteObjects(any(DeleteObjectsRequest.class))).thenAnswer(invocation -> {
+      DeleteObjectsRequest request = invocation.getArgument(0);
+      String key = request.getKeys().get(0).getKey();
+      if (key.equals(key1)) {
+        // the first batch fails after the last page has been listed
+        Thread.sleep(200L);
+        return new DeleteObjectsResult(List.of());
+      }
+      return new DeleteObjectsResult(List.of(deletedObject(key)));
+    });
+    S3PathCleaner concurrentPathCleaner = new S3PathCleaner(new S3Client(mockAmazonS3, false), bytesDeletedReporter,
+      s3RequestCountReporter, 2);
+
+    try {
+      assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> concurrentPathCleaner.cleanupPath(housekeepingPath));
+    } finally {
+      concurrentPathCleaner.shutdown();
+    }
+
+    ArgumentCaptor<DeleteObjectsRequest> requestCaptor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(mockAmazonS3, times(2)).deleteObjects(requestCaptor.capture());
+    assertThat(requestCaptor.getAllValues())
+      .flatExtracting(DeleteObjectsRequest::getKeys)
+      .extracting(DeleteObjectsRequest.KeyVersion::getKey)
+      .containsExactlyInAnyOrder(key1, key2);
+  }
+
+  @Test
+  void invalidDeleteParallelism() {
+    assertThatExceptionOfType(BeekeeperException.class)
+      .isThrownBy(() -> new S3PathCleaner(s3Client, bytesDeletedReporter, s3RequestCountReporter, 0));
+  }
+
   @Test
   void extractingURIFails() {
     String path = "not a real path";
@@ -352,6 +576,60 @@ class S3PathCleanerTest {
       .withMessage(format("'%s' is not an S3 path.", path));
   }
 
+  private HousekeepingPath partitionPath(String partition) {
+    return new HousekeepingPath.Builder()
+      .path("s3://" + bucket + "/table/id1/" + partition)
+      .tableName(tableName)
+      .databaseName(databaseName)
+      .creationTimestamp(LocalDateTime.now())
+      .cleanupDelay(Duration.ofDays(1))
+      .build();
+  }
+
+  private S3ObjectSummary objectSummary(String key, long size) {
+    S3ObjectSummary s3ObjectSummary = new S3ObjectSummary();
+    s3ObjectSummary.setBucketName(bucket);
+    s3ObjectSummary.setKey(key);
+    s3ObjectSummary.setSize(size);
+    return s3ObjectSummary;
+  }
+
+  private ListObjectsV2Result listingPage(S3ObjectSummary objectSummary, boolean truncated) {
+    ListObjectsV2Result listObjectsV2Result = new ListObjectsV2Result();
+    listObjectsV2Result.getObjectSummaries().add(objectSummary);
+    listObjectsV2Result.setTruncated(truncated);
+    return listObjectsV2Result;
+  }
+
+  /**
+   * Answers the delimited listings which classify a path as if {@link #keyRoot} were a directory and returns
+   * {@code directoryPages} in turn for the listing of its contents.
+   */
+  private void mockDirectoryListing(AmazonS3 mockAmazonS3, ListObjectsV2Result... directoryPages) {
+    Iterator<ListObjectsV2Result> pages = List.of(directoryPages).iterator();
+    when(mockAmazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      if (request.getDelimiter() == null) {
+        return pages.next();
+      }
+      return directoryClassification(request.getPrefix());
+    });
+  }
+
+  private ListObjectsV2Result directoryClassification(String prefix) {
+    ListObjectsV2Result listObjectsV2Result = new ListObjectsV2Result();
+    if (prefix.equals(keyRoot)) {
+      listObjectsV2Result.getCommonPrefixes().add(keyRootAsDirectory);
+    }
+    return listObjectsV2Result;
+  }
+
+  private DeleteObjectsResult.DeletedObject deletedObject(String key) {
+    DeleteObjectsResult.DeletedObject deletedObject = new DeleteObjectsResult.DeletedObject();
+    deletedObject.setKey(key);
+    return deletedObject;
+  }
+
   private void mockOneOutOfTwoObjectsDeleted(AmazonS3 mockAmazonS3) {
     S3ObjectSummary s3ObjectSummary = new S3ObjectSummary();
     s3ObjectSummary.setBucketName(bucket);
@@ -361,9 +639,9 @@ class S3PathCleanerTest {
     s3ObjectSummary2.setBucketName(bucket);
     s3ObjectSummary2.setKey(key2);
     s3ObjectSummary2.setSize(50L);
-    ListObjectsV2Result listObjectsV2Result = mock(ListObjectsV2Result.class);
-    when(listObjectsV2Result.getObjectSummaries()).thenReturn(List.of(s3ObjectSummary, s3ObjectSummary2));
-    when(mockAmazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listObjectsV2Result);
+    ListObjectsV2Result listObjectsV2Result = new ListObjectsV2Result();
+    listObjectsV2Result.getObjectSummaries().addAll(List.of(s3ObjectSummary, s3ObjectSummary2));
+    mockDirectoryListing(mockAmazonS3, listObjectsV2Result);
     DeleteObjectsResult.DeletedObject deletedObject = new DeleteObjectsResult.DeletedObject();
     deletedObject.setKey(key1);
     when(mockAmazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import cloud.localstack.ServiceName;
+import cloud.localstack.awssdkv1.TestUtils;
+import cloud.localstack.docker.LocalstackDockerExtension;
+import cloud.localstack.docker.annotation.LocalstackDockerProperties;
+
+import com.amazonaws.services.s3.AmazonS3;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+@ExtendWith(LocalstackDockerExtension.class)
+@LocalstackDockerProperties(services = { ServiceName.S3 })
+class S3PathSizeClassifierTest {
+
+  private final String content = "Some content";
+  private final String bucket = "bucket";
+  private final String keyRoot = "table/id1/partition_1";
+
+  private AmazonS3 amazonS3;
+  private S3Client s3Client;
+  private S3PathSizeClassifier classifier;
+
+  @BeforeEach
+  void setUp() {
+    amazonS3 = TestUtils.getClientS3();
+    amazonS3.createBucket(bucket);
+    amazonS3.listObjectsV2(bucket)
+      .getObjectSummaries()
+      .forEach(object -> amazonS3.deleteObject(bucket, object.getKey()));
+    s3Client = new S3Client(amazonS3, false);
+    classifier = new S3PathSizeClassifier(s3Client, 2);
+  }
+
+  @Test
+  void smallDirectory() {
+    amazonS3.putObject(bucket, keyRoot + "/file1", content);
+    amazonS3.putObject(bucket, keyRoot + "/file2", content);
+
+    assertThat(classifier.isLarge(path("s3://" + bucket + "/" + keyRoot))).isFalse();
+  }
+
+  @Test
+  void largeDirectory() {
+    amazonS3.putObject(bucket, keyRoot + "/file1", content);
+    amazonS3.putObject(bucket, keyRoot + "/file2", content);
+    amazonS3.putObject(bucket, keyRoot + "/sub/file3", content);
+
+    assertThat(classifier.isLarge(path("s3://" + bucket + "/" + keyRoot))).isTrue();
+    assertThat(classifier.isLarge(path("s3://" + bucket + "/" + keyRoot + "/"))).isTrue();
+  }
+
+  @Test
+  void file() {
+    amazonS3.putObject(bucket, keyRoot + "/file1", content);
+
+    assertThat(classifier.isLarge(path("s3://" + bucket + "/" + keyRoot + "/file1"))).isFalse();
+  }
+
+  @Test
+  void notAnS3Path() {
+    assertThat(classifier.isLarge(path("hdfs://" + keyRoot))).isFalse();
+  }
+
+  @Test
+  void invalidMinObjects() {
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> new S3PathSizeClassifier(s3Client, 1001));
+  }
+
+  private HousekeepingPath path(String path) {
+    return new HousekeepingPath.Builder()
+      .path(path)
+      .tableName("table")
+      .databaseName("database")
+      .creationTimestamp(LocalDateTime.now())
+      .cleanupDelay(Duration.ofDays(1))
+      .build();
+  }
+}
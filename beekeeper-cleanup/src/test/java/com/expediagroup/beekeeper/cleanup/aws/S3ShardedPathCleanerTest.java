@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.aws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import cloud.localstack.ServiceName;
+import cloud.localstack.awssdkv1.TestUtils;
+import cloud.localstack.docker.LocalstackDockerExtension;
+import cloud.localstack.docker.annotation.LocalstackDockerProperties;
+
+import com.amazonaws.services.s3.AmazonS3;
+
+import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
+import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
+import com.expediagroup.beekeeper.core.config.FileSystemType;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+import com.expediagroup.beekeeper.core.model.HousekeepingPathShard;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathShardRepository;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(LocalstackDockerExtension.class)
+@LocalstackDockerProperties(services = { ServiceName.S3 })
+class S3ShardedPathCleanerTest {
+
+  private static final Long ID = 1L;
+
+  private final String content = "Some content";
+  private final String bucket = "bucket";
+  private final String keyRoot = "table/id1/partition_1";
+  private final String shard1Key = keyRoot + "/bucket_1/file1";
+  private final String shard1OtherKey = keyRoot + "/bucket_1/file2";
+  private final String shard2Key = keyRoot + "/bucket_2/file1";
+  private final String directKey = keyRoot + "/file1";
+  private final String sentinel = "table/id1/partition_1_$folder$";
+  private final String absolutePath = "s3://" + bucket + "/" + keyRoot;
+
+  private HousekeepingPath housekeepingPath;
+  private AmazonS3 amazonS3;
+  private S3Client s3Client;
+  private PathCleaner s3PathCleaner;
+  private @Mock HousekeepingPathShardRepository housekeepingPathShardRepository;
+  private @Mock BytesDeletedReporter bytesDeletedReporter;
+  private @Mock S3RequestCountReporter s3RequestCountReporter;
+  private @Mock PathCleaner delegate;
+
+  private S3ShardedPathCleaner s3ShardedPathCleaner;
+
+  @BeforeEach
+  void setUp() {
+    amazonS3 = TestUtils.getClientS3();
+    amazonS3.createBucket(bucket);
+    amazonS3.listObjectsV2(bucket)
+      .getObjectSummaries()
+      .forEach(object -> amazonS3.deleteObject(bucket, object.getKey()));
+    s3Client = new S3Client(amazonS3, false);
+    s3PathCleaner = new S3PathCleaner(s3Client, bytesDeletedReporter, s3RequestCountReporter);
+    housekeepingPath = new HousekeepingPath.Builder()
+      .id(ID)
+      .path(absolutePath)
+      .tableName("table")
+      .databaseName("database")
+      .creationTimestamp(LocalDateTime.now())
+      .cleanupDelay(Duration.ofDays(1))
+      .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (s3ShardedPathCleaner != null) {
+      s3ShardedPathCleaner.shutdown();
+    }
+  }
+
+  @Test
+  void typicalShardedDirectory() {
+    amazonS3.putObject(bucket, shard1Key, content);
+    amazonS3.putObject(bucket, shard1OtherKey, content);
+    amazonS3.putObject(bucket, shard2Key, content);
+    amazonS3.putObject(bucket, directKey, content);
+    amazonS3.putObject(bucket, sentinel, "");
+    when(housekeepingPathShardRepository.findShards(ID)).thenReturn(List.of());
+    when(housekeepingPathShardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    s3ShardedPathCleaner = new S3ShardedPathCleaner(s3Client, s3PathCleaner, housekeepingPathShardRepository,
+        bytesDeletedReporter, 2, 2);
+
+    s3ShardedPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.listObjectsV2(bucket).getObjectSummaries()).isEmpty();
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<HousekeepingPathShard>> shardsCaptor = ArgumentCaptor.forClass(List.class);
+    verify(housekeepingPathShardRepository).saveAll(shardsCaptor.capture());
+    assertThat(shardsCaptor.getValue())
+        .extracting(HousekeepingPathShard::getPrefix)
+        .containsExactly(keyRoot + "/bucket_1/", keyRoot + "/bucket_2/");
+    assertThat(shardsCaptor.getValue())
+        .extracting(HousekeepingPathShard::getHousekeepingStatus)
+        .containsOnly(DELETED);
+    verify(bytesDeletedReporter).reportTaggable(content.getBytes().length * 2, housekeepingPath, FileSystemType.S3);
+    verify(bytesDeletedReporter, times(2))
+        .reportTaggable(content.getBytes().length, housekeepingPath, FileSystemType.S3);
+    verify(housekeepingPathShardRepository).deleteShards(ID);
+  }
+
+  @Test
+  void directoryWithFewChildDirectoriesIsNotSharded() {
+    amazonS3.putObject(bucket, shard1Key, content);
+    amazonS3.putObject(bucket, shard2Key, content);
+    when(housekeepingPathShardRepository.findShards(ID)).thenReturn(List.of());
+    s3ShardedPathCleaner = new S3ShardedPathCleaner(s3Client, s3PathCleaner, housekeepingPathShardRepository,
+        bytesDeletedReporter, 3, 2);
+
+    s3ShardedPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.listObjectsV2(bucket).getObjectSummaries()).isEmpty();
+    verify(housekeepingPathShardRepository, never()).saveAll(any());
+    verify(housekeepingPathShardRepository, never()).deleteShards(any());
+  }
+
+  @Test
+  void resumesFromCheckpoints() {
+    amazonS3.putObject(bucket, shard1Key, content);
+    amazonS3.putObject(bucket, shard1OtherKey, content);
+    amazonS3.putObject(bucket, shard2Key, content);
+    HousekeepingPathShard shard1 = new HousekeepingPathShard(ID, keyRoot + "/bucket_1/", LocalDateTime.now());
+    shard1.setCheckpoint(shard1Key);
+    HousekeepingPathShard shard2 = new HousekeepingPathShard(ID, keyRoot + "/bucket_2/", LocalDateTime.now());
+    shard2.setHousekeepingStatus(DELETED);
+    when(housekeepingPathShardRepository.findShards(ID)).thenReturn(List.of(shard1, shard2));
+    s3ShardedPathCleaner = new S3ShardedPathCleaner(s3Client, delegate, housekeepingPathShardRepository,
+        bytesDeletedReporter, 2, 2);
+
+    s3ShardedPathCleaner.cleanupPath(housekeepingPath);
+
+    assertThat(amazonS3.doesObjectExist(bucket, shard1Key)).isTrue();
+    assertThat(amazonS3.doesObjectExist(bucket, shard1OtherKey)).isFalse();
+    assertThat(amazonS3.doesObjectExist(bucket, shard2Key)).isTrue();
+    assertThat(shard1.getHousekeepingStatus()).isEqualTo(DELETED);
+    verify(housekeepingPathShardRepository).save(shard1);
+    verify(housekeepingPathShardRepository, never()).save(shard2);
+    verify(delegate).cleanupPath(housekeepingPath);
+    verify(housekeepingPathShardRepository).deleteShards(ID);
+  }
+
+  @Test
+  void shardsAreKeptWhenTheFinalPassFails() {
+    HousekeepingPathShard shard = new HousekeepingPathShard(ID, keyRoot + "/bucket_1/", LocalDateTime.now());
+    shard.setHousekeepingStatus(DELETED);
+    when(housekeepingPathShardRepository.findShards(ID)).thenReturn(List.of(shard));
+    doThrow(new BeekeeperException("Error")).when(delegate).cleanupPath(housekeepingPath);
+    s3ShardedPathCleaner = new S3ShardedPathCleaner(s3Client, delegate, housekeepingPathShardRepository,
+        bytesDeletedReporter, 2, 2);
+
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> s3ShardedPathCleaner.cleanupPath(housekeepingPath));
+    verify(housekeepingPathShardRepository, never()).deleteShards(any());
+  }
+
+  @Test
+  void pathWithoutIdIsNotSharded() {
+    housekeepingPath = new HousekeepingPath.Builder()
+      .path(absolutePath)
+      .tableName("table")
+      .databaseName("database")
+      .creationTimestamp(LocalDateTime.now())
+      .cleanupDelay(Duration.ofDays(1))
+      .build();
+    s3ShardedPathCleaner = new S3ShardedPathCleaner(s3Client, delegate, housekeepingPathShardRepository,
+        bytesDeletedReporter, 2, 2);
+
+    s3ShardedPathCleaner.cleanupPath(housekeepingPath);
+
+    verify(delegate).cleanupPath(housekeepingPath);
+    verifyNoInteractions(housekeepingPathShardRepository);
+  }
+
+  @Test
+  void shutdownShutsDownTheWrappedCleaner() {
+    s3ShardedPathCleaner = new S3ShardedPathCleaner(s3Client, delegate, housekeepingPathShardRepository,
+        bytesDeletedReporter, 2, 2);
+
+    s3ShardedPathCleaner.shutdown();
+
+    verify(delegate).shutdown();
+  }
+
+  @Test
+  void invalidMinShards() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new S3ShardedPathCleaner(s3Client, delegate, housekeepingPathShardRepository,
+            bytesDeletedReporter, 1, 2));
+  }
+}
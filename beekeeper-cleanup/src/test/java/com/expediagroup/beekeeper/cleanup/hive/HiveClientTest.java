@@ -15,14 +15,22 @@
  */
 package com.expediagroup.beekeeper.cleanup.hive;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
 
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.UnknownDBException;
 import org.apache.thrift.TException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -114,4 +122,63 @@ public class HiveClientTest {
       hiveClient.dropPartition(DATABASE, TABLE_NAME, PARTITION_NAME);
     });
   }
+
+  @Test
+  public void typicalExistingPartitions() throws TException {
+    String otherPartitionName = "event_date=2020-01-01/event_hour=1/event_type=A";
+    List<String> partitionNames = List.of(PARTITION_NAME, otherPartitionName);
+    Partition partition = new Partition();
+    partition.setValues(List.of("2020-01-01", "0", "A"));
+    when(client.getPartitionsByNames(DATABASE, TABLE_NAME, partitionNames)).thenReturn(List.of(partition));
+
+    Set<String> result = hiveClient.existingPartitions(DATABASE, TABLE_NAME, partitionNames);
+    assertEquals(Set.of(PARTITION_NAME), result);
+  }
+
+  @Test
+  public void noExistingPartitionsWhenTableAlreadyDropped() throws TException {
+    List<String> partitionNames = List.of(PARTITION_NAME);
+    when(client.getPartitionsByNames(DATABASE, TABLE_NAME, partitionNames)).thenThrow(NoSuchObjectException.class);
+
+    Set<String> result = hiveClient.existingPartitions(DATABASE, TABLE_NAME, partitionNames);
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  public void throwsExceptionForExistingPartitions() throws TException {
+    List<String> partitionNames = List.of(PARTITION_NAME);
+    when(client.getPartitionsByNames(DATABASE, TABLE_NAME, partitionNames)).thenThrow(MetaException.class);
+    assertThrows(BeekeeperException.class, () -> {
+      hiveClient.existingPartitions(DATABASE, TABLE_NAME, partitionNames);
+    });
+  }
+
+  @Test
+  public void typicalExistingTables() throws TException {
+    List<String> tableNames = List.of("TableName", "otherTableName");
+    Table table = new Table();
+    table.setTableName("tablename");
+    when(client.getTableObjectsByName(DATABASE, tableNames)).thenReturn(List.of(table));
+
+    Set<String> result = hiveClient.existingTables(DATABASE, tableNames);
+    assertEquals(Set.of("TableName"), result);
+  }
+
+  @Test
+  public void noExistingTablesWhenDatabaseDoesntExist() throws TException {
+    List<String> tableNames = List.of(TABLE_NAME);
+    when(client.getTableObjectsByName(DATABASE, tableNames)).thenThrow(UnknownDBException.class);
+
+    Set<String> result = hiveClient.existingTables(DATABASE, tableNames);
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  public void throwsExceptionForExistingTables() throws TException {
+    List<String> tableNames = List.of(TABLE_NAME);
+    when(client.getTableObjectsByName(DATABASE, tableNames)).thenThrow(MetaException.class);
+    assertThrows(BeekeeperException.class, () -> {
+      hiveClient.existingTables(DATABASE, tableNames);
+    });
+  }
 }
@@ -15,16 +15,27 @@
  */
 package com.expediagroup.beekeeper.cleanup.hive;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static com.expediagroup.beekeeper.cleanup.hive.HiveMetadataCleaner.TABLE_CACHE_HITS_METRIC_NAME;
+import static com.expediagroup.beekeeper.cleanup.hive.HiveMetadataCleaner.TABLE_CACHE_MISSES_METRIC_NAME;
+
+import java.util.List;
+import java.util.Set;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import com.expediagroup.beekeeper.cleanup.monitoring.DeletedMetadataReporter;
 import com.expediagroup.beekeeper.core.config.MetadataType;
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
@@ -36,6 +47,7 @@ public class HiveMetadataCleanerTest {
   private @Mock DeletedMetadataReporter deletedMetadataReporter;
   private @Mock HiveClient hiveClient;
 
+  private MeterRegistry meterRegistry;
   private HiveMetadataCleaner cleaner;
   private static final String DATABASE = "database";
   private static final String TABLE_NAME = "tableName";
@@ -43,7 +55,8 @@ public class HiveMetadataCleanerTest {
 
   @BeforeEach
   public void init() {
-    cleaner = new HiveMetadataCleaner(deletedMetadataReporter);
+    meterRegistry = new SimpleMeterRegistry();
+    cleaner = new HiveMetadataCleaner(deletedMetadataReporter, meterRegistry);
     when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
     when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
   }
@@ -71,4 +84,46 @@ public class HiveMetadataCleanerTest {
     cleaner.dropPartition(housekeepingMetadata, hiveClient);
     verify(deletedMetadataReporter, never()).reportTaggable(housekeepingMetadata, MetadataType.HIVE_PARTITION);
   }
+
+  @Test
+  public void tableExistenceIsCachedUntilTableIsDropped() {
+    when(hiveClient.tableExists(DATABASE, TABLE_NAME)).thenReturn(true);
+
+    assertThat(cleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).isTrue();
+    assertThat(cleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).isTrue();
+    verify(hiveClient).tableExists(DATABASE, TABLE_NAME);
+
+    cleaner.dropTable(housekeepingMetadata, hiveClient);
+    cleaner.tableExists(hiveClient, DATABASE, TABLE_NAME);
+    verify(hiveClient, times(2)).tableExists(DATABASE, TABLE_NAME);
+    assertThat(meterRegistry.counter(TABLE_CACHE_HITS_METRIC_NAME).count()).isEqualTo(1.0);
+    assertThat(meterRegistry.counter(TABLE_CACHE_MISSES_METRIC_NAME).count()).isEqualTo(2.0);
+  }
+
+  @Test
+  public void prefetchedTablesAreNotCheckedAgain() {
+    String missingTableName = "missingTableName";
+    when(hiveClient.existingTables(DATABASE, List.of(TABLE_NAME, missingTableName))).thenReturn(Set.of(TABLE_NAME));
+
+    cleaner.prefetchTables(hiveClient, housekeepingMetadata.getDatabaseName(),
+        List.of(housekeepingMetadata.getTableName(), missingTableName, TABLE_NAME));
+    assertThat(cleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).isTrue();
+    assertThat(cleaner.tableExists(hiveClient, DATABASE, missingTableName)).isFalse();
+
+    cleaner.prefetchTables(hiveClient, DATABASE, List.of(TABLE_NAME, missingTableName));
+    verify(hiveClient).existingTables(DATABASE, List.of(TABLE_NAME, missingTableName));
+    verify(hiveClient, never()).tableExists(DATABASE, TABLE_NAME);
+    assertThat(meterRegistry.counter(TABLE_CACHE_HITS_METRIC_NAME).count()).isEqualTo(2.0);
+  }
+
+  @Test
+  public void tableExistenceIsForgottenWhenCleanupRunCompletes() {
+    when(hiveClient.tableExists(housekeepingMetadata.getDatabaseName(), housekeepingMetadata.getTableName()))
+        .thenReturn(false);
+
+    cleaner.tableExists(hiveClient, DATABASE, TABLE_NAME);
+    cleaner.cleanupRunCompleted();
+    cleaner.tableExists(hiveClient, DATABASE, TABLE_NAME);
+    verify(hiveClient, times(2)).tableExists(DATABASE, TABLE_NAME);
+  }
 }
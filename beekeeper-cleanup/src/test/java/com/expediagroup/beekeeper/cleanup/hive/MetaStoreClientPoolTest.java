@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.hive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static com.expediagroup.beekeeper.cleanup.hive.MetaStoreClientPool.ACTIVE_METRIC_NAME;
+import static com.expediagroup.beekeeper.cleanup.hive.MetaStoreClientPool.EVICTIONS_METRIC_NAME;
+import static com.expediagroup.beekeeper.cleanup.hive.MetaStoreClientPool.IDLE_METRIC_NAME;
+import static com.expediagroup.beekeeper.cleanup.hive.MetaStoreClientPool.WAIT_METRIC_NAME;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+@ExtendWith(MockitoExtension.class)
+public class MetaStoreClientPoolTest {
+
+  private static final String DATABASE = "database";
+  private static final String TABLE_NAME = "table";
+  private static final String LIVENESS_CHECK_DATABASE = "default";
+
+  private @Mock Supplier<CloseableMetaStoreClient> clientSupplier;
+  private @Mock CloseableMetaStoreClient client;
+  private @Mock CloseableMetaStoreClient otherClient;
+
+  private MeterRegistry meterRegistry;
+  private MetaStoreClientPool pool;
+
+  @BeforeEach
+  public void init() {
+    meterRegistry = new SimpleMeterRegistry();
+    pool = new MetaStoreClientPool(clientSupplier, 2, Duration.ofMillis(50), meterRegistry);
+  }
+
+  @Test
+  public void recentlyIdleClientIsReusedWithoutALivenessCheck() throws Exception {
+    when(clientSupplier.get()).thenReturn(client);
+
+    pool.get().close();
+    CloseableMetaStoreClient borrowed = pool.get();
+    borrowed.tableExists(DATABASE, TABLE_NAME);
+
+    verify(clientSupplier).get();
+    verify(client).tableExists(DATABASE, TABLE_NAME);
+    verify(client, never()).getDatabase(LIVENESS_CHECK_DATABASE);
+    verify(client, never()).close();
+    assertThat(meterRegistry.get(WAIT_METRIC_NAME).timer().count()).isEqualTo(2L);
+  }
+
+  @Test
+  public void longIdleClientIsReusedOnceChecked() throws Exception {
+    pool = new MetaStoreClientPool(clientSupplier, 2, Duration.ofMillis(50), Duration.ZERO, meterRegistry);
+    when(clientSupplier.get()).thenReturn(client);
+    when(client.getDatabase(LIVENESS_CHECK_DATABASE)).thenThrow(new NoSuchObjectException("default"));
+
+    pool.get().close();
+    pool.get();
+
+    verify(clientSupplier).get();
+    verify(client).getDatabase(LIVENESS_CHECK_DATABASE);
+    verify(client, never()).close();
+  }
+
+  @Test
+  public void deadIdleClientIsEvicted() throws Exception {
+    pool = new MetaStoreClientPool(clientSupplier, 2, Duration.ofMillis(50), Duration.ZERO, meterRegistry);
+    when(clientSupplier.get()).thenReturn(client, otherClient);
+    when(client.getDatabase(LIVENESS_CHECK_DATABASE)).thenThrow(new TTransportException("Connection reset"));
+
+    pool.get().close();
+    pool.get();
+
+    verify(clientSupplier, times(2)).get();
+    verify(client).close();
+    assertThat(meterRegistry.get(EVICTIONS_METRIC_NAME).counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  public void clientWithFailedConnectionIsEvicted() throws Exception {
+    when(clientSupplier.get()).thenReturn(client);
+    when(client.tableExists(DATABASE, TABLE_NAME)).thenThrow(new TTransportException("Broken pipe"));
+
+    CloseableMetaStoreClient borrowed = pool.get();
+    assertThatExceptionOfType(TTransportException.class)
+        .isThrownBy(() -> borrowed.tableExists(DATABASE, TABLE_NAME));
+    borrowed.close();
+
+    verify(client).close();
+    assertThat(meterRegistry.get(EVICTIONS_METRIC_NAME).counter().count()).isEqualTo(1.0);
+    assertThat(meterRegistry.get(IDLE_METRIC_NAME).gauge().value()).isEqualTo(0.0);
+  }
+
+  @Test
+  public void activeAndIdleClientsAreReported() {
+    when(clientSupplier.get()).thenReturn(client);
+
+    CloseableMetaStoreClient borrowed = pool.get();
+    assertThat(meterRegistry.get(ACTIVE_METRIC_NAME).gauge().value()).isEqualTo(1.0);
+    assertThat(meterRegistry.get(IDLE_METRIC_NAME).gauge().value()).isEqualTo(0.0);
+
+    borrowed.close();
+    assertThat(meterRegistry.get(ACTIVE_METRIC_NAME).gauge().value()).isEqualTo(0.0);
+    assertThat(meterRegistry.get(IDLE_METRIC_NAME).gauge().value()).isEqualTo(1.0);
+  }
+
+  @Test
+  public void borrowingTimesOutWhenPoolIsExhausted() {
+    when(clientSupplier.get()).thenReturn(client, otherClient);
+
+    pool.get();
+    pool.get();
+
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> pool.get())
+        .withMessage("Timed out after PT0.05S waiting for a metastore client.");
+  }
+
+  @Test
+  public void clientCannotBeUsedOnceReturned() {
+    when(clientSupplier.get()).thenReturn(client);
+
+    CloseableMetaStoreClient borrowed = pool.get();
+    borrowed.close();
+    borrowed.close();
+
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> borrowed.tableExists(DATABASE, TABLE_NAME));
+    assertThat(meterRegistry.get(IDLE_METRIC_NAME).gauge().value()).isEqualTo(1.0);
+  }
+
+  @Test
+  public void closingThePoolClosesIdleClients() {
+    when(clientSupplier.get()).thenReturn(client);
+
+    pool.get().close();
+    pool.close();
+
+    verify(client).close();
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> pool.get())
+        .withMessage("Metastore client pool is closed.");
+  }
+
+  @Test
+  public void invalidSize() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new MetaStoreClientPool(clientSupplier, 0, Duration.ofMillis(50), meterRegistry))
+        .withMessage("Metastore client pool size must be positive; was 0.");
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import static com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter.METRIC_NAME;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.RequiredSearch;
+
+import com.expediagroup.beekeeper.cleanup.TestApplication;
+import com.expediagroup.beekeeper.core.monitoring.MetricTag;
+import com.expediagroup.beekeeper.core.monitoring.Taggable;
+
+@ExtendWith(SpringExtension.class)
+@ExtendWith(MockitoExtension.class)
+@ContextConfiguration(classes = { TestApplication.class },
+  loader = AnnotationConfigContextLoader.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class S3RequestCountReporterTest {
+
+  private static final String TABLE = "database.table";
+
+  private @Autowired MeterRegistry meterRegistry;
+  private @Mock Taggable taggable;
+  private S3RequestCountReporter s3RequestCountReporter;
+
+  @BeforeEach
+  public void init() {
+    when(taggable.getMetricTag()).thenReturn(new MetricTag("table", TABLE));
+    s3RequestCountReporter = new S3RequestCountReporter(meterRegistry);
+  }
+
+  @Test
+  public void typical() {
+    s3RequestCountReporter.reportTaggable(2, taggable);
+    s3RequestCountReporter.reportTaggable(4, taggable);
+    DistributionSummary summary = RequiredSearch.in(meterRegistry)
+        .name(METRIC_NAME)
+        .tags("table", TABLE)
+        .summary();
+    assertThat(summary.count()).isEqualTo(2L);
+    assertThat(summary.totalAmount()).isEqualTo(6.0);
+    assertThat(summary.max()).isEqualTo(4.0);
+  }
+}
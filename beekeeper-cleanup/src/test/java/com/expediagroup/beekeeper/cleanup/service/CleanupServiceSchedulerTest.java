@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.cleanup.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+@ExtendWith(MockitoExtension.class)
+public class CleanupServiceSchedulerTest {
+
+  private static final long DELAY_MS = 60_000L;
+  private static final long MAX_DELAY_MS = 300_000L;
+
+  private @Mock CleanupService cleanupService;
+
+  @Test
+  public void fixedDelay() {
+    CleanupServiceScheduler scheduler = new CleanupServiceScheduler(cleanupService, DELAY_MS, false, MAX_DELAY_MS);
+    scheduler.scheduleCleanup();
+    verify(cleanupService).cleanUp(any(Instant.class));
+    verify(cleanupService, never()).nextCleanupTime(any());
+    assertThat(scheduler.getNextDelay()).isEqualTo(Duration.ofMillis(DELAY_MS));
+  }
+
+  @Test
+  public void adaptiveDelayWithDueWorkLeft() {
+    CleanupServiceScheduler scheduler = new CleanupServiceScheduler(cleanupService, DELAY_MS, true, MAX_DELAY_MS);
+    when(cleanupService.nextCleanupTime(any())).thenReturn(Optional.of(Instant.now().minusSeconds(10)));
+    scheduler.scheduleCleanup();
+    assertThat(scheduler.getNextDelay()).isEqualTo(Duration.ZERO);
+  }
+
+  @Test
+  public void adaptiveDelayUntilNextCleanupTime() {
+    CleanupServiceScheduler scheduler = new CleanupServiceScheduler(cleanupService, DELAY_MS, true, MAX_DELAY_MS);
+    when(cleanupService.nextCleanupTime(any())).thenReturn(Optional.of(Instant.now().plusSeconds(120)));
+    scheduler.scheduleCleanup();
+    assertThat(scheduler.getNextDelay()).isBetween(Duration.ofSeconds(110), Duration.ofSeconds(120));
+  }
+
+  @Test
+  public void adaptiveDelayIsCapped() {
+    CleanupServiceScheduler scheduler = new CleanupServiceScheduler(cleanupService, DELAY_MS, true, MAX_DELAY_MS);
+    when(cleanupService.nextCleanupTime(any())).thenReturn(Optional.of(Instant.now().plus(Duration.ofDays(1))));
+    scheduler.scheduleCleanup();
+    assertThat(scheduler.getNextDelay()).isEqualTo(Duration.ofMillis(MAX_DELAY_MS));
+  }
+
+  @Test
+  public void adaptiveDelayWithoutWork() {
+    CleanupServiceScheduler scheduler = new CleanupServiceScheduler(cleanupService, DELAY_MS, true, MAX_DELAY_MS);
+    when(cleanupService.nextCleanupTime(any())).thenReturn(Optional.empty());
+    scheduler.scheduleCleanup();
+    assertThat(scheduler.getNextDelay()).isEqualTo(Duration.ofMillis(MAX_DELAY_MS));
+  }
+
+  @Test
+  public void failedCleanupWaitsFixedDelay() {
+    CleanupServiceScheduler scheduler = new CleanupServiceScheduler(cleanupService, DELAY_MS, true, MAX_DELAY_MS);
+    doThrow(BeekeeperException.class).when(cleanupService).cleanUp(any(Instant.class));
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(scheduler::scheduleCleanup);
+    verify(cleanupService, never()).nextCleanupTime(any());
+    assertThat(scheduler.getNextDelay()).isEqualTo(Duration.ofMillis(DELAY_MS));
+  }
+}
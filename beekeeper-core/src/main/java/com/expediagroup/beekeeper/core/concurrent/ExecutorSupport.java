@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.concurrent;
+
+import static java.lang.String.format;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+/**
+ * Waits for the tasks submitted to the worker pools of the cleanups and shuts those pools down.
+ */
+public final class ExecutorSupport {
+
+  private static final Logger log = LoggerFactory.getLogger(ExecutorSupport.class);
+  static final long SHUTDOWN_TIMEOUT_SECONDS = 60L;
+
+  private ExecutorSupport() {}
+
+  /**
+   * Waits for every future, even if one of them fails.
+   *
+   * @param futures Futures of the tasks to wait for
+   * @param description Plural description of the tasks, used in the exception messages
+   * @throws BeekeeperException With the first failure as its cause and any later ones suppressed, or if the calling
+   * thread is interrupted.
+   */
+  public static void awaitAll(Iterable<? extends Future<?>> futures, String description) {
+    throwIfFailed(awaitAll(futures, null, description));
+  }
+
+  /**
+   * Waits for every future, even if one of them fails, adding any failure to {@code failure}.
+   *
+   * @param futures Futures of the tasks to wait for
+   * @param failure Failure of earlier tasks, or null if there is none
+   * @param description Plural description of the tasks, used in the exception messages
+   * @return {@code failure}, or a new exception if it was null and a task failed
+   * @throws BeekeeperException If the calling thread is interrupted.
+   */
+  public static BeekeeperException awaitAll(Iterable<? extends Future<?>> futures, BeekeeperException failure,
+      String description) {
+    for (Future<?> future : futures) {
+      failure = await(future, failure, description);
+    }
+    return failure;
+  }
+
+  /**
+   * Takes futures from {@code futures} and waits for them until it is empty, including futures added in the meantime.
+   *
+   * @param futures Queue of the futures of the tasks to wait for
+   * @param description Plural description of the tasks, used in the exception messages
+   * @throws BeekeeperException With the first failure as its cause and any later ones suppressed, or if the calling
+   * thread is interrupted.
+   */
+  public static void awaitPolled(Queue<? extends Future<?>> futures, String description) {
+    BeekeeperException failure = null;
+    Future<?> future;
+    while ((future = futures.poll()) != null) {
+      failure = await(future, failure, description);
+    }
+    throwIfFailed(failure);
+  }
+
+  private static BeekeeperException await(Future<?> future, BeekeeperException failure, String description) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BeekeeperException(format("Interrupted while waiting for %s to complete.", description), e);
+    } catch (ExecutionException e) {
+      if (failure == null) {
+        return new BeekeeperException(format("Not all %s completed.", description), e.getCause());
+      }
+      failure.addSuppressed(e.getCause());
+    }
+    return failure;
+  }
+
+  private static void throwIfFailed(BeekeeperException failure) {
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Stops the executors from accepting tasks and waits up to {@value #SHUTDOWN_TIMEOUT_SECONDS} seconds for the
+   * running ones, after which every executor is interrupted.
+   *
+   * @param description Description of the workers, logged if they do not finish in time
+   * @param executors Executors to shut down
+   */
+  public static void shutdown(String description, ExecutorService... executors) {
+    shutdown(description, List.of(executors));
+  }
+
+  /**
+   * @see #shutdown(String, ExecutorService...)
+   */
+  public static void shutdown(String description, List<? extends ExecutorService> executors) {
+    executors.forEach(ExecutorService::shutdown);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+    try {
+      for (ExecutorService executor : executors) {
+        if (!executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+          log.warn("{} did not finish within {} seconds.", description, SHUTDOWN_TIMEOUT_SECONDS);
+          executors.forEach(ExecutorService::shutdownNow);
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executors.forEach(ExecutorService::shutdownNow);
+    }
+  }
+}
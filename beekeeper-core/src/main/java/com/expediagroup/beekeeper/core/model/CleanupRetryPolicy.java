@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.model;
+
+import static java.lang.String.format;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+/**
+ * Decides what happens to a record whose cleanup failed: it is retried after an exponentially growing backoff until
+ * it has failed {@code maxAttempts} times, after which it is {@link HousekeepingStatus#ABANDONED}.
+ */
+public final class CleanupRetryPolicy {
+
+  private static final CleanupRetryPolicy UNLIMITED = new CleanupRetryPolicy(0, Duration.ZERO, Duration.ZERO);
+  private static final int MAX_BACKOFF_DOUBLINGS = 30;
+
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  /**
+   * @param maxAttempts Number of failed attempts after which a record is abandoned; 0 retries records forever.
+   * @param initialBackoff Time to wait after the first failure; doubled after each further failure.
+   * @param maxBackoff Longest time to wait between two attempts.
+   */
+  public CleanupRetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    if (maxAttempts < 0) {
+      throw new BeekeeperException(format("Maximum cleanup attempts must not be negative; was %s.", maxAttempts));
+    }
+    if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new BeekeeperException(format("Invalid retry backoff: initial %s, maximum %s.", initialBackoff,
+          maxBackoff));
+    }
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * @return A policy which retries failed records on every cleanup, forever.
+   */
+  public static CleanupRetryPolicy unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * @param cleanupAttempts Number of attempts made so far, including the one which just failed.
+   * @return The status of a record whose cleanup just failed.
+   */
+  public HousekeepingStatus failedStatus(int cleanupAttempts) {
+    return maxAttempts > 0 && cleanupAttempts >= maxAttempts ? HousekeepingStatus.ABANDONED : HousekeepingStatus.FAILED;
+  }
+
+  /**
+   * @param cleanupAttempts Number of attempts made so far, including the one which just failed.
+   * @param now Time of the failure, in UTC.
+   * @return The earliest time the record may be retried, or null if it may be retried on the next cleanup.
+   */
+  public LocalDateTime nextAttemptTimestamp(int cleanupAttempts, LocalDateTime now) {
+    if (initialBackoff.isZero()) {
+      return null;
+    }
+    int doublings = Math.min(Math.max(cleanupAttempts - 1, 0), MAX_BACKOFF_DOUBLINGS);
+    Duration backoff = initialBackoff.multipliedBy(1L << doublings);
+    return now.plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff);
+  }
+}
@@ -28,7 +28,9 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -36,11 +38,17 @@ import com.expediagroup.beekeeper.core.error.BeekeeperException;
 import com.expediagroup.beekeeper.core.monitoring.MetricTag;
 
 @Entity
-@Table(name = "housekeeping_metadata")
+@Table(name = "housekeeping_metadata", indexes = {
+    @Index(name = "housekeeping_metadata_cleanup_idx",
+        columnList = "housekeeping_status, cleanup_timestamp, modified_timestamp"),
+    @Index(name = "housekeeping_metadata_table_idx",
+        columnList = "database_name, table_name, partition_name, housekeeping_status") })
 public class HousekeepingMetadata implements HousekeepingEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "housekeeping_metadata_id")
+  @TableGenerator(name = "housekeeping_metadata_id", table = "housekeeping_id_generator", pkColumnName = "entity_name",
+      valueColumnName = "next_id", pkColumnValue = "housekeeping_metadata", allocationSize = 50)
   private Long id;
 
   @Column(name = "path", nullable = false)
@@ -78,6 +86,16 @@ public class HousekeepingMetadata implements HousekeepingEntity {
 
   @Column(name = "client_id")
   private String clientId;
+
+  @Column(name = "next_attempt_timestamp")
+  private LocalDateTime nextAttemptTimestamp;
+
+  @Column(name = "claimed_by", insertable = false, updatable = false)
+  private String claimedBy;
+
+  @Column(name = "claim_expiry_timestamp", insertable = false, updatable = false)
+  private LocalDateTime claimExpiryTimestamp;
+
   @Column(name = "lifecycle_type", nullable = false)
   private String lifecycleType;
 
@@ -202,6 +220,29 @@ public class HousekeepingMetadata implements HousekeepingEntity {
     this.clientId = clientId;
   }
 
+  /**
+   * @return When a FAILED record may be retried; null if it may be retried on the next cleanup.
+   */
+  public LocalDateTime getNextAttemptTimestamp() {
+    return nextAttemptTimestamp;
+  }
+
+  public void setNextAttemptTimestamp(LocalDateTime nextAttemptTimestamp) {
+    this.nextAttemptTimestamp = nextAttemptTimestamp;
+  }
+
+  /**
+   * @return The cleanup instance which has claimed this record, if any. Claims are only written by the claim
+   * repositories.
+   */
+  public String getClaimedBy() {
+    return claimedBy;
+  }
+
+  public LocalDateTime getClaimExpiryTimestamp() {
+    return claimExpiryTimestamp;
+  }
+
   @Override
   public Duration getCleanupDelay() {
     return cleanupDelay;
@@ -220,7 +261,9 @@ public class HousekeepingMetadata implements HousekeepingEntity {
   @Override
   public String toString() {
     return format(
-        "%s(path=%s, databaseName=%s, tableName=%s, partitionName=%s, housekeepingStatus=%s, creationTimestamp=%s, modifiedTimestamp=%s, cleanupTimestamp=%s, cleanupDelay=%s, cleanupAttempts=%s, clientId=%s, lifecycleType=%s)",
+        "%s(path=%s, databaseName=%s, tableName=%s, partitionName=%s, housekeepingStatus=%s, creationTimestamp=%s, "
+            + "modifiedTimestamp=%s, cleanupTimestamp=%s, cleanupDelay=%s, cleanupAttempts=%s, clientId=%s, "
+            + "lifecycleType=%s)",
         HousekeepingMetadata.class.getSimpleName(), path, databaseName, tableName, partitionName, housekeepingStatus,
         creationTimestamp, modifiedTimestamp, cleanupTimestamp, cleanupDelay, cleanupAttempts, clientId, lifecycleType);
   }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.model;
+
+import static java.lang.String.format;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.TableGenerator;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * Part of a large {@link HousekeepingPath} which is deleted on its own: every object under a key prefix of the path.
+ * The shards of a path are deleted independently and each remembers the last key up to which every object has been
+ * deleted, so a cleanup which is interrupted carries on from there.
+ */
+@Entity
+@Table(name = "housekeeping_path_shard", indexes = {
+    @Index(name = "housekeeping_path_shard_path_idx", columnList = "housekeeping_path_id") })
+public class HousekeepingPathShard {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "housekeeping_path_shard_id")
+  @TableGenerator(name = "housekeeping_path_shard_id", table = "housekeeping_id_generator",
+      pkColumnName = "entity_name", valueColumnName = "next_id", pkColumnValue = "housekeeping_path_shard",
+      allocationSize = 50)
+  private Long id;
+
+  @Column(name = "housekeeping_path_id", nullable = false, updatable = false)
+  private Long housekeepingPathId;
+
+  @Column(name = "prefix", nullable = false, updatable = false, length = 1024)
+  private String prefix;
+
+  @Column(name = "housekeeping_status", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private HousekeepingStatus housekeepingStatus;
+
+  @Column(name = "checkpoint", length = 1024)
+  private String checkpoint;
+
+  @Column(name = "creation_timestamp", nullable = false, updatable = false)
+  private LocalDateTime creationTimestamp;
+
+  @Column(name = "modified_timestamp")
+  @UpdateTimestamp
+  private LocalDateTime modifiedTimestamp;
+
+  public HousekeepingPathShard() {
+
+  }
+
+  /**
+   * @param housekeepingPathId Id of the path the shard belongs to
+   * @param prefix Key prefix, relative to the bucket, of the objects in the shard
+   * @param creationTimestamp
+   */
+  public HousekeepingPathShard(Long housekeepingPathId, String prefix, LocalDateTime creationTimestamp) {
+    this.housekeepingPathId = housekeepingPathId;
+    this.prefix = prefix;
+    this.creationTimestamp = creationTimestamp;
+    this.housekeepingStatus = HousekeepingStatus.SCHEDULED;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getHousekeepingPathId() {
+    return housekeepingPathId;
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public HousekeepingStatus getHousekeepingStatus() {
+    return housekeepingStatus;
+  }
+
+  public void setHousekeepingStatus(HousekeepingStatus housekeepingStatus) {
+    this.housekeepingStatus = housekeepingStatus;
+  }
+
+  /**
+   * @return The last key up to which every object of the shard has been deleted, or null if none has been yet.
+   */
+  public String getCheckpoint() {
+    return checkpoint;
+  }
+
+  public void setCheckpoint(String checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  public LocalDateTime getCreationTimestamp() {
+    return creationTimestamp;
+  }
+
+  public LocalDateTime getModifiedTimestamp() {
+    return modifiedTimestamp;
+  }
+
+  @Override
+  public String toString() {
+    return format("%s(housekeepingPathId=%s, prefix=%s, housekeepingStatus=%s, checkpoint=%s)",
+        HousekeepingPathShard.class.getSimpleName(), housekeepingPathId, prefix, housekeepingStatus, checkpoint);
+  }
+}
@@ -18,5 +18,9 @@ package com.expediagroup.beekeeper.core.model;
 public enum HousekeepingStatus {
   SCHEDULED,
   FAILED,
-  DELETED
+  DELETED,
+  /**
+   * Cleanup failed as many times as allowed; the record is not retried.
+   */
+  ABANDONED
 }
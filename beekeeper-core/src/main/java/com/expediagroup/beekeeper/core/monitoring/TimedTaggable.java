@@ -23,8 +23,8 @@ import java.lang.annotation.Target;
 /**
  * Times the annotated method by triggering {@link TimedTaggableAspect}.
  *
- * The method can have any number of arguments but a {@link Taggable} must be the first. Will add the custom tag to the
- * timer metric.
+ * The method can have any number of arguments but a {@link Taggable}, or a collection of them, must be the first. Will
+ * add the custom tag to the timer metric.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -18,6 +18,9 @@
  */
 package com.expediagroup.beekeeper.core.monitoring;
 
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -34,6 +37,10 @@ import io.micrometer.core.instrument.Timer;
  *
  * The method can have any number of arguments but a {@link Taggable} must be the first. Will add the custom tag to the
  * timer metric.
+ *
+ * If the first argument is instead a collection of {@link Taggable}s, one timing is recorded for each of them with its
+ * own tag, so that the timer counts the same as if the method had been called once per element. Each timing is an
+ * equal share of the duration of the call.
  */
 @Aspect
 @Component
@@ -74,6 +81,38 @@ public class TimedTaggableAspect {
     }
   }
 
+  @Around("@annotation(timedTaggable) && args(taggables,..)")
+  public Object timeAll(
+      ProceedingJoinPoint pjp,
+      Collection<?> taggables,
+      TimedTaggable timedTaggable)
+    throws Throwable {
+    String metricName = timedTaggable.value();
+    long start = meterRegistry.config().clock().monotonicTime();
+    String exceptionClass = "none";
+    try {
+      return pjp.proceed();
+    } catch (Exception ex) {
+      exceptionClass = ex.getClass().getSimpleName();
+      throw ex;
+    } finally {
+      try {
+        long duration = (meterRegistry.config().clock().monotonicTime() - start) / Math.max(1, taggables.size());
+        for (Object taggable : taggables) {
+          if (taggable instanceof Taggable) {
+            Timer.builder(metricName)
+              .tags(EXCEPTION_TAG, exceptionClass)
+              .tags(metricTags(pjp, ((Taggable) taggable).getMetricTag()))
+              .register(meterRegistry)
+              .record(duration, TimeUnit.NANOSECONDS);
+          }
+        }
+      } catch (Exception e) {
+        // ignoring on purpose
+      }
+    }
+  }
+
   private Tags metricTags(ProceedingJoinPoint pjp, MetricTag metricTag) {
     Tags tags = Tags.of("class", pjp.getStaticPart().getSignature().getDeclaringTypeName(),
       "method", pjp.getStaticPart().getSignature().getName());
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
+
+/**
+ * Claims rows of a housekeeping table for one cleanup instance with an atomic conditional update.
+ *
+ * @implNote A row is only claimed if it is still due for cleanup, i.e. scheduled or failed and no longer backing off,
+ * and if it is unclaimed, already claimed by the same owner or its claim has expired. The update locks the rows it
+ * changes, so when two instances claim the same rows each row ends up with exactly one owner; the rows which were
+ * claimed are then read back by owner. The modified timestamp is assigned its own value so that claiming a row does
+ * not move it in the cleanup ordering.
+ */
+abstract class ClaimRepositorySupport<T extends HousekeepingEntity> {
+
+  private final String claimUpdate;
+  private final String claimedIdsQuery;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  ClaimRepositorySupport(String tableName) {
+    claimUpdate = "update " + tableName + " set claimed_by = :owner, claim_expiry_timestamp = :claimExpiryTimestamp, "
+        + "modified_timestamp = modified_timestamp "
+        + "where id in (:ids) and (housekeeping_status = 'SCHEDULED' or (housekeeping_status = 'FAILED' "
+        + "and (next_attempt_timestamp is null or next_attempt_timestamp <= :now))) "
+        + "and (claimed_by is null or claimed_by = :owner or claim_expiry_timestamp < :now)";
+    claimedIdsQuery = "select id from " + tableName + " where id in (:ids) and claimed_by = :owner";
+  }
+
+  List<T> claimRecords(List<T> records, CleanupLease lease) {
+    if (records.isEmpty()) {
+      return records;
+    }
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+    List<Long> ids = records.stream().map(HousekeepingEntity::getId).collect(Collectors.toList());
+    entityManager
+        .createNativeQuery(claimUpdate)
+        .setParameter("owner", lease.getOwner())
+        .setParameter("claimExpiryTimestamp", Timestamp.valueOf(lease.claimExpiryTimestamp(now)))
+        .setParameter("now", Timestamp.valueOf(now))
+        .setParameter("ids", ids)
+        .executeUpdate();
+    Set<Long> claimedIds = new HashSet<>();
+    for (Object id : entityManager
+        .createNativeQuery(claimedIdsQuery)
+        .setParameter("ids", ids)
+        .setParameter("owner", lease.getOwner())
+        .getResultList()) {
+      claimedIds.add(((Number) id).longValue());
+    }
+    return records.stream().filter(record -> claimedIds.contains(record.getId())).collect(Collectors.toList());
+  }
+}
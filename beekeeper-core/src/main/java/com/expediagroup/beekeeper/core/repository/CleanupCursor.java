@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import static java.lang.String.format;
+
+import java.time.LocalDateTime;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
+
+/**
+ * Position in the {@code (modified_timestamp, id)} ordering of the records to clean up.
+ *
+ * @implNote Used for keyset pagination: the next page is read from the records strictly after the cursor, so fetching
+ * a page costs the same no matter how deep into the backlog it is and no count query is needed.
+ */
+public final class CleanupCursor {
+
+  private static final CleanupCursor FIRST = new CleanupCursor(null, null);
+
+  private final LocalDateTime modifiedTimestamp;
+  private final Long id;
+
+  private CleanupCursor(LocalDateTime modifiedTimestamp, Long id) {
+    this.modifiedTimestamp = modifiedTimestamp;
+    this.id = id;
+  }
+
+  public static CleanupCursor first() {
+    return FIRST;
+  }
+
+  /**
+   * @param housekeepingEntity Last record of the current page.
+   * @return Cursor positioned right after {@code housekeepingEntity}.
+   * @implNote Must be created before the record is updated as saving it changes its modified timestamp.
+   */
+  public static CleanupCursor after(HousekeepingEntity housekeepingEntity) {
+    return new CleanupCursor(housekeepingEntity.getModifiedTimestamp(), housekeepingEntity.getId());
+  }
+
+  public boolean isFirst() {
+    return id == null;
+  }
+
+  public LocalDateTime getModifiedTimestamp() {
+    return modifiedTimestamp;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return format("%s(modifiedTimestamp=%s, id=%s)", CleanupCursor.class.getSimpleName(), modifiedTimestamp, id);
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Identifies a cleanup instance and how long the records it claims stay reserved for it.
+ */
+public final class CleanupLease {
+
+  private static final CleanupLease NONE = new CleanupLease(null, Duration.ZERO);
+
+  private final String owner;
+  private final Duration duration;
+
+  public CleanupLease(String owner, Duration duration) {
+    this.owner = owner;
+    this.duration = duration;
+  }
+
+  /**
+   * @return A lease which claims nothing, for a single instance.
+   */
+  public static CleanupLease none() {
+    return NONE;
+  }
+
+  /**
+   * @param duration How long claimed records stay reserved before another instance may take them over.
+   * @return A lease owned by this process, named after the host with a random suffix so that restarts do not resume
+   * the claims of a crashed process before they expire.
+   */
+  public static CleanupLease forThisInstance(Duration duration) {
+    return new CleanupLease(hostName() + "-" + UUID.randomUUID().toString().substring(0, 8), duration);
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "unknown";
+    }
+  }
+
+  public boolean isEnabled() {
+    return owner != null;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public LocalDateTime claimExpiryTimestamp(LocalDateTime now) {
+    return now.plus(duration);
+  }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import java.util.List;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
+
+public interface HousekeepingMetadataClaimRepository {
+
+  /**
+   * Claims the given records for the owner of {@code lease} until the lease expires, in one transaction.
+   *
+   * @param housekeepingMetadata Records to claim, matched by id
+   * @param lease Owner and duration of the claim
+   * @return The records out of {@code housekeepingMetadata} which are now claimed by the owner of {@code lease}, in the
+   * same order; the others are claimed by another instance.
+   * @implNote Claims are released when the status of a record is written with {@code updateStatus}, and otherwise
+   * expire with the lease.
+   */
+  List<HousekeepingMetadata> claim(List<HousekeepingMetadata> housekeepingMetadata, CleanupLease lease);
+}
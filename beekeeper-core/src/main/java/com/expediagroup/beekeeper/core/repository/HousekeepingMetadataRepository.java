@@ -16,30 +16,92 @@
 package com.expediagroup.beekeeper.core.repository;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
 
-public interface HousekeepingMetadataRepository extends JpaRepository<HousekeepingMetadata, Long> {
+public interface HousekeepingMetadataRepository
+    extends JpaRepository<HousekeepingMetadata, Long>, HousekeepingMetadataStatusRepository,
+    HousekeepingMetadataClaimRepository {
 
   @Query(value = "from HousekeepingMetadata t where t.cleanupTimestamp <= :instant "
-      + "and (t.housekeepingStatus = 'SCHEDULED' or t.housekeepingStatus = 'FAILED') "
-      + "and t.modifiedTimestamp <= :instant order by t.modifiedTimestamp")
-  Page<HousekeepingMetadata> findRecordsForCleanupByModifiedTimestamp(
+      + "and (t.housekeepingStatus = 'SCHEDULED' or (t.housekeepingStatus = 'FAILED' "
+      + "and (t.nextAttemptTimestamp is null or t.nextAttemptTimestamp <= :instant))) "
+      + "and t.modifiedTimestamp <= :instant "
+      + "and (t.claimedBy is null or t.claimedBy = :owner or t.claimExpiryTimestamp < :now) "
+      + "order by t.modifiedTimestamp, t.id")
+  Slice<HousekeepingMetadata> findRecordsForCleanupByModifiedTimestamp(
       @Param("instant") LocalDateTime instant,
+      @Param("owner") String owner,
+      @Param("now") LocalDateTime now,
       Pageable pageable);
 
+  /**
+   * Returns the records to clean up which come after the given position in the {@code (modifiedTimestamp, id)}
+   * ordering.
+   *
+   * @param instant
+   * @param lastModifiedTimestamp Modified timestamp of the last record of the previous page
+   * @param lastId Id of the last record of the previous page
+   * @param owner Owner of the claims of this instance, or null if it does not claim records
+   * @param now Current time, against which the claims of other instances are checked
+   * @param pageable Only the page size is used; the offset must always be 0
+   * @return Slice of records, without a count query
+   */
+  @Query(value = "from HousekeepingMetadata t where t.cleanupTimestamp <= :instant "
+      + "and (t.housekeepingStatus = 'SCHEDULED' or (t.housekeepingStatus = 'FAILED' "
+      + "and (t.nextAttemptTimestamp is null or t.nextAttemptTimestamp <= :instant))) "
+      + "and t.modifiedTimestamp <= :instant "
+      + "and (t.claimedBy is null or t.claimedBy = :owner or t.claimExpiryTimestamp < :now) "
+      + "and (t.modifiedTimestamp > :lastModifiedTimestamp "
+      + "or (t.modifiedTimestamp = :lastModifiedTimestamp and t.id > :lastId)) "
+      + "order by t.modifiedTimestamp, t.id")
+  Slice<HousekeepingMetadata> findRecordsForCleanupByModifiedTimestampAfter(
+      @Param("instant") LocalDateTime instant,
+      @Param("lastModifiedTimestamp") LocalDateTime lastModifiedTimestamp,
+      @Param("lastId") Long lastId,
+      @Param("owner") String owner,
+      @Param("now") LocalDateTime now,
+      Pageable pageable);
+
+  /**
+   * Returns the next page of records to clean up, starting after {@code cursor}, leaving out the records claimed by
+   * another instance whose claim has not expired, so that instances running side by side read different records.
+   *
+   * @param instant
+   * @param cursor Position after which to read
+   * @param pageSize Maximum number of records to return
+   * @param lease Lease of this instance
+   * @return Slice of records
+   */
+  default Slice<HousekeepingMetadata> findRecordsForCleanup(LocalDateTime instant, CleanupCursor cursor,
+      int pageSize, CleanupLease lease) {
+    Pageable pageable = PageRequest.of(0, pageSize);
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+    if (cursor.isFirst()) {
+      return findRecordsForCleanupByModifiedTimestamp(instant, lease.getOwner(), now, pageable);
+    }
+    return findRecordsForCleanupByModifiedTimestampAfter(instant, cursor.getModifiedTimestamp(), cursor.getId(),
+        lease.getOwner(), now, pageable);
+  }
+
   /**
    * Returns the record that matches the inputs given, if there is one.
    *
-   * @implNote To get the record for a partitioned table both the input value and the value of the partitionName of the current
-   * record must be NULL.
+   * @implNote To get the record for a partitioned table both the input value and the value of the partitionName of the
+   * current record must be NULL.
    *
    * @param databaseName
    * @param tableName
@@ -49,12 +111,28 @@ public interface HousekeepingMetadataRepository extends JpaRepository<Housekeepi
   @Query(value = "from HousekeepingMetadata t "
       + "where t.databaseName = :databaseName "
       + "and t.tableName = :tableName "
-      + "and (t.partitionName = :partitionName or (:partitionName is NULL and t.partitionName is NULL)) " // To handle special null case
+      // To handle special null case
+      + "and (t.partitionName = :partitionName or (:partitionName is NULL and t.partitionName is NULL)) "
       + "and (t.housekeepingStatus = 'SCHEDULED' or t.housekeepingStatus = 'FAILED')")
   Optional<HousekeepingMetadata> findRecordForCleanupByDbTableAndPartitionName(
       @Param("databaseName") String databaseName,
       @Param("tableName") String tableName, @Param("partitionName") String partitionName);
 
+  /**
+   * Returns the earliest time at which a record which a cleanup for {@code instant} did not read becomes due: the
+   * cleanupTimestamp of scheduled records which are not due yet or which were added or changed after {@code instant},
+   * and the nextAttemptTimestamp of failed records which are backing off.
+   *
+   * @param instant Reference time of the cleanup
+   * @return The earliest such time, or null if there are no such records
+   */
+  @Query(value = "select min(case when t.housekeepingStatus = 'FAILED' then t.nextAttemptTimestamp "
+      + "else t.cleanupTimestamp end) from HousekeepingMetadata t "
+      + "where (t.housekeepingStatus = 'SCHEDULED' "
+      + "and (t.cleanupTimestamp > :instant or t.modifiedTimestamp > :instant)) "
+      + "or (t.housekeepingStatus = 'FAILED' and t.nextAttemptTimestamp > :instant)")
+  LocalDateTime findEarliestPendingCleanupTimestamp(@Param("instant") LocalDateTime instant);
+
   /**
    * Returns the maximum value for the cleanupTimestamp for a database and table name pair.
    *
@@ -71,7 +149,8 @@ public interface HousekeepingMetadataRepository extends JpaRepository<Housekeepi
       @Param("tableName") String tableName);
 
   /**
-   * This method returns the count of all records for a database and table name pair where the partitionName is not null.
+   * This method returns the count of all records for a database and table name pair where the partitionName is not
+   * null. Abandoned partitions are counted as they still exist, so that their table is not dropped.
    *
    * @param databaseName
    * @param tableName
@@ -80,7 +159,7 @@ public interface HousekeepingMetadataRepository extends JpaRepository<Housekeepi
   @Query(value = "select count(partitionName) from HousekeepingMetadata t "
       + "where t.databaseName = :databaseName "
       + "and t.tableName = :tableName "
-      + "and (t.housekeepingStatus = 'SCHEDULED' or t.housekeepingStatus = 'FAILED')")
+      + "and t.housekeepingStatus in ('SCHEDULED', 'FAILED', 'ABANDONED')")
   Long countRecordsForGivenDatabaseAndTableWherePartitionIsNotNull(
       @Param("databaseName") String databaseName,
       @Param("tableName") String tableName);
@@ -97,10 +176,65 @@ public interface HousekeepingMetadataRepository extends JpaRepository<Housekeepi
   @Query(value = "select count(partitionName) from HousekeepingMetadata t "
       + "where t.databaseName = :databaseName "
       + "and t.tableName = :tableName "
-      + "and (t.housekeepingStatus = 'SCHEDULED' or t.housekeepingStatus = 'FAILED') "
+      + "and t.housekeepingStatus in ('SCHEDULED', 'FAILED', 'ABANDONED') "
       + "and t.cleanupTimestamp >= :instant")
   Long countRecordsForDryRunWherePartitionIsNotNullOrExpired(
       @Param("instant") LocalDateTime instant,
       @Param("databaseName") String databaseName,
       @Param("tableName") String tableName);
+
+  /**
+   * Counts the partitions of each of the given tables of a database with one query, as
+   * {@link #countRecordsForGivenDatabaseAndTableWherePartitionIsNotNull} does for a single table.
+   *
+   * @param databaseName
+   * @param tableNames
+   * @return One count per table which has records still to be cleaned up.
+   */
+  @Query(value = "select t.tableName as tableName, count(t.partitionName) as partitionCount "
+      + "from HousekeepingMetadata t "
+      + "where t.databaseName = :databaseName "
+      + "and t.tableName in :tableNames "
+      + "and t.housekeepingStatus in ('SCHEDULED', 'FAILED', 'ABANDONED') "
+      + "group by t.tableName")
+  List<TablePartitionCount> countRecordsWherePartitionIsNotNullByTable(
+      @Param("databaseName") String databaseName,
+      @Param("tableNames") Collection<String> tableNames);
+
+  /**
+   * Counts the partitions of each of the given tables of a database with one query, as
+   * {@link #countRecordsForDryRunWherePartitionIsNotNullOrExpired} does for a single table.
+   *
+   * @param instant
+   * @param databaseName
+   * @param tableNames
+   * @return One count per table which has partitions that will not be cleaned up in this instant.
+   */
+  @Query(value = "select t.tableName as tableName, count(t.partitionName) as partitionCount "
+      + "from HousekeepingMetadata t "
+      + "where t.databaseName = :databaseName "
+      + "and t.tableName in :tableNames "
+      + "and t.housekeepingStatus in ('SCHEDULED', 'FAILED', 'ABANDONED') "
+      + "and t.cleanupTimestamp >= :instant "
+      + "group by t.tableName")
+  List<TablePartitionCount> countRecordsForDryRunWherePartitionIsNotNullOrExpiredByTable(
+      @Param("instant") LocalDateTime instant,
+      @Param("databaseName") String databaseName,
+      @Param("tableNames") Collection<String> tableNames);
+
+  /**
+   * @param instant
+   * @param databaseName
+   * @param tableNames
+   * @param dryRunEnabled Whether to count the partitions as a dry run would
+   * @return The number of partitions of each table; tables without partitions may be missing.
+   */
+  default Map<String, Long> countPartitionsByTable(LocalDateTime instant, String databaseName,
+      Collection<String> tableNames, boolean dryRunEnabled) {
+    List<TablePartitionCount> counts = dryRunEnabled
+        ? countRecordsForDryRunWherePartitionIsNotNullOrExpiredByTable(instant, databaseName, tableNames)
+        : countRecordsWherePartitionIsNotNullByTable(databaseName, tableNames);
+    return counts.stream()
+        .collect(Collectors.toMap(TablePartitionCount::getTableName, TablePartitionCount::getPartitionCount));
+  }
 }
@@ -16,9 +16,11 @@
 package com.expediagroup.beekeeper.core.repository;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -27,11 +29,80 @@ import org.springframework.stereotype.Repository;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
 
 @Repository
-public interface HousekeepingPathRepository extends JpaRepository<HousekeepingPath, Long> {
+public interface HousekeepingPathRepository
+    extends JpaRepository<HousekeepingPath, Long>, HousekeepingPathStatusRepository,
+    HousekeepingPathClaimRepository {
 
   @Query(value = "from HousekeepingPath p where p.cleanupTimestamp <= :instant "
-      + "and (p.housekeepingStatus = 'SCHEDULED' or p.housekeepingStatus = 'FAILED') "
-      + "and p.modifiedTimestamp <= :instant order by p.modifiedTimestamp")
-  Page<HousekeepingPath> findRecordsForCleanupByModifiedTimestamp(@Param("instant") LocalDateTime instant,
+      + "and (p.housekeepingStatus = 'SCHEDULED' or (p.housekeepingStatus = 'FAILED' "
+      + "and (p.nextAttemptTimestamp is null or p.nextAttemptTimestamp <= :instant))) "
+      + "and p.modifiedTimestamp <= :instant "
+      + "and (p.claimedBy is null or p.claimedBy = :owner or p.claimExpiryTimestamp < :now) "
+      + "order by p.modifiedTimestamp, p.id")
+  Slice<HousekeepingPath> findRecordsForCleanupByModifiedTimestamp(@Param("instant") LocalDateTime instant,
+      @Param("owner") String owner, @Param("now") LocalDateTime now, Pageable pageable);
+
+  /**
+   * Returns the records to clean up which come after the given position in the {@code (modifiedTimestamp, id)}
+   * ordering.
+   *
+   * @param instant
+   * @param lastModifiedTimestamp Modified timestamp of the last record of the previous page
+   * @param lastId Id of the last record of the previous page
+   * @param owner Owner of the claims of this instance, or null if it does not claim records
+   * @param now Current time, against which the claims of other instances are checked
+   * @param pageable Only the page size is used; the offset must always be 0
+   * @return Slice of records, without a count query
+   */
+  @Query(value = "from HousekeepingPath p where p.cleanupTimestamp <= :instant "
+      + "and (p.housekeepingStatus = 'SCHEDULED' or (p.housekeepingStatus = 'FAILED' "
+      + "and (p.nextAttemptTimestamp is null or p.nextAttemptTimestamp <= :instant))) "
+      + "and p.modifiedTimestamp <= :instant "
+      + "and (p.claimedBy is null or p.claimedBy = :owner or p.claimExpiryTimestamp < :now) "
+      + "and (p.modifiedTimestamp > :lastModifiedTimestamp "
+      + "or (p.modifiedTimestamp = :lastModifiedTimestamp and p.id > :lastId)) "
+      + "order by p.modifiedTimestamp, p.id")
+  Slice<HousekeepingPath> findRecordsForCleanupByModifiedTimestampAfter(
+      @Param("instant") LocalDateTime instant,
+      @Param("lastModifiedTimestamp") LocalDateTime lastModifiedTimestamp,
+      @Param("lastId") Long lastId,
+      @Param("owner") String owner,
+      @Param("now") LocalDateTime now,
       Pageable pageable);
+
+  /**
+   * Returns the earliest time at which a record which a cleanup for {@code instant} did not read becomes due: the
+   * cleanupTimestamp of scheduled records which are not due yet or which were added or changed after {@code instant},
+   * and the nextAttemptTimestamp of failed records which are backing off.
+   *
+   * @param instant Reference time of the cleanup
+   * @return The earliest such time, or null if there are no such records
+   */
+  @Query(value = "select min(case when p.housekeepingStatus = 'FAILED' then p.nextAttemptTimestamp "
+      + "else p.cleanupTimestamp end) from HousekeepingPath p "
+      + "where (p.housekeepingStatus = 'SCHEDULED' "
+      + "and (p.cleanupTimestamp > :instant or p.modifiedTimestamp > :instant)) "
+      + "or (p.housekeepingStatus = 'FAILED' and p.nextAttemptTimestamp > :instant)")
+  LocalDateTime findEarliestPendingCleanupTimestamp(@Param("instant") LocalDateTime instant);
+
+  /**
+   * Returns the next page of records to clean up, starting after {@code cursor}, leaving out the records claimed by
+   * another instance whose claim has not expired, so that instances running side by side read different records.
+   *
+   * @param instant
+   * @param cursor Position after which to read
+   * @param pageSize Maximum number of records to return
+   * @param lease Lease of this instance
+   * @return Slice of records
+   */
+  default Slice<HousekeepingPath> findRecordsForCleanup(LocalDateTime instant, CleanupCursor cursor, int pageSize,
+      CleanupLease lease) {
+    Pageable pageable = PageRequest.of(0, pageSize);
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+    if (cursor.isFirst()) {
+      return findRecordsForCleanupByModifiedTimestamp(instant, lease.getOwner(), now, pageable);
+    }
+    return findRecordsForCleanupByModifiedTimestampAfter(instant, cursor.getModifiedTimestamp(), cursor.getId(),
+        lease.getOwner(), now, pageable);
+  }
 }
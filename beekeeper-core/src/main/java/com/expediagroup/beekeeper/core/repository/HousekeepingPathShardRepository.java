@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingPathShard;
+
+@Repository
+public interface HousekeepingPathShardRepository extends JpaRepository<HousekeepingPathShard, Long> {
+
+  /**
+   * @param housekeepingPathId
+   * @return The shards of the path, in prefix order.
+   */
+  @Query(value = "from HousekeepingPathShard s where s.housekeepingPathId = :housekeepingPathId order by s.prefix")
+  List<HousekeepingPathShard> findShards(@Param("housekeepingPathId") Long housekeepingPathId);
+
+  /**
+   * Records how far a shard has been deleted without loading it.
+   *
+   * @param id Id of the shard
+   * @param checkpoint Last key up to which every object of the shard has been deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "update HousekeepingPathShard s set s.checkpoint = :checkpoint where s.id = :id")
+  void updateCheckpoint(@Param("id") Long id, @Param("checkpoint") String checkpoint);
+
+  /**
+   * Removes the shards of a path once the whole path has been deleted.
+   *
+   * @param housekeepingPathId
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "delete from HousekeepingPathShard s where s.housekeepingPathId = :housekeepingPathId")
+  void deleteShards(@Param("housekeepingPathId") Long housekeepingPathId);
+}
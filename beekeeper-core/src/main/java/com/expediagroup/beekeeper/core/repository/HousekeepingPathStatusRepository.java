@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import java.util.Collection;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+public interface HousekeepingPathStatusRepository {
+
+  /**
+   * Writes the status, cleanup attempts and next attempt timestamp of the given paths as a single JDBC batch in one
+   * transaction.
+   *
+   * @param housekeepingPaths Paths to update, matched by id
+   * @implNote The update bypasses the persistence context, so the paths do not need to be managed and nothing is left
+   * in it afterwards. The modified timestamp of every path is set to the current time and any claim on it is released.
+   */
+  void updateStatus(Collection<HousekeepingPath> housekeepingPaths);
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+public class HousekeepingPathStatusRepositoryImpl implements HousekeepingPathStatusRepository {
+
+  private static final String UPDATE_STATUS = "update housekeeping_path set housekeeping_status = ?, "
+      + "cleanup_attempts = ?, next_attempt_timestamp = ?, modified_timestamp = ?, claimed_by = null, "
+      + "claim_expiry_timestamp = null where id = ?";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public void updateStatus(Collection<HousekeepingPath> housekeepingPaths) {
+    if (housekeepingPaths.isEmpty()) {
+      return;
+    }
+    Timestamp modifiedTimestamp = Timestamp.valueOf(LocalDateTime.now());
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(UPDATE_STATUS)) {
+        for (HousekeepingPath housekeepingPath : housekeepingPaths) {
+          statement.setString(1, housekeepingPath.getHousekeepingStatus().name());
+          statement.setInt(2, housekeepingPath.getCleanupAttempts());
+          LocalDateTime nextAttemptTimestamp = housekeepingPath.getNextAttemptTimestamp();
+          statement.setTimestamp(3, nextAttemptTimestamp == null ? null : Timestamp.valueOf(nextAttemptTimestamp));
+          statement.setTimestamp(4, modifiedTimestamp);
+          statement.setLong(5, housekeepingPath.getId());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    });
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+class ExecutorSupportTest {
+
+  private final RuntimeException firstFailure = new RuntimeException("first");
+  private final RuntimeException secondFailure = new RuntimeException("second");
+
+  @Test
+  void awaitAllWaitsForEveryFuture() {
+    CompletableFuture<Void> slow = new CompletableFuture<>();
+    CompletableFuture.runAsync(() -> slow.complete(null));
+
+    ExecutorSupport.awaitAll(List.of(CompletableFuture.completedFuture(null), slow), "tasks");
+
+    assertThat(slow).isDone();
+  }
+
+  @Test
+  void awaitAllKeepsTheFirstFailureAndSuppressesTheRest() {
+    CompletableFuture<Void> succeeded = CompletableFuture.completedFuture(null);
+
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> ExecutorSupport.awaitAll(List.of(failed(firstFailure), succeeded, failed(secondFailure)),
+            "tasks"))
+        .withCause(firstFailure)
+        .satisfies(e -> assertThat(e.getSuppressed()).containsExactly(secondFailure));
+  }
+
+  @Test
+  void awaitAllAddsToAnEarlierFailure() {
+    BeekeeperException earlierFailure = new BeekeeperException("earlier", firstFailure);
+
+    BeekeeperException failure = ExecutorSupport.awaitAll(List.of(failed(secondFailure)), earlierFailure, "tasks");
+
+    assertThat(failure).isSameAs(earlierFailure);
+    assertThat(failure.getSuppressed()).containsExactly(secondFailure);
+  }
+
+  @Test
+  void awaitAllWithoutFailures() {
+    assertThat(ExecutorSupport.awaitAll(List.of(CompletableFuture.completedFuture(null)), null, "tasks")).isNull();
+  }
+
+  @Test
+  void awaitPolledDrainsTheQueue() {
+    Queue<Future<?>> futures = new ConcurrentLinkedQueue<>();
+    futures.add(failed(firstFailure));
+    futures.add(failed(secondFailure));
+
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> ExecutorSupport.awaitPolled(futures, "tasks"))
+        .withCause(firstFailure)
+        .satisfies(e -> assertThat(e.getSuppressed()).containsExactly(secondFailure));
+    assertThat(futures).isEmpty();
+  }
+
+  @Test
+  void awaitIsInterrupted() {
+    Thread.currentThread().interrupt();
+    try {
+      assertThatExceptionOfType(BeekeeperException.class)
+          .isThrownBy(() -> ExecutorSupport.awaitAll(List.of(new CompletableFuture<Void>()), "tasks"))
+          .withCauseInstanceOf(InterruptedException.class);
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void shutdownWaitsForRunningTasks() throws InterruptedException {
+    ExecutorService first = Executors.newSingleThreadExecutor();
+    ExecutorService second = Executors.newSingleThreadExecutor();
+    CountDownLatch started = new CountDownLatch(1);
+    CompletableFuture<Void> task = CompletableFuture.runAsync(() -> {
+      started.countDown();
+      sleep();
+    }, second);
+    started.await();
+
+    ExecutorSupport.shutdown("workers", first, second);
+
+    assertThat(first.isTerminated()).isTrue();
+    assertThat(second.isTerminated()).isTrue();
+    assertThat(task).isDone();
+  }
+
+  private static CompletableFuture<Void> failed(RuntimeException failure) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    future.completeExceptionally(failure);
+    return future;
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(100L);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
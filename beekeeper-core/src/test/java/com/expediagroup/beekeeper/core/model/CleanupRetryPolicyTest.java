@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.ABANDONED;
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.FAILED;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+class CleanupRetryPolicyTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+  private final CleanupRetryPolicy cleanupRetryPolicy = new CleanupRetryPolicy(5, Duration.ofMinutes(5),
+      Duration.ofMinutes(30));
+
+  @Test
+  void failedStatus() {
+    assertThat(cleanupRetryPolicy.failedStatus(1)).isEqualTo(FAILED);
+    assertThat(cleanupRetryPolicy.failedStatus(4)).isEqualTo(FAILED);
+    assertThat(cleanupRetryPolicy.failedStatus(5)).isEqualTo(ABANDONED);
+    assertThat(cleanupRetryPolicy.failedStatus(6)).isEqualTo(ABANDONED);
+  }
+
+  @Test
+  void exponentialBackoff() {
+    assertThat(cleanupRetryPolicy.nextAttemptTimestamp(1, NOW)).isEqualTo(NOW.plusMinutes(5));
+    assertThat(cleanupRetryPolicy.nextAttemptTimestamp(2, NOW)).isEqualTo(NOW.plusMinutes(10));
+    assertThat(cleanupRetryPolicy.nextAttemptTimestamp(3, NOW)).isEqualTo(NOW.plusMinutes(20));
+    assertThat(cleanupRetryPolicy.nextAttemptTimestamp(4, NOW)).isEqualTo(NOW.plusMinutes(30));
+    assertThat(cleanupRetryPolicy.nextAttemptTimestamp(100, NOW)).isEqualTo(NOW.plusMinutes(30));
+  }
+
+  @Test
+  void unlimited() {
+    CleanupRetryPolicy unlimited = CleanupRetryPolicy.unlimited();
+    assertThat(unlimited.failedStatus(1000)).isEqualTo(FAILED);
+    assertThat(unlimited.nextAttemptTimestamp(1000, NOW)).isNull();
+  }
+
+  @Test
+  void invalidPolicy() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new CleanupRetryPolicy(-1, Duration.ZERO, Duration.ZERO));
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new CleanupRetryPolicy(1, Duration.ofHours(1), Duration.ofMinutes(1)));
+  }
+}
@@ -17,6 +17,8 @@ package com.expediagroup.beekeeper.core.monitoring;
 
 import static com.expediagroup.beekeeper.core.monitoring.TimedTaggableAspectTest.TIMER_NAME;
 
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
@@ -34,6 +36,11 @@ public class MonitoredClass {
     return path;
   }
 
+  @TimedTaggable(TIMER_NAME)
+  public List<HousekeepingPath> doSomethingWithAll(List<HousekeepingPath> paths) {
+    return paths;
+  }
+
   @TimedTaggable(TIMER_NAME)
   public HousekeepingPath pathIsNotTheFirstArg(int i, String s, HousekeepingPath path) {
     return path;
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -96,6 +97,27 @@ public class TimedTaggableAspectTest {
     assertThat(timer).isNotNull();
   }
 
+  @Test
+  public void timeEachElementOfACollection() {
+    HousekeepingPath otherPath = new HousekeepingPath.Builder()
+      .databaseName(DATABASE)
+      .tableName(TABLE_2)
+      .creationTimestamp(LocalDateTime.now())
+      .cleanupDelay(Duration.ofDays(1))
+      .build();
+    monitoredClass.doSomethingWithAll(List.of(housekeepingPath, housekeepingPath, otherPath));
+    Timer timer1 = RequiredSearch.in(meterRegistry)
+      .name(TIMER_NAME)
+      .tags("table", String.join(".", DATABASE, TABLE))
+      .timer();
+    Timer timer2 = RequiredSearch.in(meterRegistry)
+      .name(TIMER_NAME)
+      .tags("table", String.join(".", DATABASE, TABLE_2))
+      .timer();
+    assertThat(timer1.count()).isEqualTo(2L);
+    assertThat(timer2.count()).isEqualTo(1L);
+  }
+
   @Test
   public void timeFailsIfPathIsNotFirstArgument() {
     monitoredClass.pathIsNotTheFirstArg(1, "test-string", housekeepingPath);
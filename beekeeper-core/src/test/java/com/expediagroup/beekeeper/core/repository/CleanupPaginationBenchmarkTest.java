@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+import com.expediagroup.beekeeper.core.TestApplication;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+/**
+ * Compares the cost of reading cleanup pages with OFFSET + COUNT against reading them after a {@link CleanupCursor}.
+ *
+ * Disabled by default; run with {@code mvn test -Dbeekeeper.benchmark=true -Dtest=CleanupPaginationBenchmarkTest}.
+ * The number of rows can be changed with {@code -Dbeekeeper.benchmark.rows}.
+ */
+@ExtendWith(SpringExtension.class)
+@EnabledIfSystemProperty(named = "beekeeper.benchmark", matches = "true")
+@TestPropertySource(properties = {
+    "hibernate.data-source.driver-class-name=org.h2.Driver",
+    "hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "hibernate.hbm2ddl.auto=create",
+    "spring.datasource.url=jdbc:h2:mem:beekeeper-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL" })
+@ContextConfiguration(classes = { TestApplication.class }, loader = AnnotationConfigContextLoader.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class CleanupPaginationBenchmarkTest {
+
+  private static final Logger log = LoggerFactory.getLogger(CleanupPaginationBenchmarkTest.class);
+
+  private static final int ROWS = Integer.getInteger("beekeeper.benchmark.rows", 1_000_000);
+  private static final int PAGE_SIZE = 500;
+  private static final int INSERT_BATCH_SIZE = 10_000;
+  private static final int REPETITIONS = 3;
+  private static final LocalDateTime INSTANT = LocalDateTime.now(ZoneId.of("UTC"));
+  private static final String CLEANUP_QUERY = "from HousekeepingPath p where p.cleanupTimestamp <= :instant "
+      + "and (p.housekeepingStatus = 'SCHEDULED' or p.housekeepingStatus = 'FAILED') "
+      + "and p.modifiedTimestamp <= :instant";
+
+  private @Autowired JdbcTemplate jdbcTemplate;
+  private @Autowired HousekeepingPathRepository housekeepingPathRepository;
+  private @PersistenceContext EntityManager entityManager;
+
+  @Test
+  public void offsetVersusCursorPagination() {
+    insertRows();
+
+    for (double depth : List.of(0.0, 0.25, 0.5, 0.75, 0.99)) {
+      int pageNumber = (int) (ROWS * depth / PAGE_SIZE);
+      CleanupCursor cursor = cursorBeforePage(pageNumber);
+
+      long offsetNanos = time(() -> offsetPage(pageNumber));
+      long cursorNanos = time(
+          () -> housekeepingPathRepository.findRecordsForCleanup(INSTANT, cursor, PAGE_SIZE, CleanupLease.none()));
+      log.info("Page {} of {} rows: offset + count {} ms, cursor {} ms", pageNumber, ROWS, offsetNanos / 1_000_000,
+          cursorNanos / 1_000_000);
+    }
+
+    long start = System.nanoTime();
+    long rowsRead = 0;
+    Slice<HousekeepingPath> page = housekeepingPathRepository
+        .findRecordsForCleanup(INSTANT, CleanupCursor.first(), PAGE_SIZE, CleanupLease.none());
+    while (page.hasContent()) {
+      rowsRead += page.getNumberOfElements();
+      if (!page.hasNext()) {
+        break;
+      }
+      List<HousekeepingPath> content = page.getContent();
+      page = housekeepingPathRepository
+          .findRecordsForCleanup(INSTANT, CleanupCursor.after(content.get(content.size() - 1)), PAGE_SIZE,
+              CleanupLease.none());
+    }
+    log.info("Read all {} rows with a cursor in {} ms", rowsRead, (System.nanoTime() - start) / 1_000_000);
+    assertThat(rowsRead).isEqualTo(ROWS);
+  }
+
+  private void insertRows() {
+    String sql = "insert into housekeeping_path (id, path, database_name, table_name, housekeeping_status, "
+        + "creation_timestamp, modified_timestamp, cleanup_timestamp, cleanup_delay, cleanup_attempts, "
+        + "lifecycle_type) values (?, ?, 'database', 'table', 'SCHEDULED', ?, ?, ?, 'P3D', 0, 'UNREFERENCED')";
+    LocalDateTime firstModified = INSTANT.minusSeconds(ROWS);
+    for (int batchStart = 0; batchStart < ROWS; batchStart += INSERT_BATCH_SIZE) {
+      List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+      for (int i = batchStart; i < Math.min(ROWS, batchStart + INSERT_BATCH_SIZE); i++) {
+        // two rows share each modified timestamp so that the id tie-breaker is exercised
+        Timestamp modified = Timestamp.valueOf(firstModified.plusSeconds(i / 2));
+        batch.add(new Object[] { i + 1L, "s3://bucket/table/partition=" + i, modified, modified, modified });
+      }
+      jdbcTemplate.batchUpdate(sql, batch);
+    }
+  }
+
+  private CleanupCursor cursorBeforePage(int pageNumber) {
+    if (pageNumber == 0) {
+      return CleanupCursor.first();
+    }
+    Long id = jdbcTemplate.queryForObject(
+        "select id from housekeeping_path order by modified_timestamp, id limit 1 offset ?", Long.class,
+        pageNumber * PAGE_SIZE - 1);
+    return CleanupCursor.after(housekeepingPathRepository.findById(id).get());
+  }
+
+  private List<HousekeepingPath> offsetPage(int pageNumber) {
+    entityManager.createQuery("select count(p) " + CLEANUP_QUERY)
+        .setParameter("instant", INSTANT)
+        .getSingleResult();
+    return entityManager.createQuery(CLEANUP_QUERY + " order by p.modifiedTimestamp, p.id", HousekeepingPath.class)
+        .setParameter("instant", INSTANT)
+        .setFirstResult(pageNumber * PAGE_SIZE)
+        .setMaxResults(PAGE_SIZE)
+        .getResultList();
+  }
+
+  private long time(Supplier<?> query) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < REPETITIONS; i++) {
+      long start = System.nanoTime();
+      query.get();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+}
@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.ABANDONED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.FAILED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.SCHEDULED;
@@ -28,7 +29,9 @@ import static com.expediagroup.beekeeper.core.model.LifecycleEventType.EXPIRED;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -36,8 +39,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
@@ -156,8 +159,9 @@ public class HousekeepingMetadataRepositoryTest {
     HousekeepingMetadata table = createPartitionedEntityHousekeepingTable();
     housekeepingMetadataRepository.save(table);
 
-    Page<HousekeepingMetadata> result = housekeepingMetadataRepository
-        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, PageRequest.of(PAGE, PAGE_SIZE));
+    Slice<HousekeepingMetadata> result = housekeepingMetadataRepository
+        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, null, CLEANUP_TIMESTAMP,
+            PageRequest.of(PAGE, PAGE_SIZE));
     assertThat(result.getContent().get(0).getDatabaseName()).isEqualTo(DATABASE_NAME);
     assertThat(result.getContent().get(0).getTableName()).isEqualTo(TABLE_NAME);
   }
@@ -168,8 +172,9 @@ public class HousekeepingMetadataRepositoryTest {
     table.setHousekeepingStatus(DELETED);
     housekeepingMetadataRepository.save(table);
 
-    Page<HousekeepingMetadata> result = housekeepingMetadataRepository
-        .findRecordsForCleanupByModifiedTimestamp(LocalDateTime.now(), PageRequest.of(PAGE, PAGE_SIZE));
+    Slice<HousekeepingMetadata> result = housekeepingMetadataRepository
+        .findRecordsForCleanupByModifiedTimestamp(LocalDateTime.now(), null, LocalDateTime.now(),
+            PageRequest.of(PAGE, PAGE_SIZE));
     assertThat(result.getContent().size()).isEqualTo(0);
   }
 
@@ -186,8 +191,9 @@ public class HousekeepingMetadataRepositoryTest {
     housekeepingTable3.setHousekeepingStatus(DELETED);
     housekeepingMetadataRepository.save(housekeepingTable3);
 
-    Page<HousekeepingMetadata> result = housekeepingMetadataRepository
-        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, PageRequest.of(PAGE, PAGE_SIZE));
+    Slice<HousekeepingMetadata> result = housekeepingMetadataRepository
+        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, null, CLEANUP_TIMESTAMP,
+            PageRequest.of(PAGE, PAGE_SIZE));
     assertThat(result.getContent().size()).isEqualTo(2);
   }
 
@@ -205,7 +211,8 @@ public class HousekeepingMetadataRepositoryTest {
     housekeepingMetadataRepository.save(housekeepingTable2);
 
     List<HousekeepingMetadata> result = housekeepingMetadataRepository
-        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, PageRequest.of(PAGE, PAGE_SIZE))
+        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, null, CLEANUP_TIMESTAMP,
+            PageRequest.of(PAGE, PAGE_SIZE))
         .getContent();
     assertThat(result.get(0).getDatabaseName()).isEqualTo(DATABASE_NAME);
     assertThat(result.get(0).getTableName()).isEqualTo(table1);
@@ -213,6 +220,24 @@ public class HousekeepingMetadataRepositoryTest {
     assertThat(result.get(1).getTableName()).isEqualTo(table2);
   }
 
+  @Test
+  public void findRecordsForCleanupWithCursor() {
+    List<String> tables = List.of("table1", "table2", "table3");
+    tables.forEach(table -> housekeepingMetadataRepository
+        .save(createEntityHouseKeepingTable(DATABASE_NAME, table, PARTITION_NAME)));
+
+    Slice<HousekeepingMetadata> firstPage = housekeepingMetadataRepository
+        .findRecordsForCleanup(CLEANUP_TIMESTAMP, CleanupCursor.first(), 2, CleanupLease.none());
+    assertThat(firstPage.getContent()).extracting("tableName").containsExactly("table1", "table2");
+    assertThat(firstPage.hasNext()).isTrue();
+
+    CleanupCursor cursor = CleanupCursor.after(firstPage.getContent().get(1));
+    Slice<HousekeepingMetadata> secondPage = housekeepingMetadataRepository
+        .findRecordsForCleanup(CLEANUP_TIMESTAMP, cursor, 2, CleanupLease.none());
+    assertThat(secondPage.getContent()).extracting("tableName").containsExactly("table3");
+    assertThat(secondPage.hasNext()).isFalse();
+  }
+
   @Test
   public void findRecordForCleanupByDatabaseAndTable() {
     HousekeepingMetadata table = createPartitionedEntityHousekeepingTable();
@@ -320,6 +345,21 @@ public class HousekeepingMetadataRepositoryTest {
     assertEquals(0L, result);
   }
 
+  @Test
+  public void countPartitionsIncludesAbandonedPartitions() {
+    HousekeepingMetadata housekeepingTable = createPartitionedEntityHousekeepingTable();
+    housekeepingTable.setHousekeepingStatus(ABANDONED);
+    housekeepingMetadataRepository.save(housekeepingTable);
+
+    long result = housekeepingMetadataRepository
+        .countRecordsForGivenDatabaseAndTableWherePartitionIsNotNull(DATABASE_NAME, TABLE_NAME);
+
+    assertEquals(1L, result);
+    assertThat(housekeepingMetadataRepository
+        .countPartitionsByTable(LocalDateTime.now(), DATABASE_NAME, List.of(TABLE_NAME), false))
+        .containsEntry(TABLE_NAME, 1L);
+  }
+
   @Test
   public void dryRunCountPartitionsForPartitionedTable() {
     HousekeepingMetadata housekeepingTable = createPartitionedEntityHousekeepingTable();
@@ -354,6 +394,83 @@ public class HousekeepingMetadataRepositoryTest {
     assertEquals(0L, result);
   }
 
+  @Test
+  public void countPartitionsByTable() {
+    housekeepingMetadataRepository.save(createUnpartitionedEntityHousekeepingTable());
+    housekeepingMetadataRepository.save(createPartitionedEntityHousekeepingTable());
+    housekeepingMetadataRepository.save(createEntityHouseKeepingTable(DATABASE_NAME, TABLE_NAME, "event_date=2020-01-02"));
+    housekeepingMetadataRepository.save(createEntityHouseKeepingTable(DATABASE_NAME, "table2", null));
+    housekeepingMetadataRepository.save(createEntityHouseKeepingTable("database2", TABLE_NAME, PARTITION_NAME));
+
+    Map<String, Long> result = housekeepingMetadataRepository
+        .countPartitionsByTable(CLEANUP_TIMESTAMP, DATABASE_NAME, List.of(TABLE_NAME, "table2", "table3"), false);
+
+    assertThat(result).isEqualTo(Map.of(TABLE_NAME, 2L, "table2", 0L));
+  }
+
+  @Test
+  public void dryRunCountPartitionsByTable() {
+    HousekeepingMetadata expiredPartition = createPartitionedEntityHousekeepingTable();
+    expiredPartition.setCleanupTimestamp(CLEANUP_TIMESTAMP.minusDays(1));
+    housekeepingMetadataRepository.save(expiredPartition);
+    housekeepingMetadataRepository.save(createEntityHouseKeepingTable(DATABASE_NAME, TABLE_NAME, "event_date=2020-01-02"));
+
+    Map<String, Long> result = housekeepingMetadataRepository
+        .countPartitionsByTable(CLEANUP_TIMESTAMP, DATABASE_NAME, List.of(TABLE_NAME), true);
+
+    assertThat(result).isEqualTo(Map.of(TABLE_NAME, 1L));
+  }
+
+  @Test
+  public void updateStatus() {
+    HousekeepingMetadata table = housekeepingMetadataRepository.save(createUnpartitionedEntityHousekeepingTable());
+    HousekeepingMetadata partition = housekeepingMetadataRepository.save(createPartitionedEntityHousekeepingTable());
+
+    table.setHousekeepingStatus(DELETED);
+    table.setCleanupAttempts(1);
+    partition.setHousekeepingStatus(FAILED);
+    partition.setCleanupAttempts(2);
+    housekeepingMetadataRepository.updateStatus(List.of(table, partition));
+
+    HousekeepingMetadata updatedTable = housekeepingMetadataRepository.findById(table.getId()).get();
+    assertThat(updatedTable.getHousekeepingStatus()).isEqualTo(DELETED);
+    assertThat(updatedTable.getCleanupAttempts()).isEqualTo(1);
+    assertThat(updatedTable.getModifiedTimestamp()).isAfterOrEqualTo(table.getModifiedTimestamp());
+    HousekeepingMetadata updatedPartition = housekeepingMetadataRepository.findById(partition.getId()).get();
+    assertThat(updatedPartition.getHousekeepingStatus()).isEqualTo(FAILED);
+    assertThat(updatedPartition.getCleanupAttempts()).isEqualTo(2);
+  }
+
+  @Test
+  public void claimSkipsRecordsClaimedByAnotherInstance() {
+    HousekeepingMetadata table = housekeepingMetadataRepository.save(createUnpartitionedEntityHousekeepingTable());
+    HousekeepingMetadata partition = housekeepingMetadataRepository.save(createPartitionedEntityHousekeepingTable());
+    CleanupLease lease = new CleanupLease("instance1", Duration.ofHours(1));
+
+    housekeepingMetadataRepository.claim(List.of(partition), new CleanupLease("instance2", Duration.ofHours(1)));
+    List<HousekeepingMetadata> claimedRecords = housekeepingMetadataRepository.claim(List.of(table, partition), lease);
+
+    assertThat(claimedRecords).containsExactly(table);
+    assertThat(housekeepingMetadataRepository.claim(List.of(table), lease)).containsExactly(table);
+    assertThat(housekeepingMetadataRepository.findById(table.getId()).get().getClaimedBy()).isEqualTo("instance1");
+  }
+
+  @Test
+  public void findRecordsForCleanupSkipsRecordsClaimedByAnotherInstance() {
+    List<HousekeepingMetadata> tables = new ArrayList<>();
+    for (String table : List.of("table1", "table2", "table3")) {
+      tables.add(housekeepingMetadataRepository.save(createEntityHouseKeepingTable(DATABASE_NAME, table, null)));
+    }
+    CleanupLease lease = new CleanupLease("instance1", Duration.ofHours(1));
+    housekeepingMetadataRepository.claim(List.of(tables.get(0)), lease);
+    housekeepingMetadataRepository.claim(List.of(tables.get(1)), new CleanupLease("instance2", Duration.ofHours(1)));
+    housekeepingMetadataRepository.claim(List.of(tables.get(2)), new CleanupLease("instance2", Duration.ofHours(-1)));
+
+    Slice<HousekeepingMetadata> page = housekeepingMetadataRepository
+        .findRecordsForCleanup(CLEANUP_TIMESTAMP, CleanupCursor.first(), PAGE_SIZE, lease);
+    assertThat(page.getContent()).extracting("tableName").containsExactly("table1", "table3");
+  }
+
   private HousekeepingMetadata createUnpartitionedEntityHousekeepingTable() {
     return createEntityHousekeepingTable(null);
   }
@@ -19,6 +19,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.ABANDONED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.FAILED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.SCHEDULED;
@@ -34,8 +35,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
@@ -109,6 +110,168 @@ public class HousekeepingPathRepositoryTest {
     assertThat(updatedPath.getModifiedTimestamp()).isNotEqualTo(savedPath.getModifiedTimestamp());
   }
 
+  @Test
+  public void saveAllAssignsDistinctIds() {
+    HousekeepingPath path1 = createEntityHousekeepingPath();
+    HousekeepingPath path2 = createEntityHousekeepingPath();
+    path2.setPath("path2");
+
+    List<HousekeepingPath> savedPaths = housekeepingPathRepository.saveAll(List.of(path1, path2));
+
+    assertThat(savedPaths).extracting(HousekeepingPath::getId).doesNotContainNull().doesNotHaveDuplicates();
+    assertThat(housekeepingPathRepository.findAll()).hasSize(2);
+  }
+
+  @Test
+  public void updateStatus() {
+    HousekeepingPath path1 = housekeepingPathRepository.save(createEntityHousekeepingPath());
+    HousekeepingPath path2 = createEntityHousekeepingPath();
+    path2.setPath("path2");
+    path2 = housekeepingPathRepository.save(path2);
+
+    path1.setHousekeepingStatus(DELETED);
+    path1.setCleanupAttempts(1);
+    path2.setHousekeepingStatus(FAILED);
+    path2.setCleanupAttempts(2);
+    path2.setNextAttemptTimestamp(CLEANUP_TIMESTAMP);
+    housekeepingPathRepository.updateStatus(List.of(path1, path2));
+
+    HousekeepingPath updatedPath1 = housekeepingPathRepository.findById(path1.getId()).get();
+    assertThat(updatedPath1.getHousekeepingStatus()).isEqualTo(DELETED);
+    assertThat(updatedPath1.getCleanupAttempts()).isEqualTo(1);
+    assertThat(updatedPath1.getModifiedTimestamp()).isAfterOrEqualTo(path1.getModifiedTimestamp());
+    HousekeepingPath updatedPath2 = housekeepingPathRepository.findById(path2.getId()).get();
+    assertThat(updatedPath2.getHousekeepingStatus()).isEqualTo(FAILED);
+    assertThat(updatedPath2.getCleanupAttempts()).isEqualTo(2);
+    assertThat(updatedPath2.getNextAttemptTimestamp()).isEqualTo(CLEANUP_TIMESTAMP);
+  }
+
+  @Test
+  public void claim() {
+    HousekeepingPath path1 = housekeepingPathRepository.save(createEntityHousekeepingPath());
+    HousekeepingPath path2 = createEntityHousekeepingPath();
+    path2.setPath("path2");
+    path2 = housekeepingPathRepository.save(path2);
+    CleanupLease lease = new CleanupLease("instance1", Duration.ofHours(1));
+    CleanupLease otherLease = new CleanupLease("instance2", Duration.ofHours(1));
+
+    assertThat(housekeepingPathRepository.claim(List.of(path1), otherLease)).containsExactly(path1);
+    List<HousekeepingPath> claimedPaths = housekeepingPathRepository.claim(List.of(path1, path2), lease);
+
+    assertThat(claimedPaths).containsExactly(path2);
+    HousekeepingPath claimedPath = housekeepingPathRepository.findById(path2.getId()).get();
+    assertThat(claimedPath.getClaimedBy()).isEqualTo("instance1");
+    assertThat(claimedPath.getClaimExpiryTimestamp()).isNotNull();
+  }
+
+  @Test
+  public void claimTakesOverExpiredClaims() {
+    HousekeepingPath path = housekeepingPathRepository.save(createEntityHousekeepingPath());
+    CleanupLease expiredLease = new CleanupLease("instance2", Duration.ofHours(-1));
+    housekeepingPathRepository.claim(List.of(path), expiredLease);
+
+    CleanupLease lease = new CleanupLease("instance1", Duration.ofHours(1));
+    assertThat(housekeepingPathRepository.claim(List.of(path), lease)).containsExactly(path);
+    assertThat(housekeepingPathRepository.findById(path.getId()).get().getClaimedBy()).isEqualTo("instance1");
+  }
+
+  @Test
+  public void claimSkipsRecordsWhichAreNoLongerDue() {
+    HousekeepingPath deletedPath = createEntityHousekeepingPath();
+    deletedPath.setHousekeepingStatus(DELETED);
+    deletedPath = housekeepingPathRepository.save(deletedPath);
+    HousekeepingPath backingOffPath = createEntityHousekeepingPath();
+    backingOffPath.setPath("path2");
+    backingOffPath.setHousekeepingStatus(FAILED);
+    backingOffPath.setNextAttemptTimestamp(LocalDateTime.now(ZoneId.of("UTC")).plusHours(1));
+    backingOffPath = housekeepingPathRepository.save(backingOffPath);
+    HousekeepingPath failedPath = createEntityHousekeepingPath();
+    failedPath.setPath("path3");
+    failedPath.setHousekeepingStatus(FAILED);
+    failedPath = housekeepingPathRepository.save(failedPath);
+
+    List<HousekeepingPath> claimedPaths = housekeepingPathRepository
+        .claim(List.of(deletedPath, backingOffPath, failedPath), new CleanupLease("instance1", Duration.ofHours(1)));
+
+    assertThat(claimedPaths).containsExactly(failedPath);
+    assertThat(housekeepingPathRepository.findById(deletedPath.getId()).get().getClaimedBy()).isNull();
+  }
+
+  @Test
+  void findRecordsForCleanupSkipsRecordsClaimedByAnotherInstance() {
+    HousekeepingPath ownPath = housekeepingPathRepository.save(createEntityHousekeepingPath());
+    HousekeepingPath claimedPath = createEntityHousekeepingPath();
+    claimedPath.setPath("path2");
+    claimedPath = housekeepingPathRepository.save(claimedPath);
+    HousekeepingPath expiredPath = createEntityHousekeepingPath();
+    expiredPath.setPath("path3");
+    expiredPath = housekeepingPathRepository.save(expiredPath);
+    CleanupLease lease = new CleanupLease("instance1", Duration.ofHours(1));
+    housekeepingPathRepository.claim(List.of(ownPath), lease);
+    housekeepingPathRepository.claim(List.of(claimedPath), new CleanupLease("instance2", Duration.ofHours(1)));
+    housekeepingPathRepository.claim(List.of(expiredPath), new CleanupLease("instance2", Duration.ofHours(-1)));
+
+    Slice<HousekeepingPath> page = housekeepingPathRepository
+        .findRecordsForCleanup(CLEANUP_TIMESTAMP, CleanupCursor.first(), PAGE_SIZE, lease);
+    assertThat(page.getContent()).extracting("path").containsExactly("path", "path3");
+  }
+
+  @Test
+  public void updateStatusReleasesClaims() {
+    HousekeepingPath path = housekeepingPathRepository.save(createEntityHousekeepingPath());
+    housekeepingPathRepository.claim(List.of(path), new CleanupLease("instance1", Duration.ofHours(1)));
+
+    path.setHousekeepingStatus(FAILED);
+    housekeepingPathRepository.updateStatus(List.of(path));
+
+    HousekeepingPath updatedPath = housekeepingPathRepository.findById(path.getId()).get();
+    assertThat(updatedPath.getClaimedBy()).isNull();
+    assertThat(updatedPath.getClaimExpiryTimestamp()).isNull();
+  }
+
+  @Test
+  void findRecordsForCleanupSkipsFailedRecordsWhichAreBackingOff() {
+    HousekeepingPath backingOffPath = createEntityHousekeepingPath();
+    backingOffPath.setHousekeepingStatus(FAILED);
+    backingOffPath.setNextAttemptTimestamp(CLEANUP_TIMESTAMP.plusHours(1));
+    housekeepingPathRepository.save(backingOffPath);
+    HousekeepingPath retriedPath = createEntityHousekeepingPath();
+    retriedPath.setPath("path2");
+    retriedPath.setHousekeepingStatus(FAILED);
+    retriedPath.setNextAttemptTimestamp(CLEANUP_TIMESTAMP.minusHours(1));
+    housekeepingPathRepository.save(retriedPath);
+    HousekeepingPath abandonedPath = createEntityHousekeepingPath();
+    abandonedPath.setPath("path3");
+    abandonedPath.setHousekeepingStatus(ABANDONED);
+    housekeepingPathRepository.save(abandonedPath);
+
+    Slice<HousekeepingPath> page = housekeepingPathRepository
+        .findRecordsForCleanup(CLEANUP_TIMESTAMP, CleanupCursor.first(), PAGE_SIZE, CleanupLease.none());
+    assertThat(page.getContent()).extracting("path").containsExactly("path2");
+    assertThat(housekeepingPathRepository.findEarliestPendingCleanupTimestamp(CLEANUP_TIMESTAMP))
+        .isEqualTo(CLEANUP_TIMESTAMP.plusHours(1));
+  }
+
+  @Test
+  void findEarliestPendingCleanupTimestamp() {
+    HousekeepingPath duePath = createEntityHousekeepingPath();
+    housekeepingPathRepository.save(duePath);
+    HousekeepingPath laterPath = createEntityHousekeepingPath();
+    laterPath.setPath("path2");
+    laterPath.setCleanupDelay(Duration.parse("P4D"));
+    housekeepingPathRepository.save(laterPath);
+    HousekeepingPath failedPath = createEntityHousekeepingPath();
+    failedPath.setPath("path3");
+    failedPath.setCleanupDelay(Duration.parse("P5D"));
+    failedPath.setHousekeepingStatus(FAILED);
+    housekeepingPathRepository.save(failedPath);
+
+    LocalDateTime instant = CLEANUP_TIMESTAMP.plusHours(1);
+    assertThat(housekeepingPathRepository.findEarliestPendingCleanupTimestamp(instant))
+        .isEqualTo(CREATION_TIMESTAMP.plus(Duration.parse("P4D")));
+    assertThat(housekeepingPathRepository.findEarliestPendingCleanupTimestamp(instant.plusDays(2))).isNull();
+  }
+
   @Test
   public void notNullableField() {
     HousekeepingPath path = createEntityHousekeepingPath();
@@ -144,8 +307,9 @@ public class HousekeepingPathRepositoryTest {
     HousekeepingPath path = createEntityHousekeepingPath();
     housekeepingPathRepository.save(path);
 
-    Page<HousekeepingPath> result = housekeepingPathRepository
-        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, PageRequest.of(PAGE, PAGE_SIZE));
+    Slice<HousekeepingPath> result = housekeepingPathRepository
+        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, null, CLEANUP_TIMESTAMP,
+            PageRequest.of(PAGE, PAGE_SIZE));
     assertThat(result.getContent().get(0).getPath()).isEqualTo("path");
   }
 
@@ -155,8 +319,9 @@ public class HousekeepingPathRepositoryTest {
     path.setHousekeepingStatus(DELETED);
     housekeepingPathRepository.save(path);
 
-    Page<HousekeepingPath> result = housekeepingPathRepository
-        .findRecordsForCleanupByModifiedTimestamp(LocalDateTime.now(), PageRequest.of(PAGE, PAGE_SIZE));
+    Slice<HousekeepingPath> result = housekeepingPathRepository
+        .findRecordsForCleanupByModifiedTimestamp(LocalDateTime.now(), null, LocalDateTime.now(),
+            PageRequest.of(PAGE, PAGE_SIZE));
     assertThat(result.getContent().size()).isEqualTo(0);
   }
 
@@ -177,8 +342,9 @@ public class HousekeepingPathRepositoryTest {
     housekeepingPath3.setPath("path3");
     housekeepingPathRepository.save(housekeepingPath3);
 
-    Page<HousekeepingPath> result = housekeepingPathRepository
-        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, PageRequest.of(PAGE, PAGE_SIZE));
+    Slice<HousekeepingPath> result = housekeepingPathRepository
+        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, null, CLEANUP_TIMESTAMP,
+            PageRequest.of(PAGE, PAGE_SIZE));
     assertThat(result.getContent().size()).isEqualTo(2);
   }
 
@@ -197,12 +363,34 @@ public class HousekeepingPathRepositoryTest {
     housekeepingPathRepository.save(housekeepingPath2);
 
     List<HousekeepingPath> result = housekeepingPathRepository
-        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, PageRequest.of(PAGE, PAGE_SIZE))
+        .findRecordsForCleanupByModifiedTimestamp(CLEANUP_TIMESTAMP, null, CLEANUP_TIMESTAMP,
+            PageRequest.of(PAGE, PAGE_SIZE))
         .getContent();
     assertThat(result.get(0).getPath()).isEqualTo(path1);
     assertThat(result.get(1).getPath()).isEqualTo(path2);
   }
 
+  @Test
+  void findRecordsForCleanupWithCursor() {
+    List<String> paths = List.of("path1", "path2", "path3");
+    paths.forEach(p -> {
+      HousekeepingPath housekeepingPath = createEntityHousekeepingPath();
+      housekeepingPath.setPath(p);
+      housekeepingPathRepository.save(housekeepingPath);
+    });
+
+    Slice<HousekeepingPath> firstPage = housekeepingPathRepository
+        .findRecordsForCleanup(CLEANUP_TIMESTAMP, CleanupCursor.first(), 2, CleanupLease.none());
+    assertThat(firstPage.getContent()).extracting("path").containsExactly("path1", "path2");
+    assertThat(firstPage.hasNext()).isTrue();
+
+    CleanupCursor cursor = CleanupCursor.after(firstPage.getContent().get(1));
+    Slice<HousekeepingPath> secondPage = housekeepingPathRepository
+        .findRecordsForCleanup(CLEANUP_TIMESTAMP, cursor, 2, CleanupLease.none());
+    assertThat(secondPage.getContent()).extracting("path").containsExactly("path3");
+    assertThat(secondPage.hasNext()).isFalse();
+  }
+
   private HousekeepingPath createEntityHousekeepingPath() {
     return new HousekeepingPath.Builder()
         .path("path")
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.core.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.SCHEDULED;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+import com.expediagroup.beekeeper.core.TestApplication;
+import com.expediagroup.beekeeper.core.model.HousekeepingPathShard;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(properties = {
+    "hibernate.data-source.driver-class-name=org.h2.Driver",
+    "hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "hibernate.hbm2ddl.auto=create",
+    "spring.jpa.show-sql=true",
+    "spring.datasource.url=jdbc:h2:mem:beekeeper;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL" })
+@ContextConfiguration(classes = { TestApplication.class }, loader = AnnotationConfigContextLoader.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class HousekeepingPathShardRepositoryTest {
+
+  private static final LocalDateTime CREATION_TIMESTAMP = LocalDateTime.now(ZoneId.of("UTC"));
+  private static final Long PATH_ID = 1L;
+  private static final Long OTHER_PATH_ID = 2L;
+
+  @Autowired
+  private HousekeepingPathShardRepository housekeepingPathShardRepository;
+
+  @BeforeEach
+  public void setupDb() {
+    housekeepingPathShardRepository.deleteAll();
+  }
+
+  @Test
+  public void findShards() {
+    housekeepingPathShardRepository.saveAll(List.of(
+        new HousekeepingPathShard(PATH_ID, "table/b/", CREATION_TIMESTAMP),
+        new HousekeepingPathShard(PATH_ID, "table/a/", CREATION_TIMESTAMP),
+        new HousekeepingPathShard(OTHER_PATH_ID, "other/a/", CREATION_TIMESTAMP)));
+
+    List<HousekeepingPathShard> shards = housekeepingPathShardRepository.findShards(PATH_ID);
+
+    assertThat(shards).extracting(HousekeepingPathShard::getPrefix).containsExactly("table/a/", "table/b/");
+    assertThat(shards).extracting(HousekeepingPathShard::getHousekeepingStatus).containsOnly(SCHEDULED);
+    assertThat(shards).extracting(HousekeepingPathShard::getCheckpoint).containsOnlyNulls();
+  }
+
+  @Test
+  public void updateCheckpoint() {
+    HousekeepingPathShard shard = housekeepingPathShardRepository
+        .save(new HousekeepingPathShard(PATH_ID, "table/a/", CREATION_TIMESTAMP));
+
+    housekeepingPathShardRepository.updateCheckpoint(shard.getId(), "table/a/file1");
+
+    HousekeepingPathShard updatedShard = housekeepingPathShardRepository.findShards(PATH_ID).get(0);
+    assertThat(updatedShard.getCheckpoint()).isEqualTo("table/a/file1");
+    assertThat(updatedShard.getHousekeepingStatus()).isEqualTo(SCHEDULED);
+  }
+
+  @Test
+  public void typicalUpdate() {
+    HousekeepingPathShard shard = housekeepingPathShardRepository
+        .save(new HousekeepingPathShard(PATH_ID, "table/a/", CREATION_TIMESTAMP));
+
+    shard.setHousekeepingStatus(DELETED);
+    housekeepingPathShardRepository.save(shard);
+
+    assertThat(housekeepingPathShardRepository.findShards(PATH_ID).get(0).getHousekeepingStatus()).isEqualTo(DELETED);
+  }
+
+  @Test
+  public void deleteShards() {
+    housekeepingPathShardRepository.saveAll(List.of(
+        new HousekeepingPathShard(PATH_ID, "table/a/", CREATION_TIMESTAMP),
+        new HousekeepingPathShard(OTHER_PATH_ID, "other/a/", CREATION_TIMESTAMP)));
+
+    housekeepingPathShardRepository.deleteShards(PATH_ID);
+
+    assertThat(housekeepingPathShardRepository.findShards(PATH_ID)).isEmpty();
+    assertThat(housekeepingPathShardRepository.findShards(OTHER_PATH_ID)).hasSize(1);
+  }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.integration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+/**
+ * Runs the path cleanup integration tests with the path cleaner built on the asynchronous S3 client.
+ */
+public class BeekeeperAsyncPathCleanupIntegrationTest extends BeekeeperPathCleanupIntegrationTest {
+
+  private static final String ASYNC_S3_CLIENT_ENABLED_PROPERTY = "properties.async-s3-client-enabled";
+
+  @BeforeAll
+  public static void enableAsyncS3Client() {
+    System.setProperty(ASYNC_S3_CLIENT_ENABLED_PROPERTY, "true");
+  }
+
+  @AfterAll
+  public static void disableAsyncS3Client() {
+    System.clearProperty(ASYNC_S3_CLIENT_ENABLED_PROPERTY);
+  }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.integration;
+
+import static java.lang.String.format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
+import com.expediagroup.beekeeper.core.repository.HousekeepingMetadataRepository;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+import com.expediagroup.beekeeper.integration.utils.CapturingQueryInterceptor;
+import com.expediagroup.beekeeper.integration.utils.MySqlTestUtils;
+
+/**
+ * Runs EXPLAIN for the SQL generated from the repository queries and fails if MySQL falls back to a full table scan.
+ *
+ * @implNote The repositories run against the test database and the SQL they send, with its parameters bound, is
+ * captured by the MySQL driver, so that the plans are always those of the queries Beekeeper runs.
+ */
+@Testcontainers
+public class BeekeeperCleanupQueryPlanIntegrationTest extends BeekeeperIntegrationTestBase {
+
+  private static final int TABLES = 20;
+  private static final int PARTITIONS_PER_TABLE = 100;
+  private static final int PAGE_SIZE = 500;
+  private static final LocalDateTime INSTANT = LocalDateTime.of(2021, 6, 15, 0, 0);
+  private static final LocalDateTime LAST_MODIFIED_TIMESTAMP = LocalDateTime.of(2021, 6, 1, 0, 0);
+  private static final CleanupLease LEASE = new CleanupLease("instance", Duration.ofHours(1));
+  private static final String DATABASE_NAME = "database_1";
+  private static final String TABLE_NAME = "table_1";
+  private static final String FULL_SCAN = "ALL";
+
+  private static MySqlTestUtils mySqlTestUtils;
+
+  private ConfigurableApplicationContext context;
+  private HousekeepingPathRepository pathRepository;
+  private HousekeepingMetadataRepository metadataRepository;
+
+  @Configuration
+  @ImportAutoConfiguration({ PropertyPlaceholderAutoConfiguration.class, DataSourceAutoConfiguration.class,
+      HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class })
+  @EntityScan(basePackages = { "com.expediagroup.beekeeper.core.model" })
+  @EnableJpaRepositories(basePackages = { "com.expediagroup.beekeeper.core.repository" })
+  static class RepositoryConfiguration {}
+
+  @BeforeAll
+  public static void init() throws SQLException {
+    mySqlTestUtils = new MySqlTestUtils(System.getProperty("spring.datasource.url"),
+        System.getProperty("spring.datasource.username"), System.getProperty("spring.datasource.password"));
+  }
+
+  @AfterAll
+  public static void teardown() throws SQLException {
+    mySqlTestUtils.close();
+  }
+
+  @BeforeEach
+  public void migrateAndPopulate() throws SQLException {
+    Flyway
+        .configure()
+        .dataSource(System.getProperty("spring.datasource.url"), System.getProperty("spring.datasource.username"),
+            System.getProperty("spring.datasource.password"))
+        .load()
+        .migrate();
+
+    List<String> paths = new ArrayList<>();
+    List<String> metadata = new ArrayList<>();
+    for (int table = 0; table < TABLES; table++) {
+      for (int partition = 0; partition < PARTITIONS_PER_TABLE; partition++) {
+        // most rows are already deleted, as in a long running deployment
+        String status = partition % 10 == 0 ? "SCHEDULED" : "DELETED";
+        String timestamp = format("'2021-%02d-%02d 00:00:00'", partition % 12 + 1, partition % 28 + 1);
+        String path = format("'s3://bucket/database_%d/table_%d/partition=%d'", table, table, partition);
+        String common = format("'database_%d', 'table_%d'", table, table);
+        int id = table * PARTITIONS_PER_TABLE + partition + 1;
+        paths.add(format("(%d, %s, %s, '%s', %s, %s, 'P3D', 'UNREFERENCED')", id, path, common, status, timestamp,
+            timestamp));
+        metadata.add(format("(%d, %s, %s, 'partition=%d', '%s', %s, %s, 'P3D', 'EXPIRED')", id, path, common,
+            partition, status, timestamp, timestamp));
+      }
+    }
+    mySqlTestUtils.executeUpdate("insert into beekeeper.housekeeping_path (id, path, database_name, table_name, "
+        + "housekeeping_status, modified_timestamp, cleanup_timestamp, cleanup_delay, lifecycle_type) values "
+        + String.join(", ", paths));
+    mySqlTestUtils.executeUpdate("insert into beekeeper.housekeeping_metadata (id, path, database_name, table_name, "
+        + "partition_name, housekeeping_status, modified_timestamp, cleanup_timestamp, cleanup_delay, lifecycle_type) "
+        + "values " + String.join(", ", metadata));
+    mySqlTestUtils.executeUpdate("analyze table beekeeper.housekeeping_path, beekeeper.housekeeping_metadata");
+
+    context = new SpringApplicationBuilder(RepositoryConfiguration.class)
+        .properties("spring.main.web-application-type=none",
+            "spring.datasource.url=" + System.getProperty("spring.datasource.url") + "&queryInterceptors="
+                + CapturingQueryInterceptor.class.getName(),
+            "spring.jpa.hibernate.ddl-auto=none",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL8Dialect")
+        .run();
+    pathRepository = context.getBean(HousekeepingPathRepository.class);
+    metadataRepository = context.getBean(HousekeepingMetadataRepository.class);
+  }
+
+  @AfterEach
+  public void closeContext() {
+    context.close();
+  }
+
+  @Test
+  public void pathCleanupQueriesUseIndex() throws SQLException {
+    assertIndexUsed(
+        capture(() -> pathRepository.findRecordsForCleanup(INSTANT, CleanupCursor.first(), PAGE_SIZE, LEASE)));
+    assertIndexUsed(capture(() -> pathRepository
+        .findRecordsForCleanupByModifiedTimestampAfter(INSTANT, LAST_MODIFIED_TIMESTAMP, 10L, LEASE.getOwner(),
+            INSTANT, PageRequest.of(0, PAGE_SIZE))));
+  }
+
+  @Test
+  public void metadataCleanupQueriesUseIndex() throws SQLException {
+    assertIndexUsed(
+        capture(() -> metadataRepository.findRecordsForCleanup(INSTANT, CleanupCursor.first(), PAGE_SIZE, LEASE)));
+    assertIndexUsed(capture(() -> metadataRepository
+        .findRecordsForCleanupByModifiedTimestampAfter(INSTANT, LAST_MODIFIED_TIMESTAMP, 10L, LEASE.getOwner(),
+            INSTANT, PageRequest.of(0, PAGE_SIZE))));
+  }
+
+  @Test
+  public void findRecordForCleanupByDbTableAndPartitionNameUsesIndex() throws SQLException {
+    assertIndexUsed(capture(() -> metadataRepository
+        .findRecordForCleanupByDbTableAndPartitionName(DATABASE_NAME, TABLE_NAME, "partition=10")));
+    assertIndexUsed(capture(
+        () -> metadataRepository.findRecordForCleanupByDbTableAndPartitionName(DATABASE_NAME, TABLE_NAME, null)));
+  }
+
+  @Test
+  public void tableAggregateQueriesUseIndex() throws SQLException {
+    assertIndexUsed(
+        capture(() -> metadataRepository.findMaximumCleanupTimestampForDbAndTable(DATABASE_NAME, TABLE_NAME)));
+    assertIndexUsed(capture(() -> metadataRepository
+        .countRecordsForGivenDatabaseAndTableWherePartitionIsNotNull(DATABASE_NAME, TABLE_NAME)));
+    assertIndexUsed(capture(() -> metadataRepository
+        .countRecordsForDryRunWherePartitionIsNotNullOrExpired(INSTANT, DATABASE_NAME, TABLE_NAME)));
+    assertIndexUsed(capture(
+        () -> metadataRepository.countPartitionsByTable(INSTANT, DATABASE_NAME, List.of(TABLE_NAME), false)));
+    assertIndexUsed(capture(
+        () -> metadataRepository.countPartitionsByTable(INSTANT, DATABASE_NAME, List.of(TABLE_NAME), true)));
+  }
+
+  private String capture(Runnable repositoryCall) {
+    CapturingQueryInterceptor.clear();
+    repositoryCall.run();
+    List<String> queries = CapturingQueryInterceptor.queries();
+    assertThat(queries).hasSize(1);
+    return queries.get(0);
+  }
+
+  private void assertIndexUsed(String query) throws SQLException {
+    ResultSet plan = mySqlTestUtils.explain(query);
+    assertThat(plan.next()).isTrue();
+    assertThat(plan.getString("type")).as("Access type of: %s", query).isNotEqualTo(FULL_SCAN);
+    assertThat(plan.getString("key")).as("Index used by: %s", query).isNotNull();
+  }
+}
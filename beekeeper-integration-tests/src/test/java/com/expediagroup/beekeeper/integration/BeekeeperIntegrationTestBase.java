@@ -75,6 +75,8 @@ public abstract class BeekeeperIntegrationTestBase {
   private static final String AWS_REGION_PROPERTY = "aws.region";
   private static final String AWS_ACCESS_KEY_ID_PROPERTY = "aws.accessKeyId";
   private static final String AWS_SECRET_KEY_PROPERTY = "aws.secretKey";
+  // read by the AWS SDK v2 clients
+  private static final String AWS_SECRET_ACCESS_KEY_PROPERTY = "aws.secretAccessKey";
 
   // AWS VARIABLES
   private static final String AWS_ACCESS_KEY_ID = "access-key";
@@ -85,6 +87,7 @@ public abstract class BeekeeperIntegrationTestBase {
   private static final String BEEKEEPER_FLYWAY_TABLE = "flyway_schema_history";
   private static final String BEEKEEPER_HOUSEKEEPING_PATH_TABLE_NAME = "housekeeping_path";
   private static final String BEEKEEPER_HOUSEKEEPING_METADATA_TABLE_NAME = "housekeeping_metadata";
+  private static final String BEEKEEPER_HOUSEKEEPING_ID_GENERATOR_TABLE_NAME = "housekeeping_id_generator";
 
   // FIELDS TO INSERT INTO BEEKEEPER TABLES
   private Long id = 1L;
@@ -119,6 +122,7 @@ public abstract class BeekeeperIntegrationTestBase {
     System.setProperty(AWS_REGION_PROPERTY, AWS_REGION);
     System.setProperty(AWS_ACCESS_KEY_ID_PROPERTY, AWS_ACCESS_KEY_ID);
     System.setProperty(AWS_SECRET_KEY_PROPERTY, AWS_SECRET_KEY);
+    System.setProperty(AWS_SECRET_ACCESS_KEY_PROPERTY, AWS_SECRET_KEY);
 
     mySQLTestUtils = new MySqlTestUtils(jdbcUrl, username, password);
   }
@@ -131,6 +135,7 @@ public abstract class BeekeeperIntegrationTestBase {
     System.clearProperty(AWS_REGION_PROPERTY);
     System.clearProperty(AWS_ACCESS_KEY_ID_PROPERTY);
     System.clearProperty(AWS_SECRET_KEY_PROPERTY);
+    System.clearProperty(AWS_SECRET_ACCESS_KEY_PROPERTY);
 
     mySQLTestUtils.close();
   }
@@ -140,6 +145,7 @@ public abstract class BeekeeperIntegrationTestBase {
     mySQLTestUtils.dropTable(BEEKEEPER_DB_NAME, BEEKEEPER_FLYWAY_TABLE);
     mySQLTestUtils.dropTable(BEEKEEPER_DB_NAME, BEEKEEPER_HOUSEKEEPING_PATH_TABLE_NAME);
     mySQLTestUtils.dropTable(BEEKEEPER_DB_NAME, BEEKEEPER_HOUSEKEEPING_METADATA_TABLE_NAME);
+    mySQLTestUtils.dropTable(BEEKEEPER_DB_NAME, BEEKEEPER_HOUSEKEEPING_ID_GENERATOR_TABLE_NAME);
   }
 
   protected void insertUnreferencedPath(String path) throws SQLException {
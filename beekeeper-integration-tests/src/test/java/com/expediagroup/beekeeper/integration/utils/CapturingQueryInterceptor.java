@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.integration.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import com.mysql.cj.MysqlConnection;
+import com.mysql.cj.Query;
+import com.mysql.cj.interceptors.QueryInterceptor;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.Resultset;
+import com.mysql.cj.protocol.ServerSession;
+
+/**
+ * Records the selects on the Beekeeper tables sent by the MySQL driver, with their parameters bound, so that the SQL
+ * generated from the repository queries can be explained.
+ *
+ * @implNote Enabled by adding {@code queryInterceptors} with the name of this class to the JDBC URL.
+ */
+public class CapturingQueryInterceptor implements QueryInterceptor {
+
+  private static final List<String> QUERIES = new ArrayList<>();
+
+  public static synchronized void clear() {
+    QUERIES.clear();
+  }
+
+  public static synchronized List<String> queries() {
+    return new ArrayList<>(QUERIES);
+  }
+
+  private static synchronized void capture(String query) {
+    QUERIES.add(query);
+  }
+
+  @Override
+  public QueryInterceptor init(MysqlConnection conn, Properties props, Log log) {
+    return this;
+  }
+
+  @Override
+  public <T extends Resultset> T preProcess(Supplier<String> sql, Query interceptedQuery) {
+    String query = sql.get();
+    if (query != null && query.trim().toLowerCase().startsWith("select") && query.contains("housekeeping_")) {
+      capture(query.trim());
+    }
+    return null;
+  }
+
+  @Override
+  public boolean executeTopLevelOnly() {
+    return true;
+  }
+
+  @Override
+  public void destroy() {}
+
+  @Override
+  public <T extends Resultset> T postProcess(Supplier<String> sql, Query interceptedQuery, T originalResultSet,
+      ServerSession serverSession) {
+    return null;
+  }
+}
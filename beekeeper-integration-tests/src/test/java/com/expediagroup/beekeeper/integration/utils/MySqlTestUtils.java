@@ -27,6 +27,7 @@ public class MySqlTestUtils {
   private static final String DROP_TABLE = "DROP TABLE IF EXISTS %s.%s;";
   private static final String SELECT_TABLE = "SELECT * FROM %s.%s %s;";
   private static final String INSERT_TO_TABLE = "INSERT INTO %s.%s (%s) VALUES (%s);";
+  private static final String EXPLAIN = "EXPLAIN %s;";
 
   private final Connection connection;
 
@@ -69,6 +70,14 @@ public class MySqlTestUtils {
     return connection.createStatement().executeQuery(statement);
   }
 
+  public void executeUpdate(String statement) throws SQLException {
+    connection.createStatement().executeUpdate(statement);
+  }
+
+  public ResultSet explain(String query) throws SQLException {
+    return connection.createStatement().executeQuery(format(EXPLAIN, query));
+  }
+
   public void dropTable(String database, String table) throws SQLException {
     connection.createStatement().executeUpdate(format(DROP_TABLE, database, table));
   }
@@ -15,6 +15,8 @@
  */
 package com.expediagroup.beekeeper.metadata.cleanup.context;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -25,28 +27,40 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 
+import com.expediagroup.beekeeper.cleanup.aws.S3AsyncPathCleaner;
 import com.expediagroup.beekeeper.cleanup.aws.S3Client;
 import com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner;
-import com.expediagroup.beekeeper.cleanup.aws.S3SentinelFilesCleaner;
 import com.expediagroup.beekeeper.cleanup.hive.HiveClientFactory;
 import com.expediagroup.beekeeper.cleanup.hive.HiveMetadataCleaner;
+import com.expediagroup.beekeeper.cleanup.hive.MetaStoreClientPool;
 import com.expediagroup.beekeeper.cleanup.metadata.CleanerClientFactory;
 import com.expediagroup.beekeeper.cleanup.metadata.MetadataCleaner;
 import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
 import com.expediagroup.beekeeper.cleanup.monitoring.DeletedMetadataReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
 import com.expediagroup.beekeeper.cleanup.service.CleanupService;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingMetadataRepository;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.MetadataCleanupExecutor;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.SequentialMetadataCleanupExecutor;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.StripedMetadataCleanupExecutor;
 import com.expediagroup.beekeeper.metadata.cleanup.handler.ExpiredMetadataHandler;
 import com.expediagroup.beekeeper.metadata.cleanup.handler.MetadataHandler;
 import com.expediagroup.beekeeper.metadata.cleanup.service.PagingMetadataCleanupService;
@@ -62,6 +76,8 @@ import com.hotels.hcommon.hive.metastore.client.supplier.HiveMetaStoreClientSupp
 @EnableJpaRepositories(basePackages = { "com.expediagroup.beekeeper.core.repository" })
 public class CommonBeans {
 
+  private static final Duration METASTORE_CLIENT_MAX_WAIT = Duration.ofMinutes(1);
+
   @Bean
   public HiveConf hiveConf(@Value("${properties.metastore-uri}") String metastoreUri) {
     HiveConf conf = new HiveConf();
@@ -82,11 +98,22 @@ public class CommonBeans {
     return new HiveMetaStoreClientSupplier(metaStoreClientFactory, hiveConf, name);
   }
 
+  @Bean
+  MetaStoreClientPool metaStoreClientPool(
+      @Qualifier("metaStoreClientSupplier") Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      MeterRegistry meterRegistry,
+      @Value("${properties.metastore-client-pool-size}") int metastoreClientPoolSize,
+      @Value("${properties.cleanup-threads}") int cleanupThreads) {
+    // every cleanup thread keeps a client for a whole page, on top of the one the page is prepared with
+    int poolSize = Math.max(metastoreClientPoolSize, cleanupThreads + 1);
+    return new MetaStoreClientPool(metaStoreClientSupplier, poolSize, METASTORE_CLIENT_MAX_WAIT, meterRegistry);
+  }
+
   @Bean(name = "hiveClientFactory")
   public CleanerClientFactory clientFactory(
-      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      MetaStoreClientPool metaStoreClientPool,
       @Value("${properties.dry-run-enabled}") boolean dryRunEnabled) {
-    return new HiveClientFactory(metaStoreClientSupplier, dryRunEnabled);
+    return new HiveClientFactory(metaStoreClientPool, dryRunEnabled);
   }
 
   @Bean
@@ -98,8 +125,9 @@ public class CommonBeans {
 
   @Bean(name = "hiveTableCleaner")
   MetadataCleaner metadataCleaner(
-      DeletedMetadataReporter deletedMetadataReporter) {
-    return new HiveMetadataCleaner(deletedMetadataReporter);
+      DeletedMetadataReporter deletedMetadataReporter,
+      MeterRegistry meterRegistry) {
+    return new HiveMetadataCleaner(deletedMetadataReporter, meterRegistry);
   }
 
   @Bean
@@ -120,6 +148,27 @@ public class CommonBeans {
         .build();
   }
 
+  @Bean
+  @Lazy
+  @Profile("default")
+  S3AsyncClient s3AsyncClient() {
+    return S3AsyncClient.create();
+  }
+
+  @Bean
+  @Lazy
+  @Profile("test")
+  S3AsyncClient s3AsyncClientTest() {
+    String s3Endpoint = System.getProperty("aws.s3.endpoint");
+    String region = System.getProperty("aws.region");
+
+    return S3AsyncClient.builder()
+        .endpointOverride(URI.create(s3Endpoint))
+        .region(Region.of(region))
+        .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+        .build();
+  }
+
   @Bean
   BytesDeletedReporter bytesDeletedReporter(
       MeterRegistry meterRegistry,
@@ -132,11 +181,25 @@ public class CommonBeans {
     return new S3Client(amazonS3, dryRunEnabled);
   }
 
+  @Bean
+  S3RequestCountReporter s3RequestCountReporter(MeterRegistry meterRegistry) {
+    return new S3RequestCountReporter(meterRegistry);
+  }
+
   @Bean(name = "s3PathCleaner")
   PathCleaner pathCleaner(
       S3Client s3Client,
-      BytesDeletedReporter bytesDeletedReporter) {
-    return new S3PathCleaner(s3Client, new S3SentinelFilesCleaner(s3Client), bytesDeletedReporter);
+      @Lazy S3AsyncClient s3AsyncClient,
+      BytesDeletedReporter bytesDeletedReporter,
+      S3RequestCountReporter s3RequestCountReporter,
+      @Value("${properties.cleanup-delete-threads}") int cleanupDeleteThreads,
+      @Value("${properties.async-s3-client-enabled}") boolean asyncS3ClientEnabled,
+      @Value("${properties.dry-run-enabled}") boolean dryRunEnabled) {
+    if (asyncS3ClientEnabled) {
+      return new S3AsyncPathCleaner(s3AsyncClient, bytesDeletedReporter, s3RequestCountReporter, dryRunEnabled,
+          cleanupDeleteThreads);
+    }
+    return new S3PathCleaner(s3Client, bytesDeletedReporter, s3RequestCountReporter, cleanupDeleteThreads);
   }
 
   @Bean(name = "expiredMetadataHandler")
@@ -144,8 +207,42 @@ public class CommonBeans {
       @Qualifier("hiveClientFactory") CleanerClientFactory cleanerClientFactory,
       HousekeepingMetadataRepository housekeepingMetadataRepository,
       @Qualifier("hiveTableCleaner") MetadataCleaner metadataCleaner,
-      @Qualifier("s3PathCleaner") PathCleaner pathCleaner) {
-    return new ExpiredMetadataHandler(cleanerClientFactory, housekeepingMetadataRepository, metadataCleaner, pathCleaner);
+      @Qualifier("s3PathCleaner") PathCleaner pathCleaner,
+      @Value("${properties.partition-batch-size}") int partitionBatchSize,
+      @Value("${properties.partition-existence-check-enabled}") boolean partitionExistenceCheckEnabled,
+      MetadataCleanupExecutor metadataCleanupExecutor,
+      CleanupLease cleanupLease,
+      CleanupRetryPolicy cleanupRetryPolicy) {
+    return new ExpiredMetadataHandler(cleanerClientFactory, housekeepingMetadataRepository, metadataCleaner, pathCleaner,
+        partitionBatchSize, partitionExistenceCheckEnabled, metadataCleanupExecutor, cleanupLease,
+        cleanupRetryPolicy);
+  }
+
+  @Bean
+  MetadataCleanupExecutor metadataCleanupExecutor(@Value("${properties.cleanup-threads}") int cleanupThreads) {
+    if (cleanupThreads <= 1) {
+      return new SequentialMetadataCleanupExecutor();
+    }
+    return new StripedMetadataCleanupExecutor(cleanupThreads);
+  }
+
+  @Bean
+  CleanupLease cleanupLease(
+      @Value("${properties.claim-enabled}") boolean claimEnabled,
+      @Value("${properties.claim-lease-duration}") String claimLeaseDuration) {
+    if (claimEnabled) {
+      return CleanupLease.forThisInstance(Duration.parse(claimLeaseDuration));
+    }
+    return CleanupLease.none();
+  }
+
+  @Bean
+  CleanupRetryPolicy cleanupRetryPolicy(
+      @Value("${properties.cleanup-max-attempts}") int cleanupMaxAttempts,
+      @Value("${properties.cleanup-retry-backoff}") String cleanupRetryBackoff,
+      @Value("${properties.cleanup-retry-max-backoff}") String cleanupRetryMaxBackoff) {
+    return new CleanupRetryPolicy(cleanupMaxAttempts, Duration.parse(cleanupRetryBackoff),
+        Duration.parse(cleanupRetryMaxBackoff));
   }
 
   @Bean
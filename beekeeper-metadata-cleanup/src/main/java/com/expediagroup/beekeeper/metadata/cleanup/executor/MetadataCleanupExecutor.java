@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.metadata.cleanup.executor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
+
+public interface MetadataCleanupExecutor {
+
+  /**
+   * Runs {@code task} once for the records of every table in {@code housekeepingMetadata}.
+   *
+   * @param housekeepingMetadata Records to process.
+   * @param task Cleanup task to run for the records of each table, which are passed in their original order.
+   * @implNote Implementations must only return once the task has completed for every table, and must never run two
+   * tasks for the same table at the same time.
+   */
+  void execute(List<HousekeepingMetadata> housekeepingMetadata, Consumer<List<HousekeepingMetadata>> task);
+
+  /**
+   * @return The records grouped by {@code databaseName.tableName}, in the order in which each table first appears.
+   */
+  static Map<String, List<HousekeepingMetadata>> groupByTable(List<HousekeepingMetadata> housekeepingMetadata) {
+    return housekeepingMetadata.stream()
+        .collect(Collectors.groupingBy(MetadataCleanupExecutor::qualifiedTableName, LinkedHashMap::new,
+            Collectors.toList()));
+  }
+
+  static String qualifiedTableName(HousekeepingMetadata housekeepingMetadata) {
+    return housekeepingMetadata.getDatabaseName() + "." + housekeepingMetadata.getTableName();
+  }
+}
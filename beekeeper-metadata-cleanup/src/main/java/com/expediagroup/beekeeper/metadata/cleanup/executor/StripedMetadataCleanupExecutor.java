@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.metadata.cleanup.executor;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.expediagroup.beekeeper.core.concurrent.ExecutorSupport;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
+
+/**
+ * Processes the tables of a page in parallel on a fixed number of stripes.
+ *
+ * @implNote Each stripe is a single worker thread and a table is always assigned to the same stripe by the hash of
+ * {@code databaseName.tableName}, so the work for a table runs in order on one thread while different tables are
+ * cleaned up at the same time.
+ */
+public class StripedMetadataCleanupExecutor implements MetadataCleanupExecutor {
+
+  private final List<ExecutorService> stripes;
+
+  public StripedMetadataCleanupExecutor(int stripeCount) {
+    if (stripeCount < 1) {
+      throw new BeekeeperException(format("Metadata cleanup concurrency must be positive; was %s.", stripeCount));
+    }
+    ThreadFactory threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat("metadata-cleanup-%d")
+        .setDaemon(true)
+        .build();
+    stripes = new ArrayList<>(stripeCount);
+    for (int i = 0; i < stripeCount; i++) {
+      stripes.add(Executors.newSingleThreadExecutor(threadFactory));
+    }
+  }
+
+  @Override
+  public void execute(List<HousekeepingMetadata> housekeepingMetadata, Consumer<List<HousekeepingMetadata>> task) {
+    Map<String, List<HousekeepingMetadata>> recordsByTable = MetadataCleanupExecutor.groupByTable(housekeepingMetadata);
+    List<Future<?>> futures = new ArrayList<>(recordsByTable.size());
+    recordsByTable.forEach((qualifiedTableName, records) -> futures
+        .add(stripe(qualifiedTableName).submit(() -> task.accept(records))));
+
+    ExecutorSupport.awaitAll(futures, "metadata cleanup tasks");
+  }
+
+  private ExecutorService stripe(String qualifiedTableName) {
+    return stripes.get(Math.floorMod(qualifiedTableName.hashCode(), stripes.size()));
+  }
+
+  public void shutdown() {
+    ExecutorSupport.shutdown("Metadata cleanup workers", stripes);
+  }
+}
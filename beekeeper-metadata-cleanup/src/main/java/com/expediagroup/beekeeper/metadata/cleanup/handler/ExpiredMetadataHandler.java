@@ -15,47 +15,111 @@
  */
 package com.expediagroup.beekeeper.metadata.cleanup.handler;
 
+import static java.lang.String.format;
+
 import static org.apache.commons.lang.math.NumberUtils.LONG_ZERO;
 
+import static com.expediagroup.beekeeper.metadata.cleanup.executor.MetadataCleanupExecutor.qualifiedTableName;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.ABANDONED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.FAILED;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import com.google.common.collect.Lists;
 
 import com.expediagroup.beekeeper.cleanup.metadata.CleanerClient;
 import com.expediagroup.beekeeper.cleanup.metadata.CleanerClientFactory;
 import com.expediagroup.beekeeper.cleanup.metadata.MetadataCleaner;
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
 import com.expediagroup.beekeeper.core.model.HousekeepingStatus;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingMetadataRepository;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.MetadataCleanupExecutor;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.SequentialMetadataCleanupExecutor;
 
 public class ExpiredMetadataHandler implements MetadataHandler {
 
   private final Logger log = LoggerFactory.getLogger(ExpiredMetadataHandler.class);
 
+  static final int DEFAULT_PARTITION_BATCH_SIZE = 100;
+
   private final CleanerClientFactory cleanerClientFactory;
   private final HousekeepingMetadataRepository housekeepingMetadataRepository;
   private final MetadataCleaner metadataCleaner;
   private final PathCleaner pathCleaner;
+  private final int partitionBatchSize;
+  private final boolean partitionExistenceCheckEnabled;
+  private final MetadataCleanupExecutor metadataCleanupExecutor;
+  private final CleanupLease cleanupLease;
+  private final CleanupRetryPolicy cleanupRetryPolicy;
+  private final Map<Long, CleanerClient> pageClients = new ConcurrentHashMap<>();
 
   public ExpiredMetadataHandler(CleanerClientFactory cleanerClientFactory,
       HousekeepingMetadataRepository housekeepingMetadataRepository,
       MetadataCleaner metadataCleaner, PathCleaner pathCleaner) {
+    this(cleanerClientFactory, housekeepingMetadataRepository, metadataCleaner, pathCleaner,
+        DEFAULT_PARTITION_BATCH_SIZE, false, new SequentialMetadataCleanupExecutor(), CleanupLease.none(),
+        CleanupRetryPolicy.unlimited());
+  }
+
+  /**
+   * @param partitionBatchSize Maximum number of partitions of a table checked for existence with one lookup, when
+   * that check is enabled.
+   * @param partitionExistenceCheckEnabled Whether the partitions are looked up before they are dropped, so drop calls
+   * are only sent for partitions which exist. The lookup is an extra request per batch.
+   * @param metadataCleanupExecutor Runs the cleanup of the tables of a page.
+   * @param cleanupLease Lease the records of a page are claimed with before they are cleaned up.
+   * @param cleanupRetryPolicy Decides when a record whose cleanup failed is retried, or that it is abandoned.
+   */
+  public ExpiredMetadataHandler(CleanerClientFactory cleanerClientFactory,
+      HousekeepingMetadataRepository housekeepingMetadataRepository,
+      MetadataCleaner metadataCleaner, PathCleaner pathCleaner, int partitionBatchSize,
+      boolean partitionExistenceCheckEnabled, MetadataCleanupExecutor metadataCleanupExecutor,
+      CleanupLease cleanupLease, CleanupRetryPolicy cleanupRetryPolicy) {
+    if (partitionBatchSize < 1) {
+      throw new BeekeeperException(format("Partition batch size must be positive; was %s.", partitionBatchSize));
+    }
     this.cleanerClientFactory = cleanerClientFactory;
     this.housekeepingMetadataRepository = housekeepingMetadataRepository;
     this.metadataCleaner = metadataCleaner;
     this.pathCleaner = pathCleaner;
+    this.partitionBatchSize = partitionBatchSize;
+    this.partitionExistenceCheckEnabled = partitionExistenceCheckEnabled;
+    this.metadataCleanupExecutor = metadataCleanupExecutor;
+    this.cleanupLease = cleanupLease;
+    this.cleanupRetryPolicy = cleanupRetryPolicy;
   }
 
   @Override
-  public Page<HousekeepingMetadata> findRecordsToClean(LocalDateTime instant, Pageable pageable) {
-    return housekeepingMetadataRepository.findRecordsForCleanupByModifiedTimestamp(instant, pageable);
+  public Slice<HousekeepingMetadata> findRecordsToClean(LocalDateTime instant, CleanupCursor cursor, int pageSize) {
+    return housekeepingMetadataRepository.findRecordsForCleanup(instant, cursor, pageSize, cleanupLease);
+  }
+
+  @Override
+  public Optional<LocalDateTime> findNextCleanupTimestamp(LocalDateTime instant) {
+    return Optional.ofNullable(housekeepingMetadataRepository.findEarliestPendingCleanupTimestamp(instant));
   }
 
   /**
@@ -64,32 +128,218 @@ public class ExpiredMetadataHandler implements MetadataHandler {
    * @param housekeepingMetadata Record to cleanup
    * @param instant Instant the cleanup is happening
    * @param dryRunEnabled
-   * @implNote HousekeepingMetadata records are not updated in dry-run mode.
+   * @implNote HousekeepingMetadata records are not updated in dry-run mode. Each thread borrows one client for the
+   * records of a page and keeps it until {@link #pageCleaned()}; a client is only discarded earlier if cleaning up a
+   * record with it fails.
    */
   @Override
   public void cleanupMetadata(HousekeepingMetadata housekeepingMetadata, LocalDateTime instant, boolean dryRunEnabled) {
-    try (CleanerClient client = cleanerClientFactory.newInstance()) {
-      boolean deleted = cleanup(client, housekeepingMetadata, instant, dryRunEnabled);
-      if (deleted && !dryRunEnabled) {
-        updateAttemptsAndStatus(housekeepingMetadata, DELETED);
+    cleanupMetadata(housekeepingMetadata, instant, dryRunEnabled, null);
+  }
+
+  /**
+   * Cleans up the records of the page table by table: first the partitions of a table, then the table itself.
+   *
+   * @implNote The tables of the page are looked up first with one request per database, so the metadata cleaner can
+   * answer the table existence checks of the records without further requests. The partitions left on the tables of
+   * the page are counted with one query per database before anything is cleaned up; a table is then only dropped if
+   * no partitions are left once the partitions of the page which were deleted are taken off its count. If the partition
+   * existence check is enabled, the partitions of a table are looked up by names in batches of
+   * {@code partitionBatchSize} first and drop calls are only sent for partitions which exist; the lookup is a request
+   * on top of the drop calls, so it is off by default, and dry runs skip it as dry-run drops do not call the metastore.
+   * The statuses of a table's records are written together as one batched update. Tables are handed to
+   * the {@link MetadataCleanupExecutor}, which may clean up different tables at the same time but never the same table
+   * on two threads. When a {@link CleanupLease} is enabled only the records this instance manages to claim are cleaned
+   * up; partitions claimed by another instance are still counted, so their table is not dropped. Dry runs do not claim
+   * records.
+   */
+  @Override
+  public void cleanupPage(List<HousekeepingMetadata> page, LocalDateTime instant, boolean dryRunEnabled) {
+    if (!dryRunEnabled && cleanupLease.isEnabled()) {
+      page = housekeepingMetadataRepository.claim(page, cleanupLease);
+      if (page.isEmpty()) {
+        return;
+      }
+    }
+    prefetchTables(page);
+    Map<String, Long> partitionCounts = countPartitions(page, instant, dryRunEnabled);
+    metadataCleanupExecutor.execute(page, records -> cleanupTable(records,
+        partitionCounts.getOrDefault(qualifiedTableName(records.get(0)), LONG_ZERO), instant, dryRunEnabled));
+  }
+
+  private void prefetchTables(List<HousekeepingMetadata> page) {
+    tableNamesByDatabase(page).forEach((databaseName, tableNames) -> {
+      try {
+        metadataCleaner.prefetchTables(pageClient(), databaseName, new ArrayList<>(tableNames));
+      } catch (Exception e) {
+        discardPageClient();
+        log.warn("Could not look up tables of database \"{}\"", databaseName, e);
+      }
+    });
+  }
+
+  /**
+   * @return The number of partitions left on each table of the page which has a table record, by qualified table name.
+   */
+  private Map<String, Long> countPartitions(List<HousekeepingMetadata> page, LocalDateTime instant,
+      boolean dryRunEnabled) {
+    List<HousekeepingMetadata> tables = page.stream()
+        .filter(housekeepingMetadata -> housekeepingMetadata.getPartitionName() == null)
+        .collect(Collectors.toList());
+    Map<String, Long> partitionCounts = new HashMap<>();
+    tableNamesByDatabase(tables).forEach((databaseName, tableNames) -> housekeepingMetadataRepository
+        .countPartitionsByTable(instant, databaseName, tableNames, dryRunEnabled)
+        .forEach((tableName, count) -> partitionCounts.put(databaseName + "." + tableName, count)));
+    return partitionCounts;
+  }
+
+  private Map<String, Set<String>> tableNamesByDatabase(List<HousekeepingMetadata> records) {
+    Map<String, Set<String>> tableNamesByDatabase = new LinkedHashMap<>();
+    records.forEach(housekeepingMetadata -> tableNamesByDatabase
+        .computeIfAbsent(housekeepingMetadata.getDatabaseName(), databaseName -> new LinkedHashSet<>())
+        .add(housekeepingMetadata.getTableName()));
+    return tableNamesByDatabase;
+  }
+
+  /**
+   * @param records Records of a single table
+   * @param partitionCount Number of partitions left on the table before any of the records was cleaned up
+   */
+  private void cleanupTable(List<HousekeepingMetadata> records, long partitionCount, LocalDateTime instant,
+      boolean dryRunEnabled) {
+    List<HousekeepingMetadata> partitions = new ArrayList<>();
+    List<HousekeepingMetadata> tables = new ArrayList<>();
+    records.forEach(housekeepingMetadata -> (housekeepingMetadata.getPartitionName() == null ? tables : partitions)
+        .add(housekeepingMetadata));
+
+    List<HousekeepingMetadata> updatedRecords = new ArrayList<>(records.size());
+    long remainingPartitions = partitionCount;
+    for (List<HousekeepingMetadata> batch : Lists.partition(partitions, partitionBatchSize)) {
+      Set<String> existingPartitions = partitionExistenceCheckEnabled && !dryRunEnabled
+          ? existingPartitions(batch)
+          : null;
+      for (HousekeepingMetadata partition : batch) {
+        HousekeepingStatus status = cleanupRecord(partition, instant, dryRunEnabled, existingPartitions, null);
+        if (status != null) {
+          updateAttempts(partition, status);
+          updatedRecords.add(partition);
+        }
+        if (status == DELETED) {
+          remainingPartitions--;
+        }
+      }
+    }
+    for (HousekeepingMetadata table : tables) {
+      HousekeepingStatus status = cleanupRecord(table, instant, dryRunEnabled, null,
+          Math.max(remainingPartitions, LONG_ZERO));
+      if (status != null) {
+        updateAttempts(table, status);
+        updatedRecords.add(table);
       }
+    }
+    housekeepingMetadataRepository.updateStatus(updatedRecords);
+  }
+
+  /**
+   * @return The names of the partitions which exist, or null if they could not be looked up, in which case each
+   * partition is dropped without knowing whether it exists.
+   */
+  private Set<String> existingPartitions(List<HousekeepingMetadata> partitions) {
+    String databaseName = partitions.get(0).getDatabaseName();
+    String tableName = partitions.get(0).getTableName();
+    List<String> partitionNames = partitions.stream()
+        .map(HousekeepingMetadata::getPartitionName)
+        .collect(Collectors.toList());
+    try {
+      return pageClient().existingPartitions(databaseName, tableName, partitionNames);
+    } catch (Exception e) {
+      discardPageClient();
+      log.warn("Could not look up partitions of table \"{}.{}\"", databaseName, tableName, e);
+      return null;
+    }
+  }
+
+  private void cleanupMetadata(HousekeepingMetadata housekeepingMetadata, LocalDateTime instant,
+      boolean dryRunEnabled, Set<String> existingPartitions) {
+    HousekeepingStatus status = cleanupRecord(housekeepingMetadata, instant, dryRunEnabled, existingPartitions, null);
+    if (status != null) {
+      updateAttempts(housekeepingMetadata, status);
+      housekeepingMetadataRepository.save(housekeepingMetadata);
+    }
+  }
+
+  /**
+   * @param existingPartitions Partitions known to exist, or null to drop a partition without checking
+   * @param partitionCount Partitions left on the table, or null to count them for a table record
+   * @return The status to write for the record, or null if it is left as it is.
+   */
+  private HousekeepingStatus cleanupRecord(HousekeepingMetadata housekeepingMetadata, LocalDateTime instant,
+      boolean dryRunEnabled, Set<String> existingPartitions, Long partitionCount) {
+    try {
+      CleanerClient client = pageClient();
+      boolean deleted;
+      try {
+        deleted = cleanup(client, housekeepingMetadata, instant, dryRunEnabled, existingPartitions, partitionCount);
+      } catch (Exception e) {
+        discardPageClient();
+        throw e;
+      }
+      return deleted && !dryRunEnabled ? DELETED : null;
     } catch (Exception e) {
-      updateAttemptsAndStatus(housekeepingMetadata, FAILED);
       log.warn("Unexpected exception when deleting metadata for table \"{}.{}\"",
           housekeepingMetadata.getDatabaseName(),
           housekeepingMetadata.getTableName(), e);
+      return FAILED;
+    }
+  }
+
+  /**
+   * Returns the clients borrowed for the page.
+   */
+  @Override
+  public void pageCleaned() {
+    try {
+      pageClients.keySet().forEach(threadId -> closeClient(pageClients.remove(threadId)));
+    } finally {
+      pathCleaner.pageCleaned();
+    }
+  }
+
+  private CleanerClient pageClient() {
+    return pageClients.computeIfAbsent(Thread.currentThread().getId(), threadId -> cleanerClientFactory.newInstance());
+  }
+
+  @Override
+  public void cleanupRunCompleted() {
+    metadataCleaner.cleanupRunCompleted();
+  }
+
+  private void discardPageClient() {
+    closeClient(pageClients.remove(Thread.currentThread().getId()));
+  }
+
+  private void closeClient(CleanerClient client) {
+    if (client == null) {
+      return;
+    }
+    try {
+      client.close();
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not close metastore client", e);
     }
   }
 
   private boolean cleanup(CleanerClient client, HousekeepingMetadata housekeepingMetadata, LocalDateTime instant,
-      boolean dryRunEnabled) {
+      boolean dryRunEnabled, Set<String> existingPartitions, Long partitionCount) {
     String partitionName = housekeepingMetadata.getPartitionName();
     if (partitionName != null) {
-      cleanupPartition(client, housekeepingMetadata);
+      cleanupPartition(client, housekeepingMetadata, existingPartitions);
       return true;
     } else {
-      Long partitionCount = countPartitionsForDatabaseAndTable(instant, housekeepingMetadata.getDatabaseName(),
-          housekeepingMetadata.getTableName(), dryRunEnabled);
+      if (partitionCount == null) {
+        partitionCount = countPartitionsForDatabaseAndTable(instant, housekeepingMetadata.getDatabaseName(),
+            housekeepingMetadata.getTableName(), dryRunEnabled);
+      }
       if (partitionCount.equals(LONG_ZERO)) {
         cleanUpTable(client, housekeepingMetadata);
         return true;
@@ -110,11 +360,18 @@ public class ExpiredMetadataHandler implements MetadataHandler {
     }
   }
 
-  private void cleanupPartition(CleanerClient client, HousekeepingMetadata housekeepingMetadata) {
+  private void cleanupPartition(CleanerClient client, HousekeepingMetadata housekeepingMetadata,
+      Set<String> existingPartitions) {
     String databaseName = housekeepingMetadata.getDatabaseName();
     String tableName = housekeepingMetadata.getTableName();
     log.info("Cleaning up metadata for \"{}.{}\".", databaseName, tableName);
     if (metadataCleaner.tableExists(client, databaseName, tableName)) {
+      String partitionName = housekeepingMetadata.getPartitionName();
+      if (existingPartitions != null && !existingPartitions.contains(partitionName)) {
+        log.info("Could not drop partition \"{}\" from table \"{}.{}\". Partition does not exist.", partitionName,
+            databaseName, tableName);
+        return;
+      }
       boolean partitionDeleted = metadataCleaner.dropPartition(housekeepingMetadata, client);
       if (partitionDeleted) {
         pathCleaner.cleanupPath(housekeepingMetadata);
@@ -125,12 +382,25 @@ public class ExpiredMetadataHandler implements MetadataHandler {
     }
   }
 
-  private void updateAttemptsAndStatus(HousekeepingMetadata housekeepingMetadata, HousekeepingStatus status) {
-    housekeepingMetadata.setCleanupAttempts(housekeepingMetadata.getCleanupAttempts() + 1);
+  /**
+   * @implNote A FAILED record is backed off or abandoned as decided by the {@link CleanupRetryPolicy}.
+   */
+  private void updateAttempts(HousekeepingMetadata housekeepingMetadata, HousekeepingStatus status) {
+    int cleanupAttempts = housekeepingMetadata.getCleanupAttempts() + 1;
+    housekeepingMetadata.setCleanupAttempts(cleanupAttempts);
+    if (status == FAILED) {
+      status = cleanupRetryPolicy.failedStatus(cleanupAttempts);
+      housekeepingMetadata.setNextAttemptTimestamp(
+          cleanupRetryPolicy.nextAttemptTimestamp(cleanupAttempts, LocalDateTime.now(ZoneOffset.UTC)));
+      if (status == ABANDONED) {
+        log.warn("Abandoning metadata for table \"{}.{}\" after {} failed cleanup attempts",
+            housekeepingMetadata.getDatabaseName(), housekeepingMetadata.getTableName(), cleanupAttempts);
+      }
+    }
     housekeepingMetadata.setHousekeepingStatus(status);
-    housekeepingMetadataRepository.save(housekeepingMetadata);
   }
 
+
   private Long countPartitionsForDatabaseAndTable(LocalDateTime instant, String databaseName, String tableName,
       boolean dryRunEnabled) {
     if (dryRunEnabled) {
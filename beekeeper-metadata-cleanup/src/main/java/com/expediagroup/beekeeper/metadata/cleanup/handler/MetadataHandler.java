@@ -16,15 +16,41 @@
 package com.expediagroup.beekeeper.metadata.cleanup.handler;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
 
 public interface MetadataHandler {
 
-  Page<HousekeepingMetadata> findRecordsToClean(LocalDateTime instant, Pageable pageable);
+  Slice<HousekeepingMetadata> findRecordsToClean(LocalDateTime instant, CleanupCursor cursor, int pageSize);
 
   void cleanupMetadata(HousekeepingMetadata housekeepingMetadata, LocalDateTime instant, boolean dryRunEnabled);
+
+  /**
+   * Cleans up the records of a page, one at a time unless the handler can do better.
+   */
+  default void cleanupPage(List<HousekeepingMetadata> page, LocalDateTime instant, boolean dryRunEnabled) {
+    page.forEach(housekeepingMetadata -> cleanupMetadata(housekeepingMetadata, instant, dryRunEnabled));
+  }
+
+  /**
+   * Called once every record of a page has been cleaned up.
+   */
+  default void pageCleaned() {}
+
+  /**
+   * Called once every page of a cleanup run has been cleaned up.
+   */
+  default void cleanupRunCompleted() {}
+
+  /**
+   * @return The earliest cleanup timestamp of the records a cleanup run for {@code instant} did not read, if any.
+   */
+  default Optional<LocalDateTime> findNextCleanupTimestamp(LocalDateTime instant) {
+    return Optional.empty();
+  }
 }
@@ -21,10 +21,9 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
 
 import io.micrometer.core.annotation.Timed;
@@ -32,6 +31,7 @@ import io.micrometer.core.annotation.Timed;
 import com.expediagroup.beekeeper.cleanup.service.CleanupService;
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
 import com.expediagroup.beekeeper.metadata.cleanup.handler.MetadataHandler;
 
 public class PagingMetadataCleanupService implements CleanupService {
@@ -59,6 +59,19 @@ public class PagingMetadataCleanupService implements CleanupService {
     }
   }
 
+  /**
+   * @implNote The earliest of the next cleanup timestamps of the handlers.
+   */
+  @Override
+  public Optional<Instant> nextCleanupTime(Instant referenceTime) {
+    LocalDateTime instant = LocalDateTime.ofInstant(referenceTime, ZoneOffset.UTC);
+    return metadataHandlers.stream()
+        .map(handler -> handler.findNextCleanupTimestamp(instant))
+        .flatMap(Optional::stream)
+        .min(LocalDateTime::compareTo)
+        .map(nextCleanupTimestamp -> nextCleanupTimestamp.toInstant(ZoneOffset.UTC));
+  }
+
   /**
    * @param handler MetadataHandler which will cleanup the records
    * @param referenceTime Instant at which the cleanup is taking place
@@ -66,24 +79,37 @@ public class PagingMetadataCleanupService implements CleanupService {
    */
   @Transactional
   private void pagingCleanup(MetadataHandler handler, Instant referenceTime) {
-    Pageable pageable = PageRequest.of(0, pageSize).first();
-
     LocalDateTime instant = LocalDateTime.ofInstant(referenceTime, ZoneOffset.UTC);
-    Page<HousekeepingMetadata> page = handler.findRecordsToClean(instant, pageable);
+    try {
+      Slice<HousekeepingMetadata> page = handler.findRecordsToClean(instant, CleanupCursor.first(), pageSize);
 
-    while (!page.getContent().isEmpty()) {
-      pageable = processPage(handler, pageable, instant, page, dryRunEnabled);
-      page = handler.findRecordsToClean(instant, pageable);
+      while (page.hasContent()) {
+        CleanupCursor cursor = processPage(handler, instant, page, dryRunEnabled);
+        if (!page.hasNext()) {
+          break;
+        }
+        page = handler.findRecordsToClean(instant, cursor, pageSize);
+      }
+    } finally {
+      handler.cleanupRunCompleted();
     }
   }
 
-  private Pageable processPage(MetadataHandler handler, Pageable pageable, LocalDateTime instant,
-      Page<HousekeepingMetadata> page,
+  /**
+   * @implNote The cursor is taken from the last record before any record is updated, as updating a record changes its
+   * modified timestamp.
+   * @return Cursor to pass to the next query.
+   */
+  private CleanupCursor processPage(MetadataHandler handler, LocalDateTime instant,
+      Slice<HousekeepingMetadata> page,
       boolean dryRunEnabled) {
-    page.getContent().forEach(metadata -> handler.cleanupMetadata(metadata, instant, dryRunEnabled));
-    if (dryRunEnabled) {
-      return pageable.next();
+    List<HousekeepingMetadata> pageContent = page.getContent();
+    CleanupCursor nextCursor = CleanupCursor.after(pageContent.get(pageContent.size() - 1));
+    try {
+      handler.cleanupPage(pageContent, instant, dryRunEnabled);
+    } finally {
+      handler.pageCleaned();
     }
-    return pageable;
+    return nextCursor;
   }
 }
@@ -19,6 +19,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.net.URL;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -32,22 +33,34 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 
 import com.amazonaws.services.s3.AmazonS3;
 
+import com.expediagroup.beekeeper.cleanup.aws.S3AsyncPathCleaner;
 import com.expediagroup.beekeeper.cleanup.aws.S3Client;
 import com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner;
 import com.expediagroup.beekeeper.cleanup.hive.HiveClient;
 import com.expediagroup.beekeeper.cleanup.hive.HiveClientFactory;
 import com.expediagroup.beekeeper.cleanup.hive.HiveMetadataCleaner;
+import com.expediagroup.beekeeper.cleanup.hive.MetaStoreClientPool;
 import com.expediagroup.beekeeper.cleanup.metadata.CleanerClient;
 import com.expediagroup.beekeeper.cleanup.metadata.CleanerClientFactory;
 import com.expediagroup.beekeeper.cleanup.metadata.MetadataCleaner;
 import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
 import com.expediagroup.beekeeper.cleanup.monitoring.DeletedMetadataReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
 import com.expediagroup.beekeeper.cleanup.service.CleanupService;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
+import com.expediagroup.beekeeper.core.model.HousekeepingStatus;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingMetadataRepository;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.MetadataCleanupExecutor;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.SequentialMetadataCleanupExecutor;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.StripedMetadataCleanupExecutor;
 import com.expediagroup.beekeeper.metadata.cleanup.handler.ExpiredMetadataHandler;
 import com.expediagroup.beekeeper.metadata.cleanup.service.PagingMetadataCleanupService;
 
@@ -72,6 +85,7 @@ public class CommonBeansTest {
   private @Mock HousekeepingMetadataRepository metadataRepository;
   private @Mock MetadataCleaner metadataCleaner;
   private @Mock PathCleaner pathCleaner;
+  private @Mock S3AsyncClient s3AsyncClient;
   private @Mock MeterRegistry meterRegistry;
 
   @BeforeEach
@@ -109,10 +123,18 @@ public class CommonBeansTest {
     assertThat(metaStoreClientSupplier).isInstanceOf(HiveMetaStoreClientSupplier.class);
   }
 
+  @Test
+  public void verifyMetaStoreClientPool() {
+    Supplier<CloseableMetaStoreClient> metaStoreClientSupplier = Mockito.mock(Supplier.class);
+    MetaStoreClientPool pool = commonBeans.metaStoreClientPool(metaStoreClientSupplier, new SimpleMeterRegistry(), 2, 1);
+    assertThat(pool).isInstanceOf(MetaStoreClientPool.class);
+  }
+
   @Test
   public void verifyHiveClient() {
     Supplier<CloseableMetaStoreClient> metaStoreClientSupplier = Mockito.mock(Supplier.class);
-    CleanerClientFactory clientFactory = commonBeans.clientFactory(metaStoreClientSupplier, false);
+    MetaStoreClientPool pool = commonBeans.metaStoreClientPool(metaStoreClientSupplier, new SimpleMeterRegistry(), 2, 1);
+    CleanerClientFactory clientFactory = commonBeans.clientFactory(pool, false);
     CleanerClient client = clientFactory.newInstance();
     assertThat(client).isInstanceOf(HiveClient.class);
   }
@@ -120,7 +142,7 @@ public class CommonBeansTest {
   @Test
   public void verifyHiveMetadataCleaner() {
     DeletedMetadataReporter reporter = commonBeans.deletedMetadataReporter(meterRegistry, false);
-    MetadataCleaner metadataCleaner = commonBeans.metadataCleaner(reporter);
+    MetadataCleaner metadataCleaner = commonBeans.metadataCleaner(reporter, meterRegistry);
     assertThat(metadataCleaner).isInstanceOf(HiveMetadataCleaner.class);
   }
 
@@ -150,23 +172,60 @@ public class CommonBeansTest {
   void verifyS3pathCleaner() {
     BytesDeletedReporter reporter = commonBeans.bytesDeletedReporter(meterRegistry, false);
     S3Client s3Client = commonBeans.s3Client(commonBeans.amazonS3(), false);
-    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, reporter);
+    S3RequestCountReporter s3RequestCountReporter = commonBeans.s3RequestCountReporter(meterRegistry);
+    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, s3AsyncClient, reporter, s3RequestCountReporter, 1,
+        false, false);
     assertThat(pathCleaner).isInstanceOf(S3PathCleaner.class);
   }
 
+  @Test
+  void verifyAsyncS3pathCleaner() {
+    BytesDeletedReporter reporter = commonBeans.bytesDeletedReporter(meterRegistry, false);
+    S3Client s3Client = commonBeans.s3Client(commonBeans.amazonS3(), false);
+    S3RequestCountReporter s3RequestCountReporter = commonBeans.s3RequestCountReporter(meterRegistry);
+    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, s3AsyncClient, reporter, s3RequestCountReporter, 4,
+        true, false);
+    assertThat(pathCleaner).isInstanceOf(S3AsyncPathCleaner.class);
+  }
+
   @Test
   public void verifyExpiredMetadataHandler() {
     HiveClientFactory hiveClientFactory = Mockito.mock(HiveClientFactory.class);
     ExpiredMetadataHandler expiredMetadataHandler = commonBeans.expiredMetadataHandler(hiveClientFactory, metadataRepository,
-        metadataCleaner, pathCleaner);
+        metadataCleaner, pathCleaner, 100, false, new SequentialMetadataCleanupExecutor(), CleanupLease.none(),
+        CleanupRetryPolicy.unlimited());
     assertThat(expiredMetadataHandler).isInstanceOf(ExpiredMetadataHandler.class);
   }
 
+  @Test
+  public void verifyMetadataCleanupExecutor() {
+    assertThat(commonBeans.metadataCleanupExecutor(1)).isInstanceOf(SequentialMetadataCleanupExecutor.class);
+    MetadataCleanupExecutor executor = commonBeans.metadataCleanupExecutor(4);
+    assertThat(executor).isInstanceOf(StripedMetadataCleanupExecutor.class);
+    ((StripedMetadataCleanupExecutor) executor).shutdown();
+  }
+
+  @Test
+  public void verifyCleanupLease() {
+    assertThat(commonBeans.cleanupLease(false, "PT1H").isEnabled()).isFalse();
+    CleanupLease cleanupLease = commonBeans.cleanupLease(true, "PT30M");
+    assertThat(cleanupLease.isEnabled()).isTrue();
+    assertThat(cleanupLease.getDuration()).isEqualTo(Duration.ofMinutes(30));
+  }
+
+  @Test
+  public void verifyCleanupRetryPolicy() {
+    CleanupRetryPolicy cleanupRetryPolicy = commonBeans.cleanupRetryPolicy(3, "PT5M", "P1D");
+    assertThat(cleanupRetryPolicy.failedStatus(3)).isEqualTo(HousekeepingStatus.ABANDONED);
+  }
+
   @Test
   public void verifyCleanupService() {
     HiveClientFactory hiveClientFactory = Mockito.mock(HiveClientFactory.class);
     CleanupService cleanupService = commonBeans.cleanupService(
-        List.of(commonBeans.expiredMetadataHandler(hiveClientFactory, metadataRepository, metadataCleaner, pathCleaner)), 2,
+        List.of(commonBeans.expiredMetadataHandler(hiveClientFactory, metadataRepository, metadataCleaner, pathCleaner,
+            100, false, new SequentialMetadataCleanupExecutor(), CleanupLease.none(), CleanupRetryPolicy.unlimited())),
+        2,
         dryRunEnabled);
     assertThat(cleanupService).isInstanceOf(PagingMetadataCleanupService.class);
   }
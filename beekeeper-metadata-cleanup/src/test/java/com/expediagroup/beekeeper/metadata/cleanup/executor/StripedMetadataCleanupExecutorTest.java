@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.metadata.cleanup.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.SCHEDULED;
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.EXPIRED;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
+
+public class StripedMetadataCleanupExecutorTest {
+
+  private StripedMetadataCleanupExecutor executor;
+
+  @AfterEach
+  public void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void typical() {
+    executor = new StripedMetadataCleanupExecutor(4);
+    List<HousekeepingMetadata> records = new ArrayList<>();
+    IntStream.range(0, 10).forEach(i -> records.addAll(createRecords("table" + i, 3)));
+    Map<String, List<String>> processed = new ConcurrentHashMap<>();
+
+    executor.execute(records, tableRecords -> processed.put(tableRecords.get(0).getTableName(),
+        tableRecords.stream().map(HousekeepingMetadata::getPartitionName).collect(Collectors.toList())));
+
+    assertThat(processed).hasSize(10);
+    assertThat(processed.get("table0")).containsExactly("partition=0", "partition=1", "partition=2");
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void differentTablesRunConcurrently() {
+    executor = new StripedMetadataCleanupExecutor(2);
+    String table = "table0";
+    String otherTable = IntStream.range(1, 100)
+        .mapToObj(i -> "table" + i)
+        .filter(name -> Math.floorMod(("database." + name).hashCode(), 2) != Math
+            .floorMod(("database." + table).hashCode(), 2))
+        .findFirst()
+        .get();
+    List<HousekeepingMetadata> records = createRecords(table, 1);
+    records.addAll(createRecords(otherTable, 1));
+    CountDownLatch bothRunning = new CountDownLatch(2);
+
+    executor.execute(records, tableRecords -> {
+      bothRunning.countDown();
+      await(bothRunning);
+    });
+
+    assertThat(bothRunning.getCount()).isZero();
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void failedTableDoesNotStopOtherTables() {
+    executor = new StripedMetadataCleanupExecutor(4);
+    List<HousekeepingMetadata> records = new ArrayList<>();
+    IntStream.range(0, 10).forEach(i -> records.addAll(createRecords("table" + i, 1)));
+    AtomicInteger processed = new AtomicInteger();
+
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> executor.execute(records, tableRecords -> {
+      processed.incrementAndGet();
+      if (tableRecords.get(0).getTableName().equals("table3")) {
+        throw new RuntimeException("error");
+      }
+    }));
+    assertThat(processed.get()).isEqualTo(10);
+  }
+
+  @Test
+  public void invalidConcurrency() {
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> new StripedMetadataCleanupExecutor(0));
+  }
+
+  private List<HousekeepingMetadata> createRecords(String tableName, int count) {
+    LocalDateTime now = LocalDateTime.now();
+    return IntStream.range(0, count)
+        .mapToObj(i -> new HousekeepingMetadata.Builder()
+            .path("s3://bucket/" + tableName + "/" + i)
+            .databaseName("database")
+            .tableName(tableName)
+            .partitionName("partition=" + i)
+            .housekeepingStatus(SCHEDULED)
+            .creationTimestamp(now)
+            .cleanupDelay(Duration.parse("P3D"))
+            .lifecycleType(EXPIRED.toString())
+            .build())
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
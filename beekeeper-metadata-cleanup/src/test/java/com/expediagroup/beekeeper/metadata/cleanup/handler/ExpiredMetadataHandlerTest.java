@@ -18,33 +18,42 @@ package com.expediagroup.beekeeper.metadata.cleanup.handler;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.ABANDONED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.FAILED;
 import static com.expediagroup.beekeeper.core.model.LifecycleEventType.EXPIRED;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner;
 import com.expediagroup.beekeeper.cleanup.hive.HiveClient;
 import com.expediagroup.beekeeper.cleanup.hive.HiveClientFactory;
 import com.expediagroup.beekeeper.cleanup.hive.HiveMetadataCleaner;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingMetadataRepository;
+import com.expediagroup.beekeeper.metadata.cleanup.executor.SequentialMetadataCleanupExecutor;
 
 @ExtendWith(MockitoExtension.class)
 public class ExpiredMetadataHandlerTest {
@@ -88,9 +97,9 @@ public class ExpiredMetadataHandlerTest {
   @Test
   public void verifyHousekeepingMetadataFetch() {
     LocalDateTime now = LocalDateTime.now();
-    Pageable emptyPageable = PageRequest.of(0, 1);
-    expiredMetadataHandler.findRecordsToClean(now, emptyPageable);
-    verify(housekeepingMetadataRepository).findRecordsForCleanupByModifiedTimestamp(now, emptyPageable);
+    CleanupCursor cursor = CleanupCursor.first();
+    expiredMetadataHandler.findRecordsToClean(now, cursor, 1);
+    verify(housekeepingMetadataRepository).findRecordsForCleanup(now, cursor, 1, CleanupLease.none());
   }
 
   @Test
@@ -260,4 +269,213 @@ public class ExpiredMetadataHandlerTest {
     verify(housekeepingMetadata).setHousekeepingStatus(FAILED);
     verify(housekeepingMetadataRepository).save(housekeepingMetadata);
   }
+
+  @Test
+  public void clientIsBorrowedOncePerPage() throws Exception {
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
+    when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(housekeepingMetadata.getCleanupAttempts()).thenReturn(0);
+    when(hiveMetadataCleaner.dropPartition(housekeepingMetadata, hiveClient)).thenReturn(true);
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+
+    expiredMetadataHandler.cleanupMetadata(housekeepingMetadata, CLEANUP_INSTANCE, false);
+    expiredMetadataHandler.cleanupMetadata(housekeepingMetadata, CLEANUP_INSTANCE, false);
+    verify(hiveClientFactory).newInstance();
+    verify(hiveClient, never()).close();
+
+    expiredMetadataHandler.pageCleaned();
+    verify(hiveClient).close();
+    verify(s3PathCleaner).pageCleaned();
+
+    expiredMetadataHandler.cleanupMetadata(housekeepingMetadata, CLEANUP_INSTANCE, false);
+    verify(hiveClientFactory, times(2)).newInstance();
+  }
+
+  @Test
+  public void clientIsDiscardedWhenCleanupFails() throws Exception {
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
+    when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(housekeepingMetadata.getCleanupAttempts()).thenReturn(0);
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenThrow(RuntimeException.class);
+
+    expiredMetadataHandler.cleanupMetadata(housekeepingMetadata, CLEANUP_INSTANCE, false);
+    verify(hiveClient).close();
+    verify(housekeepingMetadata).setHousekeepingStatus(FAILED);
+
+    expiredMetadataHandler.cleanupMetadata(housekeepingMetadata, CLEANUP_INSTANCE, false);
+    verify(hiveClientFactory, times(2)).newInstance();
+  }
+
+  @Test
+  public void cleanupPageDropsExistingPartitionsBeforeTables() {
+    expiredMetadataHandler = existenceCheckingHandler(100);
+    HousekeepingMetadata table = Mockito.mock(HousekeepingMetadata.class);
+    HousekeepingMetadata missingPartition = Mockito.mock(HousekeepingMetadata.class);
+    String missingPartitionName = "event_date=2020-01-02/event_hour=0/event_type=A";
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    for (HousekeepingMetadata metadata : List.of(table, housekeepingMetadata, missingPartition)) {
+      when(metadata.getDatabaseName()).thenReturn(DATABASE);
+      when(metadata.getTableName()).thenReturn(TABLE_NAME);
+    }
+    when(table.getPartitionName()).thenReturn(null);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(missingPartition.getPartitionName()).thenReturn(missingPartitionName);
+    when(hiveClient.existingPartitions(DATABASE, TABLE_NAME, List.of(PARTITION_NAME, missingPartitionName)))
+        .thenReturn(Set.of(PARTITION_NAME));
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+    when(hiveMetadataCleaner.dropPartition(housekeepingMetadata, hiveClient)).thenReturn(true);
+    when(housekeepingMetadataRepository.countPartitionsByTable(CLEANUP_INSTANCE, DATABASE, Set.of(TABLE_NAME), false))
+        .thenReturn(Map.of(TABLE_NAME, 2L));
+
+    expiredMetadataHandler.cleanupPage(List.of(table, housekeepingMetadata, missingPartition), CLEANUP_INSTANCE, false);
+    InOrder inOrder = Mockito.inOrder(hiveMetadataCleaner);
+    inOrder.verify(hiveMetadataCleaner).prefetchTables(hiveClient, DATABASE, List.of(TABLE_NAME));
+    inOrder.verify(hiveMetadataCleaner).dropPartition(housekeepingMetadata, hiveClient);
+    inOrder.verify(hiveMetadataCleaner).dropTable(table, hiveClient);
+    verify(hiveMetadataCleaner, never()).dropPartition(missingPartition, hiveClient);
+    verify(s3PathCleaner, never()).cleanupPath(missingPartition);
+    verify(missingPartition).setHousekeepingStatus(DELETED);
+    verify(housekeepingMetadata).setHousekeepingStatus(DELETED);
+    verify(table).setHousekeepingStatus(DELETED);
+    verify(housekeepingMetadataRepository).updateStatus(List.of(housekeepingMetadata, missingPartition, table));
+    verify(housekeepingMetadataRepository, never()).save(Mockito.any());
+  }
+
+  @Test
+  public void cleanupPageKeepsTableWithPartitionsLeft() {
+    HousekeepingMetadata table = Mockito.mock(HousekeepingMetadata.class);
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    for (HousekeepingMetadata metadata : List.of(table, housekeepingMetadata)) {
+      when(metadata.getDatabaseName()).thenReturn(DATABASE);
+      when(metadata.getTableName()).thenReturn(TABLE_NAME);
+    }
+    when(table.getPartitionName()).thenReturn(null);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+    when(hiveMetadataCleaner.dropPartition(housekeepingMetadata, hiveClient)).thenReturn(true);
+    when(housekeepingMetadataRepository.countPartitionsByTable(CLEANUP_INSTANCE, DATABASE, Set.of(TABLE_NAME), false))
+        .thenReturn(Map.of(TABLE_NAME, 2L));
+
+    expiredMetadataHandler.cleanupPage(List.of(table, housekeepingMetadata), CLEANUP_INSTANCE, false);
+    verify(hiveMetadataCleaner, never()).dropTable(table, hiveClient);
+    verify(table, never()).setHousekeepingStatus(Mockito.any());
+    verify(housekeepingMetadataRepository).updateStatus(List.of(housekeepingMetadata));
+    verify(housekeepingMetadataRepository, never())
+        .countRecordsForGivenDatabaseAndTableWherePartitionIsNotNull(DATABASE, TABLE_NAME);
+  }
+
+  @Test
+  public void cleanupPageDoesNotLookUpPartitionsByDefault() {
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
+    when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+    when(hiveMetadataCleaner.dropPartition(housekeepingMetadata, hiveClient)).thenReturn(true);
+
+    expiredMetadataHandler.cleanupPage(List.of(housekeepingMetadata), CLEANUP_INSTANCE, false);
+    verify(hiveClient, never()).existingPartitions(Mockito.any(), Mockito.any(), Mockito.any());
+    verify(hiveMetadataCleaner).dropPartition(housekeepingMetadata, hiveClient);
+    verify(housekeepingMetadata).setHousekeepingStatus(DELETED);
+  }
+
+  @Test
+  public void cleanupPageLooksUpPartitionsInBatches() {
+    expiredMetadataHandler = existenceCheckingHandler(1);
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
+    when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(hiveClient.existingPartitions(DATABASE, TABLE_NAME, List.of(PARTITION_NAME)))
+        .thenReturn(Set.of(PARTITION_NAME));
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+    when(hiveMetadataCleaner.dropPartition(housekeepingMetadata, hiveClient)).thenReturn(true);
+
+    expiredMetadataHandler.cleanupPage(List.of(housekeepingMetadata, housekeepingMetadata), CLEANUP_INSTANCE, false);
+    verify(hiveClient, times(2)).existingPartitions(DATABASE, TABLE_NAME, List.of(PARTITION_NAME));
+    verify(hiveMetadataCleaner, times(2)).dropPartition(housekeepingMetadata, hiveClient);
+  }
+
+  @Test
+  public void cleanupPageDropsPartitionsWhenLookupFails() throws Exception {
+    expiredMetadataHandler = existenceCheckingHandler(100);
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
+    when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(hiveClient.existingPartitions(DATABASE, TABLE_NAME, List.of(PARTITION_NAME)))
+        .thenThrow(RuntimeException.class);
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+    when(hiveMetadataCleaner.dropPartition(housekeepingMetadata, hiveClient)).thenReturn(true);
+
+    expiredMetadataHandler.cleanupPage(List.of(housekeepingMetadata), CLEANUP_INSTANCE, false);
+    verify(hiveClient).close();
+    verify(hiveMetadataCleaner).dropPartition(housekeepingMetadata, hiveClient);
+    verify(housekeepingMetadata).setHousekeepingStatus(DELETED);
+  }
+
+  @Test
+  public void cleanupPageSkipsRecordsClaimedByAnotherInstance() {
+    CleanupLease lease = new CleanupLease("instance", Duration.ofHours(1));
+    expiredMetadataHandler = new ExpiredMetadataHandler(hiveClientFactory, housekeepingMetadataRepository,
+        hiveMetadataCleaner, s3PathCleaner, 100, false, new SequentialMetadataCleanupExecutor(), lease,
+        CleanupRetryPolicy.unlimited());
+    when(housekeepingMetadataRepository.claim(List.of(housekeepingMetadata), lease)).thenReturn(List.of());
+
+    expiredMetadataHandler.cleanupPage(List.of(housekeepingMetadata), CLEANUP_INSTANCE, false);
+    verify(hiveMetadataCleaner, never()).dropPartition(housekeepingMetadata, hiveClient);
+    verify(housekeepingMetadataRepository, never()).updateStatus(Mockito.any());
+  }
+
+  @Test
+  public void cleanupPageDoesNotClaimRecordsInDryRun() {
+    CleanupLease lease = new CleanupLease("instance", Duration.ofHours(1));
+    expiredMetadataHandler = new ExpiredMetadataHandler(hiveClientFactory, housekeepingMetadataRepository,
+        hiveMetadataCleaner, s3PathCleaner, 100, false, new SequentialMetadataCleanupExecutor(), lease,
+        CleanupRetryPolicy.unlimited());
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
+    when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(PARTITION_NAME);
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+
+    expiredMetadataHandler.cleanupPage(List.of(housekeepingMetadata), CLEANUP_INSTANCE, true);
+    verify(housekeepingMetadataRepository, never()).claim(Mockito.any(), Mockito.any());
+    verify(hiveMetadataCleaner).dropPartition(housekeepingMetadata, hiveClient);
+  }
+
+  @Test
+  public void expectedPathDeleteFailureAbandonsRecordAfterMaxAttempts() {
+    expiredMetadataHandler = new ExpiredMetadataHandler(hiveClientFactory, housekeepingMetadataRepository,
+        hiveMetadataCleaner, s3PathCleaner, 100, false, new SequentialMetadataCleanupExecutor(), CleanupLease.none(),
+        new CleanupRetryPolicy(2, Duration.ofMinutes(5), Duration.ofHours(1)));
+    when(hiveClientFactory.newInstance()).thenReturn(hiveClient);
+    when(housekeepingMetadata.getDatabaseName()).thenReturn(DATABASE);
+    when(housekeepingMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(housekeepingMetadata.getPartitionName()).thenReturn(null);
+    when(housekeepingMetadata.getCleanupAttempts()).thenReturn(1);
+    when(hiveMetadataCleaner.tableExists(hiveClient, DATABASE, TABLE_NAME)).thenReturn(true);
+    doThrow(RuntimeException.class).when(s3PathCleaner).cleanupPath(housekeepingMetadata);
+
+    expiredMetadataHandler.cleanupMetadata(housekeepingMetadata, CLEANUP_INSTANCE, false);
+    verify(housekeepingMetadata).setCleanupAttempts(2);
+    verify(housekeepingMetadata).setHousekeepingStatus(ABANDONED);
+    verify(housekeepingMetadataRepository).save(housekeepingMetadata);
+  }
+
+  @Test
+  public void cleanupRunCompletedIsPassedToMetadataCleaner() {
+    expiredMetadataHandler.cleanupRunCompleted();
+    verify(hiveMetadataCleaner).cleanupRunCompleted();
+  }
+
+  private ExpiredMetadataHandler existenceCheckingHandler(int partitionBatchSize) {
+    return new ExpiredMetadataHandler(hiveClientFactory, housekeepingMetadataRepository, hiveMetadataCleaner,
+        s3PathCleaner, partitionBatchSize, true, new SequentialMetadataCleanupExecutor(), CleanupLease.none(),
+        CleanupRetryPolicy.unlimited());
+  }
 }
@@ -43,7 +43,9 @@ import com.expediagroup.beekeeper.core.error.BeekeeperException;
 @ExtendWith(SpringExtension.class)
 @ExtendWith(MockitoExtension.class)
 @TestPropertySource(properties = {
-    "properties.scheduler-delay-ms=2000" })
+    "properties.scheduler-delay-ms=2000",
+    "properties.scheduler-adaptive-enabled=false",
+    "properties.scheduler-max-delay-ms=2000" })
 @ContextConfiguration(classes = { CleanupServiceScheduler.class, TestConfig.class },
     loader = AnnotationConfigContextLoader.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -117,6 +117,8 @@ public class PagingMetadataCleanupServiceTest {
       assertThat(housekeepingMetadata.getHousekeepingStatus()).isEqualTo(DELETED);
     });
 
+    verify(pathCleaner, times(2)).pageCleaned();
+
     pagingCleanupService.cleanUp(Instant.now());
     verifyNoMoreInteractions(pathCleaner);
   }
@@ -145,6 +147,8 @@ public class PagingMetadataCleanupServiceTest {
       assertThat(housekeepingMetadata.getHousekeepingStatus()).isEqualTo(DELETED);
     });
 
+    verify(pathCleaner, times(2)).pageCleaned();
+
     pagingCleanupService.cleanUp(Instant.now());
     verifyNoMoreInteractions(pathCleaner);
   }
@@ -15,6 +15,8 @@
  */
 package com.expediagroup.beekeeper.path.cleanup.context;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -22,24 +24,43 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 
+import com.expediagroup.beekeeper.cleanup.aws.S3AsyncPathCleaner;
 import com.expediagroup.beekeeper.cleanup.aws.S3Client;
 import com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner;
-import com.expediagroup.beekeeper.cleanup.aws.S3SentinelFilesCleaner;
+import com.expediagroup.beekeeper.cleanup.aws.S3PathSizeClassifier;
+import com.expediagroup.beekeeper.cleanup.aws.S3ShardedPathCleaner;
 import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
 import com.expediagroup.beekeeper.cleanup.service.CleanupService;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathShardRepository;
+import com.expediagroup.beekeeper.path.cleanup.executor.BoundedPathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.executor.LanedPathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.executor.PathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.executor.SequentialPathCleanupExecutor;
 import com.expediagroup.beekeeper.path.cleanup.handler.GenericPathHandler;
 import com.expediagroup.beekeeper.path.cleanup.service.PagingPathCleanupService;
+import com.expediagroup.beekeeper.path.cleanup.writer.BatchPathStatusWriter;
+import com.expediagroup.beekeeper.path.cleanup.writer.PathStatusWriter;
+import com.expediagroup.beekeeper.path.cleanup.writer.WriteBehindPathStatusWriter;
 
 @Configuration
 @EnableScheduling
@@ -48,6 +69,8 @@ import com.expediagroup.beekeeper.path.cleanup.service.PagingPathCleanupService;
 @EnableJpaRepositories(basePackages = { "com.expediagroup.beekeeper.core.repository" })
 public class CommonBeans {
 
+  private static final int MAX_PENDING_STATUS_WRITES = 4;
+
   @Bean
   @Profile("default")
   public AmazonS3 amazonS3() {
@@ -66,6 +89,27 @@ public class CommonBeans {
         .build();
   }
 
+  @Bean
+  @Lazy
+  @Profile("default")
+  S3AsyncClient s3AsyncClient() {
+    return S3AsyncClient.create();
+  }
+
+  @Bean
+  @Lazy
+  @Profile("test")
+  S3AsyncClient s3AsyncClientTest() {
+    String s3Endpoint = System.getProperty("aws.s3.endpoint");
+    String region = System.getProperty("aws.region");
+
+    return S3AsyncClient.builder()
+        .endpointOverride(URI.create(s3Endpoint))
+        .region(Region.of(region))
+        .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+        .build();
+  }
+
   @Bean
   BytesDeletedReporter bytesDeletedReporter(
       MeterRegistry meterRegistry,
@@ -78,11 +122,82 @@ public class CommonBeans {
     return new S3Client(amazonS3, dryRunEnabled);
   }
 
+  @Bean
+  S3RequestCountReporter s3RequestCountReporter(MeterRegistry meterRegistry) {
+    return new S3RequestCountReporter(meterRegistry);
+  }
+
   @Bean(name = "s3PathCleaner")
   PathCleaner pathCleaner(
       S3Client s3Client,
-      BytesDeletedReporter bytesDeletedReporter) {
-    return new S3PathCleaner(s3Client, new S3SentinelFilesCleaner(s3Client), bytesDeletedReporter);
+      @Lazy S3AsyncClient s3AsyncClient,
+      BytesDeletedReporter bytesDeletedReporter,
+      S3RequestCountReporter s3RequestCountReporter,
+      HousekeepingPathShardRepository housekeepingPathShardRepository,
+      @Value("${properties.cleanup-delete-threads}") int cleanupDeleteThreads,
+      @Value("${properties.async-s3-client-enabled}") boolean asyncS3ClientEnabled,
+      @Value("${properties.path-shard-min-prefixes}") int pathShardMinPrefixes,
+      @Value("${properties.path-shard-threads}") int pathShardThreads,
+      @Value("${properties.dry-run-enabled}") boolean dryRunEnabled) {
+    PathCleaner pathCleaner;
+    if (asyncS3ClientEnabled) {
+      pathCleaner = new S3AsyncPathCleaner(s3AsyncClient, bytesDeletedReporter, s3RequestCountReporter,
+          dryRunEnabled, cleanupDeleteThreads);
+    } else {
+      pathCleaner = new S3PathCleaner(s3Client, bytesDeletedReporter, s3RequestCountReporter, cleanupDeleteThreads);
+    }
+    if (pathShardMinPrefixes <= 0 || dryRunEnabled) {
+      return pathCleaner;
+    }
+    return new S3ShardedPathCleaner(s3Client, pathCleaner, housekeepingPathShardRepository, bytesDeletedReporter,
+        pathShardMinPrefixes, pathShardThreads);
+  }
+
+  @Bean
+  PathCleanupExecutor pathCleanupExecutor(
+      S3Client s3Client,
+      MeterRegistry meterRegistry,
+      @Value("${properties.cleanup-threads}") int cleanupThreads,
+      @Value("${properties.cleanup-threads-per-bucket}") int cleanupThreadsPerBucket,
+      @Value("${properties.large-path-min-objects}") int largePathMinObjects,
+      @Value("${properties.large-path-threads}") int largePathThreads) {
+    if (largePathMinObjects > 0) {
+      return new LanedPathCleanupExecutor(new S3PathSizeClassifier(s3Client, largePathMinObjects),
+          Math.max(cleanupThreads, 1), largePathThreads, cleanupThreadsPerBucket, meterRegistry);
+    }
+    if (cleanupThreads <= 1) {
+      return new SequentialPathCleanupExecutor();
+    }
+    return new BoundedPathCleanupExecutor(cleanupThreads, cleanupThreadsPerBucket);
+  }
+
+  @Bean
+  PathStatusWriter pathStatusWriter(
+      HousekeepingPathRepository housekeepingPathRepository,
+      @Value("${properties.status-write-behind-enabled}") boolean statusWriteBehindEnabled) {
+    if (statusWriteBehindEnabled) {
+      return new WriteBehindPathStatusWriter(housekeepingPathRepository, MAX_PENDING_STATUS_WRITES);
+    }
+    return new BatchPathStatusWriter(housekeepingPathRepository);
+  }
+
+  @Bean
+  CleanupLease cleanupLease(
+      @Value("${properties.claim-enabled}") boolean claimEnabled,
+      @Value("${properties.claim-lease-duration}") String claimLeaseDuration) {
+    if (claimEnabled) {
+      return CleanupLease.forThisInstance(Duration.parse(claimLeaseDuration));
+    }
+    return CleanupLease.none();
+  }
+
+  @Bean
+  CleanupRetryPolicy cleanupRetryPolicy(
+      @Value("${properties.cleanup-max-attempts}") int cleanupMaxAttempts,
+      @Value("${properties.cleanup-retry-backoff}") String cleanupRetryBackoff,
+      @Value("${properties.cleanup-retry-max-backoff}") String cleanupRetryMaxBackoff) {
+    return new CleanupRetryPolicy(cleanupMaxAttempts, Duration.parse(cleanupRetryBackoff),
+        Duration.parse(cleanupRetryMaxBackoff));
   }
 
   @Bean
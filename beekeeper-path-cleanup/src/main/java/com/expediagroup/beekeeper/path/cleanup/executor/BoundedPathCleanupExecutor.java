@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.executor;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.expediagroup.beekeeper.cleanup.aws.S3SchemeURI;
+import com.expediagroup.beekeeper.core.concurrent.ExecutorSupport;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+/**
+ * Processes the paths of a page on a fixed size worker pool.
+ *
+ * @implNote Concurrency is capped globally by the size of the pool and per S3 bucket by a semaphore which a worker
+ * must hold while it is processing a path in that bucket.
+ */
+public class BoundedPathCleanupExecutor implements PathCleanupExecutor {
+
+  private static final String UNKNOWN_BUCKET = "";
+
+  private final ExecutorService executorService;
+  private final int maxConcurrencyPerBucket;
+  private final Map<String, Semaphore> bucketPermits = new ConcurrentHashMap<>();
+
+  public BoundedPathCleanupExecutor(int maxConcurrency, int maxConcurrencyPerBucket) {
+    if (maxConcurrency < 1 || maxConcurrencyPerBucket < 1) {
+      throw new BeekeeperException(
+          format("Path cleanup concurrency must be positive; was %s (per bucket %s).", maxConcurrency,
+              maxConcurrencyPerBucket));
+    }
+    this.executorService = Executors.newFixedThreadPool(maxConcurrency, new ThreadFactoryBuilder()
+        .setNameFormat("path-cleanup-%d")
+        .setDaemon(true)
+        .build());
+    this.maxConcurrencyPerBucket = Math.min(maxConcurrency, maxConcurrencyPerBucket);
+  }
+
+  @Override
+  public void execute(List<HousekeepingPath> housekeepingPaths, Consumer<HousekeepingPath> task) {
+    List<Future<?>> futures = new ArrayList<>(housekeepingPaths.size());
+    for (HousekeepingPath housekeepingPath : housekeepingPaths) {
+      futures.add(executorService.submit(() -> executeWithBucketPermit(housekeepingPath, task)));
+    }
+
+    ExecutorSupport.awaitAll(futures, "path cleanup tasks");
+  }
+
+  private void executeWithBucketPermit(HousekeepingPath housekeepingPath, Consumer<HousekeepingPath> task) {
+    Semaphore permits = bucketPermits
+        .computeIfAbsent(bucket(housekeepingPath), bucket -> new Semaphore(maxConcurrencyPerBucket, true));
+    permits.acquireUninterruptibly();
+    try {
+      task.accept(housekeepingPath);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private String bucket(HousekeepingPath housekeepingPath) {
+    try {
+      return new S3SchemeURI(housekeepingPath.getPath()).getBucket();
+    } catch (Exception e) {
+      return UNKNOWN_BUCKET;
+    }
+  }
+
+  public void shutdown() {
+    ExecutorSupport.shutdown("Path cleanup workers", executorService);
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.executor;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.expediagroup.beekeeper.cleanup.aws.S3PathSizeClassifier;
+import com.expediagroup.beekeeper.cleanup.aws.S3SchemeURI;
+import com.expediagroup.beekeeper.core.concurrent.ExecutorSupport;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+/**
+ * Processes the paths of a page in two lanes, each with its own worker pool, so that a few large directories do not
+ * hold up the small paths queued behind them.
+ *
+ * @implNote Every path is first handed to the small lane, whose worker classifies it with one listing page. Small
+ * paths are processed straight away by that worker; large ones are passed on to the large lane, leaving the small
+ * lane worker free for the next path. Each lane runs at most {@code maxConcurrencyPerBucket} paths of the same bucket
+ * at a time. When the processed paths are handed over, a page completes once the small lane has processed all of its
+ * paths and large paths carry on into the following pages, each handed over as soon as it completes; the small lane
+ * only waits for the large lane once four large paths per large lane thread are pending.
+ */
+public class LanedPathCleanupExecutor implements PathCleanupExecutor {
+
+  private static final Logger log = LoggerFactory.getLogger(LanedPathCleanupExecutor.class);
+  private static final String UNKNOWN_BUCKET = "";
+  private static final String TASKS = "path cleanup tasks";
+  private static final int PENDING_LARGE_PATHS_PER_THREAD = 4;
+
+  public static final String METRIC_NAME = "path-cleanup-lane";
+  public static final String LANE_TAG = "lane";
+  public static final String SMALL_LANE = "small";
+  public static final String LARGE_LANE = "large";
+
+  private final S3PathSizeClassifier pathSizeClassifier;
+  private final ExecutorService smallLane;
+  private final ExecutorService largeLane;
+  private final Timer smallLaneTimer;
+  private final Timer largeLaneTimer;
+  private final int smallLaneConcurrencyPerBucket;
+  private final int largeLaneConcurrencyPerBucket;
+  private final Map<String, Semaphore> smallLaneBucketPermits = new ConcurrentHashMap<>();
+  private final Map<String, Semaphore> largeLaneBucketPermits = new ConcurrentHashMap<>();
+  private final Semaphore pendingLargePathPermits;
+  private final Queue<Future<?>> pendingLargePaths = new ConcurrentLinkedQueue<>();
+
+  /**
+   * @param smallLaneThreads Number of small paths processed concurrently
+   * @param largeLaneThreads Number of large paths processed concurrently
+   * @param maxConcurrencyPerBucket Number of paths of the same bucket processed concurrently in each lane
+   */
+  public LanedPathCleanupExecutor(S3PathSizeClassifier pathSizeClassifier, int smallLaneThreads,
+      int largeLaneThreads, int maxConcurrencyPerBucket, MeterRegistry meterRegistry) {
+    if (smallLaneThreads < 1 || largeLaneThreads < 1 || maxConcurrencyPerBucket < 1) {
+      throw new BeekeeperException(
+          format("Path cleanup lane concurrency must be positive; was %s (large %s, per bucket %s).",
+              smallLaneThreads, largeLaneThreads, maxConcurrencyPerBucket));
+    }
+    this.pathSizeClassifier = pathSizeClassifier;
+    smallLane = Executors.newFixedThreadPool(smallLaneThreads, new ThreadFactoryBuilder()
+        .setNameFormat("path-cleanup-small-%d")
+        .setDaemon(true)
+        .build());
+    largeLane = Executors.newFixedThreadPool(largeLaneThreads, new ThreadFactoryBuilder()
+        .setNameFormat("path-cleanup-large-%d")
+        .setDaemon(true)
+        .build());
+    smallLaneTimer = Timer.builder(METRIC_NAME).tag(LANE_TAG, SMALL_LANE).register(meterRegistry);
+    largeLaneTimer = Timer.builder(METRIC_NAME).tag(LANE_TAG, LARGE_LANE).register(meterRegistry);
+    smallLaneConcurrencyPerBucket = Math.min(smallLaneThreads, maxConcurrencyPerBucket);
+    largeLaneConcurrencyPerBucket = Math.min(largeLaneThreads, maxConcurrencyPerBucket);
+    pendingLargePathPermits = new Semaphore(largeLaneThreads * PENDING_LARGE_PATHS_PER_THREAD);
+  }
+
+  @Override
+  public void execute(List<HousekeepingPath> housekeepingPaths, Consumer<HousekeepingPath> task) {
+    Queue<Future<?>> largePathFutures = new ConcurrentLinkedQueue<>();
+    BeekeeperException failure = ExecutorSupport.awaitAll(
+        submit(housekeepingPaths, task, largePath -> largePathFutures.add(submitLarge(largePath, task, path -> {}))),
+        null, TASKS);
+    // every large path has been handed over once the small lane is done with the page
+    failure = ExecutorSupport.awaitAll(largePathFutures, failure, TASKS);
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Returns once the small lane has processed every path of the page and hands the small paths over together. Large
+   * paths are still being processed and are each handed over from the large lane once they complete.
+   */
+  @Override
+  public void execute(List<HousekeepingPath> housekeepingPaths, Consumer<HousekeepingPath> task,
+      Consumer<List<HousekeepingPath>> pathsProcessed) {
+    Set<HousekeepingPath> largePaths = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+    ExecutorSupport.awaitAll(submit(housekeepingPaths, task, largePath -> {
+      largePaths.add(largePath);
+      pendingLargePaths.add(submitLarge(largePath, task, path -> pathsProcessed.accept(List.of(path))));
+    }), TASKS);
+    List<HousekeepingPath> smallPaths = housekeepingPaths.stream()
+        .filter(housekeepingPath -> !largePaths.contains(housekeepingPath))
+        .collect(Collectors.toList());
+    if (!smallPaths.isEmpty()) {
+      pathsProcessed.accept(smallPaths);
+    }
+  }
+
+  @Override
+  public void awaitProcessed() {
+    ExecutorSupport.awaitPolled(pendingLargePaths, TASKS);
+  }
+
+  private List<Future<?>> submit(List<HousekeepingPath> housekeepingPaths, Consumer<HousekeepingPath> task,
+      Consumer<HousekeepingPath> largePathHandOver) {
+    List<Future<?>> smallPathFutures = new ArrayList<>(housekeepingPaths.size());
+    for (HousekeepingPath housekeepingPath : housekeepingPaths) {
+      smallPathFutures.add(smallLane.submit(() -> {
+        if (pathSizeClassifier.isLarge(housekeepingPath)) {
+          log.debug("Path \"{}\" is large", housekeepingPath.getPath());
+          largePathHandOver.accept(housekeepingPath);
+        } else {
+          executeWithBucketPermit(smallLaneBucketPermits, smallLaneConcurrencyPerBucket, housekeepingPath,
+              () -> smallLaneTimer.record(() -> task.accept(housekeepingPath)));
+        }
+      }));
+    }
+    return smallPathFutures;
+  }
+
+  private Future<?> submitLarge(HousekeepingPath housekeepingPath, Consumer<HousekeepingPath> task,
+      Consumer<HousekeepingPath> largePathProcessed) {
+    pendingLargePathPermits.acquireUninterruptibly();
+    try {
+      return largeLane.submit(() -> {
+        try {
+          executeWithBucketPermit(largeLaneBucketPermits, largeLaneConcurrencyPerBucket, housekeepingPath,
+              () -> largeLaneTimer.record(() -> task.accept(housekeepingPath)));
+          largePathProcessed.accept(housekeepingPath);
+        } finally {
+          pendingLargePathPermits.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pendingLargePathPermits.release();
+      throw e;
+    }
+  }
+
+  private void executeWithBucketPermit(Map<String, Semaphore> bucketPermits, int concurrencyPerBucket,
+      HousekeepingPath housekeepingPath, Runnable runnable) {
+    Semaphore permits = bucketPermits
+        .computeIfAbsent(bucket(housekeepingPath), bucket -> new Semaphore(concurrencyPerBucket, true));
+    permits.acquireUninterruptibly();
+    try {
+      runnable.run();
+    } finally {
+      permits.release();
+    }
+  }
+
+  private String bucket(HousekeepingPath housekeepingPath) {
+    try {
+      return new S3SchemeURI(housekeepingPath.getPath()).getBucket();
+    } catch (Exception e) {
+      return UNKNOWN_BUCKET;
+    }
+  }
+
+  public void shutdown() {
+    ExecutorSupport.shutdown("Path cleanup workers", smallLane, largeLane);
+  }
+}
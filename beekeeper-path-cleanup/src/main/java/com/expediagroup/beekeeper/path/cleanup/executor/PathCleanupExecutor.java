@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.executor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+public interface PathCleanupExecutor {
+
+  /**
+   * Runs {@code task} once for every path in {@code housekeepingPaths}.
+   *
+   * @param housekeepingPaths Paths to process.
+   * @param task Cleanup task to run for each path.
+   * @implNote Implementations must only return once the task has completed for every path.
+   */
+  void execute(List<HousekeepingPath> housekeepingPaths, Consumer<HousekeepingPath> task);
+
+  /**
+   * Runs {@code task} once for every path in {@code housekeepingPaths} and hands the paths to {@code pathsProcessed}
+   * once their task has completed.
+   *
+   * @param housekeepingPaths Paths to process.
+   * @param task Cleanup task to run for each path.
+   * @param pathsProcessed Receives the paths whose task has completed, possibly from another thread.
+   * @implNote Implementations may return before the task has completed for some of the paths, which are then handed
+   * over when it does; {@link #awaitProcessed()} waits for them. By default every path is handed over together once
+   * {@link #execute(List, Consumer)} has returned.
+   */
+  default void execute(List<HousekeepingPath> housekeepingPaths, Consumer<HousekeepingPath> task,
+      Consumer<List<HousekeepingPath>> pathsProcessed) {
+    execute(housekeepingPaths, task);
+    pathsProcessed.accept(housekeepingPaths);
+  }
+
+  /**
+   * Returns once every path passed to {@link #execute(List, Consumer, Consumer)} so far has been processed and handed
+   * over.
+   *
+   * @throws com.expediagroup.beekeeper.core.error.BeekeeperException If the task or the hand over of any of those
+   * paths failed.
+   */
+  default void awaitProcessed() {}
+}
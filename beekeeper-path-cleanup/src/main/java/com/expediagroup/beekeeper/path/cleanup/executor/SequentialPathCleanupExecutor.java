@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.executor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+/**
+ * Processes the paths one at a time on the calling thread.
+ */
+public class SequentialPathCleanupExecutor implements PathCleanupExecutor {
+
+  @Override
+  public void execute(List<HousekeepingPath> housekeepingPaths, Consumer<HousekeepingPath> task) {
+    housekeepingPaths.forEach(task);
+  }
+}
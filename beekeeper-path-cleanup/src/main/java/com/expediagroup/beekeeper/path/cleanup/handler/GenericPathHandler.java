@@ -16,54 +16,124 @@
 package com.expediagroup.beekeeper.path.cleanup.handler;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
 import com.expediagroup.beekeeper.core.model.HousekeepingStatus;
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+import com.expediagroup.beekeeper.path.cleanup.executor.PathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.executor.SequentialPathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.writer.BatchPathStatusWriter;
+import com.expediagroup.beekeeper.path.cleanup.writer.PathStatusWriter;
 
 public abstract class GenericPathHandler {
 
   private final Logger log = LoggerFactory.getLogger(GenericPathHandler.class);
 
-  private HousekeepingPathRepository housekeepingPathRepository;
   private PathCleaner pathCleaner;
   private LifecycleEventType lifecycleEventType;
+  private PathCleanupExecutor pathCleanupExecutor;
+  private PathStatusWriter pathStatusWriter;
+  private CleanupLease cleanupLease;
+  private CleanupRetryPolicy cleanupRetryPolicy;
 
   public GenericPathHandler(HousekeepingPathRepository housekeepingPathRepository, PathCleaner pathCleaner, LifecycleEventType lifecycleEventType){
-    this.housekeepingPathRepository = housekeepingPathRepository;
+    this(pathCleaner, lifecycleEventType, new SequentialPathCleanupExecutor(),
+        new BatchPathStatusWriter(housekeepingPathRepository), CleanupLease.none(), CleanupRetryPolicy.unlimited());
+  }
+
+  public GenericPathHandler(PathCleaner pathCleaner, LifecycleEventType lifecycleEventType,
+      PathCleanupExecutor pathCleanupExecutor, PathStatusWriter pathStatusWriter, CleanupLease cleanupLease,
+      CleanupRetryPolicy cleanupRetryPolicy) {
     this.pathCleaner = pathCleaner;
     this.lifecycleEventType = lifecycleEventType;
+    this.pathCleanupExecutor = pathCleanupExecutor;
+    this.pathStatusWriter = pathStatusWriter;
+    this.cleanupLease = cleanupLease;
+    this.cleanupRetryPolicy = cleanupRetryPolicy;
+  }
+
+  public abstract Slice<HousekeepingPath> findRecordsToClean(LocalDateTime instant, CleanupCursor cursor, int pageSize);
+
+  /**
+   * @return The earliest cleanup timestamp of the paths a cleanup run for {@code instant} did not read, if any.
+   */
+  public Optional<LocalDateTime> findNextCleanupTimestamp(LocalDateTime instant) {
+    return Optional.empty();
   }
 
-  public abstract Page<HousekeepingPath> findRecordsToClean(LocalDateTime instant, Pageable pageable);
+  /**
+   * Claims paths for this instance so that other instances cleaning up the same table skip them.
+   *
+   * @param paths Paths read for cleanup
+   * @param lease Lease to claim the paths with
+   * @return The paths which were claimed; handlers which cannot claim paths return all of them.
+   */
+  protected List<HousekeepingPath> claim(List<HousekeepingPath> paths, CleanupLease lease) {
+    return paths;
+  }
+
+  /**
+   * @return Lease the paths of this instance are claimed with, so that paths claimed by other instances can be left
+   * out when pages are read.
+   */
+  protected CleanupLease getCleanupLease() {
+    return cleanupLease;
+  }
 
   /**
-   * Processes a pageable entityHouseKeepingPath page.
+   * Processes a slice of entityHouseKeepingPaths.
    *
-   * @param pageable Pageable to iterate through for dryRun
-   * @param page Page to get content from
+   * @param page Slice to get content from
    * @param dryRunEnabled Dry Run boolean flag
-   * @implNote This parent handler expects the child's cleanupPath call to update & remove the record from this call such
-   * that subsequent DB queries will not return the record. Hence why we only call next during dryRuns where no updates occur.
-   * @implNote Note that we only expect pageable.next to be called during a dry run.
-   * @return Pageable to pass to query. In the case of dry runs, this is the next page.
+   * @implNote The returned cursor is taken from the last record before any record is updated, as updating a record
+   * changes its modified timestamp. Outside of dry runs the processed records no longer match the cleanup query, but
+   * reading after the cursor is correct in both modes.
+   * @implNote The paths in the page are handed to the configured {@link PathCleanupExecutor}, which may process them
+   * concurrently. Each path is still updated to exactly one of DELETED, FAILED or ABANDONED, as decided by the
+   * {@link CleanupRetryPolicy}.
+   * @implNote The statuses of the page are handed to the {@link PathStatusWriter} together once every path has been
+   * processed, instead of being saved one path at a time. Executors which let long running paths carry on past the
+   * page hand their statuses over as they complete.
+   * @implNote When a {@link CleanupLease} is enabled only the paths this instance manages to claim are cleaned up, the
+   * rest belong to another instance. Dry runs do not claim paths.
+   * @return Cursor to pass to the next query.
    */
-  public Pageable processPage(Pageable pageable, Page<HousekeepingPath> page, boolean dryRunEnabled) {
+  public CleanupCursor processPage(Slice<HousekeepingPath> page, boolean dryRunEnabled) {
     List<HousekeepingPath> pageContent = page.getContent();
-    if (dryRunEnabled) {
-      pageContent.forEach(this::cleanUpPath);
-      return pageable.next();
-    } else {
-      pageContent.forEach(this::cleanupContent);
-      return pageable;
+    CleanupCursor nextCursor = CleanupCursor.after(pageContent.get(pageContent.size() - 1));
+    try {
+      if (dryRunEnabled) {
+        pathCleanupExecutor.execute(pageContent, this::cleanUpPath);
+      } else {
+        List<HousekeepingPath> claimedPaths = cleanupLease.isEnabled() ? claim(pageContent, cleanupLease) : pageContent;
+        pathCleanupExecutor.execute(claimedPaths, this::cleanupContent, pathStatusWriter::write);
+      }
+    } finally {
+      pathCleaner.pageCleaned();
+    }
+    return nextCursor;
+  }
+
+  /**
+   * Waits for every path processed so far to complete and for their status updates to be persisted.
+   */
+  public void flushStatusUpdates() {
+    try {
+      pathCleanupExecutor.awaitProcessed();
+    } finally {
+      pathStatusWriter.flush();
     }
   }
 
@@ -77,7 +147,7 @@ public abstract class GenericPathHandler {
       cleanUpPath(housekeepingPath);
       updateAttemptsAndStatus(housekeepingPath, HousekeepingStatus.DELETED);
     } catch (Exception e) {
-      updateAttemptsAndStatus(housekeepingPath, HousekeepingStatus.FAILED);
+      updateAttemptsAfterFailure(housekeepingPath);
       log.warn("Unexpected exception deleting \"{}\"", housekeepingPath.getPath(), e);
     }
   }
@@ -85,6 +155,17 @@ public abstract class GenericPathHandler {
   private void updateAttemptsAndStatus(HousekeepingPath housekeepingPath, HousekeepingStatus status) {
     housekeepingPath.setCleanupAttempts(housekeepingPath.getCleanupAttempts() + 1);
     housekeepingPath.setHousekeepingStatus(status);
-    housekeepingPathRepository.save(housekeepingPath);
+  }
+
+  private void updateAttemptsAfterFailure(HousekeepingPath housekeepingPath) {
+    int cleanupAttempts = housekeepingPath.getCleanupAttempts() + 1;
+    HousekeepingStatus status = cleanupRetryPolicy.failedStatus(cleanupAttempts);
+    housekeepingPath.setCleanupAttempts(cleanupAttempts);
+    housekeepingPath.setHousekeepingStatus(status);
+    housekeepingPath.setNextAttemptTimestamp(
+        cleanupRetryPolicy.nextAttemptTimestamp(cleanupAttempts, LocalDateTime.now(ZoneOffset.UTC)));
+    if (status == HousekeepingStatus.ABANDONED) {
+      log.warn("Abandoning path \"{}\" after {} failed cleanup attempts", housekeepingPath.getPath(), cleanupAttempts);
+    }
   }
 }
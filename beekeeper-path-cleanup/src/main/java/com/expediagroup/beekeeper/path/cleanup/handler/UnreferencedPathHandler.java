@@ -18,23 +18,28 @@ package com.expediagroup.beekeeper.path.cleanup.handler;
 import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+import com.expediagroup.beekeeper.path.cleanup.executor.PathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.writer.PathStatusWriter;
 
 @Component
 public class UnreferencedPathHandler extends GenericPathHandler {
 
   private final HousekeepingPathRepository housekeepingPathRepository;
 
-  @Autowired
   public UnreferencedPathHandler(
       HousekeepingPathRepository housekeepingPathRepository,
       @Qualifier("s3PathCleaner") PathCleaner pathCleaner
@@ -43,8 +48,31 @@ public class UnreferencedPathHandler extends GenericPathHandler {
     this.housekeepingPathRepository = housekeepingPathRepository;
   }
 
+  @Autowired
+  public UnreferencedPathHandler(
+      HousekeepingPathRepository housekeepingPathRepository,
+      @Qualifier("s3PathCleaner") PathCleaner pathCleaner,
+      PathCleanupExecutor pathCleanupExecutor,
+      PathStatusWriter pathStatusWriter,
+      CleanupLease cleanupLease,
+      CleanupRetryPolicy cleanupRetryPolicy
+  ) {
+    super(pathCleaner, UNREFERENCED, pathCleanupExecutor, pathStatusWriter, cleanupLease, cleanupRetryPolicy);
+    this.housekeepingPathRepository = housekeepingPathRepository;
+  }
+
+  @Override
+  public Slice<HousekeepingPath> findRecordsToClean(LocalDateTime instant, CleanupCursor cursor, int pageSize) {
+    return housekeepingPathRepository.findRecordsForCleanup(instant, cursor, pageSize, getCleanupLease());
+  }
+
+  @Override
+  public Optional<LocalDateTime> findNextCleanupTimestamp(LocalDateTime instant) {
+    return Optional.ofNullable(housekeepingPathRepository.findEarliestPendingCleanupTimestamp(instant));
+  }
+
   @Override
-  public Page<HousekeepingPath> findRecordsToClean(LocalDateTime instant, Pageable pageable) {
-    return housekeepingPathRepository.findRecordsForCleanupByModifiedTimestamp(instant, pageable);
+  protected List<HousekeepingPath> claim(List<HousekeepingPath> paths, CleanupLease lease) {
+    return housekeepingPathRepository.claim(paths, lease);
   }
 }
@@ -21,17 +21,16 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Slice;
 
 import io.micrometer.core.annotation.Timed;
 
 import com.expediagroup.beekeeper.cleanup.service.CleanupService;
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
 import com.expediagroup.beekeeper.path.cleanup.handler.GenericPathHandler;
 
 public class PagingPathCleanupService implements CleanupService {
@@ -50,22 +49,41 @@ public class PagingPathCleanupService implements CleanupService {
   @Timed("path-cleanup-job")
   public void cleanUp(Instant referenceTime) {
     try {
-      pathHandlers.forEach(handler -> pagingCleanup(handler, referenceTime));
+      pathHandlers.forEach(handler -> {
+        try {
+          pagingCleanup(handler, referenceTime);
+        } finally {
+          handler.flushStatusUpdates();
+        }
+      });
     } catch (Exception e) {
       throw new BeekeeperException(format("Cleanup failed for instant %s", referenceTime.toString()), e);
     }
   }
 
-  @Transactional
-  private void pagingCleanup(GenericPathHandler handler, Instant referenceTime) {
-    Pageable pageable = PageRequest.of(0, pageSize).first();
+  /**
+   * @implNote The earliest of the next cleanup timestamps of the handlers.
+   */
+  @Override
+  public Optional<Instant> nextCleanupTime(Instant referenceTime) {
+    LocalDateTime instant = LocalDateTime.ofInstant(referenceTime, ZoneOffset.UTC);
+    return pathHandlers.stream()
+        .map(handler -> handler.findNextCleanupTimestamp(instant))
+        .flatMap(Optional::stream)
+        .min(LocalDateTime::compareTo)
+        .map(nextCleanupTimestamp -> nextCleanupTimestamp.toInstant(ZoneOffset.UTC));
+  }
 
+  private void pagingCleanup(GenericPathHandler handler, Instant referenceTime) {
     LocalDateTime instant = LocalDateTime.ofInstant(referenceTime, ZoneOffset.UTC);
-    Page<HousekeepingPath> page = handler.findRecordsToClean(instant, pageable);
+    Slice<HousekeepingPath> page = handler.findRecordsToClean(instant, CleanupCursor.first(), pageSize);
 
-    while (!page.getContent().isEmpty()) {
-      pageable = handler.processPage(pageable, page, dryRunEnabled);
-      page = handler.findRecordsToClean(instant, pageable);
+    while (page.hasContent()) {
+      CleanupCursor cursor = handler.processPage(page, dryRunEnabled);
+      if (!page.hasNext()) {
+        break;
+      }
+      page = handler.findRecordsToClean(instant, cursor, pageSize);
     }
   }
 }
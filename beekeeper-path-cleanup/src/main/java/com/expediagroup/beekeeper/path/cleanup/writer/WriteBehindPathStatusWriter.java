@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.writer;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.expediagroup.beekeeper.core.concurrent.ExecutorSupport;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+
+/**
+ * Writes the statuses of each page as one batched update on a background thread, so that the next page can be read
+ * and cleaned up while the previous one is being written.
+ *
+ * @implNote At most {@code maxPendingPages} pages wait to be written; when that is reached, or once the writer is shut
+ * down, the calling thread writes the page itself, so every write that is handed over completes. Pages never share a path within a cleanup run, so the order of the writes does not matter.
+ */
+public class WriteBehindPathStatusWriter implements PathStatusWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(WriteBehindPathStatusWriter.class);
+
+  private final HousekeepingPathRepository housekeepingPathRepository;
+  private final ThreadPoolExecutor executor;
+  private final Queue<Future<?>> pendingWrites = new ConcurrentLinkedQueue<>();
+
+  public WriteBehindPathStatusWriter(HousekeepingPathRepository housekeepingPathRepository, int maxPendingPages) {
+    this.housekeepingPathRepository = housekeepingPathRepository;
+    this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(maxPendingPages),
+        new ThreadFactoryBuilder().setNameFormat("path-status-writer-%d").setDaemon(true).build(),
+        (write, rejectingExecutor) -> write.run());
+  }
+
+  @Override
+  public void write(List<HousekeepingPath> housekeepingPaths) {
+    pendingWrites.add(executor.submit(() -> housekeepingPathRepository.updateStatus(housekeepingPaths)));
+  }
+
+  /**
+   * @throws BeekeeperException If any of the pending writes failed. The paths of a failed write keep their previous
+   * status and are picked up again by the next cleanup.
+   */
+  @Override
+  public void flush() {
+    ExecutorSupport.awaitPolled(pendingWrites, "path status writes");
+  }
+
+  public void shutdown() {
+    try {
+      flush();
+    } catch (BeekeeperException e) {
+      log.warn("Pending path status writes failed during shutdown.", e);
+    } finally {
+      ExecutorSupport.shutdown("Path status writer", executor);
+    }
+  }
+}
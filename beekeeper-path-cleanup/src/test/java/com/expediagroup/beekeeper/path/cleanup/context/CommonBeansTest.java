@@ -19,6 +19,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.net.URL;
+import java.time.Duration;
 import java.util.Collections;
 
 import org.junit.jupiter.api.AfterAll;
@@ -29,17 +30,34 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.graphite.GraphiteMeterRegistry;
 
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
 import com.amazonaws.services.s3.AmazonS3;
 
+import com.expediagroup.beekeeper.cleanup.aws.S3AsyncPathCleaner;
 import com.expediagroup.beekeeper.cleanup.aws.S3Client;
 import com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner;
+import com.expediagroup.beekeeper.cleanup.aws.S3ShardedPathCleaner;
 import com.expediagroup.beekeeper.cleanup.monitoring.BytesDeletedReporter;
+import com.expediagroup.beekeeper.cleanup.monitoring.S3RequestCountReporter;
 import com.expediagroup.beekeeper.cleanup.path.PathCleaner;
 import com.expediagroup.beekeeper.cleanup.service.CleanupService;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
+import com.expediagroup.beekeeper.core.model.HousekeepingStatus;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathShardRepository;
+import com.expediagroup.beekeeper.path.cleanup.executor.BoundedPathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.executor.LanedPathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.executor.PathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.executor.SequentialPathCleanupExecutor;
 import com.expediagroup.beekeeper.path.cleanup.service.PagingPathCleanupService;
+import com.expediagroup.beekeeper.path.cleanup.writer.BatchPathStatusWriter;
+import com.expediagroup.beekeeper.path.cleanup.writer.PathStatusWriter;
+import com.expediagroup.beekeeper.path.cleanup.writer.WriteBehindPathStatusWriter;
 
 @ExtendWith(MockitoExtension.class)
 class CommonBeansTest {
@@ -55,8 +73,13 @@ class CommonBeansTest {
   private boolean dryRunEnabled = false;
   private final CommonBeans commonBeans = new CommonBeans();
   private @Mock HousekeepingPathRepository repository;
+  private @Mock HousekeepingPathShardRepository housekeepingPathShardRepository;
   private @Mock PathCleaner pathCleaner;
   private @Mock BytesDeletedReporter bytesDeletedReporter;
+  private @Mock S3RequestCountReporter s3RequestCountReporter;
+  private @Mock S3AsyncClient s3AsyncClient;
+  private @Mock S3Client s3Client;
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
   @BeforeEach
   void setUp() {
@@ -98,7 +121,46 @@ class CommonBeansTest {
     S3Client s3Client = commonBeans.s3Client(commonBeans.amazonS3(), dryRunEnabled);
     MeterRegistry meterRegistry = mock(GraphiteMeterRegistry.class);
     
-    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, bytesDeletedReporter);
+    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, s3AsyncClient, bytesDeletedReporter,
+        s3RequestCountReporter, housekeepingPathShardRepository, 1, false, 0, 4, dryRunEnabled);
+    assertThat(pathCleaner).isInstanceOf(S3PathCleaner.class);
+  }
+
+  @Test
+  void verifyConcurrentS3pathCleaner() {
+    S3Client s3Client = commonBeans.s3Client(commonBeans.amazonS3(), dryRunEnabled);
+
+    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, s3AsyncClient, bytesDeletedReporter,
+        s3RequestCountReporter, housekeepingPathShardRepository, 4, false, 0, 4, dryRunEnabled);
+    assertThat(pathCleaner).isInstanceOf(S3PathCleaner.class);
+    ((S3PathCleaner) pathCleaner).shutdown();
+  }
+
+  @Test
+  void verifyAsyncS3pathCleaner() {
+    S3Client s3Client = commonBeans.s3Client(commonBeans.amazonS3(), dryRunEnabled);
+
+    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, s3AsyncClient, bytesDeletedReporter,
+        s3RequestCountReporter, housekeepingPathShardRepository, 4, true, 0, 4, dryRunEnabled);
+    assertThat(pathCleaner).isInstanceOf(S3AsyncPathCleaner.class);
+  }
+
+  @Test
+  void verifyShardedS3pathCleaner() {
+    S3Client s3Client = commonBeans.s3Client(commonBeans.amazonS3(), dryRunEnabled);
+
+    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, s3AsyncClient, bytesDeletedReporter,
+        s3RequestCountReporter, housekeepingPathShardRepository, 1, false, 10, 4, dryRunEnabled);
+    assertThat(pathCleaner).isInstanceOf(S3ShardedPathCleaner.class);
+    ((S3ShardedPathCleaner) pathCleaner).shutdown();
+  }
+
+  @Test
+  void verifyS3pathCleanerIsNotShardedInDryRun() {
+    S3Client s3Client = commonBeans.s3Client(commonBeans.amazonS3(), true);
+
+    PathCleaner pathCleaner = commonBeans.pathCleaner(s3Client, s3AsyncClient, bytesDeletedReporter,
+        s3RequestCountReporter, housekeepingPathShardRepository, 1, false, 10, 4, true);
     assertThat(pathCleaner).isInstanceOf(S3PathCleaner.class);
   }
 
@@ -107,4 +169,57 @@ class CommonBeansTest {
     CleanupService cleanupService = commonBeans.cleanupService(Collections.emptyList(), 2, dryRunEnabled);
     assertThat(cleanupService).isInstanceOf(PagingPathCleanupService.class);
   }
+
+  @Test
+  void sequentialPathCleanupExecutor() {
+    PathCleanupExecutor pathCleanupExecutor = commonBeans.pathCleanupExecutor(s3Client, meterRegistry, 1, 10, 0, 2);
+    assertThat(pathCleanupExecutor).isInstanceOf(SequentialPathCleanupExecutor.class);
+  }
+
+  @Test
+  void boundedPathCleanupExecutor() {
+    PathCleanupExecutor pathCleanupExecutor = commonBeans.pathCleanupExecutor(s3Client, meterRegistry, 4, 2, 0, 2);
+    assertThat(pathCleanupExecutor).isInstanceOf(BoundedPathCleanupExecutor.class);
+    ((BoundedPathCleanupExecutor) pathCleanupExecutor).shutdown();
+  }
+
+  @Test
+  void lanedPathCleanupExecutor() {
+    PathCleanupExecutor pathCleanupExecutor = commonBeans.pathCleanupExecutor(s3Client, meterRegistry, 4, 2, 1000, 2);
+    assertThat(pathCleanupExecutor).isInstanceOf(LanedPathCleanupExecutor.class);
+    ((LanedPathCleanupExecutor) pathCleanupExecutor).shutdown();
+  }
+
+  @Test
+  void batchPathStatusWriter() {
+    PathStatusWriter pathStatusWriter = commonBeans.pathStatusWriter(repository, false);
+    assertThat(pathStatusWriter).isInstanceOf(BatchPathStatusWriter.class);
+  }
+
+  @Test
+  void writeBehindPathStatusWriter() {
+    PathStatusWriter pathStatusWriter = commonBeans.pathStatusWriter(repository, true);
+    assertThat(pathStatusWriter).isInstanceOf(WriteBehindPathStatusWriter.class);
+    ((WriteBehindPathStatusWriter) pathStatusWriter).shutdown();
+  }
+
+  @Test
+  void disabledCleanupLease() {
+    CleanupLease cleanupLease = commonBeans.cleanupLease(false, "PT1H");
+    assertThat(cleanupLease.isEnabled()).isFalse();
+  }
+
+  @Test
+  void enabledCleanupLease() {
+    CleanupLease cleanupLease = commonBeans.cleanupLease(true, "PT30M");
+    assertThat(cleanupLease.isEnabled()).isTrue();
+    assertThat(cleanupLease.getDuration()).isEqualTo(Duration.ofMinutes(30));
+  }
+
+  @Test
+  void cleanupRetryPolicy() {
+    CleanupRetryPolicy cleanupRetryPolicy = commonBeans.cleanupRetryPolicy(3, "PT5M", "P1D");
+    assertThat(cleanupRetryPolicy.failedStatus(2)).isEqualTo(HousekeepingStatus.FAILED);
+    assertThat(cleanupRetryPolicy.failedStatus(3)).isEqualTo(HousekeepingStatus.ABANDONED);
+  }
 }
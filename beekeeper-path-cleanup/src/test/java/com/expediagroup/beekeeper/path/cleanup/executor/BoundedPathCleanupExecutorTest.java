@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.SCHEDULED;
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+public class BoundedPathCleanupExecutorTest {
+
+  private BoundedPathCleanupExecutor executor;
+
+  @AfterEach
+  public void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void typical() {
+    executor = new BoundedPathCleanupExecutor(4, 4);
+    List<HousekeepingPath> paths = createPaths("bucket", 20);
+    Set<String> processed = ConcurrentHashMap.newKeySet();
+
+    executor.execute(paths, path -> processed.add(path.getPath()));
+
+    assertThat(processed).hasSize(20);
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void concurrencyIsCappedPerBucket() {
+    executor = new BoundedPathCleanupExecutor(8, 2);
+    List<HousekeepingPath> paths = createPaths("bucket", 20);
+    paths.addAll(createPaths("other-bucket", 20));
+    Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+    Map<String, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+
+    executor.execute(paths, path -> {
+      String bucket = path.getPath().substring(5, path.getPath().indexOf("/", 5));
+      int current = running.computeIfAbsent(bucket, b -> new AtomicInteger()).incrementAndGet();
+      maxRunning.computeIfAbsent(bucket, b -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+      sleep(5);
+      running.get(bucket).decrementAndGet();
+    });
+
+    assertThat(maxRunning.get("bucket").get()).isBetween(1, 2);
+    assertThat(maxRunning.get("other-bucket").get()).isBetween(1, 2);
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void failedTaskDoesNotStopOtherTasks() {
+    executor = new BoundedPathCleanupExecutor(4, 4);
+    List<HousekeepingPath> paths = createPaths("bucket", 10);
+    AtomicInteger processed = new AtomicInteger();
+
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> executor.execute(paths, path -> {
+      processed.incrementAndGet();
+      if (path.getPath().endsWith("/3")) {
+        throw new RuntimeException("error");
+      }
+    }));
+    assertThat(processed.get()).isEqualTo(10);
+  }
+
+  @Test
+  public void invalidConcurrency() {
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> new BoundedPathCleanupExecutor(0, 1));
+  }
+
+  private List<HousekeepingPath> createPaths(String bucket, int count) {
+    LocalDateTime now = LocalDateTime.now();
+    return IntStream.range(0, count)
+        .mapToObj(i -> new HousekeepingPath.Builder()
+            .path("s3://" + bucket + "/table/" + i)
+            .databaseName("database")
+            .tableName("table")
+            .housekeepingStatus(SCHEDULED)
+            .creationTimestamp(now)
+            .cleanupDelay(Duration.parse("P3D"))
+            .lifecycleType(UNREFERENCED.toString())
+            .build())
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.SCHEDULED;
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
+import static com.expediagroup.beekeeper.path.cleanup.executor.LanedPathCleanupExecutor.LANE_TAG;
+import static com.expediagroup.beekeeper.path.cleanup.executor.LanedPathCleanupExecutor.LARGE_LANE;
+import static com.expediagroup.beekeeper.path.cleanup.executor.LanedPathCleanupExecutor.METRIC_NAME;
+import static com.expediagroup.beekeeper.path.cleanup.executor.LanedPathCleanupExecutor.SMALL_LANE;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.expediagroup.beekeeper.cleanup.aws.S3PathSizeClassifier;
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+
+@ExtendWith(MockitoExtension.class)
+public class LanedPathCleanupExecutorTest {
+
+  private @Mock S3PathSizeClassifier pathSizeClassifier;
+  private MeterRegistry meterRegistry;
+  private LanedPathCleanupExecutor executor;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    lenient().when(pathSizeClassifier.isLarge(any()))
+        .thenAnswer(invocation -> ((HousekeepingPath) invocation.getArgument(0)).getPath().contains("/large/"));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void typical() {
+    executor = new LanedPathCleanupExecutor(pathSizeClassifier, 2, 1, 10, meterRegistry);
+    List<HousekeepingPath> paths = createPaths("small", 10);
+    paths.addAll(createPaths("large", 2));
+    Set<String> processed = ConcurrentHashMap.newKeySet();
+
+    executor.execute(paths, path -> processed.add(path.getPath()));
+
+    assertThat(processed).hasSize(12);
+    assertThat(meterRegistry.get(METRIC_NAME).tag(LANE_TAG, SMALL_LANE).timer().count()).isEqualTo(10);
+    assertThat(meterRegistry.get(METRIC_NAME).tag(LANE_TAG, LARGE_LANE).timer().count()).isEqualTo(2);
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void smallPathsAreNotHeldUpByLargePaths() {
+    executor = new LanedPathCleanupExecutor(pathSizeClassifier, 1, 1, 10, meterRegistry);
+    List<HousekeepingPath> paths = createPaths("large", 1);
+    paths.addAll(createPaths("small", 10));
+    CountDownLatch smallPathsProcessed = new CountDownLatch(10);
+    AtomicInteger largePathsProcessedAfterSmallOnes = new AtomicInteger();
+
+    executor.execute(paths, path -> {
+      if (path.getPath().contains("/large/")) {
+        try {
+          if (smallPathsProcessed.await(5, TimeUnit.SECONDS)) {
+            largePathsProcessedAfterSmallOnes.incrementAndGet();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      } else {
+        smallPathsProcessed.countDown();
+      }
+    });
+
+    assertThat(largePathsProcessedAfterSmallOnes.get()).isEqualTo(1);
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void failedTaskDoesNotStopOtherTasks() {
+    executor = new LanedPathCleanupExecutor(pathSizeClassifier, 2, 1, 10, meterRegistry);
+    List<HousekeepingPath> paths = createPaths("small", 5);
+    paths.addAll(createPaths("large", 5));
+    AtomicInteger processed = new AtomicInteger();
+
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> executor.execute(paths, path -> {
+      processed.incrementAndGet();
+      if (path.getPath().endsWith("/3")) {
+        throw new RuntimeException("error");
+      }
+    }));
+    assertThat(processed.get()).isEqualTo(10);
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void pageDoesNotWaitForLargePaths() throws InterruptedException {
+    executor = new LanedPathCleanupExecutor(pathSizeClassifier, 1, 1, 10, meterRegistry);
+    List<HousekeepingPath> paths = createPaths("large", 1);
+    paths.addAll(createPaths("small", 3));
+    CountDownLatch pageProcessed = new CountDownLatch(1);
+    List<List<HousekeepingPath>> processedPaths = new CopyOnWriteArrayList<>();
+
+    executor.execute(paths, path -> {
+      if (path.getPath().contains("/large/")) {
+        try {
+          pageProcessed.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }, processedPaths::add);
+
+    assertThat(processedPaths).containsExactly(paths.subList(1, 4));
+    pageProcessed.countDown();
+    executor.awaitProcessed();
+    assertThat(processedPaths).containsExactly(paths.subList(1, 4), List.of(paths.get(0)));
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void awaitProcessedThrowsLargePathFailures() {
+    executor = new LanedPathCleanupExecutor(pathSizeClassifier, 1, 1, 10, meterRegistry);
+    List<HousekeepingPath> processedPaths = new CopyOnWriteArrayList<>();
+
+    executor.execute(createPaths("large", 2), path -> {
+      if (path.getPath().endsWith("/0")) {
+        throw new RuntimeException("error");
+      }
+    }, processedPaths::addAll);
+
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> executor.awaitProcessed());
+    assertThat(processedPaths).extracting(HousekeepingPath::getPath).containsExactly("s3://bucket/large/1");
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void concurrencyIsCappedPerBucketInBothLanes() {
+    executor = new LanedPathCleanupExecutor(pathSizeClassifier, 4, 4, 1, meterRegistry);
+    List<HousekeepingPath> paths = createPaths("small", 8);
+    paths.addAll(createPaths("large", 8));
+    Map<Boolean, AtomicInteger> running = Map.of(true, new AtomicInteger(), false, new AtomicInteger());
+    Map<Boolean, AtomicInteger> maxRunning = Map.of(true, new AtomicInteger(), false, new AtomicInteger());
+
+    executor.execute(paths, path -> {
+      boolean large = path.getPath().contains("/large/");
+      int current = running.get(large).incrementAndGet();
+      maxRunning.get(large).accumulateAndGet(current, Math::max);
+      try {
+        Thread.sleep(10L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      running.get(large).decrementAndGet();
+    });
+
+    assertThat(maxRunning.get(false).get()).isEqualTo(1);
+    assertThat(maxRunning.get(true).get()).isEqualTo(1);
+  }
+
+  @Test
+  public void invalidConcurrency() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new LanedPathCleanupExecutor(pathSizeClassifier, 1, 0, 10, meterRegistry));
+  }
+
+  private List<HousekeepingPath> createPaths(String size, int count) {
+    LocalDateTime now = LocalDateTime.now();
+    return IntStream.range(0, count)
+        .mapToObj(i -> new HousekeepingPath.Builder()
+            .path("s3://bucket/" + size + "/" + i)
+            .databaseName("database")
+            .tableName("table")
+            .housekeepingStatus(SCHEDULED)
+            .creationTimestamp(now)
+            .cleanupDelay(Duration.parse("P3D"))
+            .lifecycleType(UNREFERENCED.toString())
+            .build())
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+}
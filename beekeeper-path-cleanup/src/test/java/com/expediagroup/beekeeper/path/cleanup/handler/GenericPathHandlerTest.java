@@ -16,14 +16,18 @@
 package com.expediagroup.beekeeper.path.cleanup.handler;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.ABANDONED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.DELETED;
 import static com.expediagroup.beekeeper.core.model.HousekeepingStatus.FAILED;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -31,22 +35,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner;
+import com.expediagroup.beekeeper.core.model.CleanupRetryPolicy;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+import com.expediagroup.beekeeper.path.cleanup.executor.SequentialPathCleanupExecutor;
+import com.expediagroup.beekeeper.path.cleanup.writer.BatchPathStatusWriter;
 
 @ExtendWith(MockitoExtension.class)
 public class GenericPathHandlerTest {
 
+  private static final LocalDateTime MODIFIED_TIMESTAMP = LocalDateTime.now();
+
   @Mock private HousekeepingPathRepository housekeepingPathRepository;
   @Mock private S3PathCleaner pathCleaner;
   @Mock private HousekeepingPath mockPath;
-  @Mock private Pageable mockPageable;
-  @Mock private Pageable nextPage;
-  @Mock private PageImpl<HousekeepingPath> mockPage;
 
   private UnreferencedPathHandler handler;
 
@@ -57,36 +64,91 @@ public class GenericPathHandlerTest {
 
   @Test
   public void typicalProcessDryRunPage() {
-    when(mockPage.getContent()).thenReturn(List.of(mockPath));
-    when(mockPageable.next()).thenReturn(nextPage);
-    Pageable pageable = handler.processPage(mockPageable, mockPage, true);
+    when(mockPath.getId()).thenReturn(1L);
+    when(mockPath.getModifiedTimestamp()).thenReturn(MODIFIED_TIMESTAMP);
+    CleanupCursor cursor = handler.processPage(new SliceImpl<>(List.of(mockPath)), true);
     verify(pathCleaner).cleanupPath(mockPath);
-    assertThat(pageable).isEqualTo(nextPage);
+    verify(housekeepingPathRepository, never()).updateStatus(any());
+    assertThat(cursor.getId()).isEqualTo(1L);
+    assertThat(cursor.getModifiedTimestamp()).isEqualTo(MODIFIED_TIMESTAMP);
   }
 
   @Test
   public void typicalProcessPage() {
+    when(mockPath.getId()).thenReturn(1L);
+    when(mockPath.getModifiedTimestamp()).thenReturn(MODIFIED_TIMESTAMP);
     when(mockPath.getCleanupAttempts()).thenReturn(0);
-    when(mockPage.getContent()).thenReturn(List.of(mockPath));
-    Pageable pageable = handler.processPage(mockPageable, mockPage, false);
+    CleanupCursor cursor = handler.processPage(new SliceImpl<>(List.of(mockPath)), false);
     verify(pathCleaner).cleanupPath(mockPath);
-    verify(mockPageable, never()).next();
     verify(mockPath).setCleanupAttempts(1);
     verify(mockPath).setHousekeepingStatus(DELETED);
-    verify(housekeepingPathRepository).save(mockPath);
-    assertThat(pageable).isEqualTo(pageable);
+    verify(housekeepingPathRepository).updateStatus(List.of(mockPath));
+    verify(pathCleaner).pageCleaned();
+    assertThat(cursor.getId()).isEqualTo(1L);
+    assertThat(cursor.getModifiedTimestamp()).isEqualTo(MODIFIED_TIMESTAMP);
   }
 
   @Test
   public void processPageFails() {
+    when(mockPath.getId()).thenReturn(1L);
     when(mockPath.getCleanupAttempts()).thenReturn(0);
     doThrow(RuntimeException.class).when(pathCleaner).cleanupPath(mockPath);
-    when(mockPage.getContent()).thenReturn(List.of(mockPath));
-    Pageable pageable = handler.processPage(mockPageable, mockPage, false);
-    verify(mockPageable, never()).next();
+    CleanupCursor cursor = handler.processPage(new SliceImpl<>(List.of(mockPath)), false);
     verify(mockPath).setCleanupAttempts(1);
     verify(mockPath).setHousekeepingStatus(FAILED);
-    verify(housekeepingPathRepository).save(mockPath);
-    assertThat(pageable).isEqualTo(pageable);
+    verify(housekeepingPathRepository).updateStatus(List.of(mockPath));
+    assertThat(cursor.getId()).isEqualTo(1L);
+  }
+
+  @Test
+  public void processPageOnlyCleansClaimedPaths() {
+    CleanupLease lease = new CleanupLease("instance", Duration.ofHours(1));
+    handler = new UnreferencedPathHandler(housekeepingPathRepository, pathCleaner, new SequentialPathCleanupExecutor(),
+        new BatchPathStatusWriter(housekeepingPathRepository), lease, CleanupRetryPolicy.unlimited());
+    when(mockPath.getId()).thenReturn(1L);
+    when(housekeepingPathRepository.claim(List.of(mockPath), lease)).thenReturn(List.of());
+    CleanupCursor cursor = handler.processPage(new SliceImpl<>(List.of(mockPath)), false);
+    verify(pathCleaner, never()).cleanupPath(mockPath);
+    verify(housekeepingPathRepository).updateStatus(List.of());
+    assertThat(cursor.getId()).isEqualTo(1L);
+  }
+
+  @Test
+  public void processDryRunPageDoesNotClaimPaths() {
+    CleanupLease lease = new CleanupLease("instance", Duration.ofHours(1));
+    handler = new UnreferencedPathHandler(housekeepingPathRepository, pathCleaner, new SequentialPathCleanupExecutor(),
+        new BatchPathStatusWriter(housekeepingPathRepository), lease, CleanupRetryPolicy.unlimited());
+    when(mockPath.getId()).thenReturn(1L);
+    handler.processPage(new SliceImpl<>(List.of(mockPath)), true);
+    verify(housekeepingPathRepository, never()).claim(any(), any());
+    verify(pathCleaner).cleanupPath(mockPath);
+  }
+
+  @Test
+  public void processPageBacksOffFailedPaths() {
+    handler = new UnreferencedPathHandler(housekeepingPathRepository, pathCleaner, new SequentialPathCleanupExecutor(),
+        new BatchPathStatusWriter(housekeepingPathRepository), CleanupLease.none(),
+        new CleanupRetryPolicy(3, Duration.ofMinutes(5), Duration.ofHours(1)));
+    when(mockPath.getId()).thenReturn(1L);
+    when(mockPath.getCleanupAttempts()).thenReturn(1);
+    doThrow(RuntimeException.class).when(pathCleaner).cleanupPath(mockPath);
+    handler.processPage(new SliceImpl<>(List.of(mockPath)), false);
+    verify(mockPath).setCleanupAttempts(2);
+    verify(mockPath).setHousekeepingStatus(FAILED);
+    verify(mockPath).setNextAttemptTimestamp(any(LocalDateTime.class));
+  }
+
+  @Test
+  public void processPageAbandonsPathsAfterMaxAttempts() {
+    handler = new UnreferencedPathHandler(housekeepingPathRepository, pathCleaner, new SequentialPathCleanupExecutor(),
+        new BatchPathStatusWriter(housekeepingPathRepository), CleanupLease.none(),
+        new CleanupRetryPolicy(3, Duration.ofMinutes(5), Duration.ofHours(1)));
+    when(mockPath.getId()).thenReturn(1L);
+    when(mockPath.getCleanupAttempts()).thenReturn(2);
+    doThrow(RuntimeException.class).when(pathCleaner).cleanupPath(mockPath);
+    handler.processPage(new SliceImpl<>(List.of(mockPath)), false);
+    verify(mockPath).setCleanupAttempts(3);
+    verify(mockPath).setHousekeepingStatus(ABANDONED);
+    verify(housekeepingPathRepository).updateStatus(List.of(mockPath));
   }
 }
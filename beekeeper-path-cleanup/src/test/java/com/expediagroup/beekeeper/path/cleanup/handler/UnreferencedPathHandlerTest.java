@@ -27,11 +27,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import com.expediagroup.beekeeper.cleanup.aws.S3PathCleaner;
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+import com.expediagroup.beekeeper.core.repository.CleanupCursor;
+import com.expediagroup.beekeeper.core.repository.CleanupLease;
 import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,8 +61,8 @@ public class UnreferencedPathHandlerTest {
   @Test
   public void verifyHousekeepingPathFetch() {
     LocalDateTime now = LocalDateTime.now();
-    Pageable emptyPageable = PageRequest.of(0, 1);
-    handler.findRecordsToClean(now, emptyPageable);
-    verify(housekeepingPathRepository).findRecordsForCleanupByModifiedTimestamp(now, emptyPageable);
+    CleanupCursor cursor = CleanupCursor.first();
+    handler.findRecordsToClean(now, cursor, 1);
+    verify(housekeepingPathRepository).findRecordsForCleanup(now, cursor, 1, CleanupLease.none());
   }
 }
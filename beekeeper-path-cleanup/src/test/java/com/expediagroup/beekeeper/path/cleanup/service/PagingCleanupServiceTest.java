@@ -91,6 +91,8 @@ public class PagingCleanupServiceTest {
       assertThat(housekeepingPath.getHousekeepingStatus()).isEqualTo(DELETED);
     });
 
+    verify(pathCleaner, times(2)).pageCleaned();
+
     pagingCleanupService.cleanUp(Instant.now());
     verifyNoMoreInteractions(pathCleaner);
   }
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.path.cleanup.writer;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindPathStatusWriterTest {
+
+  private @Mock HousekeepingPathRepository housekeepingPathRepository;
+  private @Mock HousekeepingPath path1;
+  private @Mock HousekeepingPath path2;
+
+  private WriteBehindPathStatusWriter writer;
+
+  @BeforeEach
+  public void init() {
+    writer = new WriteBehindPathStatusWriter(housekeepingPathRepository, 1);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    writer.shutdown();
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void typical() {
+    for (int i = 0; i < 5; i++) {
+      writer.write(List.of(path1));
+    }
+    writer.write(List.of(path2));
+    writer.flush();
+
+    verify(housekeepingPathRepository, times(5)).updateStatus(List.of(path1));
+    verify(housekeepingPathRepository).updateStatus(List.of(path2));
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void failedWriteIsReportedOnFlush() {
+    lenient().doThrow(new RuntimeException("Error")).when(housekeepingPathRepository).updateStatus(List.of(path1));
+    writer.write(List.of(path1));
+    writer.write(List.of(path2));
+
+    assertThatExceptionOfType(BeekeeperException.class).isThrownBy(() -> writer.flush());
+    verify(housekeepingPathRepository).updateStatus(List.of(path2));
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void writeAfterShutdownIsWrittenByTheCaller() {
+    writer.shutdown();
+    writer.write(List.of(path1));
+    writer.flush();
+
+    verify(housekeepingPathRepository).updateStatus(List.of(path1));
+  }
+
+  @Test
+  @Timeout(value = 10)
+  public void flushWithoutWrites() {
+    writer.flush();
+    verify(housekeepingPathRepository, times(0)).updateStatus(any());
+  }
+}
@@ -15,7 +15,22 @@
  */
 package com.expediagroup.beekeeper.scheduler.apiary.app;
 
+import static java.lang.String.format;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
@@ -25,28 +40,98 @@ import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.scheduler.apiary.model.BeekeeperEvent;
 import com.expediagroup.beekeeper.scheduler.apiary.service.SchedulerApiary;
 
+/**
+ * Reads events from the queue and schedules them until the application shuts down.
+ *
+ * @implNote With a single consumer thread each batch of events is scheduled by the runner thread in one transaction.
+ * With more, the events of a batch are scheduled on a fixed number of single-threaded consumers, each event in its
+ * own transaction. An event is always assigned to the same consumer by the hash of {@code databaseName.tableName}, so
+ * the events of a table are scheduled in the order they were read while different tables are scheduled at the same
+ * time. Once an event of a table fails, the following events of that table in the batch are not scheduled either and
+ * go back on the queue with it. The runner waits for every event of a batch before it acknowledges them and reads the
+ * next batch.
+ * <p>
+ * With group commit the runner instead gathers the events of several batches and schedules them in a single
+ * transaction, which is committed before any of their messages is deleted from the queue. If that transaction fails,
+ * the events of the group are scheduled again one at a time, so that only the events which fail on their own, and the
+ * later events of their tables, go back on the queue.
+ */
 @Component
 public class SchedulerApiaryRunner implements ApplicationRunner {
 
   private static final Logger log = LoggerFactory.getLogger(SchedulerApiaryRunner.class);
+  // the Apiary reader waits up to 10 seconds for a message, which is then scheduled within a second
   private static final long RUNNER_DESTROY_TIMEOUT_SECONDS = 11L;
 
   private final ReentrantLock lock;
   private final SchedulerApiary schedulerApiary;
+  private final List<ExecutorService> consumers;
+  private final int groupCommitSize;
+  private final long destroyTimeoutSeconds;
 
   private final AtomicBoolean running = new AtomicBoolean(false);
 
-  @Autowired
   public SchedulerApiaryRunner(SchedulerApiary schedulerApiary) {
+    this(schedulerApiary, 1, 1, 0, 0, 0);
+  }
+
+  /**
+   * @param waitTimeSeconds Longest time a batched read waits for messages
+   * @param visibilityTimeoutSeconds Time a batch of events is expected to be scheduled in
+   */
+  @Autowired
+  public SchedulerApiaryRunner(SchedulerApiary schedulerApiary,
+      @Value("${properties.apiary.batch-size}") int batchSize,
+      @Value("${properties.apiary.consumer-threads}") int consumerThreads,
+      @Value("${properties.apiary.group-commit-size}") int groupCommitSize,
+      @Value("${properties.apiary.wait-time-seconds}") int waitTimeSeconds,
+      @Value("${properties.apiary.visibility-timeout-seconds}") int visibilityTimeoutSeconds) {
+    if (consumerThreads < 1) {
+      throw new BeekeeperException(format("Consumer threads must be positive; was %s.", consumerThreads));
+    }
+    if (consumerThreads > 1 && batchSize <= 1) {
+      // a single message read leaves every consumer but one idle
+      throw new BeekeeperException(
+          format("More than one consumer thread requires a batch size greater than 1; was %s.", batchSize));
+    }
+    if (groupCommitSize < 0) {
+      throw new BeekeeperException(format("Group commit size must not be negative; was %s.", groupCommitSize));
+    }
+    if (groupCommitSize > 0 && consumerThreads > 1) {
+      throw new BeekeeperException("Group commit cannot be combined with more than one consumer thread.");
+    }
+    if (groupCommitSize > 0 && batchSize <= 1) {
+      // only batched reads keep their messages invisible while the group is gathered and scheduled
+      throw new BeekeeperException(
+          format("Group commit requires a batch size greater than 1; was %s.", batchSize));
+    }
     this.schedulerApiary = schedulerApiary;
+    this.groupCommitSize = groupCommitSize;
+    // the runner stops once the read in progress has returned and its events have been scheduled
+    destroyTimeoutSeconds = batchSize <= 1 ? RUNNER_DESTROY_TIMEOUT_SECONDS
+        : (long) waitTimeSeconds + visibilityTimeoutSeconds;
     lock = new ReentrantLock();
+    consumers = new ArrayList<>(consumerThreads);
+    if (consumerThreads > 1) {
+      ThreadFactory threadFactory = new ThreadFactoryBuilder()
+          .setNameFormat("scheduler-consumer-%d")
+          .setDaemon(true)
+          .build();
+      for (int i = 0; i < consumerThreads; i++) {
+        consumers.add(Executors.newSingleThreadExecutor(threadFactory));
+      }
+    }
   }
 
   @Override
@@ -56,7 +141,13 @@ public class SchedulerApiaryRunner implements ApplicationRunner {
     log.info("Starting application runner");
     while (running.get()) {
       try {
-        schedulerApiary.scheduleBeekeeperEvent();
+        if (groupCommitSize > 0) {
+          scheduleGroup();
+        } else if (consumers.isEmpty()) {
+          schedulerApiary.scheduleBeekeeperEvent();
+        } else {
+          scheduleOnConsumers();
+        }
       } catch (Exception e) {
         log.error("Error while scheduling path", e);
       }
@@ -65,17 +156,103 @@ public class SchedulerApiaryRunner implements ApplicationRunner {
     lock.unlock();
   }
 
+  private void scheduleGroup() {
+    List<BeekeeperEvent> beekeeperEvents = schedulerApiary.readBeekeeperEvents(groupCommitSize);
+    if (beekeeperEvents.isEmpty()) {
+      return;
+    }
+    List<BeekeeperEvent> scheduledEvents = Collections.emptyList();
+    try {
+      schedulerApiary.scheduleAll(beekeeperEvents);
+      scheduledEvents = beekeeperEvents;
+    } catch (RuntimeException e) {
+      log.warn("Error while scheduling a group of {} events, scheduling them one at a time", beekeeperEvents.size(), e);
+      scheduledEvents = scheduleEach(beekeeperEvents);
+    } finally {
+      schedulerApiary.acknowledge(beekeeperEvents, scheduledEvents);
+    }
+  }
+
+  private List<BeekeeperEvent> scheduleEach(List<BeekeeperEvent> beekeeperEvents) {
+    Set<String> failedTables = new HashSet<>();
+    List<BeekeeperEvent> scheduledEvents = new ArrayList<>(beekeeperEvents.size());
+    for (BeekeeperEvent beekeeperEvent : beekeeperEvents) {
+      String qualifiedTableName = beekeeperEvent.getQualifiedTableName();
+      if (failedTables.contains(qualifiedTableName)) {
+        continue;
+      }
+      try {
+        schedulerApiary.schedule(beekeeperEvent);
+        scheduledEvents.add(beekeeperEvent);
+      } catch (RuntimeException e) {
+        failedTables.add(qualifiedTableName);
+        log.error("Error while scheduling event", e);
+      }
+    }
+    return scheduledEvents;
+  }
+
+  private void scheduleOnConsumers() {
+    List<BeekeeperEvent> beekeeperEvents = schedulerApiary.readBeekeeperEvents();
+    if (beekeeperEvents.isEmpty()) {
+      return;
+    }
+    Set<String> failedTables = ConcurrentHashMap.newKeySet();
+    Map<BeekeeperEvent, Future<?>> futures = new LinkedHashMap<>();
+    for (BeekeeperEvent beekeeperEvent : beekeeperEvents) {
+      String qualifiedTableName = beekeeperEvent.getQualifiedTableName();
+      futures.put(beekeeperEvent, consumer(qualifiedTableName).submit(() -> {
+        if (failedTables.contains(qualifiedTableName)) {
+          throw new BeekeeperException(
+              format("Not scheduling event for %s after an earlier event failed", qualifiedTableName));
+        }
+        try {
+          schedulerApiary.schedule(beekeeperEvent);
+        } catch (RuntimeException e) {
+          failedTables.add(qualifiedTableName);
+          throw e;
+        }
+      }));
+    }
+
+    List<BeekeeperEvent> scheduledEvents = new ArrayList<>(beekeeperEvents.size());
+    try {
+      for (Map.Entry<BeekeeperEvent, Future<?>> future : futures.entrySet()) {
+        try {
+          future.getValue().get();
+          scheduledEvents.add(future.getKey());
+        } catch (ExecutionException e) {
+          log.error("Error while scheduling event", e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while waiting for events to be scheduled");
+    } finally {
+      schedulerApiary.acknowledge(beekeeperEvents, scheduledEvents);
+    }
+  }
+
+  private ExecutorService consumer(String qualifiedTableName) {
+    return consumers.get(Math.floorMod(qualifiedTableName.hashCode(), consumers.size()));
+  }
+
+  /**
+   * Stops reading events and waits for the events being scheduled to be scheduled and acknowledged before closing the
+   * reader.
+   */
   @PreDestroy
   public void destroy() {
     try {
       log.info("Shutting down runner");
       running.set(false);
-      if (!lock.tryLock(RUNNER_DESTROY_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      if (!lock.tryLock(destroyTimeoutSeconds, TimeUnit.SECONDS)) {
         throw new BeekeeperException("Runner taking too long to shut down");
       }
     } catch (InterruptedException e) {
       throw new BeekeeperException("Runner taking too long to shut down", e);
     } finally {
+      shutdownConsumers();
       try {
         schedulerApiary.close();
       } catch (IOException e) {
@@ -84,4 +261,10 @@ public class SchedulerApiaryRunner implements ApplicationRunner {
     }
     log.info("Runner is shutdown");
   }
+
+  private void shutdownConsumers() {
+    // the runner waits for every event it hands to the consumers, so they are idle once it has stopped; when it has
+    // not stopped in time its next hand over is rejected
+    consumers.forEach(ExecutorService::shutdown);
+  }
 }
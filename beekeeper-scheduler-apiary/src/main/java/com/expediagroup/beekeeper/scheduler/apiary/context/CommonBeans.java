@@ -27,6 +27,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.retry.annotation.EnableRetry;
 
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+
 import com.expedia.apiary.extensions.receiver.common.event.AddPartitionEvent;
 import com.expedia.apiary.extensions.receiver.common.event.AlterPartitionEvent;
 import com.expedia.apiary.extensions.receiver.common.event.AlterTableEvent;
@@ -50,6 +52,8 @@ import com.expediagroup.beekeeper.scheduler.apiary.handler.MessageEventHandler;
 import com.expediagroup.beekeeper.scheduler.apiary.messaging.BeekeeperEventReader;
 import com.expediagroup.beekeeper.scheduler.apiary.messaging.MessageReaderAdapter;
 import com.expediagroup.beekeeper.scheduler.apiary.messaging.RetryingMessageReader;
+import com.expediagroup.beekeeper.scheduler.apiary.messaging.SqsMessageAcknowledger;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
 import com.expediagroup.beekeeper.scheduler.service.SchedulerService;
 
 @Configuration
@@ -76,15 +80,23 @@ public class CommonBeans {
     return new RetryingMessageReader(messageReader);
   }
 
+  @Bean
+  public TableLifecyclePolicyCache tableLifecyclePolicyCache(
+      @Value("${properties.beekeeper.table-policy-cache-size}") int maxSize) {
+    return new TableLifecyclePolicyCache(maxSize);
+  }
+
   @Bean(name = "unreferencedHousekeepingPathGenerator")
   public HousekeepingEntityGenerator unreferencedHousekeepingPathGenerator(
-      @Value("${properties.beekeeper.default-cleanup-delay}") String cleanupDelay) {
-    return new UnreferencedHousekeepingPathGenerator(cleanupDelay);
+      @Value("${properties.beekeeper.default-cleanup-delay}") String cleanupDelay,
+      TableLifecyclePolicyCache policyCache) {
+    return new UnreferencedHousekeepingPathGenerator(cleanupDelay, policyCache);
   }
 
   @Bean(name = "unreferencedHousekeepingPathMessageEventHandler")
   public MessageEventHandler unreferencedHousekeepingPathMessageEventHandler(
-      @Qualifier("unreferencedHousekeepingPathGenerator") HousekeepingEntityGenerator generator) {
+      @Qualifier("unreferencedHousekeepingPathGenerator") HousekeepingEntityGenerator generator,
+      TableLifecyclePolicyCache policyCache) {
     List<Class<? extends ListenerEvent>> eventClasses = List.of(
         AlterPartitionEvent.class,
         AlterTableEvent.class,
@@ -95,8 +107,8 @@ public class CommonBeans {
     List<ListenerEventFilter> filters = List.of(
         new EventTypeListenerEventFilter(eventClasses),
         new LocationOnlyUpdateListenerEventFilter(),
-        new TableParameterListenerEventFilter(),
-        new WhitelistedListenerEventFilter()
+        new TableParameterListenerEventFilter(policyCache),
+        new WhitelistedListenerEventFilter(policyCache)
     );
 
     return new MessageEventHandler(generator, filters);
@@ -104,13 +116,15 @@ public class CommonBeans {
 
   @Bean(name = "expiredHousekeepingMetadataGenerator")
   public HousekeepingEntityGenerator expiredHousekeepingMetadataGenerator(
-      @Value("${properties.beekeeper.default-expiration-delay}") String cleanupDelay) {
-    return new ExpiredHousekeepingMetadataGenerator(cleanupDelay);
+      @Value("${properties.beekeeper.default-expiration-delay}") String cleanupDelay,
+      TableLifecyclePolicyCache policyCache) {
+    return new ExpiredHousekeepingMetadataGenerator(cleanupDelay, policyCache);
   }
 
   @Bean(name = "expiredHousekeepingMetadataMessageEventHandler")
   public MessageEventHandler expiredHousekeepingMetadataMessageEventHandler(
-      @Qualifier("expiredHousekeepingMetadataGenerator") HousekeepingEntityGenerator generator) {
+      @Qualifier("expiredHousekeepingMetadataGenerator") HousekeepingEntityGenerator generator,
+      TableLifecyclePolicyCache policyCache) {
     List<Class<? extends ListenerEvent>> eventClasses = List.of(
         CreateTableEvent.class,
         AlterTableEvent.class,
@@ -120,7 +134,7 @@ public class CommonBeans {
 
     List<ListenerEventFilter> filters = List.of(
         new EventTypeListenerEventFilter(eventClasses),
-        new TableParameterListenerEventFilter()
+        new TableParameterListenerEventFilter(policyCache)
     );
 
     return new MessageEventHandler(generator, filters);
@@ -130,13 +144,22 @@ public class CommonBeans {
   public BeekeeperEventReader eventReader(
       @Qualifier("retryingMessageReader") MessageReader messageReader,
       @Qualifier("unreferencedHousekeepingPathMessageEventHandler") MessageEventHandler unreferencedHousekeepingPathMessageEventHandler,
-      @Qualifier("expiredHousekeepingMetadataMessageEventHandler") MessageEventHandler expiredHousekeepingMetadataMessageEventHandler
+      @Qualifier("expiredHousekeepingMetadataMessageEventHandler") MessageEventHandler expiredHousekeepingMetadataMessageEventHandler,
+      @Value("${properties.apiary.queue-url}") String queueUrl,
+      @Value("${properties.apiary.batch-size}") int batchSize,
+      @Value("${properties.apiary.visibility-timeout-seconds}") int visibilityTimeoutSeconds,
+      @Value("${properties.apiary.wait-time-seconds}") int waitTimeSeconds
   ) {
     List<MessageEventHandler> handlers = List.of(
         unreferencedHousekeepingPathMessageEventHandler,
         expiredHousekeepingMetadataMessageEventHandler
     );
 
-    return new MessageReaderAdapter(messageReader, handlers);
+    if (batchSize <= 1) {
+      return new MessageReaderAdapter(messageReader, handlers);
+    }
+    SqsMessageAcknowledger acknowledger = new SqsMessageAcknowledger(AmazonSQSClientBuilder.defaultClient(), queueUrl,
+        visibilityTimeoutSeconds, waitTimeSeconds);
+    return new MessageReaderAdapter(messageReader, handlers, acknowledger, batchSize);
   }
 }
@@ -15,10 +15,13 @@
  */
 package com.expediagroup.beekeeper.scheduler.apiary.filter;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
+import com.expedia.apiary.extensions.receiver.common.event.EventType;
 import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
@@ -26,15 +29,23 @@ import com.expediagroup.beekeeper.core.model.LifecycleEventType;
 @Component
 public class EventTypeListenerEventFilter implements ListenerEventFilter {
 
-  private final List<Class<? extends ListenerEvent>> eventClasses;
+  private final Set<EventType> eventTypes = EnumSet.noneOf(EventType.class);
 
   public EventTypeListenerEventFilter(List<Class<? extends ListenerEvent>> eventClasses) {
-    this.eventClasses = eventClasses;
+    for (EventType eventType : EventType.values()) {
+      if (eventClasses.contains(eventType.eventClass())) {
+        eventTypes.add(eventType);
+      }
+    }
   }
 
   @Override
   public boolean isFiltered(ListenerEvent listenerEvent, LifecycleEventType lifecycleEventType) {
-    Class<? extends ListenerEvent> eventClass = listenerEvent.getEventType().eventClass();
-    return !eventClasses.contains(eventClass);
+    return isFiltered(listenerEvent.getEventType());
+  }
+
+  @Override
+  public boolean isFiltered(EventType eventType) {
+    return !eventTypes.contains(eventType);
   }
 }
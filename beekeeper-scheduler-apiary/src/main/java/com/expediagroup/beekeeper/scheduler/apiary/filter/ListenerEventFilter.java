@@ -15,6 +15,7 @@
  */
 package com.expediagroup.beekeeper.scheduler.apiary.filter;
 
+import com.expedia.apiary.extensions.receiver.common.event.EventType;
 import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
@@ -22,4 +23,12 @@ import com.expediagroup.beekeeper.core.model.LifecycleEventType;
 public interface ListenerEventFilter {
 
   boolean isFiltered(ListenerEvent listenerEvent, LifecycleEventType lifecycleEventType);
+
+  /**
+   * Whether every event of a type is filtered, whatever its content. Used to build the routing table of the reader
+   * once, so that events are only handed to the handlers which can accept them.
+   */
+  default boolean isFiltered(EventType eventType) {
+    return false;
+  }
 }
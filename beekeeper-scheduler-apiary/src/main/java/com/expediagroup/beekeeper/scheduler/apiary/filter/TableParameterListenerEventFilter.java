@@ -15,25 +15,28 @@
  */
 package com.expediagroup.beekeeper.scheduler.apiary.filter;
 
-import java.util.Map;
-
 import org.springframework.stereotype.Component;
 
 import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
 
 @Component
 public class TableParameterListenerEventFilter implements ListenerEventFilter {
 
-  @Override
-  public boolean isFiltered(ListenerEvent listenerEvent, LifecycleEventType lifecycleEventType) {
-    Map<String, String> tableParameters = listenerEvent.getTableParameters();
+  private final TableLifecyclePolicyCache policyCache;
+
+  public TableParameterListenerEventFilter() {
+    this(new TableLifecyclePolicyCache());
+  }
 
-    if (tableParameters == null) {
-      return true;
-    }
+  public TableParameterListenerEventFilter(TableLifecyclePolicyCache policyCache) {
+    this.policyCache = policyCache;
+  }
 
-    return !Boolean.parseBoolean(tableParameters.get(lifecycleEventType.getTableParameterName()));
+  @Override
+  public boolean isFiltered(ListenerEvent listenerEvent, LifecycleEventType lifecycleEventType) {
+    return !policyCache.get(listenerEvent).isEnabled(lifecycleEventType);
   }
 }
@@ -18,38 +18,41 @@ package com.expediagroup.beekeeper.scheduler.apiary.filter;
 import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_PARTITION;
 import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_TABLE;
 
-import java.util.Arrays;
-import java.util.Map;
-
 import org.springframework.stereotype.Component;
 
 import com.expedia.apiary.extensions.receiver.common.event.EventType;
 import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicy;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
 
 @Component
 public class WhitelistedListenerEventFilter implements ListenerEventFilter {
 
   public static final String BEEKEEPER_HIVE_EVENT_WHITELIST = "beekeeper.hive.event.whitelist";
 
-  @Override
-  public boolean isFiltered(ListenerEvent listenerEvent, LifecycleEventType lifecycleEventType) {
-    Map<String, String> tableParameters = listenerEvent.getTableParameters();
-    if (tableParameters != null && tableParameters.get(BEEKEEPER_HIVE_EVENT_WHITELIST) != null) {
-      return !isWhitelisted(listenerEvent, tableParameters.get(BEEKEEPER_HIVE_EVENT_WHITELIST));
-    }
-    return !isDefaultBehaviour(listenerEvent);
+  private final TableLifecyclePolicyCache policyCache;
+
+  public WhitelistedListenerEventFilter() {
+    this(new TableLifecyclePolicyCache());
   }
 
-  private boolean isWhitelisted(ListenerEvent listenerEvent, String whitelist) {
-    return Arrays.stream(whitelist.split(","))
-        .map(String::trim)
-        .anyMatch(whitelistedEvent -> whitelistedEvent.equalsIgnoreCase(listenerEvent.getEventType().toString()));
+  public WhitelistedListenerEventFilter(TableLifecyclePolicyCache policyCache) {
+    this.policyCache = policyCache;
   }
 
-  private boolean isDefaultBehaviour(ListenerEvent listenerEvent) {
+  @Override
+  public boolean isFiltered(ListenerEvent listenerEvent, LifecycleEventType lifecycleEventType) {
+    TableLifecyclePolicy policy = policyCache.get(listenerEvent);
     EventType eventType = listenerEvent.getEventType();
+    if (policy.hasEventWhitelist()) {
+      return !policy.isWhitelisted(eventType);
+    }
+    return !isDefaultBehaviour(eventType);
+  }
+
+  private boolean isDefaultBehaviour(EventType eventType) {
     return eventType == ALTER_PARTITION || eventType == ALTER_TABLE;
   }
 }
@@ -45,6 +45,7 @@ import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
 import com.expediagroup.beekeeper.scheduler.apiary.generator.utils.CleanupDelayExtractor;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
 
 public class ExpiredHousekeepingMetadataGenerator implements HousekeepingEntityGenerator {
 
@@ -61,6 +62,11 @@ public class ExpiredHousekeepingMetadataGenerator implements HousekeepingEntityG
         Clock.systemDefaultZone());
   }
 
+  public ExpiredHousekeepingMetadataGenerator(String cleanupDelay, TableLifecyclePolicyCache policyCache) {
+    this(new CleanupDelayExtractor(EXPIRED_DATA_RETENTION_PERIOD_PROPERTY_KEY, cleanupDelay, policyCache),
+        Clock.systemDefaultZone());
+  }
+
   @VisibleForTesting
   ExpiredHousekeepingMetadataGenerator(CleanupDelayExtractor cleanupDelayExtractor, Clock clock) {
     this.cleanupDelayExtractor = cleanupDelayExtractor;
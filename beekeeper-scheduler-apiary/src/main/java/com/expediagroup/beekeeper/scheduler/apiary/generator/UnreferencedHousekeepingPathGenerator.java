@@ -42,6 +42,7 @@ import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
 import com.expediagroup.beekeeper.scheduler.apiary.generator.utils.CleanupDelayExtractor;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
 
 public class UnreferencedHousekeepingPathGenerator implements HousekeepingEntityGenerator {
 
@@ -58,6 +59,11 @@ public class UnreferencedHousekeepingPathGenerator implements HousekeepingEntity
         Clock.systemDefaultZone());
   }
 
+  public UnreferencedHousekeepingPathGenerator(String cleanupDelay, TableLifecyclePolicyCache policyCache) {
+    this(new CleanupDelayExtractor(UNREFERENCED_DATA_RETENTION_PERIOD_PROPERTY_KEY, cleanupDelay, policyCache),
+        Clock.systemDefaultZone());
+  }
+
   @VisibleForTesting
   UnreferencedHousekeepingPathGenerator(CleanupDelayExtractor cleanupDelayExtractor, Clock clock) {
     this.cleanupDelayExtractor = cleanupDelayExtractor;
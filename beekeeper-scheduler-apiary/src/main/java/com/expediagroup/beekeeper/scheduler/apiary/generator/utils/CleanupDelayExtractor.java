@@ -19,6 +19,8 @@ import static java.lang.String.format;
 
 import java.time.Duration;
 import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,15 +28,22 @@ import org.slf4j.LoggerFactory;
 import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
 
 public class CleanupDelayExtractor {
 
   private static final Logger log = LoggerFactory.getLogger(CleanupDelayExtractor.class);
   private final String propertyKey;
   private final Duration defaultValue;
+  private final TableLifecyclePolicyCache policyCache;
 
   public CleanupDelayExtractor(String propertyKey, String defaultValue) {
+    this(propertyKey, defaultValue, new TableLifecyclePolicyCache());
+  }
+
+  public CleanupDelayExtractor(String propertyKey, String defaultValue, TableLifecyclePolicyCache policyCache) {
     this.propertyKey = propertyKey;
+    this.policyCache = policyCache;
     try {
       this.defaultValue = Duration.parse(defaultValue);
     } catch (DateTimeParseException e) {
@@ -44,17 +53,19 @@ public class CleanupDelayExtractor {
   }
 
   public Duration extractCleanupDelay(ListenerEvent listenerEvent) {
-    String tableCleanupDelay = listenerEvent.getTableParameters().get(propertyKey);
-    try {
-      Duration value = tableCleanupDelay == null ? defaultValue : Duration.parse(tableCleanupDelay);
-      log.info("Using value '{}' for key {} for table {}.{}.", value, propertyKey, listenerEvent.getDbName(),
-              listenerEvent.getTableName());
-      return value;
-    } catch (DateTimeParseException | NullPointerException e) {
+    Optional<Duration> tableCleanupDelay = policyCache.get(listenerEvent).getDuration(propertyKey);
+    if (tableCleanupDelay.isPresent()) {
+      log.debug("Using value '{}' for key {} for table {}.{}.", tableCleanupDelay.get(), propertyKey,
+          listenerEvent.getDbName(), listenerEvent.getTableName());
+      return tableCleanupDelay.get();
+    }
+    Map<String, String> tableParameters = listenerEvent.getTableParameters();
+    String overriddenDelay = tableParameters == null ? null : tableParameters.get(propertyKey);
+    if (overriddenDelay != null) {
       log.warn(
               "Overridden delay value '{}' for key '{}' cannot be parsed to a Duration for table '{}.{}'. Using default setting {}.",
-              tableCleanupDelay, propertyKey, listenerEvent.getDbName(), listenerEvent.getTableName(), defaultValue);
-      return defaultValue;
+              overriddenDelay, propertyKey, listenerEvent.getDbName(), listenerEvent.getTableName(), defaultValue);
     }
+    return defaultValue;
   }
 }
@@ -21,6 +21,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.expedia.apiary.extensions.receiver.common.event.EventType;
 import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
 
@@ -56,9 +57,25 @@ public class MessageEventHandler {
     return generateHousekeepingEntities(listenerEvent);
   }
 
+  /**
+   * Whether events of a type can be turned into housekeeping entities by this handler.
+   */
+  public boolean accepts(EventType eventType) {
+    for (ListenerEventFilter filter : filters) {
+      if (filter.isFiltered(eventType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private boolean shouldFilterMessage(ListenerEvent listenerEvent) {
-    return filters.stream()
-        .anyMatch(filter -> filter.isFiltered(listenerEvent, lifecycleEventType));
+    for (ListenerEventFilter filter : filters) {
+      if (filter.isFiltered(listenerEvent, lifecycleEventType)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private List<HousekeepingEntity> generateHousekeepingEntities(ListenerEvent listenerEvent) {
@@ -16,6 +16,7 @@
 package com.expediagroup.beekeeper.scheduler.apiary.messaging;
 
 import java.io.Closeable;
+import java.util.List;
 import java.util.Optional;
 
 import com.expediagroup.beekeeper.scheduler.apiary.model.BeekeeperEvent;
@@ -25,4 +26,23 @@ public interface BeekeeperEventReader extends Closeable {
   Optional<BeekeeperEvent> read();
 
   void delete(BeekeeperEvent beekeeperEvent);
+
+  /**
+   * Reads the events of a batch of messages, which are kept from being redelivered until they are deleted or
+   * released.
+   *
+   * @return The events to schedule, empty if no message was read or none of them needs scheduling.
+   */
+  default List<BeekeeperEvent> readBatch() {
+    return read().map(List::of).orElse(List.of());
+  }
+
+  default void delete(List<BeekeeperEvent> beekeeperEvents) {
+    beekeeperEvents.forEach(this::delete);
+  }
+
+  /**
+   * Stops keeping the messages of events which could not be scheduled from being redelivered.
+   */
+  default void release(List<BeekeeperEvent> beekeeperEvents) {}
 }
@@ -15,19 +15,26 @@
  */
 package com.expediagroup.beekeeper.scheduler.apiary.messaging;
 
+import static java.lang.String.format;
+
 import java.io.IOException;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.expedia.apiary.extensions.receiver.common.event.EventType;
+import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
 import com.expedia.apiary.extensions.receiver.common.messaging.MessageReader;
 
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
 import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
 import com.expediagroup.beekeeper.scheduler.apiary.handler.MessageEventHandler;
 import com.expediagroup.beekeeper.scheduler.apiary.model.BeekeeperEvent;
@@ -37,12 +44,39 @@ public class MessageReaderAdapter implements BeekeeperEventReader {
   private static final Logger log = LoggerFactory.getLogger(MessageReaderAdapter.class);
 
   private final MessageReader delegate;
-  private final List<MessageEventHandler> handlers;
+  private final Map<EventType, List<MessageEventHandler>> handlersByEventType;
+  private final SqsMessageAcknowledger acknowledger;
+  private final int batchSize;
 
   public MessageReaderAdapter(MessageReader delegate,
       List<MessageEventHandler> handlers) {
+    this(delegate, handlers, null, 1);
+  }
+
+  /**
+   * @implNote The handlers which accept each {@link EventType} are looked up once here, so that an event is only
+   * handed to those handlers, one after the other on the reading thread.
+   * @param acknowledger Deletes the messages of a batch together and keeps them invisible while they are processed
+   * @param batchSize Maximum number of messages read by {@link #readBatch()}
+   */
+  public MessageReaderAdapter(MessageReader delegate, List<MessageEventHandler> handlers,
+      SqsMessageAcknowledger acknowledger, int batchSize) {
+    if (batchSize < 1 || batchSize > SqsMessageAcknowledger.MAX_ENTRIES_PER_REQUEST) {
+      throw new BeekeeperException(format("Batch size must be between 1 and %s; was %s.",
+          SqsMessageAcknowledger.MAX_ENTRIES_PER_REQUEST, batchSize));
+    }
     this.delegate = delegate;
-    this.handlers = handlers;
+    handlersByEventType = new EnumMap<>(EventType.class);
+    for (EventType eventType : EventType.values()) {
+      List<MessageEventHandler> eventTypeHandlers = handlers.stream()
+          .filter(handler -> handler.accepts(eventType))
+          .collect(Collectors.toUnmodifiableList());
+      if (!eventTypeHandlers.isEmpty()) {
+        handlersByEventType.put(eventType, eventTypeHandlers);
+      }
+    }
+    this.acknowledger = acknowledger;
+    this.batchSize = batchSize;
   }
 
   @Override
@@ -55,10 +89,7 @@ public class MessageReaderAdapter implements BeekeeperEventReader {
 
     MessageEvent message = messageEvent.get();
 
-    List<HousekeepingEntity> housekeepingEntities = handlers.parallelStream()
-        .map(eventHandler -> eventHandler.handleMessage(message))
-        .flatMap(Collection::stream)
-        .collect(Collectors.toList());
+    List<HousekeepingEntity> housekeepingEntities = handle(message);
 
     if (housekeepingEntities.size() <= 0) {
       delete(new BeekeeperEvent(Collections.emptyList(), message));
@@ -68,6 +99,50 @@ public class MessageReaderAdapter implements BeekeeperEventReader {
     return Optional.of(new BeekeeperEvent(housekeepingEntities, message));
   }
 
+  /**
+   * @implNote Receives up to {@code batchSize} messages with a single request to SQS, so that a batch waits for at
+   * most one long poll. The messages which do not need scheduling are deleted together, the others are tracked by the
+   * {@link SqsMessageAcknowledger} until they are deleted or released.
+   */
+  @Override
+  public List<BeekeeperEvent> readBatch() {
+    if (acknowledger == null) {
+      return BeekeeperEventReader.super.readBatch();
+    }
+    List<MessageEvent> messages = acknowledger.receive(batchSize);
+    List<BeekeeperEvent> beekeeperEvents = new ArrayList<>(messages.size());
+    List<MessageEvent> ignoredMessages = new ArrayList<>();
+    for (MessageEvent message : messages) {
+      List<HousekeepingEntity> housekeepingEntities = handle(message);
+      if (housekeepingEntities.isEmpty()) {
+        ignoredMessages.add(message);
+      } else {
+        beekeeperEvents.add(new BeekeeperEvent(housekeepingEntities, message));
+      }
+    }
+    if (!ignoredMessages.isEmpty()) {
+      acknowledger.delete(ignoredMessages);
+    }
+    return beekeeperEvents;
+  }
+
+  private List<HousekeepingEntity> handle(MessageEvent message) {
+    ListenerEvent listenerEvent = message.getEvent();
+    List<MessageEventHandler> eventTypeHandlers = listenerEvent == null ? null
+        : handlersByEventType.get(listenerEvent.getEventType());
+    if (eventTypeHandlers == null) {
+      return Collections.emptyList();
+    }
+    if (eventTypeHandlers.size() == 1) {
+      return eventTypeHandlers.get(0).handleMessage(message);
+    }
+    List<HousekeepingEntity> housekeepingEntities = new ArrayList<>();
+    for (MessageEventHandler eventHandler : eventTypeHandlers) {
+      housekeepingEntities.addAll(eventHandler.handleMessage(message));
+    }
+    return housekeepingEntities;
+  }
+
   @Override
   public void delete(BeekeeperEvent beekeeperEvent) {
     try {
@@ -78,8 +153,36 @@ public class MessageReaderAdapter implements BeekeeperEventReader {
     }
   }
 
+  @Override
+  public void delete(List<BeekeeperEvent> beekeeperEvents) {
+    if (acknowledger == null) {
+      BeekeeperEventReader.super.delete(beekeeperEvents);
+      return;
+    }
+    acknowledger.delete(messageEvents(beekeeperEvents));
+  }
+
+  @Override
+  public void release(List<BeekeeperEvent> beekeeperEvents) {
+    if (acknowledger != null) {
+      acknowledger.release(messageEvents(beekeeperEvents));
+    }
+  }
+
+  private List<MessageEvent> messageEvents(List<BeekeeperEvent> beekeeperEvents) {
+    return beekeeperEvents.stream()
+        .map(BeekeeperEvent::getMessageEvent)
+        .collect(Collectors.toList());
+  }
+
   @Override
   public void close() throws IOException {
-    delegate.close();
+    try {
+      delegate.close();
+    } finally {
+      if (acknowledger != null) {
+        acknowledger.close();
+      }
+    }
   }
 }
@@ -0,0 +1,214 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.scheduler.apiary.messaging;
+
+import static java.lang.String.format;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.expedia.apiary.extensions.receiver.common.error.SerDeException;
+import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
+import com.expedia.apiary.extensions.receiver.common.messaging.JsonMetaStoreEventDeserializer;
+import com.expedia.apiary.extensions.receiver.common.messaging.MessageDeserializer;
+import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
+import com.expedia.apiary.extensions.receiver.sqs.messaging.DefaultSqsMessageDeserializer;
+import com.expedia.apiary.extensions.receiver.sqs.messaging.SqsMessageProperty;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+/**
+ * Receives and deletes SQS messages in batches and keeps the messages which are still being processed invisible to
+ * other consumers.
+ *
+ * @implNote Messages are tracked from the moment they are received until they are deleted or released. A single
+ * heartbeat thread resets the visibility timeout of every tracked message to {@code visibilityTimeoutSeconds} every
+ * half of that timeout, with one {@code ChangeMessageVisibilityBatch} request per 10 messages. Messages which are
+ * released without being deleted become visible again once their current visibility timeout expires.
+ */
+public class SqsMessageAcknowledger implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(SqsMessageAcknowledger.class);
+
+  static final int MAX_ENTRIES_PER_REQUEST = 10;
+
+  private final AmazonSQS amazonSQS;
+  private final String queueUrl;
+  private final int visibilityTimeoutSeconds;
+  private final int waitTimeSeconds;
+  private final MessageDeserializer messageDeserializer;
+  private final Set<MessageEvent> inFlightMessages = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService heartbeat;
+
+  /**
+   * @param amazonSQS Client which is shut down when this is closed
+   */
+  public SqsMessageAcknowledger(AmazonSQS amazonSQS, String queueUrl, int visibilityTimeoutSeconds,
+      int waitTimeSeconds) {
+    this(amazonSQS, queueUrl, visibilityTimeoutSeconds, waitTimeSeconds, defaultMessageDeserializer());
+  }
+
+  public SqsMessageAcknowledger(AmazonSQS amazonSQS, String queueUrl, int visibilityTimeoutSeconds,
+      int waitTimeSeconds, MessageDeserializer messageDeserializer) {
+    if (visibilityTimeoutSeconds < 2) {
+      throw new BeekeeperException(
+          format("Visibility timeout must be at least 2 seconds; was %s.", visibilityTimeoutSeconds));
+    }
+    this.amazonSQS = amazonSQS;
+    this.queueUrl = queueUrl;
+    this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+    this.waitTimeSeconds = waitTimeSeconds;
+    this.messageDeserializer = messageDeserializer;
+    heartbeat = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("sqs-visibility-heartbeat-%d")
+        .setDaemon(true)
+        .build());
+    long heartbeatSeconds = visibilityTimeoutSeconds / 2;
+    heartbeat.scheduleWithFixedDelay(this::extendVisibility, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+  }
+
+  // the same deserializer as the one the Apiary SqsMessageReader uses by default
+  private static MessageDeserializer defaultMessageDeserializer() {
+    ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    return new DefaultSqsMessageDeserializer(new JsonMetaStoreEventDeserializer(mapper), mapper);
+  }
+
+  /**
+   * Receives up to {@code maxMessages} messages with a single request and tracks them straight away, so that a batch
+   * waits for at most one long poll and no received message is held without its visibility being extended. Messages
+   * which cannot be deserialized are logged and left on the queue.
+   *
+   * @implNote The messages are received with {@code visibilityTimeoutSeconds} rather than the default of the queue,
+   * so that they stay invisible until the first heartbeat.
+   */
+  public List<MessageEvent> receive(int maxMessages) {
+    List<Message> messages = amazonSQS
+        .receiveMessage(new ReceiveMessageRequest(queueUrl)
+            .withMaxNumberOfMessages(maxMessages)
+            .withWaitTimeSeconds(waitTimeSeconds)
+            .withVisibilityTimeout(visibilityTimeoutSeconds))
+        .getMessages();
+    List<MessageEvent> messageEvents = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      try {
+        ListenerEvent listenerEvent = messageDeserializer.unmarshal(message.getBody());
+        messageEvents.add(new MessageEvent(listenerEvent,
+            Collections.singletonMap(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE, message.getReceiptHandle())));
+      } catch (SerDeException e) {
+        log.error("Could not deserialize message {}: ", message.getMessageId(), e);
+      }
+    }
+    track(messageEvents);
+    return messageEvents;
+  }
+
+  /**
+   * Keeps the messages invisible until they are deleted or released.
+   */
+  public void track(Collection<MessageEvent> messageEvents) {
+    inFlightMessages.addAll(messageEvents);
+  }
+
+  /**
+   * Stops keeping the messages invisible, so that they are received again once their visibility timeout expires.
+   */
+  public void release(Collection<MessageEvent> messageEvents) {
+    inFlightMessages.removeAll(messageEvents);
+  }
+
+  /**
+   * Deletes the messages from the queue with one request per 10 messages. Failures are logged, the messages which
+   * could not be deleted are received again once their visibility timeout expires.
+   */
+  public void delete(List<MessageEvent> messageEvents) {
+    release(messageEvents);
+    for (List<MessageEvent> batch : Lists.partition(messageEvents, MAX_ENTRIES_PER_REQUEST)) {
+      List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        entries.add(new DeleteMessageBatchRequestEntry(String.valueOf(i), receiptHandle(batch.get(i))));
+      }
+      try {
+        logFailures("delete", amazonSQS
+            .deleteMessageBatch(new DeleteMessageBatchRequest(queueUrl, entries))
+            .getFailed());
+        log.debug("{} messages deleted successfully", batch.size());
+      } catch (Exception e) {
+        log.error("Could not delete messages from queue: ", e);
+      }
+    }
+  }
+
+  void extendVisibility() {
+    List<MessageEvent> messageEvents = new ArrayList<>(inFlightMessages);
+    for (List<MessageEvent> batch : Lists.partition(messageEvents, MAX_ENTRIES_PER_REQUEST)) {
+      List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        entries.add(new ChangeMessageVisibilityBatchRequestEntry(String.valueOf(i), receiptHandle(batch.get(i)))
+            .withVisibilityTimeout(visibilityTimeoutSeconds));
+      }
+      try {
+        logFailures("extend the visibility of", amazonSQS
+            .changeMessageVisibilityBatch(new ChangeMessageVisibilityBatchRequest(queueUrl, entries))
+            .getFailed());
+      } catch (Exception e) {
+        log.warn("Could not extend the visibility of messages: ", e);
+      }
+    }
+  }
+
+  private void logFailures(String action, List<BatchResultErrorEntry> failures) {
+    for (BatchResultErrorEntry failure : failures) {
+      log.error("Could not {} message {}: {} {}", action, failure.getId(), failure.getCode(), failure.getMessage());
+    }
+  }
+
+  private String receiptHandle(MessageEvent messageEvent) {
+    return messageEvent.getMessageProperties().get(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE);
+  }
+
+  @Override
+  public void close() {
+    try {
+      heartbeat.shutdownNow();
+    } finally {
+      amazonSQS.shutdown();
+    }
+  }
+}
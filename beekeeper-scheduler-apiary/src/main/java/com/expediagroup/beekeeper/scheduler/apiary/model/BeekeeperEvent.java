@@ -38,4 +38,12 @@ public class BeekeeperEvent {
   public MessageEvent getMessageEvent() {
     return messageEvent;
   }
+
+  /**
+   * @return {@code databaseName.tableName} of the table the event is about.
+   */
+  public String getQualifiedTableName() {
+    HousekeepingEntity housekeepingEntity = housekeepingEntities.get(0);
+    return housekeepingEntity.getDatabaseName() + "." + housekeepingEntity.getTableName();
+  }
 }
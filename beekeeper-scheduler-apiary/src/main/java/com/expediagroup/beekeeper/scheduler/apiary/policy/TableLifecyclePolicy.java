@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.scheduler.apiary.policy;
+
+import static com.expediagroup.beekeeper.scheduler.apiary.filter.WhitelistedListenerEventFilter.BEEKEEPER_HIVE_EVENT_WHITELIST;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.expedia.apiary.extensions.receiver.common.event.EventType;
+
+import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+
+/**
+ * The Beekeeper table parameters of a table, parsed once so that the filters and generators do not parse them again
+ * for every event of the table. Only parameters starting with {@value #BEEKEEPER_PARAMETER_PREFIX} are read.
+ */
+public final class TableLifecyclePolicy {
+
+  static final String BEEKEEPER_PARAMETER_PREFIX = "beekeeper.";
+
+  static final TableLifecyclePolicy EMPTY = new TableLifecyclePolicy(null, EnumSet.noneOf(LifecycleEventType.class),
+      null, Collections.emptyMap());
+
+  private final Map<String, String> beekeeperParameters;
+  private final Set<LifecycleEventType> enabledLifecycleEventTypes;
+  private final Set<EventType> eventWhitelist;
+  private final Map<String, Duration> durations;
+
+  private TableLifecyclePolicy(Map<String, String> beekeeperParameters,
+      Set<LifecycleEventType> enabledLifecycleEventTypes, Set<EventType> eventWhitelist,
+      Map<String, Duration> durations) {
+    this.beekeeperParameters = beekeeperParameters;
+    this.enabledLifecycleEventTypes = enabledLifecycleEventTypes;
+    this.eventWhitelist = eventWhitelist;
+    this.durations = durations;
+  }
+
+  /**
+   * @param tableParameters Parameters of the table, may be {@code null}
+   */
+  public static TableLifecyclePolicy compile(Map<String, String> tableParameters) {
+    if (tableParameters == null) {
+      return EMPTY;
+    }
+    return compileBeekeeperParameters(beekeeperParameters(tableParameters));
+  }
+
+  /**
+   * @return The parameters starting with {@value #BEEKEEPER_PARAMETER_PREFIX}, which are all a policy depends on
+   */
+  static Map<String, String> beekeeperParameters(Map<String, String> tableParameters) {
+    Map<String, String> beekeeperParameters = new HashMap<>();
+    for (Map.Entry<String, String> tableParameter : tableParameters.entrySet()) {
+      String key = tableParameter.getKey();
+      if (key != null && key.startsWith(BEEKEEPER_PARAMETER_PREFIX)) {
+        beekeeperParameters.put(key, tableParameter.getValue());
+      }
+    }
+    return beekeeperParameters;
+  }
+
+  static TableLifecyclePolicy compileBeekeeperParameters(Map<String, String> tableParameters) {
+    Set<LifecycleEventType> enabledLifecycleEventTypes = EnumSet.noneOf(LifecycleEventType.class);
+    for (LifecycleEventType lifecycleEventType : LifecycleEventType.values()) {
+      if (Boolean.parseBoolean(tableParameters.get(lifecycleEventType.getTableParameterName()))) {
+        enabledLifecycleEventTypes.add(lifecycleEventType);
+      }
+    }
+
+    Set<EventType> eventWhitelist = null;
+    String whitelist = tableParameters.get(BEEKEEPER_HIVE_EVENT_WHITELIST);
+    if (whitelist != null) {
+      eventWhitelist = EnumSet.noneOf(EventType.class);
+      for (String whitelistedEvent : whitelist.split(",")) {
+        for (EventType eventType : EventType.values()) {
+          if (whitelistedEvent.trim().equalsIgnoreCase(eventType.toString())) {
+            eventWhitelist.add(eventType);
+          }
+        }
+      }
+    }
+
+    Map<String, Duration> durations = new HashMap<>();
+    for (Map.Entry<String, String> tableParameter : tableParameters.entrySet()) {
+      parseDuration(tableParameter.getValue()).ifPresent(duration -> durations.put(tableParameter.getKey(), duration));
+    }
+
+    return new TableLifecyclePolicy(tableParameters, enabledLifecycleEventTypes, eventWhitelist,
+        Collections.unmodifiableMap(durations));
+  }
+
+  private static Optional<Duration> parseDuration(String value) {
+    // only values which look like ISO-8601 durations are parsed, so that other parameters do not throw on every table
+    if (value == null || value.length() < 2 || value.indexOf('P') < 0 && value.indexOf('p') < 0) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Duration.parse(value));
+    } catch (DateTimeParseException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Whether the table parameter of a lifecycle, e.g. {@code beekeeper.remove.unreferenced.data}, is {@code true}.
+   */
+  public boolean isEnabled(LifecycleEventType lifecycleEventType) {
+    return enabledLifecycleEventTypes.contains(lifecycleEventType);
+  }
+
+  /**
+   * Whether the table has a {@code beekeeper.hive.event.whitelist} parameter.
+   */
+  public boolean hasEventWhitelist() {
+    return eventWhitelist != null;
+  }
+
+  public boolean isWhitelisted(EventType eventType) {
+    return eventWhitelist != null && eventWhitelist.contains(eventType);
+  }
+
+  /**
+   * @return The Beekeeper table parameter {@code key} parsed to a {@link Duration}, empty when it is not set or cannot
+   * be parsed
+   */
+  public Optional<Duration> getDuration(String key) {
+    return Optional.ofNullable(durations.get(key));
+  }
+
+  boolean hasBeekeeperParameters(Map<String, String> beekeeperParameters) {
+    return beekeeperParameters.equals(this.beekeeperParameters);
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.scheduler.apiary.policy;
+
+import static java.lang.String.format;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+/**
+ * Keeps the {@link TableLifecyclePolicy} of the tables seen most recently, shared by the filters and generators of
+ * the scheduler.
+ *
+ * @implNote Policies are keyed by database and table. Only the {@code beekeeper.*} parameters of an event are compared
+ * with those the cached policy was compiled from, so other parameters, however large, are neither hashed nor copied;
+ * when they differ the policy is compiled again and replaces the table's entry. The least recently used policy is
+ * evicted once {@code maxSize} policies are cached.
+ */
+public class TableLifecyclePolicyCache {
+
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private final Map<TableKey, TableLifecyclePolicy> policies;
+
+  public TableLifecyclePolicyCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public TableLifecyclePolicyCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new BeekeeperException(format("Table policy cache size must be positive; was %s.", maxSize));
+    }
+    policies = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<TableKey, TableLifecyclePolicy> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  public TableLifecyclePolicy get(ListenerEvent listenerEvent) {
+    Map<String, String> tableParameters = listenerEvent.getTableParameters();
+    if (tableParameters == null) {
+      return TableLifecyclePolicy.EMPTY;
+    }
+    Map<String, String> beekeeperParameters = TableLifecyclePolicy.beekeeperParameters(tableParameters);
+    TableKey key = new TableKey(listenerEvent.getDbName(), listenerEvent.getTableName());
+    synchronized (policies) {
+      TableLifecyclePolicy policy = policies.get(key);
+      if (policy != null && policy.hasBeekeeperParameters(beekeeperParameters)) {
+        return policy;
+      }
+    }
+    TableLifecyclePolicy policy = TableLifecyclePolicy.compileBeekeeperParameters(beekeeperParameters);
+    synchronized (policies) {
+      policies.put(key, policy);
+    }
+    return policy;
+  }
+
+  int size() {
+    synchronized (policies) {
+      return policies.size();
+    }
+  }
+
+  private static final class TableKey {
+
+    private final String databaseName;
+    private final String tableName;
+
+    private TableKey(String databaseName, String tableName) {
+      this.databaseName = databaseName;
+      this.tableName = tableName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      TableKey that = (TableKey) o;
+      return Objects.equals(databaseName, that.databaseName) && Objects.equals(tableName, that.tableName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(databaseName, tableName);
+    }
+  }
+}
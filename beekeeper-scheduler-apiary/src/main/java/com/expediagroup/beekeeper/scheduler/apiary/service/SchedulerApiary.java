@@ -18,9 +18,10 @@ package com.expediagroup.beekeeper.scheduler.apiary.service;
 import static java.lang.String.format;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -48,13 +49,111 @@ public class SchedulerApiary {
     this.schedulerServiceMap = schedulerServiceMap;
   }
 
+  /**
+   * Schedules the entities of a batch of events as a unit: the messages are deleted together once every entity of the
+   * batch has been scheduled, and none of them is deleted if one fails.
+   */
   @Transactional
   public void scheduleBeekeeperEvent() {
-    Optional<BeekeeperEvent> housekeepingEntitiesToBeScheduled = beekeeperEventReader.read();
-    if (housekeepingEntitiesToBeScheduled.isEmpty()) { return; }
-    BeekeeperEvent beekeeperEvent = housekeepingEntitiesToBeScheduled.get();
-    List<HousekeepingEntity> housekeepingEntities = beekeeperEvent.getHousekeepingEntities();
+    List<BeekeeperEvent> beekeeperEvents = beekeeperEventReader.readBatch();
+    if (beekeeperEvents.isEmpty()) { return; }
+    try {
+      for (BeekeeperEvent beekeeperEvent : beekeeperEvents) {
+        schedule(beekeeperEvent.getHousekeepingEntities());
+      }
+      beekeeperEventReader.delete(beekeeperEvents);
+    } finally {
+      beekeeperEventReader.release(beekeeperEvents);
+    }
+  }
+
+  /**
+   * Reads a batch of events to schedule with {@link #schedule(BeekeeperEvent)} and acknowledge with
+   * {@link #acknowledge(List, List)}.
+   */
+  public List<BeekeeperEvent> readBeekeeperEvents() {
+    return beekeeperEventReader.readBatch();
+  }
+
+  /**
+   * Reads batches of events until at least {@code minEvents} have been read or a read returns no events, so that they
+   * can be scheduled together with {@link #scheduleAll(List)}.
+   *
+   * @param minEvents Number of events to gather before returning
+   */
+  public List<BeekeeperEvent> readBeekeeperEvents(int minEvents) {
+    List<BeekeeperEvent> beekeeperEvents = new ArrayList<>(minEvents);
+    try {
+      List<BeekeeperEvent> batch;
+      do {
+        batch = beekeeperEventReader.readBatch();
+        beekeeperEvents.addAll(batch);
+      } while (!batch.isEmpty() && beekeeperEvents.size() < minEvents);
+    } catch (RuntimeException e) {
+      beekeeperEventReader.release(beekeeperEvents);
+      throw e;
+    }
+    return beekeeperEvents;
+  }
 
+  /**
+   * Schedules the entities of many events in one transaction, handing all the entities of a lifecycle type to its
+   * scheduler together so that they can be written in JDBC batches. The transaction is committed before this method
+   * returns, so the events can then be acknowledged with {@link #acknowledge(List, List)}.
+   */
+  @Transactional
+  public void scheduleAll(List<BeekeeperEvent> beekeeperEvents) {
+    Map<LifecycleEventType, List<HousekeepingEntity>> entitiesByType = new EnumMap<>(LifecycleEventType.class);
+    for (BeekeeperEvent beekeeperEvent : beekeeperEvents) {
+      for (HousekeepingEntity entity : beekeeperEvent.getHousekeepingEntities()) {
+        try {
+          LifecycleEventType eventType = LifecycleEventType.valueOf(entity.getLifecycleType());
+          entitiesByType.computeIfAbsent(eventType, type -> new ArrayList<>()).add(entity);
+        } catch (Exception e) {
+          throw new BeekeeperException(format(
+              "Unable to schedule %s deletion for entity, these messages will go back on the queue",
+              entity.getLifecycleType()),
+              e);
+        }
+      }
+    }
+    for (Map.Entry<LifecycleEventType, List<HousekeepingEntity>> entities : entitiesByType.entrySet()) {
+      try {
+        schedulerServiceMap.get(entities.getKey()).scheduleForHousekeeping(entities.getValue());
+      } catch (Exception e) {
+        throw new BeekeeperException(format(
+            "Unable to schedule %s deletion for %s entities, these messages will go back on the queue",
+            entities.getKey(), entities.getValue().size()),
+            e);
+      }
+    }
+  }
+
+  /**
+   * Schedules the entities of a single event in its own transaction.
+   */
+  @Transactional
+  public void schedule(BeekeeperEvent beekeeperEvent) {
+    schedule(beekeeperEvent.getHousekeepingEntities());
+  }
+
+  /**
+   * Deletes the messages of the events which were scheduled and lets the others go back on the queue.
+   *
+   * @param beekeeperEvents Events read by {@link #readBeekeeperEvents()}
+   * @param scheduledEvents Events which were scheduled
+   */
+  public void acknowledge(List<BeekeeperEvent> beekeeperEvents, List<BeekeeperEvent> scheduledEvents) {
+    try {
+      if (!scheduledEvents.isEmpty()) {
+        beekeeperEventReader.delete(scheduledEvents);
+      }
+    } finally {
+      beekeeperEventReader.release(beekeeperEvents);
+    }
+  }
+
+  private void schedule(List<HousekeepingEntity> housekeepingEntities) {
     for (HousekeepingEntity entity : housekeepingEntities) {
       try {
         LifecycleEventType eventType = LifecycleEventType.valueOf(entity.getLifecycleType());
@@ -67,8 +166,6 @@ public class SchedulerApiary {
             e);
       }
     }
-
-    beekeeperEventReader.delete(beekeeperEvent);
   }
 
   public void close() throws IOException {
@@ -0,0 +1,8 @@
+USE beekeeper;
+
+ALTER TABLE housekeeping_path
+  ADD INDEX housekeeping_path_cleanup_idx (housekeeping_status, cleanup_timestamp, modified_timestamp);
+
+ALTER TABLE housekeeping_metadata
+  ADD INDEX housekeeping_metadata_cleanup_idx (housekeeping_status, cleanup_timestamp, modified_timestamp),
+  ADD INDEX housekeeping_metadata_table_idx (database_name(128), table_name(128), partition_name(255), housekeeping_status);
@@ -0,0 +1,9 @@
+USE beekeeper;
+
+ALTER TABLE housekeeping_path
+  ADD COLUMN claimed_by VARCHAR(255) NULL,
+  ADD COLUMN claim_expiry_timestamp TIMESTAMP NULL;
+
+ALTER TABLE housekeeping_metadata
+  ADD COLUMN claimed_by VARCHAR(255) NULL,
+  ADD COLUMN claim_expiry_timestamp TIMESTAMP NULL;
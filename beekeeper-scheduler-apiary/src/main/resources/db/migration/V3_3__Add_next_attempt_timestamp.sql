@@ -0,0 +1,7 @@
+USE beekeeper;
+
+ALTER TABLE housekeeping_path
+  ADD COLUMN next_attempt_timestamp TIMESTAMP NULL;
+
+ALTER TABLE housekeeping_metadata
+  ADD COLUMN next_attempt_timestamp TIMESTAMP NULL;
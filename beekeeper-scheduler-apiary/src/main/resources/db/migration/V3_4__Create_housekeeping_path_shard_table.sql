@@ -0,0 +1,13 @@
+USE beekeeper;
+
+CREATE TABLE IF NOT EXISTS housekeeping_path_shard (
+  id BIGINT(20) NOT NULL AUTO_INCREMENT,
+  housekeeping_path_id BIGINT(20) NOT NULL,
+  prefix VARCHAR(1024) NOT NULL,
+  housekeeping_status VARCHAR(50) NOT NULL,
+  checkpoint VARCHAR(1024) NULL,
+  creation_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  modified_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  INDEX housekeeping_path_shard_path_idx (housekeeping_path_id)
+);
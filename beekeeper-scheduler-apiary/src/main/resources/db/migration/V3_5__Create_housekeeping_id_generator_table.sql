@@ -0,0 +1,20 @@
+USE beekeeper;
+
+CREATE TABLE IF NOT EXISTS housekeeping_id_generator (
+  entity_name VARCHAR(255) NOT NULL,
+  next_id BIGINT(20),
+  PRIMARY KEY (entity_name)
+);
+
+-- Hibernate allocates ids in blocks of 50 ending at next_id, so the first block must start after the existing ids
+INSERT INTO housekeeping_id_generator (entity_name, next_id)
+  SELECT 'housekeeping_path', COALESCE(MAX(id), 0) + 51 FROM housekeeping_path;
+
+INSERT INTO housekeeping_id_generator (entity_name, next_id)
+  SELECT 'housekeeping_metadata', COALESCE(MAX(id), 0) + 51 FROM housekeeping_metadata;
+
+-- ids are only allocated from housekeeping_id_generator from now on; without AUTO_INCREMENT a row inserted by hand
+-- must be given an id taken from there, instead of silently using one that Hibernate may have allocated already
+ALTER TABLE housekeeping_path MODIFY id BIGINT(20) NOT NULL;
+
+ALTER TABLE housekeeping_metadata MODIFY id BIGINT(20) NOT NULL;
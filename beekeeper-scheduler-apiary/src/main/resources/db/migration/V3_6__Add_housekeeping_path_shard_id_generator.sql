@@ -0,0 +1,8 @@
+USE beekeeper;
+
+-- shard ids are allocated from housekeeping_id_generator like the path ids, so the shards of a path are inserted in
+-- JDBC batches
+INSERT INTO housekeeping_id_generator (entity_name, next_id)
+  SELECT 'housekeeping_path_shard', COALESCE(MAX(id), 0) + 51 FROM housekeeping_path_shard;
+
+ALTER TABLE housekeeping_path_shard MODIFY id BIGINT(20) NOT NULL;
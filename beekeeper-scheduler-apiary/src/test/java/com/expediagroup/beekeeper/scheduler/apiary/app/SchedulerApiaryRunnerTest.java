@@ -16,13 +16,19 @@
 package com.expediagroup.beekeeper.scheduler.apiary.app;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.fail;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -31,11 +37,16 @@ import org.awaitility.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.ApplicationArguments;
 
+import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
+
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
+import com.expediagroup.beekeeper.scheduler.apiary.model.BeekeeperEvent;
 import com.expediagroup.beekeeper.scheduler.apiary.service.SchedulerApiary;
 
 @ExtendWith(MockitoExtension.class)
@@ -94,6 +105,119 @@ public class SchedulerApiaryRunnerTest {
     }
   }
 
+  @Test
+  public void typicalRunWithConsumers() throws Exception {
+    schedulerApiaryRunner = new SchedulerApiaryRunner(schedulerApiary, 10, 4, 0, 20, 60);
+    List<BeekeeperEvent> events = List.of(newEvent("table1"), newEvent("table2"), newEvent("table1"));
+    when(schedulerApiary.readBeekeeperEvents()).thenReturn(events, List.of());
+
+    runRunner();
+    await().atMost(Duration.FIVE_SECONDS)
+        .untilAsserted(() -> verify(schedulerApiary).acknowledge(events, events));
+    destroy();
+
+    InOrder inOrder = inOrder(schedulerApiary);
+    inOrder.verify(schedulerApiary).schedule(events.get(0));
+    inOrder.verify(schedulerApiary).schedule(events.get(2));
+    verify(schedulerApiary).schedule(events.get(1));
+    verify(schedulerApiary, never()).scheduleBeekeeperEvent();
+    verify(schedulerApiary).close();
+  }
+
+  @Test
+  public void failedEventHoldsBackLaterEventsOfTheSameTable() throws Exception {
+    schedulerApiaryRunner = new SchedulerApiaryRunner(schedulerApiary, 10, 4, 0, 20, 60);
+    List<BeekeeperEvent> events = List.of(newEvent("table1"), newEvent("table2"), newEvent("table1"));
+    when(schedulerApiary.readBeekeeperEvents()).thenReturn(events, List.of());
+    doThrow(new BeekeeperException("exception")).when(schedulerApiary).schedule(events.get(0));
+
+    runRunner();
+    await().atMost(Duration.FIVE_SECONDS)
+        .untilAsserted(() -> verify(schedulerApiary).acknowledge(events, List.of(events.get(1))));
+    destroy();
+
+    verify(schedulerApiary, never()).schedule(events.get(2));
+    verify(schedulerApiary).close();
+  }
+
+  @Test
+  public void typicalRunWithGroupCommit() throws Exception {
+    schedulerApiaryRunner = new SchedulerApiaryRunner(schedulerApiary, 10, 1, 20, 20, 60);
+    List<BeekeeperEvent> events = List.of(newGroupEvent(), newGroupEvent());
+    when(schedulerApiary.readBeekeeperEvents(20)).thenReturn(events, List.of());
+
+    runRunner();
+    await().atMost(Duration.FIVE_SECONDS)
+        .untilAsserted(() -> verify(schedulerApiary).acknowledge(events, events));
+    destroy();
+
+    InOrder inOrder = inOrder(schedulerApiary);
+    inOrder.verify(schedulerApiary).scheduleAll(events);
+    inOrder.verify(schedulerApiary).acknowledge(events, events);
+    verify(schedulerApiary, never()).scheduleBeekeeperEvent();
+    verify(schedulerApiary).close();
+  }
+
+  @Test
+  public void failedGroupIsScheduledOneEventAtATime() throws Exception {
+    schedulerApiaryRunner = new SchedulerApiaryRunner(schedulerApiary, 10, 1, 20, 20, 60);
+    List<BeekeeperEvent> events = List.of(newEvent("table1"), newEvent("table2"), newEvent("table1"));
+    when(schedulerApiary.readBeekeeperEvents(20)).thenReturn(events, List.of());
+    doThrow(new BeekeeperException("exception")).when(schedulerApiary).scheduleAll(events);
+    doThrow(new BeekeeperException("exception")).when(schedulerApiary).schedule(events.get(0));
+
+    runRunner();
+    await().atMost(Duration.FIVE_SECONDS)
+        .untilAsserted(() -> verify(schedulerApiary).acknowledge(events, List.of(events.get(1))));
+    destroy();
+
+    verify(schedulerApiary, never()).schedule(events.get(2));
+    verify(schedulerApiary).close();
+  }
+
+  @Test
+  public void invalidGroupCommitSize() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new SchedulerApiaryRunner(schedulerApiary, 10, 1, -1, 20, 60));
+  }
+
+  @Test
+  public void groupCommitWithConsumers() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new SchedulerApiaryRunner(schedulerApiary, 10, 4, 20, 20, 60));
+  }
+
+  @Test
+  public void groupCommitWithoutBatches() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new SchedulerApiaryRunner(schedulerApiary, 1, 1, 20, 20, 60))
+        .withMessage("Group commit requires a batch size greater than 1; was 1.");
+  }
+
+  @Test
+  public void consumersWithoutBatches() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new SchedulerApiaryRunner(schedulerApiary, 1, 4, 0, 20, 60))
+        .withMessage("More than one consumer thread requires a batch size greater than 1; was 1.");
+  }
+
+  @Test
+  public void invalidConsumerThreads() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new SchedulerApiaryRunner(schedulerApiary, 1, 0, 0, 20, 60));
+  }
+
+  private BeekeeperEvent newEvent(String tableName) {
+    HousekeepingEntity housekeepingEntity = mock(HousekeepingEntity.class);
+    when(housekeepingEntity.getDatabaseName()).thenReturn("database");
+    when(housekeepingEntity.getTableName()).thenReturn(tableName);
+    return new BeekeeperEvent(List.of(housekeepingEntity), mock(MessageEvent.class));
+  }
+
+  private BeekeeperEvent newGroupEvent() {
+    return new BeekeeperEvent(List.of(mock(HousekeepingEntity.class)), mock(MessageEvent.class));
+  }
+
   private void runRunner() {
     executor.execute(() -> {
       try {
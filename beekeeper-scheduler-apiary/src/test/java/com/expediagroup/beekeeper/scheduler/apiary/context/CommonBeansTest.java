@@ -18,6 +18,7 @@ package com.expediagroup.beekeeper.scheduler.apiary.context;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.EnumMap;
 
@@ -37,7 +38,9 @@ import com.expediagroup.beekeeper.scheduler.apiary.generator.HousekeepingEntityG
 import com.expediagroup.beekeeper.scheduler.apiary.generator.UnreferencedHousekeepingPathGenerator;
 import com.expediagroup.beekeeper.scheduler.apiary.handler.MessageEventHandler;
 import com.expediagroup.beekeeper.scheduler.apiary.messaging.BeekeeperEventReader;
+import com.expediagroup.beekeeper.scheduler.apiary.messaging.MessageReaderAdapter;
 import com.expediagroup.beekeeper.scheduler.apiary.messaging.RetryingMessageReader;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
 import com.expediagroup.beekeeper.scheduler.service.SchedulerService;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +54,7 @@ public class CommonBeansTest {
   private static final String BUCKET = "bucket";
   private static final String KEY = "key";
   private final CommonBeans commonBeans = new CommonBeans();
+  private final TableLifecyclePolicyCache policyCache = new TableLifecyclePolicyCache();
   @Mock private MessageReader messageReader;
   @Mock private UnreferencedHousekeepingPathGenerator unreferencedHousekeepingPathGenerator;
   @Mock private ExpiredHousekeepingMetadataGenerator expiredHousekeepingMetadataGenerator;
@@ -85,36 +89,50 @@ public class CommonBeansTest {
     assertThat(reader).isInstanceOf(RetryingMessageReader.class);
   }
 
+  @Test
+  public void validateTableLifecyclePolicyCache() {
+    TableLifecyclePolicyCache cache = commonBeans.tableLifecyclePolicyCache(100);
+    assertThat(cache).isInstanceOf(TableLifecyclePolicyCache.class);
+  }
+
   @Test
   public void validateUnreferencedHousekeepingPathGenerator() {
-    HousekeepingEntityGenerator generator = commonBeans.unreferencedHousekeepingPathGenerator("P30D");
+    HousekeepingEntityGenerator generator = commonBeans.unreferencedHousekeepingPathGenerator("P30D", policyCache);
     assertThat(generator).isInstanceOf(UnreferencedHousekeepingPathGenerator.class);
   }
 
   @Test
   public void validateUnreferencedHousekeepingPathMessageEventHandler() {
     MessageEventHandler handler = commonBeans.unreferencedHousekeepingPathMessageEventHandler(
-        unreferencedHousekeepingPathGenerator);
+        unreferencedHousekeepingPathGenerator, policyCache);
     assertThat(handler).isInstanceOf(MessageEventHandler.class);
   }
 
   @Test
   public void validateExpiredHousekeepingMetadataGenerator() {
-    HousekeepingEntityGenerator generator = commonBeans.expiredHousekeepingMetadataGenerator("P30D");
+    HousekeepingEntityGenerator generator = commonBeans.expiredHousekeepingMetadataGenerator("P30D", policyCache);
     assertThat(generator).isInstanceOf(ExpiredHousekeepingMetadataGenerator.class);
   }
 
   @Test
   public void validateExpiredHousekeepingMetadataMessageEventHandler() {
     MessageEventHandler handler = commonBeans.expiredHousekeepingMetadataMessageEventHandler(
-        expiredHousekeepingMetadataGenerator);
+        expiredHousekeepingMetadataGenerator, policyCache);
     assertThat(handler).isInstanceOf(MessageEventHandler.class);
   }
 
   @Test
   public void validatePathEventReader() {
     BeekeeperEventReader reader = commonBeans.eventReader(messageReader, mock(MessageEventHandler.class),
-        mock(MessageEventHandler.class));
+        mock(MessageEventHandler.class), "some_path", 1, 60, 20);
     assertThat(reader).isInstanceOf(BeekeeperEventReader.class);
   }
+
+  @Test
+  public void validateBatchEventReader() throws IOException {
+    BeekeeperEventReader reader = commonBeans.eventReader(messageReader, mock(MessageEventHandler.class),
+        mock(MessageEventHandler.class), "some_path", 10, 60, 20);
+    assertThat(reader).isInstanceOf(MessageReaderAdapter.class);
+    reader.close();
+  }
 }
@@ -21,6 +21,7 @@ import static org.mockito.Mockito.when;
 import static com.expedia.apiary.extensions.receiver.common.event.EventType.ADD_PARTITION;
 import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_PARTITION;
 import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_TABLE;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.CREATE_TABLE;
 import static com.expedia.apiary.extensions.receiver.common.event.EventType.DROP_PARTITION;
 import static com.expedia.apiary.extensions.receiver.common.event.EventType.DROP_TABLE;
 
@@ -81,6 +82,13 @@ public class EventTypeListenerEventFilterTest {
     assertThat(filter).isFalse();
   }
 
+  @Test
+  public void typicalFilterEventType() {
+    assertThat(listenerEventFilter.isFiltered(DROP_TABLE)).isFalse();
+    assertThat(listenerEventFilter.isFiltered(CREATE_TABLE)).isTrue();
+    assertThat(listenerEventFilter.isFiltered(ADD_PARTITION)).isTrue();
+  }
+
   @Test
   public void typicalFilterOtherEvent() {
     when(addPartitionEvent.getEventType()).thenReturn(ADD_PARTITION);
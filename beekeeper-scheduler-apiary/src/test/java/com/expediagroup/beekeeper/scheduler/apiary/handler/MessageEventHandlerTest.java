@@ -17,9 +17,13 @@ package com.expediagroup.beekeeper.scheduler.apiary.handler;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_PARTITION;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.CREATE_TABLE;
+
 import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
 
 import java.util.List;
@@ -35,6 +39,7 @@ import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
 
 import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+import com.expediagroup.beekeeper.scheduler.apiary.filter.EventTypeListenerEventFilter;
 import com.expediagroup.beekeeper.scheduler.apiary.filter.TableParameterListenerEventFilter;
 import com.expediagroup.beekeeper.scheduler.apiary.filter.WhitelistedListenerEventFilter;
 import com.expediagroup.beekeeper.scheduler.apiary.generator.UnreferencedHousekeepingPathGenerator;
@@ -55,7 +60,7 @@ public class MessageEventHandlerTest {
   @BeforeEach
   public void setup() {
     when(generator.getLifecycleEventType()).thenReturn(LIFECYCLE_EVENT_TYPE);
-    when(messageEvent.getEvent()).thenReturn(listenerEvent);
+    lenient().when(messageEvent.getEvent()).thenReturn(listenerEvent);
 
     handler = new MessageEventHandler(generator, List.of(whiteListFilter, tableFilter));
   }
@@ -77,6 +82,14 @@ public class MessageEventHandlerTest {
     assertTrue(housekeepingEntities.isEmpty());
   }
 
+  @Test
+  public void acceptsEventTypesWhichAreNotFiltered() {
+    handler = new MessageEventHandler(generator,
+        List.of(new EventTypeListenerEventFilter(List.of(AlterPartitionEvent.class)), tableFilter));
+    assertThat(handler.accepts(ALTER_PARTITION)).isTrue();
+    assertThat(handler.accepts(CREATE_TABLE)).isFalse();
+  }
+
   private void setupFilterMocks(boolean whitelistValue, boolean tableParameterValue) {
     when(whiteListFilter.isFiltered(listenerEvent, LIFECYCLE_EVENT_TYPE)).thenReturn(whitelistValue);
     when(tableFilter.isFiltered(listenerEvent, LIFECYCLE_EVENT_TYPE)).thenReturn(tableParameterValue);
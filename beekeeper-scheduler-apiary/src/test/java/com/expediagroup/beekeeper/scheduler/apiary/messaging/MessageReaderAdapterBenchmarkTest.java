@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.scheduler.apiary.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.ADD_PARTITION;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_PARTITION;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_TABLE;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.CREATE_TABLE;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.DROP_PARTITION;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.DROP_TABLE;
+
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.EXPIRED;
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expedia.apiary.extensions.receiver.common.event.AddPartitionEvent;
+import com.expedia.apiary.extensions.receiver.common.event.AlterPartitionEvent;
+import com.expedia.apiary.extensions.receiver.common.event.AlterTableEvent;
+import com.expedia.apiary.extensions.receiver.common.event.CreateTableEvent;
+import com.expedia.apiary.extensions.receiver.common.event.DropPartitionEvent;
+import com.expedia.apiary.extensions.receiver.common.event.DropTableEvent;
+import com.expedia.apiary.extensions.receiver.common.event.EventType;
+import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
+import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
+import com.expedia.apiary.extensions.receiver.common.messaging.MessageReader;
+
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
+import com.expediagroup.beekeeper.core.model.LifecycleEventType;
+import com.expediagroup.beekeeper.scheduler.apiary.context.CommonBeans;
+import com.expediagroup.beekeeper.scheduler.apiary.generator.HousekeepingEntityGenerator;
+import com.expediagroup.beekeeper.scheduler.apiary.handler.MessageEventHandler;
+import com.expediagroup.beekeeper.scheduler.apiary.model.BeekeeperEvent;
+import com.expediagroup.beekeeper.scheduler.apiary.policy.TableLifecyclePolicyCache;
+
+/**
+ * Compares the events per second dispatched by {@link MessageReaderAdapter} through its event type routing table
+ * against handing every event to every handler on a parallel stream. Both read the same cycle of event types from a
+ * stubbed reader.
+ *
+ * Disabled by default; run with {@code mvn test -Dbeekeeper.benchmark=true -Dtest=MessageReaderAdapterBenchmarkTest}.
+ * The number of events can be changed with {@code -Dbeekeeper.benchmark.events}.
+ */
+@EnabledIfSystemProperty(named = "beekeeper.benchmark", matches = "true")
+public class MessageReaderAdapterBenchmarkTest {
+
+  private static final Logger log = LoggerFactory.getLogger(MessageReaderAdapterBenchmarkTest.class);
+
+  private static final int EVENTS = Integer.getInteger("beekeeper.benchmark.events", 1_000_000);
+  private static final int REPETITIONS = 3;
+  private static final Map<String, String> TABLE_PARAMETERS = Map.of(
+      UNREFERENCED.getTableParameterName(), "true",
+      EXPIRED.getTableParameterName(), "true");
+
+  private final HousekeepingEntity housekeepingEntity = mock(HousekeepingEntity.class);
+  private final CommonBeans commonBeans = new CommonBeans();
+  private final TableLifecyclePolicyCache policyCache = new TableLifecyclePolicyCache();
+  private final List<MessageEventHandler> handlers = List.of(
+      commonBeans.unreferencedHousekeepingPathMessageEventHandler(new FixedGenerator(UNREFERENCED), policyCache),
+      commonBeans.expiredHousekeepingMetadataMessageEventHandler(new FixedGenerator(EXPIRED), policyCache));
+  private final List<MessageEvent> messageEvents = List.of(
+      messageEvent(CreateTableEvent.class, CREATE_TABLE),
+      messageEvent(AlterTableEvent.class, ALTER_TABLE),
+      messageEvent(AddPartitionEvent.class, ADD_PARTITION),
+      messageEvent(AlterPartitionEvent.class, ALTER_PARTITION),
+      messageEvent(DropPartitionEvent.class, DROP_PARTITION),
+      messageEvent(DropTableEvent.class, DROP_TABLE));
+
+  @Test
+  public void parallelStreamVersusRoutingTable() {
+    MessageReader messageReader = messageReader();
+    Supplier<List<HousekeepingEntity>> parallelStream = () -> messageReader.read()
+        .map(message -> handlers.parallelStream()
+            .map(eventHandler -> eventHandler.handleMessage(message))
+            .flatMap(Collection::stream)
+            .collect(Collectors.toList()))
+        .orElse(List.of());
+    MessageReaderAdapter messageReaderAdapter = new MessageReaderAdapter(messageReader(), handlers);
+    Supplier<List<HousekeepingEntity>> routingTable = () -> messageReaderAdapter.read()
+        .map(BeekeeperEvent::getHousekeepingEntities)
+        .orElse(List.of());
+
+    long parallelStreamEntities = dispatch(parallelStream);
+    long routingTableEntities = dispatch(routingTable);
+    assertThat(routingTableEntities).isEqualTo(parallelStreamEntities);
+
+    long parallelStreamNanos = time(parallelStream);
+    long routingTableNanos = time(routingTable);
+    log.info("Dispatched {} events: parallel stream {} events/s, routing table {} events/s", EVENTS,
+        eventsPerSecond(parallelStreamNanos), eventsPerSecond(routingTableNanos));
+  }
+
+  private long dispatch(Supplier<List<HousekeepingEntity>> dispatcher) {
+    long entities = 0;
+    for (int i = 0; i < EVENTS; i++) {
+      entities += dispatcher.get().size();
+    }
+    return entities;
+  }
+
+  private long time(Supplier<List<HousekeepingEntity>> dispatcher) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < REPETITIONS; i++) {
+      long start = System.nanoTime();
+      dispatch(dispatcher);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  private long eventsPerSecond(long nanos) {
+    return EVENTS * 1_000_000_000L / Math.max(nanos, 1L);
+  }
+
+  private MessageReader messageReader() {
+    MessageReader messageReader = mock(MessageReader.class, withSettings().stubOnly());
+    List<Optional<MessageEvent>> reads = messageEvents.stream().map(Optional::of).collect(Collectors.toList());
+    when(messageReader.read()).thenAnswer(new Answer<Optional<MessageEvent>>() {
+      private int read;
+
+      @Override
+      public Optional<MessageEvent> answer(InvocationOnMock invocation) {
+        return reads.get(read++ % reads.size());
+      }
+    });
+    return messageReader;
+  }
+
+  private <T extends ListenerEvent> MessageEvent messageEvent(Class<T> eventClass, EventType eventType) {
+    T listenerEvent = mock(eventClass, withSettings().stubOnly());
+    when(listenerEvent.getEventType()).thenReturn(eventType);
+    when(listenerEvent.getTableParameters()).thenReturn(TABLE_PARAMETERS);
+    MessageEvent messageEvent = mock(MessageEvent.class, withSettings().stubOnly());
+    when(messageEvent.getEvent()).thenReturn(listenerEvent);
+    return messageEvent;
+  }
+
+  private class FixedGenerator implements HousekeepingEntityGenerator {
+
+    private final LifecycleEventType lifecycleEventType;
+
+    FixedGenerator(LifecycleEventType lifecycleEventType) {
+      this.lifecycleEventType = lifecycleEventType;
+    }
+
+    @Override
+    public List<HousekeepingEntity> generate(ListenerEvent listenerEvent, String clientId) {
+      return List.of(housekeepingEntity);
+    }
+
+    @Override
+    public LifecycleEventType getLifecycleEventType() {
+      return lifecycleEventType;
+    }
+  }
+}
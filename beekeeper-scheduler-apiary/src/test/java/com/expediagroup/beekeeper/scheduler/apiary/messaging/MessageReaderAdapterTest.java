@@ -16,10 +16,17 @@
 package com.expediagroup.beekeeper.scheduler.apiary.messaging;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_TABLE;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.DROP_TABLE;
+
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
@@ -33,9 +40,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.amazonaws.AmazonClientException;
 
+import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
 import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
 import com.expedia.apiary.extensions.receiver.common.messaging.MessageReader;
 
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
 import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
 import com.expediagroup.beekeeper.core.model.HousekeepingMetadata;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
@@ -47,6 +56,9 @@ public class MessageReaderAdapterTest {
 
   @Mock private MessageReader delegate;
   @Mock private MessageEvent messageEvent;
+  @Mock private MessageEvent otherMessageEvent;
+  @Mock private ListenerEvent listenerEvent;
+  @Mock private SqsMessageAcknowledger acknowledger;
   @Mock private HousekeepingPath path;
   @Mock private HousekeepingMetadata metadata;
   @Mock private MessageEventHandler unreferencedEventHandler;
@@ -57,6 +69,11 @@ public class MessageReaderAdapterTest {
   @BeforeEach
   public void beforeEach() {
     housekeepingEntities = List.of(path, metadata);
+    lenient().when(messageEvent.getEvent()).thenReturn(listenerEvent);
+    lenient().when(otherMessageEvent.getEvent()).thenReturn(listenerEvent);
+    lenient().when(listenerEvent.getEventType()).thenReturn(ALTER_TABLE);
+    lenient().when(unreferencedEventHandler.accepts(any())).thenReturn(true);
+    lenient().when(expiredEventHandler.accepts(any())).thenReturn(true);
     messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler));
   }
 
@@ -84,6 +101,37 @@ public class MessageReaderAdapterTest {
     assertThat(read).isEmpty();
   }
 
+  @Test
+  public void readOnlyHandsEventToHandlersWhichAcceptItsType() {
+    when(expiredEventHandler.accepts(DROP_TABLE)).thenReturn(false);
+    messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler));
+    when(listenerEvent.getEventType()).thenReturn(DROP_TABLE);
+    when(delegate.read()).thenReturn(Optional.of(messageEvent));
+    when(unreferencedEventHandler.handleMessage(messageEvent)).thenReturn(List.of(path));
+
+    Optional<BeekeeperEvent> read = messageReaderAdapter.read();
+
+    assertThat(read).isPresent();
+    assertThat(read.get().getHousekeepingEntities()).isEqualTo(List.of(path));
+    verify(expiredEventHandler, never()).handleMessage(any());
+  }
+
+  @Test
+  public void readDeletesEventWithoutHandlersForItsType() {
+    when(unreferencedEventHandler.accepts(DROP_TABLE)).thenReturn(false);
+    when(expiredEventHandler.accepts(DROP_TABLE)).thenReturn(false);
+    messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler));
+    when(listenerEvent.getEventType()).thenReturn(DROP_TABLE);
+    when(delegate.read()).thenReturn(Optional.of(messageEvent));
+
+    Optional<BeekeeperEvent> read = messageReaderAdapter.read();
+
+    assertThat(read).isEmpty();
+    verify(delegate).delete(messageEvent);
+    verify(unreferencedEventHandler, never()).handleMessage(any());
+    verify(expiredEventHandler, never()).handleMessage(any());
+  }
+
   @Test
   public void typicalEmptyRead() {
     when(delegate.read()).thenReturn(Optional.empty());
@@ -106,9 +154,92 @@ public class MessageReaderAdapterTest {
     verify(delegate).delete(beekeeperEvent.getMessageEvent());
   }
 
+  @Test
+  public void typicalReadBatch() {
+    messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler),
+        acknowledger, 10);
+    when(acknowledger.receive(10)).thenReturn(List.of(messageEvent, otherMessageEvent));
+    when(unreferencedEventHandler.handleMessage(messageEvent)).thenReturn(List.of(path));
+    when(expiredEventHandler.handleMessage(messageEvent)).thenReturn(List.of(metadata));
+    when(unreferencedEventHandler.handleMessage(otherMessageEvent)).thenReturn(Collections.emptyList());
+    when(expiredEventHandler.handleMessage(otherMessageEvent)).thenReturn(Collections.emptyList());
+
+    List<BeekeeperEvent> read = messageReaderAdapter.readBatch();
+
+    assertThat(read).hasSize(1);
+    assertThat(read.get(0).getMessageEvent()).isEqualTo(messageEvent);
+    assertThat(read.get(0).getHousekeepingEntities()).isEqualTo(housekeepingEntities);
+    verify(acknowledger).delete(List.of(otherMessageEvent));
+    verify(delegate, never()).read();
+    verify(delegate, never()).delete(any());
+  }
+
+  @Test
+  public void readBatchReceivesOnce() {
+    messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler),
+        acknowledger, 2);
+    when(acknowledger.receive(2)).thenReturn(Collections.emptyList());
+
+    List<BeekeeperEvent> read = messageReaderAdapter.readBatch();
+
+    assertThat(read).isEmpty();
+    verify(acknowledger).receive(2);
+    verify(acknowledger, never()).delete(any());
+  }
+
+  @Test
+  public void readBatchWithoutAcknowledgerReadsOneMessage() {
+    when(delegate.read()).thenReturn(Optional.of(messageEvent));
+    when(unreferencedEventHandler.handleMessage(messageEvent)).thenReturn(List.of(path));
+    when(expiredEventHandler.handleMessage(messageEvent)).thenReturn(List.of(metadata));
+
+    List<BeekeeperEvent> read = messageReaderAdapter.readBatch();
+
+    assertThat(read).hasSize(1);
+    verify(delegate).read();
+  }
+
+  @Test
+  public void typicalDeleteBatch() {
+    messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler),
+        acknowledger, 10);
+    List<BeekeeperEvent> beekeeperEvents = List.of(new BeekeeperEvent(housekeepingEntities, messageEvent),
+        new BeekeeperEvent(housekeepingEntities, otherMessageEvent));
+
+    messageReaderAdapter.delete(beekeeperEvents);
+
+    verify(acknowledger).delete(List.of(messageEvent, otherMessageEvent));
+    verify(delegate, never()).delete(any());
+  }
+
+  @Test
+  public void typicalRelease() {
+    messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler),
+        acknowledger, 10);
+
+    messageReaderAdapter.release(List.of(new BeekeeperEvent(housekeepingEntities, messageEvent)));
+
+    verify(acknowledger).release(List.of(messageEvent));
+  }
+
+  @Test
+  public void invalidBatchSize() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler), acknowledger, 11));
+  }
+
   @Test
   public void typicalClose() throws IOException {
     messageReaderAdapter.close();
     verify(delegate).close();
   }
+
+  @Test
+  public void closeWithAcknowledger() throws IOException {
+    messageReaderAdapter = new MessageReaderAdapter(delegate, List.of(unreferencedEventHandler, expiredEventHandler),
+        acknowledger, 10);
+    messageReaderAdapter.close();
+    verify(delegate).close();
+    verify(acknowledger).close();
+  }
 }
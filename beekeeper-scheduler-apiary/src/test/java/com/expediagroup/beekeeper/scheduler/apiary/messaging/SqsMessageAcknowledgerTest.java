@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.scheduler.apiary.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+
+import com.expedia.apiary.extensions.receiver.common.error.SerDeException;
+import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
+import com.expedia.apiary.extensions.receiver.common.messaging.MessageDeserializer;
+import com.expedia.apiary.extensions.receiver.common.messaging.MessageEvent;
+import com.expedia.apiary.extensions.receiver.sqs.messaging.SqsMessageProperty;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+@ExtendWith(MockitoExtension.class)
+public class SqsMessageAcknowledgerTest {
+
+  private static final String QUEUE_URL = "queue";
+  private static final int VISIBILITY_TIMEOUT_SECONDS = 60;
+  private static final int WAIT_TIME_SECONDS = 20;
+
+  @Mock private AmazonSQS amazonSQS;
+  @Mock private MessageDeserializer messageDeserializer;
+  @Mock private ListenerEvent listenerEvent;
+  private SqsMessageAcknowledger acknowledger;
+
+  @BeforeEach
+  public void init() {
+    acknowledger = new SqsMessageAcknowledger(amazonSQS, QUEUE_URL, VISIBILITY_TIMEOUT_SECONDS, WAIT_TIME_SECONDS,
+        messageDeserializer);
+  }
+
+  @AfterEach
+  public void close() {
+    acknowledger.close();
+  }
+
+  @Test
+  public void receiveSendsOneRequestAndTracksTheMessages() {
+    when(amazonSQS.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(new ReceiveMessageResult().withMessages(message(0), message(1)));
+    when(messageDeserializer.unmarshal("body0")).thenReturn(listenerEvent);
+    when(messageDeserializer.unmarshal("body1")).thenReturn(listenerEvent);
+    when(amazonSQS.changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class)))
+        .thenReturn(new ChangeMessageVisibilityBatchResult());
+
+    List<MessageEvent> messageEvents = acknowledger.receive(10);
+
+    ArgumentCaptor<ReceiveMessageRequest> captor = ArgumentCaptor.forClass(ReceiveMessageRequest.class);
+    verify(amazonSQS).receiveMessage(captor.capture());
+    assertThat(captor.getValue().getQueueUrl()).isEqualTo(QUEUE_URL);
+    assertThat(captor.getValue().getMaxNumberOfMessages()).isEqualTo(10);
+    assertThat(captor.getValue().getWaitTimeSeconds()).isEqualTo(WAIT_TIME_SECONDS);
+    assertThat(messageEvents).extracting(MessageEvent::getEvent).containsExactly(listenerEvent, listenerEvent);
+    assertThat(messageEvents)
+        .extracting(messageEvent -> messageEvent.getMessageProperties().get(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE))
+        .containsExactlyElementsOf(receiptHandles(0, 2));
+
+    acknowledger.extendVisibility();
+
+    verify(amazonSQS).changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class));
+  }
+
+  @Test
+  public void receiveSetsTheVisibilityTimeout() {
+    when(amazonSQS.receiveMessage(any(ReceiveMessageRequest.class))).thenReturn(new ReceiveMessageResult());
+
+    acknowledger.receive(10);
+
+    ArgumentCaptor<ReceiveMessageRequest> captor = ArgumentCaptor.forClass(ReceiveMessageRequest.class);
+    verify(amazonSQS).receiveMessage(captor.capture());
+    assertThat(captor.getValue().getVisibilityTimeout()).isEqualTo(VISIBILITY_TIMEOUT_SECONDS);
+  }
+
+  @Test
+  public void receiveSkipsMessagesWhichCannotBeDeserialized() {
+    when(amazonSQS.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(new ReceiveMessageResult().withMessages(message(0), message(1)));
+    when(messageDeserializer.unmarshal("body0")).thenThrow(new SerDeException("Invalid message"));
+    when(messageDeserializer.unmarshal("body1")).thenReturn(listenerEvent);
+
+    List<MessageEvent> messageEvents = acknowledger.receive(10);
+
+    assertThat(messageEvents)
+        .extracting(messageEvent -> messageEvent.getMessageProperties().get(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE))
+        .containsExactly("handle1");
+  }
+
+  @Test
+  public void closeShutsDownTheClient() {
+    acknowledger.close();
+
+    verify(amazonSQS).shutdown();
+  }
+
+  @Test
+  public void deleteSendsOneRequestPerTenMessages() {
+    when(amazonSQS.deleteMessageBatch(any(DeleteMessageBatchRequest.class))).thenReturn(new DeleteMessageBatchResult());
+    List<MessageEvent> messageEvents = messageEvents(12);
+
+    acknowledger.delete(messageEvents);
+
+    ArgumentCaptor<DeleteMessageBatchRequest> captor = ArgumentCaptor.forClass(DeleteMessageBatchRequest.class);
+    verify(amazonSQS, times(2)).deleteMessageBatch(captor.capture());
+    assertThat(captor.getAllValues()).extracting(DeleteMessageBatchRequest::getQueueUrl).containsOnly(QUEUE_URL);
+    assertThat(captor.getAllValues().get(0).getEntries())
+        .extracting(DeleteMessageBatchRequestEntry::getReceiptHandle)
+        .containsExactlyElementsOf(receiptHandles(0, 10));
+    assertThat(captor.getAllValues().get(1).getEntries())
+        .extracting(DeleteMessageBatchRequestEntry::getReceiptHandle)
+        .containsExactlyElementsOf(receiptHandles(10, 12));
+  }
+
+  @Test
+  public void deleteFailureIsNotThrown() {
+    when(amazonSQS.deleteMessageBatch(any(DeleteMessageBatchRequest.class))).thenThrow(AmazonClientException.class);
+
+    assertThatCode(() -> acknowledger.delete(messageEvents(1))).doesNotThrowAnyException();
+  }
+
+  @Test
+  public void extendVisibilityOfTrackedMessages() {
+    when(amazonSQS.changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class)))
+        .thenReturn(new ChangeMessageVisibilityBatchResult());
+    acknowledger.track(messageEvents(2));
+
+    acknowledger.extendVisibility();
+
+    ArgumentCaptor<ChangeMessageVisibilityBatchRequest> captor = ArgumentCaptor
+        .forClass(ChangeMessageVisibilityBatchRequest.class);
+    verify(amazonSQS).changeMessageVisibilityBatch(captor.capture());
+    assertThat(captor.getValue().getEntries())
+        .extracting(ChangeMessageVisibilityBatchRequestEntry::getReceiptHandle)
+        .containsExactlyInAnyOrderElementsOf(receiptHandles(0, 2));
+    assertThat(captor.getValue().getEntries())
+        .extracting(ChangeMessageVisibilityBatchRequestEntry::getVisibilityTimeout)
+        .containsOnly(VISIBILITY_TIMEOUT_SECONDS);
+  }
+
+  @Test
+  public void releasedMessagesAreNotExtended() {
+    List<MessageEvent> messageEvents = messageEvents(2);
+    acknowledger.track(messageEvents);
+    acknowledger.release(messageEvents);
+
+    acknowledger.extendVisibility();
+
+    verify(amazonSQS, never()).changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class));
+  }
+
+  @Test
+  public void deletedMessagesAreNotExtended() {
+    when(amazonSQS.deleteMessageBatch(any(DeleteMessageBatchRequest.class))).thenReturn(new DeleteMessageBatchResult());
+    List<MessageEvent> messageEvents = messageEvents(2);
+    acknowledger.track(messageEvents);
+    acknowledger.delete(messageEvents);
+
+    acknowledger.extendVisibility();
+
+    verify(amazonSQS, never()).changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class));
+  }
+
+  @Test
+  public void invalidVisibilityTimeout() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new SqsMessageAcknowledger(amazonSQS, QUEUE_URL, 1, WAIT_TIME_SECONDS));
+  }
+
+  private List<MessageEvent> messageEvents(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(this::messageEvent)
+        .collect(Collectors.toList());
+  }
+
+  private MessageEvent messageEvent(int i) {
+    MessageEvent messageEvent = mock(MessageEvent.class);
+    lenient().when(messageEvent.getMessageProperties())
+        .thenReturn(Map.of(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE, "handle" + i));
+    return messageEvent;
+  }
+
+  private Message message(int i) {
+    return new Message().withMessageId("id" + i).withReceiptHandle("handle" + i).withBody("body" + i);
+  }
+
+  private List<String> receiptHandles(int from, int to) {
+    return IntStream.range(from, to).mapToObj(i -> "handle" + i).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.scheduler.apiary.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.expedia.apiary.extensions.receiver.common.event.ListenerEvent;
+
+import com.expediagroup.beekeeper.core.error.BeekeeperException;
+
+public class TableLifecyclePolicyCacheTest {
+
+  private static final Map<String, String> TABLE_PARAMETERS = Map.of(UNREFERENCED.getTableParameterName(), "true");
+
+  private final TableLifecyclePolicyCache cache = new TableLifecyclePolicyCache(2);
+
+  @Test
+  public void typicalGet() {
+    TableLifecyclePolicy policy = cache.get(listenerEvent("table", TABLE_PARAMETERS));
+    assertThat(policy.isEnabled(UNREFERENCED)).isTrue();
+    assertThat(cache.get(listenerEvent("table", Map.copyOf(TABLE_PARAMETERS)))).isSameAs(policy);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void changedParametersAreCompiledAgain() {
+    TableLifecyclePolicy policy = cache.get(listenerEvent("table", TABLE_PARAMETERS));
+    TableLifecyclePolicy changedPolicy = cache.get(
+        listenerEvent("table", Map.of(UNREFERENCED.getTableParameterName(), "false")));
+    assertThat(changedPolicy).isNotSameAs(policy);
+    assertThat(changedPolicy.isEnabled(UNREFERENCED)).isFalse();
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void otherParametersDoNotChangeThePolicy() {
+    TableLifecyclePolicy policy = cache.get(listenerEvent("table", TABLE_PARAMETERS));
+    Map<String, String> tableParameters = new HashMap<>(TABLE_PARAMETERS);
+    tableParameters.put("transient_lastDdlTime", "1588000000");
+    assertThat(cache.get(listenerEvent("table", tableParameters))).isSameAs(policy);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void tablesAreCachedSeparately() {
+    TableLifecyclePolicy policy = cache.get(listenerEvent("table1", TABLE_PARAMETERS));
+    assertThat(cache.get(listenerEvent("table2", TABLE_PARAMETERS))).isNotSameAs(policy);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void leastRecentlyUsedPolicyIsEvicted() {
+    TableLifecyclePolicy policy1 = cache.get(listenerEvent("table1", TABLE_PARAMETERS));
+    TableLifecyclePolicy policy2 = cache.get(listenerEvent("table2", TABLE_PARAMETERS));
+    cache.get(listenerEvent("table1", TABLE_PARAMETERS));
+    cache.get(listenerEvent("table3", TABLE_PARAMETERS));
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get(listenerEvent("table1", TABLE_PARAMETERS))).isSameAs(policy1);
+    assertThat(cache.get(listenerEvent("table2", TABLE_PARAMETERS))).isNotSameAs(policy2);
+  }
+
+  @Test
+  public void nullTableParameters() {
+    ListenerEvent listenerEvent = mock(ListenerEvent.class);
+    when(listenerEvent.getTableParameters()).thenReturn(null);
+    assertThat(cache.get(listenerEvent).isEnabled(UNREFERENCED)).isFalse();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void invalidMaxSize() {
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> new TableLifecyclePolicyCache(0));
+  }
+
+  private ListenerEvent listenerEvent(String tableName, Map<String, String> tableParameters) {
+    ListenerEvent listenerEvent = mock(ListenerEvent.class);
+    when(listenerEvent.getDbName()).thenReturn("database");
+    when(listenerEvent.getTableName()).thenReturn(tableName);
+    when(listenerEvent.getTableParameters()).thenReturn(tableParameters);
+    return listenerEvent;
+  }
+}
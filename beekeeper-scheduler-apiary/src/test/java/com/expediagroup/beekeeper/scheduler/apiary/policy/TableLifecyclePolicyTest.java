@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2019-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.beekeeper.scheduler.apiary.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.ALTER_TABLE;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.CREATE_TABLE;
+import static com.expedia.apiary.extensions.receiver.common.event.EventType.DROP_TABLE;
+
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.EXPIRED;
+import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TableLifecyclePolicyTest {
+
+  private static final String WHITELIST_KEY = "beekeeper.hive.event.whitelist";
+  private static final String RETENTION_KEY = "beekeeper.unreferenced.data.retention.period";
+
+  @Test
+  public void typicalCompile() {
+    TableLifecyclePolicy policy = TableLifecyclePolicy.compile(Map.of(
+        UNREFERENCED.getTableParameterName(), "true",
+        EXPIRED.getTableParameterName(), "false",
+        WHITELIST_KEY, "Alter_Table , drop_table, unknown",
+        RETENTION_KEY, "P10D",
+        "comment", "Parameters"));
+
+    assertThat(policy.isEnabled(UNREFERENCED)).isTrue();
+    assertThat(policy.isEnabled(EXPIRED)).isFalse();
+    assertThat(policy.hasEventWhitelist()).isTrue();
+    assertThat(policy.isWhitelisted(ALTER_TABLE)).isTrue();
+    assertThat(policy.isWhitelisted(DROP_TABLE)).isTrue();
+    assertThat(policy.isWhitelisted(CREATE_TABLE)).isFalse();
+    assertThat(policy.getDuration(RETENTION_KEY)).contains(Duration.ofDays(10));
+    assertThat(policy.getDuration("comment")).isEmpty();
+  }
+
+  @Test
+  public void invalidDuration() {
+    TableLifecyclePolicy policy = TableLifecyclePolicy.compile(Map.of(RETENTION_KEY, "P10"));
+    assertThat(policy.getDuration(RETENTION_KEY)).isEmpty();
+  }
+
+  @Test
+  public void emptyWhitelist() {
+    TableLifecyclePolicy policy = TableLifecyclePolicy.compile(Map.of(WHITELIST_KEY, " "));
+    assertThat(policy.hasEventWhitelist()).isTrue();
+    assertThat(policy.isWhitelisted(ALTER_TABLE)).isFalse();
+  }
+
+  @Test
+  public void nullTableParameters() {
+    TableLifecyclePolicy policy = TableLifecyclePolicy.compile(null);
+    assertThat(policy.isEnabled(UNREFERENCED)).isFalse();
+    assertThat(policy.hasEventWhitelist()).isFalse();
+    assertThat(policy.getDuration(RETENTION_KEY)).isEmpty();
+  }
+}
@@ -18,8 +18,10 @@ package com.expediagroup.beekeeper.scheduler.apiary.service;
 import static java.lang.String.format;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -31,7 +33,6 @@ import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFEREN
 
 import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -74,37 +75,50 @@ public class SchedulerApiaryTest {
 
   @Test
   public void typicalPathSchedule() {
-    Optional<BeekeeperEvent> event = Optional.of(newHousekeepingEvent(path, UNREFERENCED));
-    when(beekeeperEventReader.read()).thenReturn(event);
+    List<BeekeeperEvent> events = List.of(newHousekeepingEvent(path, UNREFERENCED));
+    when(beekeeperEventReader.readBatch()).thenReturn(events);
     scheduler.scheduleBeekeeperEvent();
     verify(pathSchedulerService).scheduleForHousekeeping(path);
     verifyNoInteractions(tableSchedulerService);
-    verify(beekeeperEventReader).delete(event.get());
+    verify(beekeeperEventReader).delete(events);
   }
 
   @Test
   public void typicalTableSchedule() {
-    Optional<BeekeeperEvent> event = Optional.of(newHousekeepingEvent(table, EXPIRED));
-    when(beekeeperEventReader.read()).thenReturn(event);
+    List<BeekeeperEvent> events = List.of(newHousekeepingEvent(table, EXPIRED));
+    when(beekeeperEventReader.readBatch()).thenReturn(events);
     scheduler.scheduleBeekeeperEvent();
     verify(tableSchedulerService).scheduleForHousekeeping(table);
     verifyNoInteractions(pathSchedulerService);
-    verify(beekeeperEventReader).delete(event.get());
+    verify(beekeeperEventReader).delete(events);
+  }
+
+  @Test
+  public void typicalBatchSchedule() {
+    List<BeekeeperEvent> events = List.of(newHousekeepingEvent(path, UNREFERENCED),
+        newHousekeepingEvent(table, EXPIRED));
+    when(beekeeperEventReader.readBatch()).thenReturn(events);
+    scheduler.scheduleBeekeeperEvent();
+    verify(pathSchedulerService).scheduleForHousekeeping(path);
+    verify(tableSchedulerService).scheduleForHousekeeping(table);
+    verify(beekeeperEventReader).delete(events);
+    verify(beekeeperEventReader).release(events);
   }
 
   @Test
   public void typicalNoSchedule() {
-    when(beekeeperEventReader.read()).thenReturn(Optional.empty());
+    when(beekeeperEventReader.readBatch()).thenReturn(List.of());
     scheduler.scheduleBeekeeperEvent();
     verifyNoInteractions(pathSchedulerService);
     verifyNoInteractions(tableSchedulerService);
-    verify(beekeeperEventReader, times(0)).delete(any());
+    verify(beekeeperEventReader, times(0)).delete(any(BeekeeperEvent.class));
+    verify(beekeeperEventReader, times(0)).delete(anyList());
   }
 
   @Test
   public void housekeepingPathRepositoryThrowsException() {
-    Optional<BeekeeperEvent> event = Optional.of(newHousekeepingEvent(path, UNREFERENCED));
-    when(beekeeperEventReader.read()).thenReturn(event);
+    List<BeekeeperEvent> events = List.of(newHousekeepingEvent(path, UNREFERENCED));
+    when(beekeeperEventReader.readBatch()).thenReturn(events);
     doThrow(new BeekeeperException("exception")).when(pathSchedulerService).scheduleForHousekeeping(path);
 
     try {
@@ -112,7 +126,8 @@ public class SchedulerApiaryTest {
       fail("Should have thrown exception");
     } catch (Exception e) {
       verify(pathSchedulerService).scheduleForHousekeeping(path);
-      verify(beekeeperEventReader, times(0)).delete(any());
+      verify(beekeeperEventReader, times(0)).delete(anyList());
+      verify(beekeeperEventReader).release(events);
       verifyNoInteractions(tableSchedulerService);
       assertThat(e).isInstanceOf(BeekeeperException.class);
       assertThat(e.getMessage()).isEqualTo(
@@ -123,8 +138,8 @@ public class SchedulerApiaryTest {
 
   @Test
   public void housekeepingTableRepositoryThrowsException() {
-    Optional<BeekeeperEvent> event = Optional.of(newHousekeepingEvent(table, EXPIRED));
-    when(beekeeperEventReader.read()).thenReturn(event);
+    List<BeekeeperEvent> events = List.of(newHousekeepingEvent(table, EXPIRED));
+    when(beekeeperEventReader.readBatch()).thenReturn(events);
     doThrow(new BeekeeperException("exception")).when(tableSchedulerService).scheduleForHousekeeping(table);
 
     try {
@@ -132,7 +147,8 @@ public class SchedulerApiaryTest {
       fail("Should have thrown exception");
     } catch (Exception e) {
       verify(tableSchedulerService).scheduleForHousekeeping(table);
-      verify(beekeeperEventReader, times(0)).delete(any());
+      verify(beekeeperEventReader, times(0)).delete(anyList());
+      verify(beekeeperEventReader).release(events);
       verifyNoInteractions(pathSchedulerService);
       assertThat(e).isInstanceOf(BeekeeperException.class);
       assertThat(e.getMessage()).isEqualTo(
@@ -141,6 +157,88 @@ public class SchedulerApiaryTest {
     }
   }
 
+  @Test
+  public void readBeekeeperEvents() {
+    List<BeekeeperEvent> events = List.of(newEvent(path));
+    when(beekeeperEventReader.readBatch()).thenReturn(events);
+    assertThat(scheduler.readBeekeeperEvents()).isEqualTo(events);
+  }
+
+  @Test
+  public void readBeekeeperEventsGathersBatches() {
+    List<BeekeeperEvent> batch1 = List.of(newEvent(path), newEvent(path));
+    List<BeekeeperEvent> batch2 = List.of(newEvent(table));
+    when(beekeeperEventReader.readBatch()).thenReturn(batch1, batch2);
+    assertThat(scheduler.readBeekeeperEvents(3))
+        .containsExactly(batch1.get(0), batch1.get(1), batch2.get(0));
+    verify(beekeeperEventReader, times(2)).readBatch();
+  }
+
+  @Test
+  public void readBeekeeperEventsStopsOnEmptyRead() {
+    List<BeekeeperEvent> batch = List.of(newEvent(path));
+    when(beekeeperEventReader.readBatch()).thenReturn(batch, List.of());
+    assertThat(scheduler.readBeekeeperEvents(5)).isEqualTo(batch);
+    verify(beekeeperEventReader, times(2)).readBatch();
+  }
+
+  @Test
+  public void readBeekeeperEventsReleasesEventsOnFailure() {
+    List<BeekeeperEvent> batch = List.of(newEvent(path));
+    when(beekeeperEventReader.readBatch()).thenReturn(batch).thenThrow(new RuntimeException("read"));
+    assertThatExceptionOfType(RuntimeException.class)
+        .isThrownBy(() -> scheduler.readBeekeeperEvents(5))
+        .withMessage("read");
+    verify(beekeeperEventReader).release(batch);
+  }
+
+  @Test
+  public void scheduleAllGroupsEntitiesByLifecycleType() {
+    HousekeepingPath path2 = Mockito.mock(HousekeepingPath.class);
+    List<BeekeeperEvent> events = List.of(newHousekeepingEvent(path, UNREFERENCED),
+        newHousekeepingEvent(table, EXPIRED), newHousekeepingEvent(path2, UNREFERENCED));
+    scheduler.scheduleAll(events);
+    verify(pathSchedulerService).scheduleForHousekeeping(List.<HousekeepingEntity>of(path, path2));
+    verify(tableSchedulerService).scheduleForHousekeeping(List.<HousekeepingEntity>of(table));
+    verifyNoInteractions(beekeeperEventReader);
+  }
+
+  @Test
+  public void scheduleAllFails() {
+    List<BeekeeperEvent> events = List.of(newHousekeepingEvent(path, UNREFERENCED));
+    doThrow(new BeekeeperException("exception")).when(pathSchedulerService)
+        .scheduleForHousekeeping(List.<HousekeepingEntity>of(path));
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(() -> scheduler.scheduleAll(events))
+        .withMessage(
+            "Unable to schedule UNREFERENCED deletion for 1 entities, these messages will go back on the queue");
+    verifyNoInteractions(beekeeperEventReader);
+  }
+
+  @Test
+  public void scheduleSingleEvent() {
+    BeekeeperEvent event = newHousekeepingEvent(table, EXPIRED);
+    scheduler.schedule(event);
+    verify(tableSchedulerService).scheduleForHousekeeping(table);
+    verify(beekeeperEventReader, times(0)).delete(anyList());
+  }
+
+  @Test
+  public void acknowledgeDeletesScheduledEventsAndReleasesAll() {
+    List<BeekeeperEvent> events = List.of(newEvent(path), newEvent(table));
+    scheduler.acknowledge(events, List.of(events.get(1)));
+    verify(beekeeperEventReader).delete(List.of(events.get(1)));
+    verify(beekeeperEventReader).release(events);
+  }
+
+  @Test
+  public void acknowledgeWithoutScheduledEvents() {
+    List<BeekeeperEvent> events = List.of(newEvent(path));
+    scheduler.acknowledge(events, List.of());
+    verify(beekeeperEventReader, times(0)).delete(anyList());
+    verify(beekeeperEventReader).release(events);
+  }
+
   @Test
   public void typicalClose() throws Exception {
     scheduler.close();
@@ -152,4 +250,8 @@ public class SchedulerApiaryTest {
     when(housekeepingEntity.getLifecycleType()).thenReturn(lifecycleEventType.name());
     return new BeekeeperEvent(List.of(housekeepingEntity), Mockito.mock(MessageEvent.class));
   }
+
+  private BeekeeperEvent newEvent(HousekeepingEntity housekeepingEntity) {
+    return new BeekeeperEvent(List.of(housekeepingEntity), Mockito.mock(MessageEvent.class));
+  }
 }
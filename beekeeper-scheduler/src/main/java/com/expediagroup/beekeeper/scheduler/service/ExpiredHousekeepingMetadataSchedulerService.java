@@ -20,6 +20,7 @@ import static java.lang.String.format;
 import static com.expediagroup.beekeeper.core.model.LifecycleEventType.EXPIRED;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -65,6 +66,16 @@ public class ExpiredHousekeepingMetadataSchedulerService implements SchedulerSer
     }
   }
 
+  /**
+   * Schedules the entities one at a time. It is only overridden so that the entities of a group are timed like single
+   * ones, since the calls to {@link #scheduleForHousekeeping(HousekeepingEntity)} from here are not intercepted.
+   */
+  @Override
+  @TimedTaggable("metadata-scheduled")
+  public void scheduleForHousekeeping(List<HousekeepingEntity> housekeepingEntities) {
+    SchedulerService.super.scheduleForHousekeeping(housekeepingEntities);
+  }
+
   private HousekeepingMetadata createOrUpdateHousekeepingMetadata(HousekeepingMetadata housekeepingMetadata) {
     Optional<HousekeepingMetadata> housekeepingMetadataOptional = housekeepingMetadataRepository.findRecordForCleanupByDbTableAndPartitionName(
         housekeepingMetadata.getDatabaseName(), housekeepingMetadata.getTableName(),
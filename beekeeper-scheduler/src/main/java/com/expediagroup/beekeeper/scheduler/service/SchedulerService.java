@@ -15,6 +15,8 @@
  */
 package com.expediagroup.beekeeper.scheduler.service;
 
+import java.util.List;
+
 import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
 import com.expediagroup.beekeeper.core.model.LifecycleEventType;
 
@@ -28,4 +30,16 @@ public interface SchedulerService {
    * @param housekeepingEntity housekeeping entity encapsulation
    */
   void scheduleForHousekeeping(HousekeepingEntity housekeepingEntity);
+
+  /**
+   * Schedules several entities for deletion in the current transaction, one at a time unless the service can write
+   * them together.
+   *
+   * @param housekeepingEntities housekeeping entities in the order they were received
+   */
+  default void scheduleForHousekeeping(List<HousekeepingEntity> housekeepingEntities) {
+    for (HousekeepingEntity housekeepingEntity : housekeepingEntities) {
+      scheduleForHousekeeping(housekeepingEntity);
+    }
+  }
 }
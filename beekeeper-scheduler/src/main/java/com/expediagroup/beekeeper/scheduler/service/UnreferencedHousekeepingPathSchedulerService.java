@@ -16,9 +16,12 @@
 package com.expediagroup.beekeeper.scheduler.service;
 
 import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
 
 import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFERENCED;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -60,4 +63,21 @@ public class UnreferencedHousekeepingPathSchedulerService implements SchedulerSe
       throw new BeekeeperException(format("Unable to schedule %s", housekeepingPath), e);
     }
   }
+
+  /**
+   * Saves the paths together so that Hibernate can send their inserts to the database in JDBC batches.
+   */
+  @Override
+  @TimedTaggable("paths-scheduled")
+  public void scheduleForHousekeeping(List<HousekeepingEntity> housekeepingEntities) {
+    List<HousekeepingPath> housekeepingPaths = housekeepingEntities.stream()
+        .map(HousekeepingPath.class::cast)
+        .collect(toList());
+    try {
+      housekeepingPathRepository.saveAll(housekeepingPaths);
+      log.info(format("Successfully scheduled %s paths", housekeepingPaths.size()));
+    } catch (Exception e) {
+      throw new BeekeeperException(format("Unable to schedule %s paths", housekeepingPaths.size()), e);
+    }
+  }
 }
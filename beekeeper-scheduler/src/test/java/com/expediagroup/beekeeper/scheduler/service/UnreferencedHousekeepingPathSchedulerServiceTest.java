@@ -26,6 +26,7 @@ import static com.expediagroup.beekeeper.core.model.LifecycleEventType.UNREFEREN
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,6 +35,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.expediagroup.beekeeper.core.error.BeekeeperException;
+import com.expediagroup.beekeeper.core.model.HousekeepingEntity;
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
 import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
 
@@ -56,6 +58,36 @@ public class UnreferencedHousekeepingPathSchedulerServiceTest {
     verify(housekeepingPathRepository).save(path);
   }
 
+  @Test
+  public void typicalScheduleMultipleForHousekeeping() {
+    HousekeepingPath path1 = new HousekeepingPath.Builder()
+        .creationTimestamp(LocalDateTime.now())
+        .cleanupDelay(Duration.parse("P3D"))
+        .build();
+    HousekeepingPath path2 = new HousekeepingPath.Builder()
+        .creationTimestamp(LocalDateTime.now())
+        .cleanupDelay(Duration.parse("P3D"))
+        .build();
+    unreferencedHousekeepingPathSchedulerService.scheduleForHousekeeping(List.<HousekeepingEntity>of(path1, path2));
+    verify(housekeepingPathRepository).saveAll(List.of(path1, path2));
+  }
+
+  @Test
+  public void scheduleMultipleFails() {
+    HousekeepingPath path = new HousekeepingPath.Builder()
+        .path("path_to_schedule")
+        .creationTimestamp(LocalDateTime.now())
+        .cleanupDelay(Duration.parse("P3D"))
+        .build();
+
+    when(housekeepingPathRepository.saveAll(List.of(path))).thenThrow(new RuntimeException());
+
+    assertThatExceptionOfType(BeekeeperException.class)
+        .isThrownBy(
+            () -> unreferencedHousekeepingPathSchedulerService.scheduleForHousekeeping(List.<HousekeepingEntity>of(path)))
+        .withMessage("Unable to schedule 1 paths");
+  }
+
   @Test
   public void verifyLifecycleType() {
     assertThat(unreferencedHousekeepingPathSchedulerService.getLifecycleEventType())
@@ -21,10 +21,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.expediagroup.beekeeper.core.model.HousekeepingPath;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathClaimRepository;
 import com.expediagroup.beekeeper.core.repository.HousekeepingPathRepository;
+import com.expediagroup.beekeeper.core.repository.HousekeepingPathStatusRepository;
 
 @Repository
-public interface BeekeeperRepository extends HousekeepingPathRepository {
+// the fragments are listed again because Spring Data only looks for the implementations of directly extended interfaces
+public interface BeekeeperRepository
+    extends HousekeepingPathRepository, HousekeepingPathStatusRepository, HousekeepingPathClaimRepository {
 
   @Query(value = "from HousekeepingPath p where "
       + "p.housekeepingStatus = 'SCHEDULED' or p.housekeepingStatus = 'FAILED'")